@@ -2,6 +2,7 @@ package langcontrol.app.deck;
 
 import jakarta.persistence.*;
 import langcontrol.app.flashcard.Flashcard;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
 import langcontrol.app.user_profile.UserProfile;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -35,10 +36,30 @@ public class Deck {
     @Column
     private LanguageCode sourceLanguage;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scheduling_algorithm")
+    private SpacedRepetitionAlgorithmType schedulingAlgorithm;
+
+    @Column(name = "fitted_increase_factor")
+    private Double fittedIncreaseFactor;
+
+    @Column(name = "fitted_reduce_factor")
+    private Double fittedReduceFactor;
+
     @OneToMany(mappedBy = "deck", cascade = CascadeType.ALL,
             orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Flashcard> flashcards;
 
+    public Deck(Long id, String name, UserProfile userProfile, LanguageCode targetLanguage,
+                LanguageCode sourceLanguage, List<Flashcard> flashcards) {
+        this.id = id;
+        this.name = name;
+        this.userProfile = userProfile;
+        this.targetLanguage = targetLanguage;
+        this.sourceLanguage = sourceLanguage;
+        this.flashcards = flashcards;
+    }
+
     public Deck(CreateDeckDTO createDeckDTO) {
         this.id = null;
         this.name = createDeckDTO.getName();
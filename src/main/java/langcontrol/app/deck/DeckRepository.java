@@ -1,7 +1,10 @@
 package langcontrol.app.deck;
 
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
 import langcontrol.app.user_profile.UserProfile;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +17,8 @@ public interface DeckRepository extends ListCrudRepository<Deck, Long> {
 
     Optional<Deck> findByName(String name);
 
+    @Query("SELECT COALESCE(d.schedulingAlgorithm, s.defaultSchedulingAlgorithm) FROM Deck d " +
+            "LEFT JOIN d.userProfile p LEFT JOIN p.userSettings s WHERE d.id = :id")
+    Optional<SpacedRepetitionAlgorithmType> findSchedulingAlgorithmTypeById(@Param("id") long id);
+
 }
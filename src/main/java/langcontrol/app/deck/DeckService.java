@@ -1,6 +1,7 @@
 package langcontrol.app.deck;
 
 import langcontrol.app.deck.rest.DeckDetailsDTO;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
 
 import java.util.List;
 
@@ -16,4 +17,10 @@ public interface DeckService {
 
     DeckDetailsDTO extractDeckDetails(long deckId, String zoneId);
 
+    List<DeckDetailsDTO> extractAllDecksDetails(String zoneId);
+
+    int[] forecastDueCards(long deckId, int days);
+
+    void changeSchedulingAlgorithm(long deckId, SpacedRepetitionAlgorithmType algorithmType);
+
 }
@@ -4,9 +4,11 @@ import langcontrol.app.deck.rest.DeckDetailsDTO;
 import langcontrol.app.exception.AccessNotAllowedException;
 import langcontrol.app.exception.GeneralNotFoundException;
 import langcontrol.app.exception.DeckCreationException;
-import langcontrol.app.flashcard.Flashcard;
+import langcontrol.app.flashcard.DeckCardCounterService;
+import langcontrol.app.flashcard.DeckCardCounts;
 import langcontrol.app.flashcard.FlashcardService;
 import langcontrol.app.account.Account;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
 import langcontrol.app.user_profile.UserProfile;
 import langcontrol.app.user_profile.UserProfileService;
 import langcontrol.app.util.PrincipalRetriever;
@@ -14,10 +16,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class DeckServiceImpl implements DeckService {
@@ -25,13 +31,18 @@ public class DeckServiceImpl implements DeckService {
     private final DeckRepository deckRepository;
     private final UserProfileService userProfileService;
     private final FlashcardService flashcardService;
+    private final DeckCardCounterService deckCardCounterService;
+    private final Clock clock;
 
     @Autowired
     public DeckServiceImpl(DeckRepository deckRepository, UserProfileService userProfileService,
-                           FlashcardService flashcardService) {
+                           FlashcardService flashcardService, DeckCardCounterService deckCardCounterService,
+                           Clock clock) {
         this.deckRepository = deckRepository;
         this.userProfileService = userProfileService;
         this.flashcardService = flashcardService;
+        this.deckCardCounterService = deckCardCounterService;
+        this.clock = clock;
     }
 
     @Transactional
@@ -72,6 +83,7 @@ public class DeckServiceImpl implements DeckService {
     public void deleteDeck(long deckId) {
         Deck foundDeck = this.getDeckById(deckId);
         deckRepository.delete(foundDeck);
+        deckCardCounterService.deleteCounters(deckId);
     }
 
     @Transactional
@@ -82,12 +94,46 @@ public class DeckServiceImpl implements DeckService {
         if (!Objects.equals(deck.getUserProfile().getId(), currentAccount.getUserProfile().getId())) {
             throw new AccessNotAllowedException("You don't have permission to view this data.");
         }
-        int totalCardsNum = deck.getFlashcards().size();
-        Deque<Flashcard> cardsForReview = flashcardService.fetchReadyForReviewShuffledWithLimit(deckId,
-                zoneId, Integer.MAX_VALUE);
-        int cardsForReviewNum = cardsForReview.size();
+        DeckCardCounts cardCounts = flashcardService.countCardsByDeck(deck, zoneId);
 
-        return new DeckDetailsDTO(deck.getId(), deck.getName(), totalCardsNum, cardsForReviewNum);
+        return new DeckDetailsDTO(deck.getId(), deck.getName(),
+                (int) cardCounts.totalCards(), (int) cardCounts.dueCards());
+    }
+
+    @Transactional
+    @Override
+    public List<DeckDetailsDTO> extractAllDecksDetails(String zoneId) {
+        UserProfile currentUserProfile = userProfileService.retrieveCurrentUserProfile();
+        List<DeckView> decks = deckRepository.findByUserProfile(currentUserProfile);
+        Map<Long, DeckCardCounts> cardCountsByDeckId = flashcardService
+                .countCardsOfAllDecks(currentUserProfile, zoneId).stream()
+                .collect(Collectors.toMap(DeckCardCounts::deckId, Function.identity()));
+
+        return decks.stream()
+                .map(deck -> {
+                    DeckCardCounts cardCounts = cardCountsByDeckId.getOrDefault(deck.id(),
+                            DeckCardCounts.empty(deck.id()));
+                    return new DeckDetailsDTO(deck.id(), deck.name(),
+                            (int) cardCounts.totalCards(), (int) cardCounts.dueCards());
+                })
+                .toList();
+    }
+
+    @Override
+    public int[] forecastDueCards(long deckId, int days) {
+        Account currentAccount = PrincipalRetriever.retrieveAccount();
+        Deck deck = deckRepository.findById(deckId).orElseThrow(GeneralNotFoundException::new);
+        if (!Objects.equals(deck.getUserProfile().getId(), currentAccount.getUserProfile().getId())) {
+            throw new AccessNotAllowedException("You don't have permission to view this data.");
+        }
+        return deckCardCounterService.forecastDueCards(deckId, LocalDate.now(clock), days);
+    }
+
+    @Transactional
+    @Override
+    public void changeSchedulingAlgorithm(long deckId, SpacedRepetitionAlgorithmType algorithmType) {
+        Deck foundDeck = this.getDeckById(deckId);
+        foundDeck.setSchedulingAlgorithm(algorithmType);
     }
 
 
@@ -1,14 +1,19 @@
 package langcontrol.app.deck.rest;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
-import langcontrol.app.deck.Deck;
+import jakarta.validation.constraints.NotNull;
 import langcontrol.app.deck.DeckService;
+import langcontrol.app.flashcard.DeckCardCounterService;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @Validated
 @RequestMapping("/api/decks")
 @RestController
@@ -21,11 +26,32 @@ public class DeckRestController {
         this.deckService = deckService;
     }
 
+    @GetMapping("/details")
+    ResponseEntity<List<DeckDetailsDTO>> getAllDecksDetails(@NotBlank @RequestParam("timezone") String timezoneId) {
+        List<DeckDetailsDTO> allDecksDetails = deckService.extractAllDecksDetails(timezoneId);
+        return ResponseEntity.ok(allDecksDetails);
+    }
+
     @GetMapping("/{id}/details")
     ResponseEntity<DeckDetailsDTO> getDeckDetails(@Min(1) @PathVariable("id") long deckId,
                                                   @NotBlank @RequestParam("timezone") String timezoneId) {
-        Deck deck = deckService.getDeckById(deckId);
         DeckDetailsDTO deckDetailsDto = deckService.extractDeckDetails(deckId, timezoneId);
         return ResponseEntity.ok(deckDetailsDto);
     }
+
+    @PutMapping("/{id}/algorithm")
+    ResponseEntity<Void> changeDeckSchedulingAlgorithm(@Min(1) @PathVariable("id") long deckId,
+                                                       @NotNull @RequestParam("type")
+                                                       SpacedRepetitionAlgorithmType algorithmType) {
+        deckService.changeSchedulingAlgorithm(deckId, algorithmType);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/forecast")
+    ResponseEntity<int[]> getDeckForecast(@Min(1) @PathVariable("id") long deckId,
+                                          @Min(1) @Max(DeckCardCounterService.MAX_FORECAST_DAYS)
+                                          @RequestParam(value = "days", defaultValue = "30") int days) {
+        int[] dueCardsPerDay = deckService.forecastDueCards(deckId, days);
+        return ResponseEntity.ok(dueCardsPerDay);
+    }
 }
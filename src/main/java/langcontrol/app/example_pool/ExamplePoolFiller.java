@@ -0,0 +1,160 @@
+package langcontrol.app.example_pool;
+
+import jakarta.annotation.PreDestroy;
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.Flashcard;
+import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.flashcard.PartOfSpeech;
+import langcontrol.app.generator.SentenceWithTranslationGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/*
+ * Generates the missing examples of the pools in the background. The provider calls are made outside of
+ * any transaction, and a card is filled by at most one task at a time. The tasks run on a small bounded
+ * executor; a fill that doesn't fit into its queue is dropped and picked up later by the periodic top-up,
+ * which also fills the pools of cards created before the pools existed. Every fill attempt is recorded on the
+ * card before the providers are called, and the top-up retries a card only after the retry delay.
+ */
+@Component
+public class ExamplePoolFiller {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExamplePoolFiller.class);
+
+    static final int TOP_UP_BATCH_SIZE = 20;
+
+    private final FlashcardRepository flashcardRepository;
+    private final PooledExampleRepository pooledExampleRepository;
+    private final SentenceWithTranslationGenerator exampleGenerator;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
+    private final Executor fillExecutor;
+    private final Clock clock;
+    private final int poolSize;
+    private final Duration retryDelay;
+    private final Set<Long> fillingFlashcardIds;
+
+    @Autowired
+    public ExamplePoolFiller(FlashcardRepository flashcardRepository,
+                             PooledExampleRepository pooledExampleRepository,
+                             SentenceWithTranslationGenerator exampleGenerator,
+                             PlatformTransactionManager transactionManager,
+                             Clock clock,
+                             @Value("${langcontrol.example-pool.size:5}") int poolSize,
+                             @Value("${langcontrol.example-pool.retry-delay:PT24H}") Duration retryDelay) {
+        this(flashcardRepository, pooledExampleRepository, exampleGenerator, transactionManager,
+                new ThreadPoolExecutor(1, 2, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(500)),
+                clock, poolSize, retryDelay);
+    }
+
+    ExamplePoolFiller(FlashcardRepository flashcardRepository,
+                      PooledExampleRepository pooledExampleRepository,
+                      SentenceWithTranslationGenerator exampleGenerator,
+                      PlatformTransactionManager transactionManager,
+                      Executor fillExecutor,
+                      Clock clock,
+                      int poolSize,
+                      Duration retryDelay) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("The size of the example pool must be positive.");
+        }
+        this.flashcardRepository = flashcardRepository;
+        this.pooledExampleRepository = pooledExampleRepository;
+        this.exampleGenerator = exampleGenerator;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.fillExecutor = fillExecutor;
+        this.clock = clock;
+        this.poolSize = poolSize;
+        this.retryDelay = retryDelay;
+        this.fillingFlashcardIds = ConcurrentHashMap.newKeySet();
+    }
+
+    public void scheduleFill(long flashcardId) {
+        if (!fillingFlashcardIds.add(flashcardId)) {
+            return;
+        }
+        try {
+            fillExecutor.execute(() -> {
+                try {
+                    fill(flashcardId);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Example pool of the flashcard with id={} couldn't be filled.", flashcardId, e);
+                } finally {
+                    fillingFlashcardIds.remove(flashcardId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fillingFlashcardIds.remove(flashcardId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${langcontrol.example-pool.top-up-interval:PT10M}")
+    public void topUpPools() {
+        LocalDateTime retryBefore = LocalDateTime.now(clock).minus(retryDelay);
+        readOnlyTransaction.execute(status -> pooledExampleRepository.findFlashcardIdsWithIncompletePool(
+                        poolSize, retryBefore, PageRequest.of(0, TOP_UP_BATCH_SIZE)))
+                .forEach(this::scheduleFill);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fillExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    void fill(long flashcardId) {
+        ExampleRequest request = readOnlyTransaction.execute(status -> flashcardRepository.findById(flashcardId)
+                .filter(Flashcard::isDynamicExamples)
+                .map(flashcard -> new ExampleRequest(flashcard.getBack(), flashcard.getTargetLanguage(),
+                        flashcard.getSourceLanguage(),
+                        flashcard.getPartOfSpeech() == null ? PartOfSpeech.OTHER : flashcard.getPartOfSpeech(),
+                        poolSize - (int) pooledExampleRepository.countByFlashcardId(flashcardId)))
+                .orElse(null));
+        if (request == null || request.missingExamples() < 1) {
+            return;
+        }
+        transaction.executeWithoutResult(status ->
+                flashcardRepository.updateExamplePoolFillAttempt(flashcardId, LocalDateTime.now(clock)));
+        Map<String, String> examples = exampleGenerator.generate(request.keyword(), request.keywordLanguage(),
+                request.partOfSpeech(), request.translationLanguage(), request.missingExamples());
+        List<String[]> pairs = new ArrayList<>(examples.size());
+        examples.forEach((sentence, translation) -> {
+            if (translation != null && !translation.isBlank()) {
+                pairs.add(new String[]{sentence, translation.strip()});
+            }
+        });
+        if (pairs.isEmpty()) {
+            return;
+        }
+        transaction.executeWithoutResult(status -> flashcardRepository.findById(flashcardId).ifPresent(flashcard -> {
+            LocalDateTime nowInUTC = LocalDateTime.now(clock);
+            pooledExampleRepository.saveAll(pairs.stream()
+                    .map(pair -> new PooledExample(flashcard, pair[0], pair[1], nowInUTC))
+                    .toList());
+        }));
+        LOGGER.debug("{} examples added to the pool of the flashcard with id={}.", pairs.size(), flashcardId);
+    }
+
+    private record ExampleRequest(String keyword, LanguageCode keywordLanguage, LanguageCode translationLanguage,
+                                  PartOfSpeech partOfSpeech, int missingExamples) {
+    }
+}
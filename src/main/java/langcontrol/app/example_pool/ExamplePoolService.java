@@ -0,0 +1,13 @@
+package langcontrol.app.example_pool;
+
+import langcontrol.app.example_pool.rest.PooledExampleDTO;
+import langcontrol.app.flashcard.Flashcard;
+
+import java.util.Optional;
+
+public interface ExamplePoolService {
+
+    Optional<PooledExampleDTO> nextExample(long flashcardId);
+
+    void fillAfterCommit(Flashcard flashcard);
+}
@@ -0,0 +1,102 @@
+package langcontrol.app.example_pool;
+
+import langcontrol.app.account.Account;
+import langcontrol.app.example_pool.rest.PooledExampleDTO;
+import langcontrol.app.exception.AccessNotAllowedException;
+import langcontrol.app.exception.GeneralNotFoundException;
+import langcontrol.app.flashcard.Flashcard;
+import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.util.PrincipalRetriever;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/*
+ * Serves the pooled examples of a card in rotation, the least served one first. An example served
+ * MAX_SERVES times is removed and a new one is generated in the background, so the pool keeps changing
+ * without the review ever waiting for a provider. An empty pool is filled for the next time and returns
+ * the example prefetched for the review session, if there is one.
+ */
+@Service
+public class ExamplePoolServiceImpl implements ExamplePoolService {
+
+    static final int MAX_SERVES = 3;
+
+    private final PooledExampleRepository pooledExampleRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final ExamplePoolFiller examplePoolFiller;
+    private final ExamplePrefetcher examplePrefetcher;
+    private final Clock clock;
+
+    @Autowired
+    public ExamplePoolServiceImpl(PooledExampleRepository pooledExampleRepository,
+                                  FlashcardRepository flashcardRepository,
+                                  ExamplePoolFiller examplePoolFiller,
+                                  ExamplePrefetcher examplePrefetcher,
+                                  Clock clock) {
+        this.pooledExampleRepository = pooledExampleRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.examplePoolFiller = examplePoolFiller;
+        this.examplePrefetcher = examplePrefetcher;
+        this.clock = clock;
+    }
+
+    @Transactional
+    @Override
+    public Optional<PooledExampleDTO> nextExample(long flashcardId) {
+        Account currentAccount = PrincipalRetriever.retrieveAccount();
+        Long ownerUserProfileId = flashcardRepository.findOwnerUserProfileIdById(flashcardId)
+                .orElseThrow(GeneralNotFoundException::new);
+        if (!Objects.equals(ownerUserProfileId, currentAccount.getUserProfile().getId())) {
+            throw new AccessNotAllowedException("You don't have permission to view this data.");
+        }
+
+        List<PooledExample> examples = pooledExampleRepository.findByFlashcardIdInServingOrder(flashcardId,
+                PageRequest.of(0, 1));
+        if (examples.isEmpty()) {
+            runAfterCommit(() -> examplePoolFiller.scheduleFill(flashcardId));
+            return examplePrefetcher.take(flashcardId);
+        }
+        PooledExample example = examples.get(0);
+        example.setServedCount(example.getServedCount() + 1);
+        example.setLastServedAtInUTC(LocalDateTime.now(clock));
+        if (example.getServedCount() >= MAX_SERVES) {
+            pooledExampleRepository.delete(example);
+            runAfterCommit(() -> examplePoolFiller.scheduleFill(flashcardId));
+        }
+        return Optional.of(new PooledExampleDTO(example.getSentence(), example.getTranslation()));
+    }
+
+    /*
+     * The card gets its id only when it's flushed, so the fill is scheduled once the transaction creating
+     * the card has committed.
+     */
+    @Override
+    public void fillAfterCommit(Flashcard flashcard) {
+        if (flashcard.isDynamicExamples()) {
+            runAfterCommit(() -> examplePoolFiller.scheduleFill(flashcard.getId()));
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package langcontrol.app.example_pool;
+
+import jakarta.annotation.PreDestroy;
+import langcontrol.app.example_pool.rest.PooledExampleDTO;
+import langcontrol.app.flashcard.PartOfSpeech;
+import langcontrol.app.flashcard.ReviewCardView;
+import langcontrol.app.generator.SentenceWithTranslationGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/*
+ * Generates an example for every dynamic examples card of a review session as soon as the card is queued,
+ * so the example is ready by the time the card is shown. Cards whose pool already has examples are skipped,
+ * the pool serves them without waiting anyway. The generated examples are kept for a short time only and
+ * are handed out once. The work runs on a small bounded executor; cards that don't fit into its queue
+ * simply fall back to the live generation.
+ */
+@Component
+public class ExamplePrefetcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExamplePrefetcher.class);
+
+    static final Duration TIME_TO_LIVE = Duration.ofMinutes(15);
+    static final int MAX_PREFETCHED_EXAMPLES = 10_000;
+
+    private final PooledExampleRepository pooledExampleRepository;
+    private final SentenceWithTranslationGenerator exampleGenerator;
+    private final Executor prefetchExecutor;
+    private final Clock clock;
+    private final Map<Long, PrefetchedExample> prefetchedExamples;
+    private final Set<Long> pendingFlashcardIds;
+
+    @Autowired
+    public ExamplePrefetcher(PooledExampleRepository pooledExampleRepository,
+                             SentenceWithTranslationGenerator exampleGenerator,
+                             Clock clock) {
+        this(pooledExampleRepository, exampleGenerator, new ThreadPoolExecutor(2, 4,
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(200)), clock);
+    }
+
+    ExamplePrefetcher(PooledExampleRepository pooledExampleRepository,
+                      SentenceWithTranslationGenerator exampleGenerator,
+                      Executor prefetchExecutor,
+                      Clock clock) {
+        this.pooledExampleRepository = pooledExampleRepository;
+        this.exampleGenerator = exampleGenerator;
+        this.prefetchExecutor = prefetchExecutor;
+        this.clock = clock;
+        this.prefetchedExamples = new ConcurrentHashMap<>();
+        this.pendingFlashcardIds = ConcurrentHashMap.newKeySet();
+    }
+
+    public void prefetch(Collection<ReviewCardView> cards) {
+        for (ReviewCardView card : cards) {
+            if (!card.dynamicExamples() || card.id() == null || prefetchedExamples.containsKey(card.id())
+                    || !pendingFlashcardIds.add(card.id())) {
+                continue;
+            }
+            try {
+                prefetchExecutor.execute(() -> {
+                    try {
+                        prefetchExample(card);
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("Example of the flashcard with id={} couldn't be prefetched.", card.id(), e);
+                    } finally {
+                        pendingFlashcardIds.remove(card.id());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                pendingFlashcardIds.remove(card.id());
+            }
+        }
+    }
+
+    public Optional<PooledExampleDTO> take(long flashcardId) {
+        PrefetchedExample prefetched = prefetchedExamples.remove(flashcardId);
+        if (prefetched == null || prefetched.expiresAtMillis() <= clock.millis()) {
+            return Optional.empty();
+        }
+        return Optional.of(prefetched.example());
+    }
+
+    @Scheduled(fixedDelay = 60_000L)
+    public void evictExpiredExamples() {
+        long nowMillis = clock.millis();
+        prefetchedExamples.values().removeIf(prefetched -> prefetched.expiresAtMillis() <= nowMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (prefetchExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void prefetchExample(ReviewCardView card) {
+        if (pooledExampleRepository.countByFlashcardId(card.id()) > 0) {
+            return;
+        }
+        Map<String, String> examples = exampleGenerator.generate(card.back(), card.targetLanguage(),
+                card.partOfSpeech() == null ? PartOfSpeech.OTHER : card.partOfSpeech(), card.sourceLanguage(), 1);
+        examples.entrySet().stream().findFirst().ifPresent(example -> {
+            if (prefetchedExamples.size() >= MAX_PREFETCHED_EXAMPLES) {
+                evictExpiredExamples();
+                if (prefetchedExamples.size() >= MAX_PREFETCHED_EXAMPLES) {
+                    return;
+                }
+            }
+            prefetchedExamples.put(card.id(), new PrefetchedExample(
+                    new PooledExampleDTO(example.getKey(), example.getValue()),
+                    clock.millis() + TIME_TO_LIVE.toMillis()));
+        });
+    }
+
+    private record PrefetchedExample(PooledExampleDTO example, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,57 @@
+package langcontrol.app.example_pool;
+
+import jakarta.persistence.*;
+import langcontrol.app.flashcard.Flashcard;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/*
+ * Generated example sentence of a dynamic examples card together with its translation. The examples are
+ * deleted by the database together with their card.
+ */
+@Getter @Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "pooled_example", indexes = {
+        @Index(name = "idx_pooled_example_flashcard", columnList = "flashcard_id, served_count")})
+public class PooledExample {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pooled_example_seq")
+    @SequenceGenerator(name = "pooled_example_seq", sequenceName = "pooled_example_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "flashcard_id", nullable = false,
+            foreignKey = @ForeignKey(name = "fk_pooled_example_flashcard"))
+    private Flashcard flashcard;
+
+    @Column(name = "sentence", nullable = false, length = 1000)
+    private String sentence;
+
+    @Column(name = "translation", nullable = false, length = 1000)
+    private String translation;
+
+    @Column(name = "served_count", nullable = false)
+    private int servedCount;
+
+    @Column(name = "last_served_at_in_utc")
+    private LocalDateTime lastServedAtInUTC;
+
+    @Column(name = "created_at_in_utc", nullable = false)
+    private LocalDateTime createdAtInUTC;
+
+    public PooledExample(Flashcard flashcard, String sentence, String translation, LocalDateTime createdAtInUTC) {
+        this.flashcard = flashcard;
+        this.sentence = sentence;
+        this.translation = translation;
+        this.servedCount = 0;
+        this.createdAtInUTC = createdAtInUTC;
+    }
+}
@@ -0,0 +1,32 @@
+package langcontrol.app.example_pool;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PooledExampleRepository extends ListCrudRepository<PooledExample, Long> {
+
+    @Query("SELECT COUNT(e) FROM PooledExample e WHERE e.flashcard.id = :flashcardId")
+    long countByFlashcardId(@Param("flashcardId") long flashcardId);
+
+    @Query("SELECT e FROM PooledExample e WHERE e.flashcard.id = :flashcardId ORDER BY e.servedCount, e.id")
+    List<PooledExample> findByFlashcardIdInServingOrder(@Param("flashcardId") long flashcardId, Pageable pageable);
+
+    /*
+     * Cards never attempted come first, newest first, then the cards whose last attempt is the oldest. A card
+     * attempted after retryBefore is skipped, so a pool which can't be completed isn't regenerated on every
+     * top-up and doesn't keep the older cards from being filled.
+     */
+    @Query("SELECT f.id FROM Flashcard f " +
+            "WHERE f.dynamicExamples = true " +
+            "AND (f.examplePoolFillAttemptInUTC IS NULL OR f.examplePoolFillAttemptInUTC < :retryBefore) " +
+            "AND (SELECT COUNT(e) FROM PooledExample e WHERE e.flashcard = f) < :poolSize " +
+            "ORDER BY f.examplePoolFillAttemptInUTC ASC NULLS FIRST, f.id DESC")
+    List<Long> findFlashcardIdsWithIncompletePool(@Param("poolSize") long poolSize,
+                                                  @Param("retryBefore") LocalDateTime retryBefore,
+                                                  Pageable pageable);
+}
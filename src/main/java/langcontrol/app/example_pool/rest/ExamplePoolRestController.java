@@ -0,0 +1,31 @@
+package langcontrol.app.example_pool.rest;
+
+import jakarta.validation.constraints.Min;
+import langcontrol.app.example_pool.ExamplePoolService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Validated
+@RequestMapping("/api")
+@RestController
+public class ExamplePoolRestController {
+
+    private final ExamplePoolService examplePoolService;
+
+    @Autowired
+    public ExamplePoolRestController(ExamplePoolService examplePoolService) {
+        this.examplePoolService = examplePoolService;
+    }
+
+    @GetMapping("/cards/{id}/examples/next")
+    ResponseEntity<PooledExampleDTO> getNextExample(@Min(1) @PathVariable("id") long flashcardId) {
+        return examplePoolService.nextExample(flashcardId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,15 @@
+package langcontrol.app.example_pool.rest;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PooledExampleDTO {
+
+    private String sentence;
+    private String translation;
+}
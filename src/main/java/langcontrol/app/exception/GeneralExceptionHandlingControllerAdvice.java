@@ -64,6 +64,14 @@ public class GeneralExceptionHandlingControllerAdvice {
         return e.getMessage();
     }
 
+    @ExceptionHandler(ProviderUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public ErrorResponseBody handleProviderUnavailableException(ProviderUnavailableException e,
+                                                                HttpServletRequest r) {
+        return new ErrorResponseBody(HttpStatus.SERVICE_UNAVAILABLE, r.getRequestURI(), e);
+    }
+
     @ExceptionHandler(UsernameAlreadyExistsException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     @ResponseBody
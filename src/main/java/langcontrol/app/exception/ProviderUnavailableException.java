@@ -0,0 +1,13 @@
+package langcontrol.app.exception;
+
+import java.util.concurrent.RejectedExecutionException;
+
+public class ProviderUnavailableException extends RejectedExecutionException {
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+
+    public ProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,54 @@
+package langcontrol.app.factor_optimizer;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/*
+ * Outcome of the latest factor fit of a deck, kept also when the fit wasn't good enough to be applied.
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "deck_factor_fit")
+public class DeckFactorFit {
+
+    @Id
+    @Column(name = "deck_id")
+    private Long deckId;
+
+    @Column(name = "increase_factor", nullable = false)
+    private double increaseFactor;
+
+    @Column(name = "reduce_factor", nullable = false)
+    private double reduceFactor;
+
+    @Column(name = "half_life_scale", nullable = false)
+    private double halfLifeScale;
+
+    @Column(name = "sample_count", nullable = false)
+    private int sampleCount;
+
+    @Column(name = "log_loss", nullable = false)
+    private double logLoss;
+
+    @Column(name = "baseline_log_loss", nullable = false)
+    private double baselineLogLoss;
+
+    @Column(name = "fit_millis", nullable = false)
+    private long fitMillis;
+
+    @Column(name = "applied", nullable = false)
+    private boolean applied;
+
+    @Column(name = "fitted_at_in_utc", nullable = false)
+    private LocalDateTime fittedAtInUTC;
+}
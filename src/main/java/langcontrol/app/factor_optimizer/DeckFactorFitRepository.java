@@ -0,0 +1,8 @@
+package langcontrol.app.factor_optimizer;
+
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DeckFactorFitRepository extends ListCrudRepository<DeckFactorFit, Long> {
+}
@@ -0,0 +1,17 @@
+package langcontrol.app.factor_optimizer;
+
+/*
+ * Fitted parameters of a deck and the mean log loss of the recall predictions with the fitted and with the
+ * default factors, both measured on the same samples.
+ */
+public record FactorFit(double increaseFactor,
+                        double reduceFactor,
+                        double halfLifeScale,
+                        int sampleCount,
+                        double logLoss,
+                        double baselineLogLoss) {
+
+    public double improvement() {
+        return baselineLogLoss - logLoss;
+    }
+}
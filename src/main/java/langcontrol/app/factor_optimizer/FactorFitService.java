@@ -0,0 +1,11 @@
+package langcontrol.app.factor_optimizer;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface FactorFitService {
+
+    List<Long> findDeckIdsToFit();
+
+    Optional<DeckFactorFit> fitDeck(long deckId);
+}
@@ -0,0 +1,113 @@
+package langcontrol.app.factor_optimizer;
+
+import langcontrol.app.deck.Deck;
+import langcontrol.app.deck.DeckRepository;
+import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.review_log.ReviewLogRepository;
+import langcontrol.app.spaced_repetition.RatingType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/*
+ * Fits the factors of a deck to its review log of the last year. The history is read in its own read-only
+ * transaction and the fit runs outside of any transaction. A fit that predicts the recall outcomes better
+ * than the default factors is applied in a single transaction: the deck keeps the factors for its new cards
+ * and the cards that haven't been reviewed yet get them right away, so no card is left with a mix of old and
+ * new values. Cards with review history keep the factors they adapted on their own.
+ */
+@Service
+public class FactorFitServiceImpl implements FactorFitService {
+
+    static final int MIN_SAMPLES = 200;
+    static final int MAX_SAMPLES = 200_000;
+    static final int HISTORY_DAYS = 365;
+    static final double MIN_IMPROVEMENT = 0.001;
+
+    private final ReviewLogRepository reviewLogRepository;
+    private final DeckRepository deckRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final DeckFactorFitRepository deckFactorFitRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate transaction;
+    private final Clock clock;
+
+    @Autowired
+    public FactorFitServiceImpl(ReviewLogRepository reviewLogRepository,
+                                DeckRepository deckRepository,
+                                FlashcardRepository flashcardRepository,
+                                DeckFactorFitRepository deckFactorFitRepository,
+                                PlatformTransactionManager transactionManager,
+                                Clock clock) {
+        this.reviewLogRepository = reviewLogRepository;
+        this.deckRepository = deckRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.deckFactorFitRepository = deckFactorFitRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    @Override
+    public List<Long> findDeckIdsToFit() {
+        return reviewLogRepository.findDeckIdsWithReviewModeEntriesSince(historyStart(), MIN_SAMPLES);
+    }
+
+    @Override
+    public Optional<DeckFactorFit> fitDeck(long deckId) {
+        long startedAt = System.nanoTime();
+        LocalDateTime since = historyStart();
+        ReviewHistorySamples samples = readOnlyTransaction.execute(status -> loadSamples(deckId, since));
+        if (samples == null || samples.size() < MIN_SAMPLES) {
+            return Optional.empty();
+        }
+        FactorFit fit = FactorFitter.fit(samples);
+        long fitMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        return Optional.ofNullable(transaction.execute(status -> saveFit(deckId, fit, fitMillis)));
+    }
+
+    private ReviewHistorySamples loadSamples(long deckId, LocalDateTime since) {
+        ReviewHistorySamples samples = new ReviewHistorySamples(MAX_SAMPLES);
+        try (Stream<Object[]> rows = reviewLogRepository.streamHistoryRowsByDeckIdSince(deckId, since)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            boolean accepting = true;
+            while (accepting && iterator.hasNext()) {
+                Object[] row = iterator.next();
+                accepting = samples.offer((Long) row[0], (RatingType) row[1], (Double) row[2],
+                        (LocalDateTime) row[3], (Boolean) row[4]);
+            }
+        }
+        return samples;
+    }
+
+    private DeckFactorFit saveFit(long deckId, FactorFit fit, long fitMillis) {
+        Optional<Deck> deck = deckRepository.findById(deckId);
+        if (deck.isEmpty()) {
+            return null;
+        }
+        boolean applied = fit.improvement() >= MIN_IMPROVEMENT;
+        if (applied) {
+            deck.get().setFittedIncreaseFactor(fit.increaseFactor());
+            deck.get().setFittedReduceFactor(fit.reduceFactor());
+            flashcardRepository.updateFactorsOfUnreviewedCardsByDeckId(deckId, fit.increaseFactor(),
+                    fit.reduceFactor());
+        }
+        DeckFactorFit deckFactorFit = new DeckFactorFit(deckId, fit.increaseFactor(), fit.reduceFactor(),
+                fit.halfLifeScale(), fit.sampleCount(), fit.logLoss(), fit.baselineLogLoss(), fitMillis, applied,
+                LocalDateTime.now(clock));
+        return deckFactorFitRepository.save(deckFactorFit);
+    }
+
+    private LocalDateTime historyStart() {
+        return LocalDateTime.now(clock).minusDays(HISTORY_DAYS);
+    }
+}
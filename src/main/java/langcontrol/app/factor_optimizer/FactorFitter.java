@@ -0,0 +1,106 @@
+package langcontrol.app.factor_optimizer;
+
+import langcontrol.app.spaced_repetition.SpacedRepetitionItem;
+
+/*
+ * Fits the increase and reduce factor to the recall outcomes of a deck. The memory of a card is modelled
+ * with a half-life proportional to the interval the rating started from, multiplied by the factor of the
+ * rating (the reduce factor for difficult, 1.1 for normal and the increase factor for easy), and the card
+ * is predicted to be recalled after t days with the probability 2^(-t / half-life). The factors and the
+ * proportionality scale are chosen to minimize the mean log loss of the predictions, by coordinate descent
+ * with a golden section search on every parameter within the limits of the factors.
+ */
+final class FactorFitter {
+
+    static final double NORMAL_FACTOR = 1.1;
+    static final double MIN_SCALE = 0.05;
+    static final double MAX_SCALE = 50.0;
+
+    private static final int ROUNDS = 4;
+    private static final int SEARCH_ITERATIONS = 40;
+    private static final double GOLDEN_RATIO = (Math.sqrt(5) - 1) / 2;
+    private static final double MIN_PROBABILITY = 1e-6;
+
+    private FactorFitter() {
+    }
+
+    static FactorFit fit(ReviewHistorySamples samples) {
+        if (samples.size() == 0) {
+            throw new IllegalArgumentException("At least one sample is needed for the fit.");
+        }
+        double baselineScale = fitScale(samples, SpacedRepetitionItem.DEFAULT_I_FACTOR,
+                SpacedRepetitionItem.DEFAULT_R_FACTOR);
+        double baselineLoss = logLoss(samples, SpacedRepetitionItem.DEFAULT_I_FACTOR,
+                SpacedRepetitionItem.DEFAULT_R_FACTOR, baselineScale);
+
+        double increaseFactor = SpacedRepetitionItem.DEFAULT_I_FACTOR;
+        double reduceFactor = SpacedRepetitionItem.DEFAULT_R_FACTOR;
+        double scale = baselineScale;
+        for (int round = 0; round < ROUNDS; round++) {
+            double currentReduce = reduceFactor;
+            double currentScale = scale;
+            increaseFactor = minimize(value -> logLoss(samples, value, currentReduce, currentScale),
+                    SpacedRepetitionItem.I_FACTOR_BOTTOM_LIMIT, SpacedRepetitionItem.I_FACTOR_UPPER_LIMIT);
+            double currentIncrease = increaseFactor;
+            reduceFactor = minimize(value -> logLoss(samples, currentIncrease, value, currentScale),
+                    SpacedRepetitionItem.R_FACTOR_BOTTOM_LIMIT, SpacedRepetitionItem.R_FACTOR_UPPER_LIMIT);
+            scale = fitScale(samples, increaseFactor, reduceFactor);
+        }
+        double loss = logLoss(samples, increaseFactor, reduceFactor, scale);
+        return new FactorFit(increaseFactor, reduceFactor, scale, samples.size(), loss, baselineLoss);
+    }
+
+    static double logLoss(ReviewHistorySamples samples, double increaseFactor, double reduceFactor,
+                          double scale) {
+        double loss = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            double factor = switch (samples.rating(i)) {
+                case ReviewHistorySamples.DIFFICULT -> reduceFactor;
+                case ReviewHistorySamples.EASY -> increaseFactor;
+                default -> NORMAL_FACTOR;
+            };
+            double halfLife = scale * samples.baseIntervalDays(i) * factor;
+            double recallProbability = Math.pow(2, -samples.elapsedDays(i) / halfLife);
+            recallProbability = Math.min(1 - MIN_PROBABILITY, Math.max(MIN_PROBABILITY, recallProbability));
+            loss -= samples.recalled(i) ? Math.log(recallProbability) : Math.log(1 - recallProbability);
+        }
+        return loss / samples.size();
+    }
+
+    private static double fitScale(ReviewHistorySamples samples, double increaseFactor, double reduceFactor) {
+        // The scale spans orders of magnitude, so it's searched on a logarithmic axis.
+        double logScale = minimize(value -> logLoss(samples, increaseFactor, reduceFactor, Math.exp(value)),
+                Math.log(MIN_SCALE), Math.log(MAX_SCALE));
+        return Math.exp(logScale);
+    }
+
+    private static double minimize(Loss loss, double lower, double upper) {
+        double a = lower;
+        double b = upper;
+        double c = b - GOLDEN_RATIO * (b - a);
+        double d = a + GOLDEN_RATIO * (b - a);
+        double lossC = loss.at(c);
+        double lossD = loss.at(d);
+        for (int i = 0; i < SEARCH_ITERATIONS; i++) {
+            if (lossC < lossD) {
+                b = d;
+                d = c;
+                lossD = lossC;
+                c = b - GOLDEN_RATIO * (b - a);
+                lossC = loss.at(c);
+            } else {
+                a = c;
+                c = d;
+                lossC = lossD;
+                d = a + GOLDEN_RATIO * (b - a);
+                lossD = loss.at(d);
+            }
+        }
+        return (a + b) / 2;
+    }
+
+    @FunctionalInterface
+    private interface Loss {
+        double at(double value);
+    }
+}
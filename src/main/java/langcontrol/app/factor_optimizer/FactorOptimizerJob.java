@@ -0,0 +1,112 @@
+package langcontrol.app.factor_optimizer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/*
+ * Periodically fits the factors of every deck with enough review history. The decks are fitted on a
+ * dedicated fork-join pool whose parallelism defaults to a quarter of the processors, so the job never
+ * takes the threads that serve the requests. The duration and the quality of every fit are recorded as
+ * metrics and a summary of the run is logged.
+ */
+@Component
+public class FactorOptimizerJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FactorOptimizerJob.class);
+
+    private final FactorFitService factorFitService;
+    private final ForkJoinPool pool;
+    private final Timer runTimer;
+    private final Timer deckFitTimer;
+    private final DistributionSummary improvementSummary;
+    private final Counter appliedCounter;
+
+    @Autowired
+    public FactorOptimizerJob(FactorFitService factorFitService, MeterRegistry meterRegistry,
+                              @Value("${langcontrol.factor-optimizer.parallelism:0}") int parallelism) {
+        this.factorFitService = factorFitService;
+        this.pool = new ForkJoinPool(parallelism > 0
+                ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+        this.runTimer = Timer.builder("langcontrol.factor_fit.run").register(meterRegistry);
+        this.deckFitTimer = Timer.builder("langcontrol.factor_fit.deck").register(meterRegistry);
+        this.improvementSummary = DistributionSummary.builder("langcontrol.factor_fit.log_loss_improvement")
+                .register(meterRegistry);
+        this.appliedCounter = Counter.builder("langcontrol.factor_fit.applied").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${langcontrol.factor-optimizer.cron:0 0 4 * * *}", zone = "UTC")
+    public void optimizeFactors() {
+        long startedAt = System.nanoTime();
+        List<Callable<Optional<DeckFactorFit>>> fits = factorFitService.findDeckIdsToFit().stream()
+                .<Callable<Optional<DeckFactorFit>>>map(deckId -> () -> fitDeck(deckId))
+                .toList();
+        int fittedDecks = 0;
+        int appliedFits = 0;
+        double improvementSum = 0;
+        for (Future<Optional<DeckFactorFit>> result : pool.invokeAll(fits)) {
+            Optional<DeckFactorFit> fit;
+            try {
+                fit = result.get();
+            } catch (CancellationException | ExecutionException e) {
+                LOGGER.warn("A deck fit didn't complete and was skipped.", e);
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("Factor fitting was interrupted.");
+                return;
+            }
+            if (fit.isEmpty()) {
+                continue;
+            }
+            fittedDecks++;
+            improvementSum += fit.get().getBaselineLogLoss() - fit.get().getLogLoss();
+            if (fit.get().isApplied()) {
+                appliedFits++;
+            }
+        }
+        long tookNanos = System.nanoTime() - startedAt;
+        runTimer.record(tookNanos, TimeUnit.NANOSECONDS);
+        LOGGER.info("Factors fitted. Decks fitted: {}, fits applied: {}, mean log loss improvement: {}, took {} ms.",
+                fittedDecks, appliedFits, fittedDecks == 0 ? 0 : improvementSum / fittedDecks,
+                tookNanos / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Optional<DeckFactorFit> fitDeck(long deckId) {
+        try {
+            Optional<DeckFactorFit> fit = factorFitService.fitDeck(deckId);
+            fit.ifPresent(deckFit -> {
+                deckFitTimer.record(deckFit.getFitMillis(), TimeUnit.MILLISECONDS);
+                improvementSummary.record(deckFit.getBaselineLogLoss() - deckFit.getLogLoss());
+                if (deckFit.isApplied()) {
+                    appliedCounter.increment();
+                }
+                LOGGER.debug("Factors of the deck with id={} fitted on {} samples in {} ms. Log loss: {} "
+                                + "(default factors: {}), applied: {}.", deckId, deckFit.getSampleCount(),
+                        deckFit.getFitMillis(), deckFit.getLogLoss(), deckFit.getBaselineLogLoss(),
+                        deckFit.isApplied());
+            });
+            return fit;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Factors of the deck with id={} couldn't be fitted.", deckId, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package langcontrol.app.factor_optimizer;
+
+import langcontrol.app.spaced_repetition.RatingType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/*
+ * Recall outcomes extracted from the review log of a deck, in parallel primitive arrays. A sample is a pair
+ * of consecutive review mode ratings of the same card: the first rating multiplied the interval it started
+ * from, and the second tells whether the card was recalled after the time that actually elapsed. The log
+ * rows must be offered ordered by card and time.
+ */
+final class ReviewHistorySamples {
+
+    static final byte DIFFICULT = 0;
+    static final byte NORMAL = 1;
+    static final byte EASY = 2;
+
+    private static final double MINUTES_PER_DAY = 24 * 60;
+
+    private final int maxSamples;
+    private int size;
+    private double[] baseIntervalDays;
+    private byte[] rating;
+    private double[] elapsedDays;
+    private boolean[] recalled;
+
+    private Long previousFlashcardId;
+    private RatingType previousRating;
+    private Double previousIntervalDays;
+    private LocalDateTime previousReviewedAt;
+    private boolean previousInReviewMode;
+
+    ReviewHistorySamples(int maxSamples) {
+        this.maxSamples = maxSamples;
+        int capacity = Math.min(maxSamples, 1024);
+        this.baseIntervalDays = new double[capacity];
+        this.rating = new byte[capacity];
+        this.elapsedDays = new double[capacity];
+        this.recalled = new boolean[capacity];
+    }
+
+    /*
+     * Returns false once the maximal number of samples has been collected.
+     */
+    boolean offer(Long flashcardId, RatingType ratingType, Double previousIntervalDays, LocalDateTime reviewedAt,
+                  boolean inLearnModeBefore) {
+        if (size >= maxSamples) {
+            return false;
+        }
+        boolean inReviewMode = !inLearnModeBefore;
+        if (flashcardId.equals(previousFlashcardId) && previousInReviewMode && inReviewMode
+                && this.previousIntervalDays != null) {
+            byte previousRatingClass = ratingClass(previousRating);
+            double elapsed = Duration.between(previousReviewedAt, reviewedAt).toMinutes() / MINUTES_PER_DAY;
+            if (previousRatingClass >= 0 && elapsed > 0) {
+                add(this.previousIntervalDays, previousRatingClass, elapsed,
+                        ratingType != RatingType.REVIEW_CANNOT_SOLVE);
+            }
+        }
+        this.previousFlashcardId = flashcardId;
+        this.previousRating = ratingType;
+        this.previousIntervalDays = previousIntervalDays;
+        this.previousReviewedAt = reviewedAt;
+        this.previousInReviewMode = inReviewMode;
+        return size < maxSamples;
+    }
+
+    void add(double baseIntervalDays, byte ratingClass, double elapsedDays, boolean recalled) {
+        if (size == this.baseIntervalDays.length) {
+            int newCapacity = Math.min(maxSamples, size * 2);
+            this.baseIntervalDays = Arrays.copyOf(this.baseIntervalDays, newCapacity);
+            this.rating = Arrays.copyOf(this.rating, newCapacity);
+            this.elapsedDays = Arrays.copyOf(this.elapsedDays, newCapacity);
+            this.recalled = Arrays.copyOf(this.recalled, newCapacity);
+        }
+        this.baseIntervalDays[size] = baseIntervalDays;
+        this.rating[size] = ratingClass;
+        this.elapsedDays[size] = elapsedDays;
+        this.recalled[size] = recalled;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    double baseIntervalDays(int index) {
+        return baseIntervalDays[index];
+    }
+
+    byte rating(int index) {
+        return rating[index];
+    }
+
+    double elapsedDays(int index) {
+        return elapsedDays[index];
+    }
+
+    boolean recalled(int index) {
+        return recalled[index];
+    }
+
+    private static byte ratingClass(RatingType ratingType) {
+        return switch (ratingType) {
+            case REVIEW_DIFFICULT -> DIFFICULT;
+            case REVIEW_NORMAL -> NORMAL;
+            case REVIEW_EASY -> EASY;
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package langcontrol.app.flashcard;
+
+import langcontrol.app.spaced_repetition.SpacedRepetitionItem;
+
+import java.time.LocalDate;
+
+/*
+ * The part of a card's state that decides in which due bucket of its deck it is counted.
+ */
+public record CardSchedule(boolean inLearnMode, LocalDate dueDay) {
+
+    public static CardSchedule of(SpacedRepetitionItem item) {
+        if (item.isInLearnMode()) {
+            return new CardSchedule(true, item.getNextLearnViewInUTC() == null ?
+                    null : item.getNextLearnViewInUTC().toLocalDate());
+        }
+        return new CardSchedule(false, item.getNextReviewWithoutTimeInUTC());
+    }
+}
@@ -0,0 +1,28 @@
+package langcontrol.app.flashcard;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "deck_card_counter")
+public class DeckCardCounter {
+
+    @Id
+    @Column(name = "deck_id")
+    private Long deckId;
+
+    @Column(name = "total_cards", nullable = false)
+    private long totalCards;
+
+    @Column(name = "learn_mode_cards", nullable = false)
+    private long learnModeCards;
+}
@@ -0,0 +1,65 @@
+package langcontrol.app.flashcard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Reconciles the incrementally maintained deck counters with the flashcard table, which corrects any drift
+ * left by concurrent updates, and removes the counters of decks which don't exist anymore. Every deck is
+ * rebuilt in its own transaction.
+ *
+ * Decks without counters, which are new decks and all decks right after the counters were introduced, get
+ * them built shortly after startup and then every few minutes. Until then they are counted from the flashcard
+ * table.
+ */
+@Component
+public class DeckCardCounterRepairJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeckCardCounterRepairJob.class);
+
+    private final DeckCardCounterService deckCardCounterService;
+
+    @Autowired
+    public DeckCardCounterRepairJob(DeckCardCounterService deckCardCounterService) {
+        this.deckCardCounterService = deckCardCounterService;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public void buildMissingCounters() {
+        int builtDecks = 0;
+        for (Long deckId : deckCardCounterService.findDeckIdsWithoutCounter()) {
+            try {
+                if (deckCardCounterService.buildMissingCounters(deckId)) {
+                    builtDecks++;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Counters of the deck with id={} couldn't be built.", deckId, e);
+            }
+        }
+        if (builtDecks > 0) {
+            LOGGER.info("Missing deck counters built for {} decks.", builtDecks);
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *", zone = "UTC")
+    public void repairCounters() {
+        long startMillis = System.currentTimeMillis();
+        int orphanedRows = deckCardCounterService.deleteOrphanedCounters();
+        int repairedDecks = 0;
+        for (Long deckId : deckCardCounterService.findAllDeckIds()) {
+            try {
+                deckCardCounterService.rebuildCounters(deckId);
+                repairedDecks++;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Counters of the deck with id={} couldn't be rebuilt.", deckId, e);
+            }
+        }
+        LOGGER.info("Deck counters repaired. Decks rebuilt: {}, orphaned rows removed: {}, took {} ms.",
+                repairedDecks, orphanedRows, System.currentTimeMillis() - startMillis);
+    }
+}
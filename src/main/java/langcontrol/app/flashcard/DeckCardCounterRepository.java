@@ -0,0 +1,56 @@
+package langcontrol.app.flashcard;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DeckCardCounterRepository extends ListCrudRepository<DeckCardCounter, Long> {
+
+    @Modifying
+    @Query("UPDATE DeckCardCounter c SET c.totalCards = c.totalCards + :totalDelta, " +
+            "c.learnModeCards = c.learnModeCards + :learnModeDelta " +
+            "WHERE c.deckId = :deckId")
+    int addToCounter(@Param("deckId") long deckId, @Param("totalDelta") long totalDelta,
+                     @Param("learnModeDelta") long learnModeDelta);
+
+    /*
+     * Returns 0 when the deck already has a counter, including one inserted by a concurrent transaction,
+     * instead of failing on the primary key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO deck_card_counter (deck_id, total_cards, learn_mode_cards) " +
+            "VALUES (:deckId, :totalCards, :learnModeCards) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertCounterIfAbsent(@Param("deckId") long deckId, @Param("totalCards") long totalCards,
+                              @Param("learnModeCards") long learnModeCards);
+
+    @Query("SELECT c FROM DeckCardCounter c JOIN Deck d ON d.id = c.deckId " +
+            "WHERE d.userProfile.id = :userProfileId")
+    List<DeckCardCounter> findByUserProfileId(@Param("userProfileId") long userProfileId);
+
+    @Query("SELECT d.id FROM Deck d " +
+            "WHERE d.userProfile.id = :userProfileId " +
+            "AND NOT EXISTS (SELECT c.deckId FROM DeckCardCounter c WHERE c.deckId = d.id)")
+    List<Long> findDeckIdsWithoutCounterByUserProfileId(@Param("userProfileId") long userProfileId);
+
+    @Query("SELECT d.id FROM Deck d " +
+            "WHERE NOT EXISTS (SELECT c.deckId FROM DeckCardCounter c WHERE c.deckId = d.id) " +
+            "ORDER BY d.id")
+    List<Long> findDeckIdsWithoutCounter();
+
+    @Query("SELECT d.id FROM Deck d ORDER BY d.id")
+    List<Long> findAllDeckIds();
+
+    @Modifying
+    @Query("DELETE FROM DeckCardCounter c WHERE c.deckId = :deckId")
+    int deleteByDeckId(@Param("deckId") long deckId);
+
+    @Modifying
+    @Query("DELETE FROM DeckCardCounter c WHERE NOT EXISTS (SELECT d.id FROM Deck d WHERE d.id = c.deckId)")
+    int deleteOrphaned();
+}
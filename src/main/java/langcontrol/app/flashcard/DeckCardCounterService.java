@@ -0,0 +1,29 @@
+package langcontrol.app.flashcard;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DeckCardCounterService {
+
+    int MAX_FORECAST_DAYS = 365;
+
+    void applyDelta(DeckCardCountersDelta delta);
+
+    void rebuildCounters(long deckId);
+
+    boolean buildMissingCounters(long deckId);
+
+    void deleteCounters(long deckId);
+
+    int deleteOrphanedCounters();
+
+    List<Long> findAllDeckIds();
+
+    List<Long> findDeckIdsWithoutCounter();
+
+    int[] forecastDueCards(long deckId, LocalDate fromDayInUTC, int days);
+
+    List<DeckCardCounts> countCardsOfAllDecks(long userProfileId, LocalDateTime nextLearnViewInUTCBefore,
+                                              LocalDate nextReviewDateLocalBefore);
+}
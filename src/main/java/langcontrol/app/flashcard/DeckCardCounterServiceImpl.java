@@ -0,0 +1,244 @@
+package langcontrol.app.flashcard;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Keeps the number of cards of every deck and the number of cards becoming due per UTC day, so that the deck
+ * listing doesn't have to scan the flashcards. The counters are changed by deltas in the same transaction as
+ * the cards themselves. A deck without a counter row is counted from the flashcard table until
+ * DeckCardCounterRepairJob builds its counters, so reading never writes. The repair job also periodically
+ * reconciles all counters.
+ *
+ * The due forecast of a deck is computed from its buckets for the maximal number of days and cached until
+ * the counters of the deck change or the UTC day rolls over.
+ */
+@Service
+public class DeckCardCounterServiceImpl implements DeckCardCounterService {
+
+    private static final int MAX_CACHED_FORECASTS = 10_000;
+
+    private final DeckCardCounterRepository counterRepository;
+    private final DeckDueBucketRepository dueBucketRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final EntityManager entityManager;
+    private final Map<Long, DeckForecast> forecastCache;
+
+    @Autowired
+    public DeckCardCounterServiceImpl(DeckCardCounterRepository counterRepository,
+                                      DeckDueBucketRepository dueBucketRepository,
+                                      FlashcardRepository flashcardRepository,
+                                      EntityManager entityManager) {
+        this.counterRepository = counterRepository;
+        this.dueBucketRepository = dueBucketRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.entityManager = entityManager;
+        this.forecastCache = new ConcurrentHashMap<>();
+    }
+
+    @Transactional
+    @Override
+    public void applyDelta(DeckCardCountersDelta delta) {
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        // Decks without a counter row are skipped, the repair job builds them as a whole.
+        Set<Long> countedDeckIds = new HashSet<>();
+        delta.getCounterDeltas().forEach((deckId, deltas) -> {
+            if (counterRepository.addToCounter(deckId, deltas[0], deltas[1]) > 0) {
+                countedDeckIds.add(deckId);
+            }
+        });
+        delta.getBucketDeltas().forEach((bucketId, cardCountDelta) -> {
+            if (!countedDeckIds.contains(bucketId.getDeckId())) {
+                return;
+            }
+            addToBucket(bucketId, cardCountDelta);
+        });
+        if (!countedDeckIds.isEmpty()) {
+            dueBucketRepository.deleteEmptyBuckets(countedDeckIds);
+        }
+        invalidateForecasts(delta.getCounterDeltas().keySet());
+    }
+
+    @Transactional
+    @Override
+    public void rebuildCounters(long deckId) {
+        dueBucketRepository.deleteByDeckId(deckId);
+        counterRepository.deleteByDeckId(deckId);
+        entityManager.persist(flashcardRepository.computeCounterByDeck(deckId));
+        flashcardRepository.computeDueBucketsByDeck(deckId).forEach(entityManager::persist);
+        invalidateForecasts(List.of(deckId));
+    }
+
+    /*
+     * Safe to run concurrently for the same deck, only the transaction which inserts the counter row
+     * inserts the buckets.
+     */
+    @Transactional
+    @Override
+    public boolean buildMissingCounters(long deckId) {
+        DeckCardCounter counter = flashcardRepository.computeCounterByDeck(deckId);
+        if (counterRepository.insertCounterIfAbsent(deckId, counter.getTotalCards(),
+                counter.getLearnModeCards()) == 0) {
+            return false;
+        }
+        for (DeckDueBucket bucket : flashcardRepository.computeDueBucketsByDeck(deckId)) {
+            addToBucket(bucket.getId(), bucket.getCardCount());
+        }
+        invalidateForecasts(List.of(deckId));
+        return true;
+    }
+
+    @Transactional
+    @Override
+    public void deleteCounters(long deckId) {
+        dueBucketRepository.deleteByDeckId(deckId);
+        counterRepository.deleteByDeckId(deckId);
+        invalidateForecasts(List.of(deckId));
+    }
+
+    @Transactional
+    @Override
+    public int deleteOrphanedCounters() {
+        return dueBucketRepository.deleteOrphaned() + counterRepository.deleteOrphaned();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> findAllDeckIds() {
+        return counterRepository.findAllDeckIds();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> findDeckIdsWithoutCounter() {
+        return counterRepository.findDeckIdsWithoutCounter();
+    }
+
+    /*
+     * Index 0 of the returned array holds the cards due on the given day or overdue, index i the cards which
+     * become due i days later.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public int[] forecastDueCards(long deckId, LocalDate fromDayInUTC, int days) {
+        if (days < 1 || days > MAX_FORECAST_DAYS) {
+            throw new IllegalArgumentException("The number of forecast days must be between 1 and "
+                    + MAX_FORECAST_DAYS + ".");
+        }
+        DeckForecast forecast = forecastCache.get(deckId);
+        if (forecast == null || !forecast.fromDayInUTC().equals(fromDayInUTC)) {
+            forecast = new DeckForecast(fromDayInUTC, computeForecast(deckId, fromDayInUTC));
+            if (forecastCache.size() >= MAX_CACHED_FORECASTS) {
+                forecastCache.clear();
+            }
+            forecastCache.put(deckId, forecast);
+        }
+        return Arrays.copyOf(forecast.dueCards(), days);
+    }
+
+    /*
+     * Learn mode cards are due at an exact time, so the bucket of the current UTC day is only partially due.
+     * The learn mode cards of that day are counted directly, which is a short range scan on the due index.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<DeckCardCounts> countCardsOfAllDecks(long userProfileId, LocalDateTime nextLearnViewInUTCBefore,
+                                                     LocalDate nextReviewDateLocalBefore) {
+        LocalDate learnDayInUTC = nextLearnViewInUTCBefore.toLocalDate();
+        Map<Long, long[]> dueCardsByDeckId = new HashMap<>();
+        for (Object[] row : dueBucketRepository.sumDueCardsGroupedByDeck(userProfileId, learnDayInUTC,
+                nextReviewDateLocalBefore)) {
+            dueCardsByDeckId.put(((Number) row[0]).longValue(),
+                    new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+        for (Object[] row : flashcardRepository.countLearnCardsDueBetweenGroupedByDeck(userProfileId,
+                learnDayInUTC.atStartOfDay(), nextLearnViewInUTCBefore)) {
+            long[] dueCards = dueCardsByDeckId.computeIfAbsent(((Number) row[0]).longValue(), id -> new long[2]);
+            dueCards[0] += ((Number) row[1]).longValue();
+        }
+
+        List<DeckCardCounts> cardCounts = new ArrayList<>();
+        for (DeckCardCounter counter : counterRepository.findByUserProfileId(userProfileId)) {
+            long[] dueCards = dueCardsByDeckId.getOrDefault(counter.getDeckId(), new long[2]);
+            cardCounts.add(new DeckCardCounts(counter.getDeckId(), counter.getTotalCards(),
+                    dueCards[0], dueCards[1]));
+        }
+        for (Long deckId : counterRepository.findDeckIdsWithoutCounterByUserProfileId(userProfileId)) {
+            cardCounts.add(flashcardRepository.countCardsByDeck(deckId, nextLearnViewInUTCBefore,
+                    nextReviewDateLocalBefore));
+        }
+        return cardCounts;
+    }
+
+    /*
+     * Updates the existing bucket first, which is the common case. A bucket inserted concurrently between the
+     * update and the insert is updated again, so creating the same bucket twice never fails the transaction.
+     */
+    private void addToBucket(DeckDueBucketId bucketId, long cardCountDelta) {
+        if (dueBucketRepository.addToBucket(bucketId, cardCountDelta) > 0 || cardCountDelta <= 0) {
+            return;
+        }
+        if (dueBucketRepository.insertBucketIfAbsent(bucketId.getDeckId(), bucketId.isLearnMode(),
+                bucketId.getDueDayInUTC(), cardCountDelta) == 0) {
+            dueBucketRepository.addToBucket(bucketId, cardCountDelta);
+        }
+    }
+
+    /*
+     * A deck without counters is forecast from the flashcard table, without building its buckets.
+     */
+    private int[] computeForecast(long deckId, LocalDate fromDayInUTC) {
+        int[] dueCards = new int[MAX_FORECAST_DAYS];
+        LocalDate toDayInUTC = fromDayInUTC.plusDays(MAX_FORECAST_DAYS - 1);
+        if (counterRepository.existsById(deckId)) {
+            for (Object[] row : dueBucketRepository.sumCardsGroupedByDueDay(deckId, toDayInUTC)) {
+                addToForecast(dueCards, fromDayInUTC, (LocalDate) row[0], ((Number) row[1]).intValue());
+            }
+        } else {
+            for (DeckDueBucket bucket : flashcardRepository.computeDueBucketsByDeck(deckId)) {
+                if (!bucket.getId().getDueDayInUTC().isAfter(toDayInUTC)) {
+                    addToForecast(dueCards, fromDayInUTC, bucket.getId().getDueDayInUTC(),
+                            (int) bucket.getCardCount());
+                }
+            }
+        }
+        return dueCards;
+    }
+
+    private static void addToForecast(int[] dueCards, LocalDate fromDayInUTC, LocalDate dueDayInUTC, int cards) {
+        long dayIndex = Math.max(0, ChronoUnit.DAYS.between(fromDayInUTC, dueDayInUTC));
+        dueCards[(int) dayIndex] += cards;
+    }
+
+    /*
+     * The cached forecasts are dropped again after the commit, so that a forecast computed concurrently
+     * from the not yet committed counters doesn't stay in the cache.
+     */
+    private void invalidateForecasts(Collection<Long> deckIds) {
+        deckIds.forEach(forecastCache::remove);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> deckIdsCopy = List.copyOf(deckIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deckIdsCopy.forEach(forecastCache::remove);
+                }
+            });
+        }
+    }
+
+    private record DeckForecast(LocalDate fromDayInUTC, int[] dueCards) {
+    }
+}
@@ -0,0 +1,71 @@
+package langcontrol.app.flashcard;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Collects the changes of the deck counters caused by one unit of work, so that each counter and bucket
+ * is updated once even when many cards of the same deck were touched.
+ */
+public class DeckCardCountersDelta {
+
+    private final Map<Long, long[]> counterDeltas;
+    private final Map<DeckDueBucketId, Long> bucketDeltas;
+
+    public DeckCardCountersDelta() {
+        this.counterDeltas = new HashMap<>();
+        this.bucketDeltas = new HashMap<>();
+    }
+
+    public void cardAdded(long deckId, CardSchedule schedule) {
+        addToCounter(deckId, 1, schedule.inLearnMode() ? 1 : 0);
+        addToBucket(deckId, schedule, 1);
+    }
+
+    public void cardRemoved(long deckId, CardSchedule schedule) {
+        addToCounter(deckId, -1, schedule.inLearnMode() ? -1 : 0);
+        addToBucket(deckId, schedule, -1);
+    }
+
+    public void cardRescheduled(long deckId, CardSchedule before, CardSchedule after) {
+        if (before.equals(after)) {
+            return;
+        }
+        addToCounter(deckId, 0, (after.inLearnMode() ? 1 : 0) - (before.inLearnMode() ? 1 : 0));
+        addToBucket(deckId, before, -1);
+        addToBucket(deckId, after, 1);
+    }
+
+    public boolean isEmpty() {
+        return counterDeltas.isEmpty() && bucketDeltas.isEmpty();
+    }
+
+    Map<Long, long[]> getCounterDeltas() {
+        return counterDeltas;
+    }
+
+    Map<DeckDueBucketId, Long> getBucketDeltas() {
+        return bucketDeltas;
+    }
+
+    private void addToCounter(long deckId, long totalDelta, long learnModeDelta) {
+        long[] deltas = counterDeltas.computeIfAbsent(deckId, id -> new long[2]);
+        deltas[0] += totalDelta;
+        deltas[1] += learnModeDelta;
+    }
+
+    private void addToBucket(long deckId, CardSchedule schedule, long delta) {
+        LocalDate dueDay = schedule.dueDay();
+        if (dueDay == null) {
+            return;
+        }
+        DeckDueBucketId bucketId = new DeckDueBucketId(deckId, schedule.inLearnMode(), dueDay);
+        long newDelta = bucketDeltas.getOrDefault(bucketId, 0L) + delta;
+        if (newDelta == 0) {
+            bucketDeltas.remove(bucketId);
+        } else {
+            bucketDeltas.put(bucketId, newDelta);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package langcontrol.app.flashcard;
+
+public record DeckCardCounts(long deckId, long totalCards, long learnDueCards, long reviewDueCards) {
+
+    public static DeckCardCounts empty(long deckId) {
+        return new DeckCardCounts(deckId, 0L, 0L, 0L);
+    }
+
+    public long dueCards() {
+        return learnDueCards + reviewDueCards;
+    }
+}
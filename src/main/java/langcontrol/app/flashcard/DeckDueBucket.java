@@ -0,0 +1,28 @@
+package langcontrol.app.flashcard;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * Number of cards of a deck which become due on the given UTC day, counted separately for learn mode
+ * (by the next learn view) and review mode (by the next review date).
+ */
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "deck_due_bucket")
+public class DeckDueBucket {
+
+    @EmbeddedId
+    private DeckDueBucketId id;
+
+    @Column(name = "card_count", nullable = false)
+    private long cardCount;
+}
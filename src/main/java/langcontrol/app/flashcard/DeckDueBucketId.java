@@ -0,0 +1,29 @@
+package langcontrol.app.flashcard;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter @Setter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+@Embeddable
+public class DeckDueBucketId implements Serializable {
+
+    @Column(name = "deck_id")
+    private Long deckId;
+
+    @Column(name = "learn_mode")
+    private boolean learnMode;
+
+    @Column(name = "due_day_in_utc")
+    private LocalDate dueDayInUTC;
+}
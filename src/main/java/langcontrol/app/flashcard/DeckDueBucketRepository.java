@@ -0,0 +1,65 @@
+package langcontrol.app.flashcard;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeckDueBucketRepository extends ListCrudRepository<DeckDueBucket, DeckDueBucketId> {
+
+    @Modifying
+    @Query("UPDATE DeckDueBucket b SET b.cardCount = b.cardCount + :delta WHERE b.id = :id")
+    int addToBucket(@Param("id") DeckDueBucketId id, @Param("delta") long delta);
+
+    /*
+     * Returns 0 when the bucket already exists, including a bucket inserted by a concurrent transaction,
+     * instead of failing on the primary key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO deck_due_bucket (deck_id, learn_mode, due_day_in_utc, card_count) " +
+            "VALUES (:deckId, :learnMode, :dueDayInUTC, :cardCount) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertBucketIfAbsent(@Param("deckId") long deckId, @Param("learnMode") boolean learnMode,
+                             @Param("dueDayInUTC") LocalDate dueDayInUTC, @Param("cardCount") long cardCount);
+
+    /*
+     * Returns rows of (deck id, learn mode cards due before the learn day, review mode cards due
+     * on or before the review day).
+     */
+    @Query("SELECT b.id.deckId, " +
+            "COALESCE(SUM(CASE WHEN b.id.learnMode = true " +
+            "AND b.id.dueDayInUTC < :learnDayBefore THEN b.cardCount ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN b.id.learnMode = false " +
+            "AND b.id.dueDayInUTC <= :reviewDayBefore THEN b.cardCount ELSE 0 END), 0) " +
+            "FROM DeckDueBucket b JOIN Deck d ON d.id = b.id.deckId " +
+            "WHERE d.userProfile.id = :userProfileId " +
+            "GROUP BY b.id.deckId")
+    List<Object[]> sumDueCardsGroupedByDeck(@Param("userProfileId") long userProfileId,
+                                            @Param("learnDayBefore") LocalDate learnDayBefore,
+                                            @Param("reviewDayBefore") LocalDate reviewDayBefore);
+
+    @Query("SELECT b.id.dueDayInUTC, SUM(b.cardCount) " +
+            "FROM DeckDueBucket b " +
+            "WHERE b.id.deckId = :deckId " +
+            "AND b.id.dueDayInUTC <= :toDay " +
+            "GROUP BY b.id.dueDayInUTC")
+    List<Object[]> sumCardsGroupedByDueDay(@Param("deckId") long deckId, @Param("toDay") LocalDate toDay);
+
+    @Modifying
+    @Query("DELETE FROM DeckDueBucket b WHERE b.id.deckId IN :deckIds AND b.cardCount <= 0")
+    int deleteEmptyBuckets(@Param("deckIds") Collection<Long> deckIds);
+
+    @Modifying
+    @Query("DELETE FROM DeckDueBucket b WHERE b.id.deckId = :deckId")
+    int deleteByDeckId(@Param("deckId") long deckId);
+
+    @Modifying
+    @Query("DELETE FROM DeckDueBucket b WHERE NOT EXISTS (SELECT d.id FROM Deck d WHERE d.id = b.id.deckId)")
+    int deleteOrphaned();
+}
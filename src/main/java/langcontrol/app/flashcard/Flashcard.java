@@ -13,14 +13,19 @@ import java.util.Objects;
 
 @Getter @Setter
 @Entity
-@Table(name = "flashcard")
+@Table(name = "flashcard", indexes = {
+        @Index(name = "idx_flashcard_deck_learn_due",
+                columnList = "deck_id, in_learn_mode, next_learn_view_in_utc"),
+        @Index(name = "idx_flashcard_deck_review_due",
+                columnList = "deck_id, in_learn_mode, next_review_without_time_in_utc")
+})
 public class Flashcard extends SpacedRepetitionItem {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "deck_id", nullable = false, foreignKey = @ForeignKey(name = "fk_flashcard_deck"))
     private Deck deck;
 
@@ -51,6 +56,9 @@ public class Flashcard extends SpacedRepetitionItem {
     @Column(name = "translated_example")
     private String translatedExample;
 
+    @Column(name = "example_pool_fill_attempt_in_utc")
+    private LocalDateTime examplePoolFillAttemptInUTC;
+
 
     @Column(name = "creation_date_time_in_utc", nullable = false)
     private LocalDateTime creationDateTimeInUTC;
@@ -62,8 +70,9 @@ public class Flashcard extends SpacedRepetitionItem {
 
     private Flashcard(Deck deck, LanguageCode sourceLanguage, LanguageCode targetLanguage,
                       String front, String back, PartOfSpeech partOfSpeech, boolean dynamicExamples,
-                      String example, String translatedExample, boolean initialReviewMode) {
-        super(initialReviewMode);
+                      String example, String translatedExample, boolean initialReviewMode,
+                      LocalDateTime nowInUTC) {
+        super(initialReviewMode, nowInUTC);
         this.id = null;
         this.deck = deck;
         this.sourceLanguage = sourceLanguage;
@@ -74,7 +83,7 @@ public class Flashcard extends SpacedRepetitionItem {
         this.dynamicExamples = dynamicExamples;
         this.example = example;
         this.translatedExample = translatedExample;
-        this.creationDateTimeInUTC = LocalDateTime.now(Clock.systemUTC());
+        this.creationDateTimeInUTC = nowInUTC;
     }
 
     public static Flashcard.Builder inInitialLearnModeState() {
@@ -111,6 +120,7 @@ public class Flashcard extends SpacedRepetitionItem {
         private boolean dynamicExamples;
         private String example;
         private String translatedExample;
+        private Clock clock;
 
         public Builder(boolean initialReviewMode) {
             this.initialReviewMode = initialReviewMode;
@@ -123,6 +133,7 @@ public class Flashcard extends SpacedRepetitionItem {
             this.dynamicExamples = false;
             this.example = "";
             this.translatedExample = "";
+            this.clock = Clock.systemUTC();
         }
 
         public Builder deck(Deck deck) {
@@ -170,10 +181,15 @@ public class Flashcard extends SpacedRepetitionItem {
             return this;
         }
 
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
         public Flashcard build() {
                 return new Flashcard(deck, sourceLanguage, targetLanguage,
                         front, back, partOfSpeech, dynamicExamples, example,
-                        translatedExample, initialReviewMode);
+                        translatedExample, initialReviewMode, LocalDateTime.now(clock));
         }
     }
 }
\ No newline at end of file
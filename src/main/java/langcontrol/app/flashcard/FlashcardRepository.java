@@ -1,13 +1,56 @@
 package langcontrol.app.flashcard;
 
 import langcontrol.app.deck.Deck;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FlashcardRepository extends ListCrudRepository<Flashcard, Long>, FlashcardRepositoryCustom {
 
     List<Flashcard> findByDeck(Deck deck);
-}
\ No newline at end of file
+
+    @Query("SELECT f.deck.userProfile.id FROM Flashcard f WHERE f.id = :id")
+    Optional<Long> findOwnerUserProfileIdById(@Param("id") long id);
+
+    @Query("SELECT f, f.deck.userProfile.id FROM Flashcard f WHERE f.id IN :ids")
+    List<Object[]> findWithOwnerUserProfileIdByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT f.deck.id, COUNT(f) FROM Flashcard f " +
+            "WHERE f.deck.userProfile.id = :userProfileId " +
+            "AND f.inLearnMode = true " +
+            "AND f.nextLearnViewInUTC >= :learnViewFrom " +
+            "AND f.nextLearnViewInUTC <= :learnViewTo " +
+            "GROUP BY f.deck.id")
+    List<Object[]> countLearnCardsDueBetweenGroupedByDeck(@Param("userProfileId") long userProfileId,
+                                                          @Param("learnViewFrom") LocalDateTime learnViewFrom,
+                                                          @Param("learnViewTo") LocalDateTime learnViewTo);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT f.inLearnMode, f.learnModeStep, f.nextLearnViewInUTC, f.nextReviewInUTC, f.lastReviewInUTC, " +
+            "f.currentIntervalDays, f.increaseFactor, f.reduceFactor, f.easinessFactor, f.repetitions, " +
+            "f.stability, f.difficulty FROM Flashcard f WHERE f.deck.id = :deckId")
+    Stream<Object[]> streamScheduleRowsByDeckId(@Param("deckId") long deckId);
+
+    @Modifying
+    @Query("UPDATE Flashcard f SET f.increaseFactor = :increaseFactor, f.reduceFactor = :reduceFactor " +
+            "WHERE f.deck.id = :deckId AND f.lastReviewInUTC IS NULL")
+    int updateFactorsOfUnreviewedCardsByDeckId(@Param("deckId") long deckId,
+                                               @Param("increaseFactor") double increaseFactor,
+                                               @Param("reduceFactor") double reduceFactor);
+
+    @Modifying
+    @Query("UPDATE Flashcard f SET f.examplePoolFillAttemptInUTC = :attemptInUTC WHERE f.id = :id")
+    int updateExamplePoolFillAttempt(@Param("id") long id, @Param("attemptInUTC") LocalDateTime attemptInUTC);
+}
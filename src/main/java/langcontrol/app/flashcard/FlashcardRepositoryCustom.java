@@ -1,16 +1,31 @@
 package langcontrol.app.flashcard;
 
-import langcontrol.app.deck.Deck;
+import langcontrol.app.spaced_repetition.SpacedRepetition;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Random;
 
 public interface FlashcardRepositoryCustom {
 
-    List<Flashcard> findReadyForReviewFlashcardsByDeck(Deck deck,
-                                                       LocalDateTime nextLearnViewInUTCBefore,
-                                                       LocalDate nextReviewDateLocalBefore,
-                                                       int limit);
+    List<ReviewCardView> sampleReadyForReviewCardViewsByDeck(long deckId,
+                                                             LocalDateTime nextLearnViewInUTCBefore,
+                                                             LocalDate nextReviewDateLocalBefore,
+                                                             int limit,
+                                                             Random random,
+                                                             SpacedRepetition algorithm);
+
+    DeckCardCounts countCardsByDeck(long deckId,
+                                    LocalDateTime nextLearnViewInUTCBefore,
+                                    LocalDate nextReviewDateLocalBefore);
+
+    DeckCardCounter computeCounterByDeck(long deckId);
+
+    List<DeckDueBucket> computeDueBucketsByDeck(long deckId);
+
+    List<DeckCardCounts> countCardsGroupedByDeck(long userProfileId,
+                                                 LocalDateTime nextLearnViewInUTCBefore,
+                                                 LocalDate nextReviewDateLocalBefore);
 
 }
@@ -2,34 +2,199 @@ package langcontrol.app.flashcard;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
-import langcontrol.app.deck.Deck;
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.spaced_repetition.ScratchSpacedRepetitionItem;
+import langcontrol.app.spaced_repetition.SpacedRepetition;
+import langcontrol.app.util.WeightedReservoirSampler;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Stream;
 
 public class FlashcardRepositoryCustomImpl implements FlashcardRepositoryCustom {
 
+    private static final String REVIEW_CARD_VIEW_SELECT = "SELECT f.id, f.front, f.back, f.partOfSpeech, " +
+            "f.sourceLanguage, f.targetLanguage, f.dynamicExamples, f.example, f.translatedExample, " +
+            "f.inLearnMode, f.learnModeStep, f.currentIntervalDays, f.increaseFactor, f.reduceFactor, " +
+            "f.lastReviewInUTC, f.easinessFactor, f.repetitions, f.stability, f.difficulty " +
+            "FROM Flashcard f ";
+
+    private static final int SAMPLING_FETCH_SIZE = 500;
+
     private EntityManager em;
 
     public FlashcardRepositoryCustomImpl(EntityManager em) {
         this.em = em;
     }
 
+    /*
+     * The due cards are sampled uniformly with two range scans, so that each of them can be served by its own
+     * (deck_id, in_learn_mode, next_*) index declared on the Flashcard entity. Only the ids are streamed through
+     * bounded reservoirs, so the full due set is never materialized. Learn mode cards keep their priority over
+     * review mode cards.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<ReviewCardView> sampleReadyForReviewCardViewsByDeck(long deckId,
+                                                                    LocalDateTime nextLearnViewInUTCBefore,
+                                                                    LocalDate nextReviewDateLocalBefore,
+                                                                    int limit, Random random,
+                                                                    SpacedRepetition algorithm) {
+        if (limit < 1) {
+            return new ArrayList<>();
+        }
+        WeightedReservoirSampler<Long> learnSampler = new WeightedReservoirSampler<>(limit, random);
+        TypedQuery<Long> learnQuery = em.createQuery("SELECT f.id FROM Flashcard f " +
+                "WHERE f.deck.id = :deckId " +
+                "AND f.inLearnMode = true " +
+                "AND f.nextLearnViewInUTC <= :learnViewBefore", Long.class);
+        learnQuery.setParameter("deckId", deckId);
+        learnQuery.setParameter("learnViewBefore", nextLearnViewInUTCBefore);
+        learnQuery.setHint(HibernateHints.HINT_FETCH_SIZE, SAMPLING_FETCH_SIZE);
+        try (Stream<Long> ids = learnQuery.getResultStream()) {
+            ids.forEach(id -> learnSampler.offer(id, 1D));
+        }
+        List<Long> sampledIds = new ArrayList<>(learnSampler.sample());
+
+        int remainingLimit = limit - sampledIds.size();
+        if (remainingLimit > 0) {
+            WeightedReservoirSampler<Long> reviewSampler = new WeightedReservoirSampler<>(remainingLimit, random);
+            TypedQuery<Long> reviewQuery = em.createQuery("SELECT f.id FROM Flashcard f " +
+                    "WHERE f.deck.id = :deckId " +
+                    "AND f.inLearnMode = false " +
+                    "AND f.nextReviewWithoutTimeInUTC <= :reviewBefore", Long.class);
+            reviewQuery.setParameter("deckId", deckId);
+            reviewQuery.setParameter("reviewBefore", nextReviewDateLocalBefore);
+            reviewQuery.setHint(HibernateHints.HINT_FETCH_SIZE, SAMPLING_FETCH_SIZE);
+            try (Stream<Long> ids = reviewQuery.getResultStream()) {
+                ids.forEach(id -> reviewSampler.offer(id, 1D));
+            }
+            sampledIds.addAll(reviewSampler.sample());
+        }
+        if (sampledIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        TypedQuery<Object[]> viewQuery = em.createQuery(REVIEW_CARD_VIEW_SELECT +
+                "WHERE f.id IN :ids", Object[].class);
+        viewQuery.setParameter("ids", sampledIds);
+        Map<Long, ReviewCardView> viewsById = new HashMap<>();
+        viewQuery.getResultList().forEach(row -> {
+            ReviewCardView view = toReviewCardView(row, algorithm, nextLearnViewInUTCBefore);
+            viewsById.put(view.id(), view);
+        });
+        List<ReviewCardView> sample = new ArrayList<>(sampledIds.size());
+        for (Long id : sampledIds) {
+            ReviewCardView view = viewsById.get(id);
+            if (view != null) {
+                sample.add(view);
+            }
+        }
+        return sample;
+    }
+
+    @Transactional
+    @Override
+    public DeckCardCounts countCardsByDeck(long deckId, LocalDateTime nextLearnViewInUTCBefore,
+                                           LocalDate nextReviewDateLocalBefore) {
+        TypedQuery<Object[]> query = em.createQuery("SELECT COUNT(f), " +
+                "COALESCE(SUM(CASE WHEN f.inLearnMode = true " +
+                "AND f.nextLearnViewInUTC <= :learnViewBefore THEN 1 ELSE 0 END), 0), " +
+                "COALESCE(SUM(CASE WHEN f.inLearnMode = false " +
+                "AND f.nextReviewWithoutTimeInUTC <= :reviewBefore THEN 1 ELSE 0 END), 0) " +
+                "FROM Flashcard f " +
+                "WHERE f.deck.id = :deckId", Object[].class);
+        query.setParameter("deckId", deckId);
+        query.setParameter("learnViewBefore", nextLearnViewInUTCBefore);
+        query.setParameter("reviewBefore", nextReviewDateLocalBefore);
+        Object[] row = query.getSingleResult();
+        return new DeckCardCounts(deckId, ((Number) row[0]).longValue(),
+                ((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public DeckCardCounter computeCounterByDeck(long deckId) {
+        TypedQuery<Object[]> query = em.createQuery("SELECT COUNT(f), " +
+                "COALESCE(SUM(CASE WHEN f.inLearnMode = true THEN 1 ELSE 0 END), 0) " +
+                "FROM Flashcard f " +
+                "WHERE f.deck.id = :deckId", Object[].class);
+        query.setParameter("deckId", deckId);
+        Object[] row = query.getSingleResult();
+        return new DeckCardCounter(deckId, ((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<DeckDueBucket> computeDueBucketsByDeck(long deckId) {
+        List<DeckDueBucket> buckets = new ArrayList<>();
+        TypedQuery<Object[]> learnQuery = em.createQuery("SELECT CAST(f.nextLearnViewInUTC AS LocalDate), " +
+                "COUNT(f) " +
+                "FROM Flashcard f " +
+                "WHERE f.deck.id = :deckId " +
+                "AND f.inLearnMode = true " +
+                "AND f.nextLearnViewInUTC IS NOT NULL " +
+                "GROUP BY CAST(f.nextLearnViewInUTC AS LocalDate)", Object[].class);
+        learnQuery.setParameter("deckId", deckId);
+        learnQuery.getResultList().forEach(row -> buckets.add(new DeckDueBucket(
+                new DeckDueBucketId(deckId, true, (LocalDate) row[0]), ((Number) row[1]).longValue())));
+
+        TypedQuery<Object[]> reviewQuery = em.createQuery("SELECT f.nextReviewWithoutTimeInUTC, COUNT(f) " +
+                "FROM Flashcard f " +
+                "WHERE f.deck.id = :deckId " +
+                "AND f.inLearnMode = false " +
+                "AND f.nextReviewWithoutTimeInUTC IS NOT NULL " +
+                "GROUP BY f.nextReviewWithoutTimeInUTC", Object[].class);
+        reviewQuery.setParameter("deckId", deckId);
+        reviewQuery.getResultList().forEach(row -> buckets.add(new DeckDueBucket(
+                new DeckDueBucketId(deckId, false, (LocalDate) row[0]), ((Number) row[1]).longValue())));
+        return buckets;
+    }
+
     @Transactional
     @Override
-    public List<Flashcard> findReadyForReviewFlashcardsByDeck(Deck deck, LocalDateTime nextLearnViewInUTCBefore,
-                                                              LocalDate nextReviewDateLocalBefore, int limit) {
-        TypedQuery<Flashcard> query = em.createQuery("SELECT f FROM Flashcard f " +
-                "WHERE f.deck = :deck " +
-                "AND (f.nextLearnViewInUTC <= :learnViewBefore " +
-                "OR f.nextReviewWithoutTimeInUTC <= :reviewBefore)", Flashcard.class);
-        query.setParameter("deck", deck);
+    public List<DeckCardCounts> countCardsGroupedByDeck(long userProfileId, LocalDateTime nextLearnViewInUTCBefore,
+                                                        LocalDate nextReviewDateLocalBefore) {
+        TypedQuery<Object[]> query = em.createQuery("SELECT f.deck.id, COUNT(f), " +
+                "SUM(CASE WHEN f.inLearnMode = true " +
+                "AND f.nextLearnViewInUTC <= :learnViewBefore THEN 1 ELSE 0 END), " +
+                "SUM(CASE WHEN f.inLearnMode = false " +
+                "AND f.nextReviewWithoutTimeInUTC <= :reviewBefore THEN 1 ELSE 0 END) " +
+                "FROM Flashcard f " +
+                "WHERE f.deck.userProfile.id = :userProfileId " +
+                "GROUP BY f.deck.id", Object[].class);
+        query.setParameter("userProfileId", userProfileId);
         query.setParameter("learnViewBefore", nextLearnViewInUTCBefore);
         query.setParameter("reviewBefore", nextReviewDateLocalBefore);
-        query.setMaxResults(limit);
-        return query.getResultList();
+        return query.getResultList().stream()
+                .map(row -> new DeckCardCounts(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(), ((Number) row[3]).longValue()))
+                .toList();
+    }
+
+    /*
+     * The forecasts are produced from the scheduling columns of the row, the algorithm state included.
+     */
+    private static ReviewCardView toReviewCardView(Object[] row, SpacedRepetition algorithm,
+                                                   LocalDateTime nowInUTC) {
+        ScratchSpacedRepetitionItem schedule = new ScratchSpacedRepetitionItem();
+        schedule.setInLearnMode((Boolean) row[9]);
+        schedule.setLearnModeStep((LearnModeStep) row[10]);
+        schedule.setCurrentIntervalDays((Double) row[11]);
+        schedule.setIncreaseFactor((Double) row[12]);
+        schedule.setReduceFactor((Double) row[13]);
+        schedule.setLastReviewInUTC((LocalDateTime) row[14]);
+        schedule.setEasinessFactor((Double) row[15]);
+        schedule.setRepetitions((Integer) row[16]);
+        schedule.setStability((Double) row[17]);
+        schedule.setDifficulty((Double) row[18]);
+        return new ReviewCardView((Long) row[0], (String) row[1], (String) row[2], (PartOfSpeech) row[3],
+                (LanguageCode) row[4], (LanguageCode) row[5], (Boolean) row[6], (String) row[7],
+                (String) row[8], (Boolean) row[9], (LearnModeStep) row[10],
+                ForecastLabels.forecasts(schedule, algorithm, nowInUTC));
     }
 
 }
@@ -2,9 +2,11 @@ package langcontrol.app.flashcard;
 
 import langcontrol.app.deck.Deck;
 import langcontrol.app.flashcard.rest.FlashcardForecastsDTO;
+import langcontrol.app.user_profile.UserProfile;
 
-import java.util.Deque;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface FlashcardService {
 
@@ -14,11 +16,19 @@ public interface FlashcardService {
 
     void createNewFlashcardZenMode(long deckId, FlashcardZenModeCreationDTO dto);
 
-    Deque<Flashcard> fetchReadyForReviewShuffledWithLimit(Long deckId, String zoneId, int limit);
+    List<ReviewCardView> fetchReadyForReviewCardViewsShuffledWithLimit(long deckId, String zoneId, int limit);
+
+    DeckCardCounts countCardsByDeck(Deck deck, String zoneId);
+
+    List<DeckCardCounts> countCardsOfAllDecks(UserProfile userProfile, String zoneId);
 
     List<Flashcard> getAllFlashcardsByDeck(Deck deck);
 
     FlashcardForecastsDTO produceReviewTimeForecastsAsText(long flashcardId);
 
     Flashcard getCardById(long id);
+
+    OwnedFlashcard getOwnedCardById(long id);
+
+    Map<Long, OwnedFlashcard> getOwnedCardsByIds(Collection<Long> ids);
 }
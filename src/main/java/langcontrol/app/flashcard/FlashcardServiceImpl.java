@@ -3,24 +3,24 @@ package langcontrol.app.flashcard;
 import langcontrol.app.account.Account;
 import langcontrol.app.deck.Deck;
 import langcontrol.app.deck.DeckRepository;
+import langcontrol.app.example_pool.ExamplePoolService;
 import langcontrol.app.exception.AccessNotAllowedException;
+import langcontrol.app.exception.GeneralBadRequestException;
 import langcontrol.app.exception.GeneralNotFoundException;
 import langcontrol.app.flashcard.rest.FlashcardForecastsDTO;
-import langcontrol.app.flashcard.rest.LearnModeForecastsDTO;
-import langcontrol.app.flashcard.rest.ReviewModeForecastsDTO;
-import langcontrol.app.generator.openai.OpenAiDictionary;
+import langcontrol.app.generator.Dictionary;
+import langcontrol.app.spaced_repetition.SpacedRepetitionRegistry;
+import langcontrol.app.user_profile.UserProfile;
 import langcontrol.app.util.PrincipalRetriever;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,21 +29,37 @@ public class FlashcardServiceImpl implements FlashcardService {
 
     private final FlashcardRepository flashcardRepository;
     private final DeckRepository deckRepository;
-    private final OpenAiDictionary dictionary;
+    private final Dictionary dictionary;
+    private final DeckCardCounterService deckCardCounterService;
+    private final ExamplePoolService examplePoolService;
+    private final SpacedRepetitionRegistry spacedRepetitionRegistry;
+    private final Clock clock;
+    private final Random random;
 
     @Autowired
     public FlashcardServiceImpl(FlashcardRepository flashcardRepository, DeckRepository deckRepository,
-                                @Qualifier("openAiDictionary") OpenAiDictionary dictionary) {
+                                @Qualifier("cachingDictionary") Dictionary dictionary,
+                                DeckCardCounterService deckCardCounterService,
+                                ExamplePoolService examplePoolService,
+                                SpacedRepetitionRegistry spacedRepetitionRegistry, Clock clock) {
         this.flashcardRepository = flashcardRepository;
         this.deckRepository = deckRepository;
         this.dictionary = dictionary;
+        this.deckCardCounterService = deckCardCounterService;
+        this.examplePoolService = examplePoolService;
+        this.spacedRepetitionRegistry = spacedRepetitionRegistry;
+        this.clock = clock;
+        this.random = new Random();
     }
 
     @Transactional
     @Override
     public void deleteFlashcard(long flashcardId) {
         Flashcard foundCard = this.getCardById(flashcardId);
+        DeckCardCountersDelta countersDelta = new DeckCardCountersDelta();
+        countersDelta.cardRemoved(foundCard.getDeck().getId(), CardSchedule.of(foundCard));
         flashcardRepository.delete(foundCard);
+        deckCardCounterService.applyDelta(countersDelta);
     }
 
     @Transactional
@@ -52,6 +68,7 @@ public class FlashcardServiceImpl implements FlashcardService {
         Deck retrievedDeck = findDeckById(deckId);
 
         Flashcard flashcardToCreate = Flashcard.inInitialLearnModeState()
+                .clock(clock)
                 .deck(retrievedDeck)
                 .sourceLanguage(retrievedDeck.getSourceLanguage())
                 .targetLanguage(retrievedDeck.getTargetLanguage())
@@ -64,7 +81,10 @@ public class FlashcardServiceImpl implements FlashcardService {
                 .translatedExample(dto.getTranslatedExample())
                 .build();
 
+        applyFittedFactors(retrievedDeck, flashcardToCreate);
         retrievedDeck.addFlashcard(flashcardToCreate);
+        countCreatedFlashcard(retrievedDeck, flashcardToCreate);
+        examplePoolService.fillAfterCommit(flashcardToCreate);
     }
 
     @Transactional
@@ -79,8 +99,12 @@ public class FlashcardServiceImpl implements FlashcardService {
                 .distinct()
                 .limit(3)
                 .collect(Collectors.joining("; "));
+        if (targetSideTranslations.isBlank()) {
+            throw new GeneralBadRequestException("No translations were found for the card.");
+        }
 
         Flashcard flashcardToCreate = Flashcard.inInitialLearnModeState()
+                .clock(clock)
                 .deck(retrievedDeck)
                 .sourceLanguage(retrievedDeck.getSourceLanguage())
                 .targetLanguage(retrievedDeck.getTargetLanguage())
@@ -91,26 +115,55 @@ public class FlashcardServiceImpl implements FlashcardService {
                         PartOfSpeech.OTHER : dto.getPartOfSpeech())
                 .build();
 
+        applyFittedFactors(retrievedDeck, flashcardToCreate);
         retrievedDeck.addFlashcard(flashcardToCreate);
+        countCreatedFlashcard(retrievedDeck, flashcardToCreate);
+        examplePoolService.fillAfterCommit(flashcardToCreate);
     }
 
     @Override
-    public Deque<Flashcard> fetchReadyForReviewShuffledWithLimit(Long deckId, String zoneId, int limit) {
-        if(!ZoneId.getAvailableZoneIds().contains(zoneId)) {
-            throw new IllegalArgumentException("The specified zone id is incorrect.");
-        }
+    public List<ReviewCardView> fetchReadyForReviewCardViewsShuffledWithLimit(long deckId, String zoneId, int limit) {
+        validateZoneId(zoneId);
         if (limit < 1) {
             throw new IllegalArgumentException("Result set limit cannot be less than one.");
         }
         Deck deck = findDeckById(deckId);
-        List<Flashcard> flashcards = flashcardRepository.findReadyForReviewFlashcardsByDeck(
-                deck,
-                LocalDateTime.now(Clock.systemUTC()),
-                ZonedDateTime.now(ZoneId.of(zoneId)).toLocalDateTime().toLocalDate(),
-                limit
+        return flashcardRepository.sampleReadyForReviewCardViewsByDeck(
+                deck.getId(),
+                LocalDateTime.now(clock),
+                LocalDate.now(clock.withZone(ZoneId.of(zoneId))),
+                limit,
+                random,
+                spacedRepetitionRegistry.forDeck(deck)
+        );
+    }
+
+    @Override
+    public DeckCardCounts countCardsByDeck(Deck deck, String zoneId) {
+        validateZoneId(zoneId);
+        Account currentAccount = PrincipalRetriever.retrieveAccount();
+        if (!Objects.equals(deck.getUserProfile().getId(), currentAccount.getUserProfile().getId())) {
+            throw new AccessNotAllowedException("You don't have permission to view this data.");
+        }
+        return flashcardRepository.countCardsByDeck(
+                deck.getId(),
+                LocalDateTime.now(clock),
+                LocalDate.now(clock.withZone(ZoneId.of(zoneId)))
+        );
+    }
+
+    @Override
+    public List<DeckCardCounts> countCardsOfAllDecks(UserProfile userProfile, String zoneId) {
+        validateZoneId(zoneId);
+        Account currentAccount = PrincipalRetriever.retrieveAccount();
+        if (!Objects.equals(userProfile.getId(), currentAccount.getUserProfile().getId())) {
+            throw new AccessNotAllowedException("You don't have permission to view this data.");
+        }
+        return deckCardCounterService.countCardsOfAllDecks(
+                userProfile.getId(),
+                LocalDateTime.now(clock),
+                LocalDate.now(clock.withZone(ZoneId.of(zoneId)))
         );
-        Collections.shuffle(flashcards);
-        return new ArrayDeque<>(flashcards);
     }
 
     @Override
@@ -122,74 +175,73 @@ public class FlashcardServiceImpl implements FlashcardService {
         return flashcardRepository.findByDeck(deck);
     }
 
+    @Transactional
     @Override
     public FlashcardForecastsDTO produceReviewTimeForecastsAsText(long flashcardId) {
         Flashcard flashcard = this.getCardById(flashcardId);
+        return ForecastLabels.forecasts(flashcard, spacedRepetitionRegistry.forDeck(flashcard.getDeck()),
+                LocalDateTime.now(clock));
+    }
 
-        final String stepOneText = "in 1 min";
-        final String stepTwoText = "in 10 min";
-        final String stepThreeText = "in 24 h";
-        final String initRevModeText = "in 2 days";
-
-        LearnModeForecastsDTO learnForecasts = new LearnModeForecastsDTO();
-        ReviewModeForecastsDTO reviewForecasts = new ReviewModeForecastsDTO();
-        if (flashcard.isInLearnMode()) {
-            switch (flashcard.getLearnModeStep()) {
-                case ONE -> {
-                    learnForecasts.setForPrevious("now");
-                    learnForecasts.setForNormal(stepOneText);
-                    learnForecasts.setForNext(stepTwoText);
-                    learnForecasts.setForToReviewMode(initRevModeText);
-                }
-                case TWO -> {
-                    learnForecasts.setForPrevious(stepOneText);
-                    learnForecasts.setForNormal(stepTwoText);
-                    learnForecasts.setForNext(stepThreeText);
-                    learnForecasts.setForToReviewMode(initRevModeText);
-                }
-                case THREE -> {
-                    learnForecasts.setForPrevious(stepTwoText);
-                    learnForecasts.setForNormal(stepThreeText);
-                    learnForecasts.setForNext(initRevModeText);
-                    learnForecasts.setForToReviewMode(initRevModeText);
-                }
-            }
-        } else {
-            double interval = flashcard.getCurrentIntervalDays();
-            double reduceFactor = flashcard.getReduceFactor();
-            double increaseFactor = flashcard.getIncreaseFactor();
-
-            reviewForecasts.setForCannotSolve(interval <= 2D ? stepOneText : initRevModeText);
-
-            int intervalDif = BigDecimal.valueOf(interval * reduceFactor)
-                    .setScale(0, RoundingMode.HALF_DOWN).intValue();
-            reviewForecasts.setForDifficult(String.format("in %d days", intervalDif));
+    @Override
+    public Flashcard getCardById(long id) {
+        return getOwnedCardById(id).flashcard();
+    }
 
-            int intervalNorm = BigDecimal.valueOf(interval * 1.1)
-                    .setScale(0, RoundingMode.HALF_DOWN).intValue();
-            reviewForecasts.setForNormal(String.format("in %d days", intervalNorm));
+    @Override
+    public OwnedFlashcard getOwnedCardById(long id) {
+        Account currentAccount = PrincipalRetriever.retrieveAccount();
+        Long ownerUserProfileId = flashcardRepository.findOwnerUserProfileIdById(id)
+                .orElseThrow(GeneralNotFoundException::new);
 
-            int intervalEasy = BigDecimal.valueOf(interval * increaseFactor)
-                    .setScale(0, RoundingMode.HALF_DOWN).intValue();
-            reviewForecasts.setForEasy(String.format("in %d days", intervalEasy));
+        if (!Objects.equals(ownerUserProfileId, currentAccount.getUserProfile().getId())) {
+            throw new AccessNotAllowedException("You don't have permission to perform this action.");
         }
-
-        return new FlashcardForecastsDTO(learnForecasts, reviewForecasts);
+        Flashcard flashcard = flashcardRepository.findById(id)
+                .orElseThrow(GeneralNotFoundException::new);
+        return new OwnedFlashcard(flashcard, ownerUserProfileId);
     }
 
     @Override
-    public Flashcard getCardById(long id) {
+    public Map<Long, OwnedFlashcard> getOwnedCardsByIds(Collection<Long> ids) {
         Account currentAccount = PrincipalRetriever.retrieveAccount();
-        Flashcard foundCard = flashcardRepository.findById(id)
-                .orElseThrow(GeneralNotFoundException::new);
+        Set<Long> distinctIds = new HashSet<>(ids);
+        if (distinctIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<Long, OwnedFlashcard> cardsById = new HashMap<>();
+        for (Object[] row : flashcardRepository.findWithOwnerUserProfileIdByIdIn(distinctIds)) {
+            Flashcard flashcard = (Flashcard) row[0];
+            if (!Objects.equals(row[1], currentAccount.getUserProfile().getId())) {
+                throw new AccessNotAllowedException("You don't have permission to perform this action.");
+            }
+            cardsById.put(flashcard.getId(), new OwnedFlashcard(flashcard, (Long) row[1]));
+        }
+        if (cardsById.size() != distinctIds.size()) {
+            throw new GeneralNotFoundException();
+        }
+        return cardsById;
+    }
 
-        if (!Objects.equals(foundCard.getDeck().getUserProfile().getId(),
-                currentAccount.getUserProfile().getId())) {
-            throw new AccessNotAllowedException("You don't have permission to perform this action.");
+
+    private static void applyFittedFactors(Deck deck, Flashcard flashcard) {
+        if (deck.getFittedIncreaseFactor() != null && deck.getFittedReduceFactor() != null) {
+            flashcard.setIncreaseFactor(deck.getFittedIncreaseFactor());
+            flashcard.setReduceFactor(deck.getFittedReduceFactor());
         }
-        return foundCard;
     }
 
+    private void countCreatedFlashcard(Deck deck, Flashcard flashcard) {
+        DeckCardCountersDelta countersDelta = new DeckCardCountersDelta();
+        countersDelta.cardAdded(deck.getId(), CardSchedule.of(flashcard));
+        deckCardCounterService.applyDelta(countersDelta);
+    }
+
+    private void validateZoneId(String zoneId) {
+        if (!ZoneId.getAvailableZoneIds().contains(zoneId)) {
+            throw new IllegalArgumentException("The specified zone id is incorrect.");
+        }
+    }
 
     @Transactional
     private Deck findDeckById(long id) {
@@ -0,0 +1,107 @@
+package langcontrol.app.flashcard;
+
+import langcontrol.app.flashcard.rest.FlashcardForecastsDTO;
+import langcontrol.app.flashcard.rest.LearnModeForecastsDTO;
+import langcontrol.app.flashcard.rest.ReviewModeForecastsDTO;
+import langcontrol.app.spaced_repetition.RatingType;
+import langcontrol.app.spaced_repetition.SpacedRepetition;
+import langcontrol.app.spaced_repetition.SpacedRepetitionItem;
+import langcontrol.app.util.HalfDownRounding;
+
+import java.time.LocalDateTime;
+
+/*
+ * Texts of the review time forecasts shown on the rating buttons. The "in N days" labels of the first
+ * CACHED_DAYS days are built once, so that producing the forecasts of a card doesn't format any strings.
+ * The forecasts only depend on the scheduling state of the card, so they can be produced from the review
+ * card views of a session without loading the card again. Learn mode is the same for every algorithm, the
+ * review mode forecasts apply each rating to a copy of the state with the algorithm of the deck.
+ */
+public final class ForecastLabels {
+
+    public static final String NOW = "now";
+    public static final String IN_ONE_MINUTE = "in 1 min";
+    public static final String IN_TEN_MINUTES = "in 10 min";
+    public static final String IN_ONE_DAY = "in 24 h";
+    public static final String IN_TWO_DAYS = "in 2 days";
+
+    static final int CACHED_DAYS = 1000;
+
+    private static final String[] DAY_LABELS = new String[CACHED_DAYS + 1];
+
+    static {
+        for (int days = 0; days <= CACHED_DAYS; days++) {
+            DAY_LABELS[days] = buildDaysLabel(days);
+        }
+    }
+
+    private ForecastLabels() {
+    }
+
+    public static String inDays(int days) {
+        if (days >= 0 && days <= CACHED_DAYS) {
+            return DAY_LABELS[days];
+        }
+        return buildDaysLabel(days);
+    }
+
+    /*
+     * Label of the interval that a review rating multiplying the current interval by the factor would set.
+     */
+    public static String inDays(double intervalDays, double factor) {
+        return inDays(HalfDownRounding.roundToInt(intervalDays * factor));
+    }
+
+    public static FlashcardForecastsDTO forecasts(SpacedRepetitionItem item, SpacedRepetition algorithm,
+                                                  LocalDateTime nowInUTC) {
+        LearnModeForecastsDTO learnForecasts = new LearnModeForecastsDTO();
+        ReviewModeForecastsDTO reviewForecasts = new ReviewModeForecastsDTO();
+        if (item.isInLearnMode()) {
+            if (item.getLearnModeStep() != null) {
+                switch (item.getLearnModeStep()) {
+                    case ONE -> {
+                        learnForecasts.setForPrevious(NOW);
+                        learnForecasts.setForNormal(IN_ONE_MINUTE);
+                        learnForecasts.setForNext(IN_TEN_MINUTES);
+                        learnForecasts.setForToReviewMode(IN_TWO_DAYS);
+                    }
+                    case TWO -> {
+                        learnForecasts.setForPrevious(IN_ONE_MINUTE);
+                        learnForecasts.setForNormal(IN_TEN_MINUTES);
+                        learnForecasts.setForNext(IN_ONE_DAY);
+                        learnForecasts.setForToReviewMode(IN_TWO_DAYS);
+                    }
+                    case THREE -> {
+                        learnForecasts.setForPrevious(IN_TEN_MINUTES);
+                        learnForecasts.setForNormal(IN_ONE_DAY);
+                        learnForecasts.setForNext(IN_TWO_DAYS);
+                        learnForecasts.setForToReviewMode(IN_TWO_DAYS);
+                    }
+                }
+            }
+        } else if (item.getCurrentIntervalDays() != null && item.getIncreaseFactor() != null
+                && item.getReduceFactor() != null) {
+            reviewForecasts.setForCannotSolve(forecast(item, algorithm, RatingType.REVIEW_CANNOT_SOLVE, nowInUTC));
+            reviewForecasts.setForDifficult(forecast(item, algorithm, RatingType.REVIEW_DIFFICULT, nowInUTC));
+            reviewForecasts.setForNormal(forecast(item, algorithm, RatingType.REVIEW_NORMAL, nowInUTC));
+            reviewForecasts.setForEasy(forecast(item, algorithm, RatingType.REVIEW_EASY, nowInUTC));
+        }
+        return new FlashcardForecastsDTO(learnForecasts, reviewForecasts);
+    }
+
+    /*
+     * A review rating which sends the card back to learn mode shows it again after a minute.
+     */
+    private static String forecast(SpacedRepetitionItem item, SpacedRepetition algorithm, RatingType rating,
+                                   LocalDateTime nowInUTC) {
+        SpacedRepetitionItem forecast = algorithm.forecast(item, rating, nowInUTC);
+        if (forecast.isInLearnMode()) {
+            return IN_ONE_MINUTE;
+        }
+        return inDays(HalfDownRounding.roundToInt(forecast.getCurrentIntervalDays()));
+    }
+
+    private static String buildDaysLabel(int days) {
+        return "in " + days + " days";
+    }
+}
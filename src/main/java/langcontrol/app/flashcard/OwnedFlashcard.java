@@ -0,0 +1,8 @@
+package langcontrol.app.flashcard;
+
+/*
+ * A card together with the id of the user profile that owns its deck, as read by the ownership check, so
+ * callers don't have to walk the deck to find the owner again.
+ */
+public record OwnedFlashcard(Flashcard flashcard, long ownerUserProfileId) {
+}
@@ -0,0 +1,27 @@
+package langcontrol.app.flashcard;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.rest.FlashcardForecastsDTO;
+import langcontrol.app.spaced_repetition.SpacedRepetition;
+
+import java.time.LocalDateTime;
+
+/*
+ * The forecasts of the rating buttons are produced when the view is created, so that the review session
+ * can show them without loading the card again.
+ */
+public record ReviewCardView(Long id, String front, String back, PartOfSpeech partOfSpeech,
+                             LanguageCode sourceLanguage, LanguageCode targetLanguage,
+                             boolean dynamicExamples, String example, String translatedExample,
+                             boolean inLearnMode, LearnModeStep learnModeStep,
+                             FlashcardForecastsDTO forecasts) {
+
+    public static ReviewCardView fromFlashcard(Flashcard flashcard, SpacedRepetition algorithm,
+                                               LocalDateTime nowInUTC) {
+        return new ReviewCardView(flashcard.getId(), flashcard.getFront(), flashcard.getBack(),
+                flashcard.getPartOfSpeech(), flashcard.getSourceLanguage(), flashcard.getTargetLanguage(),
+                flashcard.isDynamicExamples(), flashcard.getExample(), flashcard.getTranslatedExample(),
+                flashcard.isInLearnMode(), flashcard.getLearnModeStep(),
+                ForecastLabels.forecasts(flashcard, algorithm, nowInUTC));
+    }
+}
@@ -0,0 +1,241 @@
+package langcontrol.app.generator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.exception.ProviderUnavailableException;
+import langcontrol.app.flashcard.PartOfSpeech;
+import langcontrol.app.util.TextKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Keeps the translations of recently looked up words in memory, so that the same word looked up again, or
+ * looked up on the add card page and then used for a new card, doesn't cost another call to the provider.
+ * The words are compared in lower case, Unicode NFC form and with collapsed whitespace.
+ *
+ * Every pair of languages has its own least recently used cache with a cap on the estimated memory of its
+ * entries, so that a busy pair can't push out the entries of all the others. Entries expire after the time to
+ * live and empty results aren't cached at all.
+ *
+ * When the provider is unavailable, the lookup falls back to the expired entry of the word if there was one.
+ * Without one, the async lookup behind the suggestions of the add card page returns an empty list, so the page
+ * keeps working without suggestions, while the blocking lookup used to create cards rethrows the exception,
+ * so that no card is created without translations.
+ */
+@Service
+public class CachingDictionary implements Dictionary {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final Dictionary delegate;
+    private final Clock clock;
+    private final Duration timeToLive;
+    private final long maxBytesPerLanguagePair;
+    private final Map<LanguagePair, Segment> segments;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter sizeEvictionCounter;
+    private final Counter expiryEvictionCounter;
+    private final Counter staleFallbackCounter;
+    private final Counter emptyFallbackCounter;
+
+    @Autowired
+    public CachingDictionary(@Qualifier("openAiDictionary") Dictionary delegate,
+                             MeterRegistry meterRegistry,
+                             Clock clock,
+                             @Value("${langcontrol.dictionary-cache.time-to-live:PT24H}") Duration timeToLive,
+                             @Value("${langcontrol.dictionary-cache.max-bytes-per-language-pair:2097152}")
+                             long maxBytesPerLanguagePair) {
+        if (timeToLive.isNegative() || timeToLive.isZero() || maxBytesPerLanguagePair < 1) {
+            throw new IllegalArgumentException("The time to live and the memory cap of the cache must be positive.");
+        }
+        this.delegate = delegate;
+        this.clock = clock;
+        this.timeToLive = timeToLive;
+        this.maxBytesPerLanguagePair = maxBytesPerLanguagePair;
+        this.segments = new ConcurrentHashMap<>();
+        this.hitCounter = Counter.builder("langcontrol.dictionary_cache.requests")
+                .tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("langcontrol.dictionary_cache.requests")
+                .tag("result", "miss").register(meterRegistry);
+        this.sizeEvictionCounter = Counter.builder("langcontrol.dictionary_cache.evictions")
+                .tag("cause", "size").register(meterRegistry);
+        this.expiryEvictionCounter = Counter.builder("langcontrol.dictionary_cache.evictions")
+                .tag("cause", "expired").register(meterRegistry);
+        this.staleFallbackCounter = Counter.builder("langcontrol.dictionary_cache.fallbacks")
+                .tag("result", "stale").register(meterRegistry);
+        this.emptyFallbackCounter = Counter.builder("langcontrol.dictionary_cache.fallbacks")
+                .tag("result", "empty").register(meterRegistry);
+        Gauge.builder("langcontrol.dictionary_cache.entries", this, CachingDictionary::entryCount)
+                .register(meterRegistry);
+        Gauge.builder("langcontrol.dictionary_cache.bytes", this, CachingDictionary::estimatedBytes)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> getTranslationsList(String wordOrPhraseToTranslate, LanguageCode translateFrom,
+                                            LanguageCode translateTo, PartOfSpeech partOfSpeech) {
+        CachedLookup lookup = lookup(wordOrPhraseToTranslate, translateFrom, translateTo, partOfSpeech);
+        if (lookup.translations() != null) {
+            return lookup.translations();
+        }
+        List<String> translations;
+        try {
+            translations = delegate.getTranslationsList(wordOrPhraseToTranslate, translateFrom, translateTo,
+                    partOfSpeech);
+        } catch (ProviderUnavailableException e) {
+            if (lookup.staleTranslations() == null) {
+                throw e;
+            }
+            return fallback(lookup);
+        }
+        store(lookup, translations);
+        return translations;
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getTranslationsListAsync(String wordOrPhraseToTranslate,
+                                                                    LanguageCode translateFrom,
+                                                                    LanguageCode translateTo,
+                                                                    PartOfSpeech partOfSpeech) {
+        CachedLookup lookup;
+        try {
+            lookup = lookup(wordOrPhraseToTranslate, translateFrom, translateTo, partOfSpeech);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (lookup.translations() != null) {
+            return CompletableFuture.completedFuture(lookup.translations());
+        }
+        return delegate.getTranslationsListAsync(wordOrPhraseToTranslate, translateFrom, translateTo, partOfSpeech)
+                .handle((translations, error) -> {
+                    if (error == null) {
+                        store(lookup, translations);
+                        return translations;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof ProviderUnavailableException) {
+                        return fallback(lookup);
+                    }
+                    throw error instanceof CompletionException completionException
+                            ? completionException : new CompletionException(cause);
+                });
+    }
+
+    private CachedLookup lookup(String wordOrPhraseToTranslate, LanguageCode translateFrom,
+                                LanguageCode translateTo, PartOfSpeech partOfSpeech) {
+        if (wordOrPhraseToTranslate == null || translateFrom == null || translateTo == null
+                || partOfSpeech == null) {
+            throw new IllegalArgumentException("Arguments cannot be null.");
+        }
+        Segment segment = segments.computeIfAbsent(new LanguagePair(translateFrom, translateTo),
+                pair -> new Segment());
+        String key = partOfSpeech.name() + '|' + TextKeys.normalizeIgnoringCase(wordOrPhraseToTranslate);
+        Instant now = clock.instant();
+        CacheEntry entry = segment.get(key, now);
+        if (entry != null && entry.expiresAt().isAfter(now)) {
+            hitCounter.increment();
+            return new CachedLookup(segment, key, entry.translations(), null);
+        }
+        missCounter.increment();
+        return new CachedLookup(segment, key, null, entry == null ? null : entry.translations());
+    }
+
+    private List<String> fallback(CachedLookup lookup) {
+        if (lookup.staleTranslations() != null) {
+            staleFallbackCounter.increment();
+            return lookup.staleTranslations();
+        }
+        emptyFallbackCounter.increment();
+        return List.of();
+    }
+
+    private void store(CachedLookup lookup, List<String> translations) {
+        if (translations != null && !translations.isEmpty()) {
+            lookup.segment().put(lookup.key(), List.copyOf(translations), clock.instant().plus(timeToLive));
+        }
+    }
+
+    private double entryCount() {
+        return segments.values().stream().mapToLong(Segment::size).sum();
+    }
+
+    private double estimatedBytes() {
+        return segments.values().stream().mapToLong(Segment::bytes).sum();
+    }
+
+    private static int estimateBytes(String key, List<String> translations) {
+        int bytes = ENTRY_OVERHEAD_BYTES + STRING_OVERHEAD_BYTES + 2 * key.length();
+        for (String translation : translations) {
+            bytes += STRING_OVERHEAD_BYTES + 2 * translation.length();
+        }
+        return bytes;
+    }
+
+    private record LanguagePair(LanguageCode from, LanguageCode to) {
+    }
+
+    private record CachedLookup(Segment segment, String key, List<String> translations,
+                                List<String> staleTranslations) {
+    }
+
+    private record CacheEntry(List<String> translations, Instant expiresAt, int bytes) {
+    }
+
+    private final class Segment {
+
+        private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        /*
+         * An expired entry is removed but still returned, so that it can serve as a fallback.
+         */
+        private synchronized CacheEntry get(String key, Instant now) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && !entry.expiresAt().isAfter(now)) {
+                entries.remove(key);
+                bytes -= entry.bytes();
+                expiryEvictionCounter.increment();
+            }
+            return entry;
+        }
+
+        private synchronized void put(String key, List<String> translations, Instant expiresAt) {
+            CacheEntry entry = new CacheEntry(translations, expiresAt, estimateBytes(key, translations));
+            if (entry.bytes() > maxBytesPerLanguagePair) {
+                return;
+            }
+            CacheEntry replaced = entries.put(key, entry);
+            bytes += entry.bytes() - (replaced == null ? 0 : replaced.bytes());
+            Iterator<CacheEntry> eldest = entries.values().iterator();
+            while (bytes > maxBytesPerLanguagePair) {
+                CacheEntry evicted = eldest.next();
+                eldest.remove();
+                bytes -= evicted.bytes();
+                sizeEvictionCounter.increment();
+            }
+        }
+
+        private synchronized long size() {
+            return entries.size();
+        }
+
+        private synchronized long bytes() {
+            return bytes;
+        }
+    }
+}
@@ -4,9 +4,26 @@ import langcontrol.app.flashcard.PartOfSpeech;
 import langcontrol.app.deck.LanguageCode;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface Dictionary {
 
     List<String> getTranslationsList(String wordOrPhraseToTranslate, LanguageCode translateFrom,
                                      LanguageCode translateTo, PartOfSpeech partOfSpeech);
+
+    /*
+     * Implementations calling a remote provider override this, so that the caller isn't blocked while the
+     * provider answers.
+     */
+    default CompletableFuture<List<String>> getTranslationsListAsync(String wordOrPhraseToTranslate,
+                                                                     LanguageCode translateFrom,
+                                                                     LanguageCode translateTo,
+                                                                     PartOfSpeech partOfSpeech) {
+        try {
+            return CompletableFuture.completedFuture(getTranslationsList(wordOrPhraseToTranslate, translateFrom,
+                    translateTo, partOfSpeech));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,93 @@
+package langcontrol.app.generator;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.exception.ProviderUnavailableException;
+import langcontrol.app.flashcard.PartOfSpeech;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/*
+ * Generates the sentences and translates all of them at once as soon as they arrive, so a caller gets the
+ * sentences with their translations from a single call. The translations are requested concurrently and
+ * end up in one DeepL request through the coalescer. The map keeps the order of the generated sentences;
+ * blank sentences are skipped. When one of the providers is unavailable, the result is empty, which the
+ * review page and the example pool already handle as "no examples".
+ */
+@Service
+public class PipelinedSentenceWithTranslationGenerator implements SentenceWithTranslationGenerator {
+
+    private final SentenceGenerator sentenceGenerator;
+    private final Translator translator;
+
+    @Autowired
+    public PipelinedSentenceWithTranslationGenerator(SentenceGenerator sentenceGenerator,
+                                                     @Qualifier("deeplTranslator") Translator translator) {
+        this.sentenceGenerator = sentenceGenerator;
+        this.translator = translator;
+    }
+
+    @Override
+    public Map<String, String> generate(String keyword, LanguageCode keywordLanguage, PartOfSpeech keywordPos,
+                                        LanguageCode translationLanguage, int numberOfSentences) {
+        try {
+            return generateAsync(keyword, keywordLanguage, keywordPos, translationLanguage, numberOfSentences)
+                    .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<String, String>> generateAsync(String keyword, LanguageCode keywordLanguage,
+                                                                PartOfSpeech keywordPos,
+                                                                LanguageCode translationLanguage,
+                                                                int numberOfSentences) {
+        if (keywordLanguage == translationLanguage) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Languages to translate from and to cannot be the same."));
+        }
+        return sentenceGenerator.generateAsync(keyword, keywordLanguage, keywordPos, numberOfSentences)
+                .thenCompose(sentences -> translateAll(sentences, translationLanguage))
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof ProviderUnavailableException) {
+                        return Map.of();
+                    }
+                    throw error instanceof CompletionException completionException
+                            ? completionException : new CompletionException(cause);
+                });
+    }
+
+    private CompletableFuture<Map<String, String>> translateAll(List<String> sentences,
+                                                               LanguageCode translationLanguage) {
+        List<String> distinctSentences = sentences.stream()
+                .filter(sentence -> sentence != null && !sentence.isBlank())
+                .map(String::strip)
+                .distinct()
+                .toList();
+        List<CompletableFuture<String>> translations = new ArrayList<>(distinctSentences.size());
+        for (String sentence : distinctSentences) {
+            translations.add(translator.translateAsync(sentence, translationLanguage));
+        }
+        return CompletableFuture.allOf(translations.toArray(CompletableFuture[]::new))
+                .thenApply(done -> {
+                    Map<String, String> sentencesWithTranslations = new LinkedHashMap<>();
+                    for (int i = 0; i < distinctSentences.size(); i++) {
+                        sentencesWithTranslations.put(distinctSentences.get(i), translations.get(i).join());
+                    }
+                    return sentencesWithTranslations;
+                });
+    }
+}
@@ -0,0 +1,47 @@
+package langcontrol.app.generator;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+ * Runs the calls of providers whose clients only offer a blocking API, so that the request threads can be
+ * released while the provider answers. The pool and its queue are bounded; a call that doesn't fit in fails
+ * right away instead of piling up behind a slow provider.
+ */
+@Component
+public class ProviderCallExecutor {
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public ProviderCallExecutor(@Value("${langcontrol.generator.provider-call-threads:16}") int threads,
+                                @Value("${langcontrol.generator.provider-call-queue-capacity:100}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "provider-call-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        ((ThreadPoolExecutor) this.executor).allowCoreThreadTimeOut(true);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,298 @@
+package langcontrol.app.generator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import langcontrol.app.exception.ProviderUnavailableException;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/*
+ * Wraps the calls to one provider, so that a slow or failing provider can't hold up the rest of the
+ * application. Three mechanisms work together:
+ *
+ * The number of concurrent calls is capped by a limit that adapts to the provider (additive increase,
+ * multiplicative decrease). Every call answered within half of the timeout raises the limit by about one
+ * per limit calls, every failed, timed out or slow call multiplies it by BACKOFF_RATIO. A call above the
+ * limit is rejected right away.
+ *
+ * Every call has a timeout budget. The asynchronous calls fail when it runs out; the blocking clients are
+ * configured with the same timeout and a failure after the budget is reported the same way.
+ *
+ * A circuit breaker opens when at least half of the last WINDOW_SIZE calls failed, and rejects all calls
+ * for the open duration. Then a single probe call is let through, which closes the circuit again if it
+ * succeeds.
+ *
+ * Only errors that tell about the health of the provider count as failures: timeouts, I/O errors and the
+ * errors matched by the failure predicate of the provider, which picks the 5xx and 429 answers. Any other
+ * error, like a 400 for a bad request, is the fault of the caller. It is passed on without touching the
+ * limit or the circuit.
+ *
+ * Rejections and timeouts fail with ProviderUnavailableException, which the callers can answer with a
+ * fallback. Other failures are passed on unchanged.
+ */
+public class ProviderGuard {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    static final int WINDOW_SIZE = 20;
+    static final int MIN_CALLS = 10;
+    static final double FAILURE_RATE_THRESHOLD = 0.5;
+    static final double BACKOFF_RATIO = 0.7;
+    static final int MIN_LIMIT = 1;
+
+    private enum Outcome { SUCCESS, FAILURE, TIMEOUT, CALLER_ERROR, CANCELLED }
+
+    private final String provider;
+    private final Duration timeout;
+    private final int maxLimit;
+    private final Duration openDuration;
+    private final Clock clock;
+    private final Predicate<Throwable> providerFailure;
+    private final boolean[] failedCalls;
+    private final Counter limitRejectionCounter;
+    private final Counter openRejectionCounter;
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter timeoutCounter;
+    private final Counter callerErrorCounter;
+
+    private State state;
+    private long openedAtMillis;
+    private boolean probeInFlight;
+    private double limit;
+    private int inFlight;
+    private int recordedCalls;
+    private int nextRecordIndex;
+    private int recordedFailures;
+
+    public ProviderGuard(String provider, Duration timeout, int maxConcurrency, Duration openDuration,
+                         Predicate<Throwable> providerFailure, MeterRegistry meterRegistry, Clock clock) {
+        if (timeout.isNegative() || timeout.isZero() || openDuration.isNegative() || maxConcurrency < MIN_LIMIT) {
+            throw new IllegalArgumentException("The timeout, open duration and concurrency must be positive.");
+        }
+        this.provider = provider;
+        this.timeout = timeout;
+        this.maxLimit = maxConcurrency;
+        this.openDuration = openDuration;
+        this.clock = clock;
+        this.providerFailure = providerFailure;
+        this.failedCalls = new boolean[WINDOW_SIZE];
+        this.state = State.CLOSED;
+        this.limit = maxConcurrency;
+        this.limitRejectionCounter = Counter.builder("langcontrol.provider.rejections")
+                .tag("provider", provider).tag("reason", "concurrency_limit").register(meterRegistry);
+        this.openRejectionCounter = Counter.builder("langcontrol.provider.rejections")
+                .tag("provider", provider).tag("reason", "circuit_open").register(meterRegistry);
+        this.successCounter = Counter.builder("langcontrol.provider.calls")
+                .tag("provider", provider).tag("outcome", "success").register(meterRegistry);
+        this.failureCounter = Counter.builder("langcontrol.provider.calls")
+                .tag("provider", provider).tag("outcome", "failure").register(meterRegistry);
+        this.timeoutCounter = Counter.builder("langcontrol.provider.calls")
+                .tag("provider", provider).tag("outcome", "timeout").register(meterRegistry);
+        this.callerErrorCounter = Counter.builder("langcontrol.provider.calls")
+                .tag("provider", provider).tag("outcome", "caller_error").register(meterRegistry);
+        Gauge.builder("langcontrol.provider.state", this, guard -> guard.state().ordinal())
+                .tag("provider", provider).description("0 closed, 1 half open, 2 open").register(meterRegistry);
+        Gauge.builder("langcontrol.provider.concurrency_limit", this, ProviderGuard::concurrencyLimit)
+                .tag("provider", provider).register(meterRegistry);
+        Gauge.builder("langcontrol.provider.in_flight", this, ProviderGuard::inFlight)
+                .tag("provider", provider).register(meterRegistry);
+    }
+
+    /*
+     * Runs a blocking call on the calling thread. The client making the call must enforce the timeout.
+     */
+    public <T> T call(Supplier<T> call) {
+        boolean probe = acquire();
+        long startedAtMillis = clock.millis();
+        T value;
+        try {
+            value = call.get();
+        } catch (RuntimeException | Error e) {
+            long elapsedMillis = clock.millis() - startedAtMillis;
+            if (elapsedMillis >= timeout.toMillis()) {
+                release(probe, Outcome.TIMEOUT, elapsedMillis);
+                throw timedOut(e);
+            }
+            release(probe, failureOutcome(e), elapsedMillis);
+            throw e;
+        }
+        release(probe, Outcome.SUCCESS, clock.millis() - startedAtMillis);
+        return value;
+    }
+
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        boolean probe;
+        try {
+            probe = acquire();
+        } catch (ProviderUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        long startedAtMillis = clock.millis();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> guarded = new CompletableFuture<>();
+        result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            long elapsedMillis = clock.millis() - startedAtMillis;
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause == null) {
+                release(probe, Outcome.SUCCESS, elapsedMillis);
+                guarded.complete(value);
+            } else if (cause instanceof TimeoutException) {
+                release(probe, Outcome.TIMEOUT, elapsedMillis);
+                guarded.completeExceptionally(timedOut(cause));
+            } else {
+                release(probe, cause instanceof CancellationException
+                        ? Outcome.CANCELLED : failureOutcome(cause), elapsedMillis);
+                guarded.completeExceptionally(cause);
+            }
+        });
+        return guarded;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    synchronized int concurrencyLimit() {
+        return (int) limit;
+    }
+
+    private synchronized int inFlight() {
+        return inFlight;
+    }
+
+    /*
+     * Returns whether the admitted call is the probe of a half open circuit.
+     */
+    private synchronized boolean acquire() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAtMillis < openDuration.toMillis()) {
+                openRejectionCounter.increment();
+                throw new ProviderUnavailableException("The circuit of " + provider + " is open.");
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                openRejectionCounter.increment();
+                throw new ProviderUnavailableException("The circuit of " + provider + " is half open.");
+            }
+            probeInFlight = true;
+            inFlight++;
+            return true;
+        }
+        if (inFlight >= (int) limit) {
+            limitRejectionCounter.increment();
+            throw new ProviderUnavailableException("Too many concurrent calls to " + provider + ".");
+        }
+        inFlight++;
+        return false;
+    }
+
+    private synchronized void release(boolean probe, Outcome outcome, long elapsedMillis) {
+        inFlight--;
+        if (outcome == Outcome.CALLER_ERROR || outcome == Outcome.CANCELLED) {
+            if (outcome == Outcome.CALLER_ERROR) {
+                callerErrorCounter.increment();
+            }
+            if (probe) {
+                probeInFlight = false;
+            }
+            return;
+        }
+        switch (outcome) {
+            case SUCCESS -> successCounter.increment();
+            case TIMEOUT -> timeoutCounter.increment();
+            default -> failureCounter.increment();
+        }
+        boolean failed = outcome != Outcome.SUCCESS;
+        if (failed || elapsedMillis > timeout.toMillis() / 2) {
+            limit = Math.max(MIN_LIMIT, limit * BACKOFF_RATIO);
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        if (probe) {
+            if (failed) {
+                open();
+            } else {
+                close();
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            return;
+        }
+        recordCall(failed);
+        if (recordedCalls >= MIN_CALLS && recordedFailures >= FAILURE_RATE_THRESHOLD * recordedCalls) {
+            open();
+        }
+    }
+
+    private void recordCall(boolean failed) {
+        if (recordedCalls == WINDOW_SIZE) {
+            if (failedCalls[nextRecordIndex]) {
+                recordedFailures--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        failedCalls[nextRecordIndex] = failed;
+        if (failed) {
+            recordedFailures++;
+        }
+        nextRecordIndex = (nextRecordIndex + 1) % WINDOW_SIZE;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtMillis = clock.millis();
+        probeInFlight = false;
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probeInFlight = false;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        recordedCalls = 0;
+        recordedFailures = 0;
+        nextRecordIndex = 0;
+    }
+
+    /*
+     * Looks for an I/O error or an error of the provider anywhere in the chain of causes, since the clients
+     * can wrap them.
+     */
+    private Outcome failureOutcome(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || providerFailure.test(cause)) {
+                return Outcome.FAILURE;
+            }
+        }
+        return Outcome.CALLER_ERROR;
+    }
+
+    private ProviderUnavailableException timedOut(Throwable cause) {
+        return new ProviderUnavailableException(provider + " didn't answer within " + timeout + ".", cause);
+    }
+}
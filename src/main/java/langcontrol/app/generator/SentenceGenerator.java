@@ -4,9 +4,24 @@ import langcontrol.app.deck.LanguageCode;
 import langcontrol.app.flashcard.PartOfSpeech;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface SentenceGenerator {
 
     List<String> generate(String keyword, LanguageCode keywordLanguage,
                           PartOfSpeech keywordPartOfSpeech, int numberOfSentences);
+
+    /*
+     * Implementations calling a remote provider override this, so that the caller isn't blocked while the
+     * provider answers.
+     */
+    default CompletableFuture<List<String>> generateAsync(String keyword, LanguageCode keywordLanguage,
+                                                          PartOfSpeech keywordPartOfSpeech, int numberOfSentences) {
+        try {
+            return CompletableFuture.completedFuture(generate(keyword, keywordLanguage, keywordPartOfSpeech,
+                    numberOfSentences));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -4,9 +4,14 @@ import langcontrol.app.deck.LanguageCode;
 import langcontrol.app.flashcard.PartOfSpeech;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface SentenceWithTranslationGenerator {
 
     Map<String, String> generate(String keyword, LanguageCode keywordLanguage, PartOfSpeech keywordPos,
-                                 int numberOfSentences);
+                                 LanguageCode translationLanguage, int numberOfSentences);
+
+    CompletableFuture<Map<String, String>> generateAsync(String keyword, LanguageCode keywordLanguage,
+                                                         PartOfSpeech keywordPos, LanguageCode translationLanguage,
+                                                         int numberOfSentences);
 }
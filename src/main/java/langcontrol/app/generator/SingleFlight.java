@@ -0,0 +1,91 @@
+package langcontrol.app.generator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+ * Lets concurrent callers asking for the same thing share one provider call. The first caller of a key
+ * starts the call and the others wait for its result. The key is released as soon as the call completes,
+ * so nothing is cached: a later caller starts a new call. Every caller gets its own copy of the shared
+ * future, so one caller cancelling doesn't affect the others.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight;
+    private final Counter startedCounter;
+    private final Counter sharedCounter;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.inFlight = new ConcurrentHashMap<>();
+        this.startedCounter = Counter.builder("langcontrol.single_flight.calls")
+                .tag("name", name).tag("result", "started").register(meterRegistry);
+        this.sharedCounter = Counter.builder("langcontrol.single_flight.calls")
+                .tag("name", name).tag("result", "shared").register(meterRegistry);
+    }
+
+    /*
+     * The call of the first caller runs on its own thread, the others block until it completes.
+     */
+    public V call(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            sharedCounter.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        startedCounter.increment();
+        try {
+            V value = call.get();
+            land(key, flight, value, null);
+            return value;
+        } catch (RuntimeException | Error e) {
+            land(key, flight, null, e);
+            throw e;
+        }
+    }
+
+    public CompletableFuture<V> callAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            sharedCounter.increment();
+            return existing.copy();
+        }
+        startedCounter.increment();
+        CompletableFuture<V> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> land(key, flight, value, error));
+        return flight.copy();
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private void land(K key, CompletableFuture<V> flight, V value, Throwable error) {
+        inFlight.remove(key, flight);
+        if (error != null) {
+            flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+        } else {
+            flight.complete(value);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package langcontrol.app.generator;
 
 import langcontrol.app.deck.LanguageCode;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface Translator {
 
     default String translate(String textToTranslate, LanguageCode translateTo) {
@@ -11,4 +13,16 @@ public interface Translator {
     default String translate(String textToTranslate, LanguageCode translateTo, LanguageCode translateFrom) {
         return "";
     }
+
+    /*
+     * Implementations calling a remote provider override this, so that the caller isn't blocked while the
+     * provider answers.
+     */
+    default CompletableFuture<String> translateAsync(String textToTranslate, LanguageCode translateTo) {
+        try {
+            return CompletableFuture.completedFuture(translate(textToTranslate, translateTo));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package langcontrol.app.generator.deepl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import langcontrol.app.generator.ProviderGuard;
+import langcontrol.app.generator.deepl.client.DeeplClient;
+import langcontrol.app.generator.deepl.client.DeeplTranslation;
+import langcontrol.app.generator.deepl.client.DeeplTranslationResponseBody;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/*
+ * Collects the texts to translate into the same language over a short window and sends them to DeepL as
+ * one request with several texts, whose translations come back in the same order. The first text of a
+ * batch opens the window; a batch is also sent as soon as it holds the maximal number of texts. This keeps
+ * the number of outgoing requests down when many cards are reviewed at the same time, at the price of a
+ * few milliseconds of latency. The requests go through the DeepL guard, so a batch counts as one call
+ * against its concurrency limit and circuit breaker.
+ */
+@Component
+public class DeeplTranslationCoalescer {
+
+    static final int MAX_BATCH_SIZE = 50;
+
+    private final DeeplClient client;
+    private final ProviderGuard deeplGuard;
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Batch> openBatches;
+    private final DistributionSummary batchSizeSummary;
+
+    @Autowired
+    public DeeplTranslationCoalescer(DeeplClient client,
+                                     @Qualifier("deeplGuard") ProviderGuard deeplGuard,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${langcontrol.deepl.batch-window:PT0.005S}") Duration window) {
+        this.client = client;
+        this.deeplGuard = deeplGuard;
+        this.windowNanos = window.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deepl-batch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.openBatches = new HashMap<>();
+        this.batchSizeSummary = DistributionSummary.builder("langcontrol.deepl.batch.size")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> translate(String textToTranslate, String targetLanguageCode) {
+        CompletableFuture<String> translation = new CompletableFuture<>();
+        Batch batchToSend = null;
+        Batch openedBatch = null;
+        synchronized (openBatches) {
+            Batch batch = openBatches.get(targetLanguageCode);
+            if (batch == null) {
+                batch = new Batch(targetLanguageCode);
+                openBatches.put(targetLanguageCode, batch);
+                openedBatch = batch;
+            }
+            batch.add(textToTranslate, translation);
+            if (batch.size() >= MAX_BATCH_SIZE) {
+                openBatches.remove(targetLanguageCode);
+                batchToSend = batch;
+            }
+        }
+        if (batchToSend != null) {
+            send(batchToSend);
+        } else if (openedBatch != null) {
+            scheduleFlush(openedBatch);
+        }
+        return translation;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        List<Batch> pendingBatches;
+        synchronized (openBatches) {
+            pendingBatches = new ArrayList<>(openBatches.values());
+            openBatches.clear();
+        }
+        pendingBatches.forEach(batch -> batch.fail(new CancellationException("The translations were cancelled.")));
+    }
+
+    private void scheduleFlush(Batch batch) {
+        try {
+            scheduler.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            flush(batch);
+        }
+    }
+
+    private void flush(Batch batch) {
+        synchronized (openBatches) {
+            if (!openBatches.remove(batch.targetLanguageCode, batch)) {
+                return;
+            }
+        }
+        send(batch);
+    }
+
+    private void send(Batch batch) {
+        batchSizeSummary.record(batch.size());
+        deeplGuard.callAsync(() -> client.translate(batch.texts, batch.targetLanguageCode).toFuture())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        batch.fail(error);
+                    } else {
+                        batch.complete(response);
+                    }
+                });
+    }
+
+    private static final class Batch {
+
+        private final String targetLanguageCode;
+        private final List<String> texts;
+        private final List<CompletableFuture<String>> translations;
+
+        private Batch(String targetLanguageCode) {
+            this.targetLanguageCode = targetLanguageCode;
+            this.texts = new ArrayList<>();
+            this.translations = new ArrayList<>();
+        }
+
+        private void add(String text, CompletableFuture<String> translation) {
+            texts.add(text);
+            translations.add(translation);
+        }
+
+        private int size() {
+            return texts.size();
+        }
+
+        private void complete(DeeplTranslationResponseBody response) {
+            List<DeeplTranslation> received = response == null ? null : response.getTranslations();
+            if (received == null || received.size() != translations.size()) {
+                fail(new IllegalStateException("DeepL returned " + (received == null ? 0 : received.size())
+                        + " translations for " + translations.size() + " texts."));
+                return;
+            }
+            for (int i = 0; i < translations.size(); i++) {
+                translations.get(i).complete(received.get(i).getTranslatedText());
+            }
+        }
+
+        private void fail(Throwable error) {
+            translations.forEach(translation -> translation.completeExceptionally(error));
+        }
+    }
+}
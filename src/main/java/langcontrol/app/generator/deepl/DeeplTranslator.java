@@ -1,26 +1,52 @@
 package langcontrol.app.generator.deepl;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.generator.SingleFlight;
 import langcontrol.app.generator.Translator;
-import langcontrol.app.generator.deepl.client.DeeplClient;
-import langcontrol.app.generator.deepl.client.DeeplTranslationResponseBody;
+import langcontrol.app.util.TextKeys;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/*
+ * The texts are sent through the coalescer, so concurrent translations into the same language share one
+ * DeepL request. Concurrent translations of the same text into the same language are sent only once,
+ * the texts are compared in Unicode NFC form with normalized whitespace.
+ */
 @Service
 public class DeeplTranslator implements Translator {
 
-    private final DeeplClient client;
+    private final DeeplTranslationCoalescer coalescer;
+    private final SingleFlight<TranslationKey, String> translations;
 
     @Autowired
-    public DeeplTranslator(DeeplClient client) {
-        this.client = client;
+    public DeeplTranslator(DeeplTranslationCoalescer coalescer, MeterRegistry meterRegistry) {
+        this.coalescer = coalescer;
+        this.translations = new SingleFlight<>("deepl_translator", meterRegistry);
     }
 
     @Override
     public String translate(String textToTranslate, LanguageCode translateTo) {
-        DeeplTranslationResponseBody response = client.performTranslateRequest(textToTranslate,
-                translateTo.getCode().toUpperCase());
-        return response.getTranslations().get(0).getTranslatedText();
+        try {
+            return translateAsync(textToTranslate, translateTo).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> translateAsync(String textToTranslate, LanguageCode translateTo) {
+        String targetLanguageCode = translateTo.getCode().toUpperCase();
+        return translations.callAsync(new TranslationKey(TextKeys.normalize(textToTranslate), targetLanguageCode),
+                () -> coalescer.translate(textToTranslate, targetLanguageCode));
+    }
+
+    private record TranslationKey(String text, String targetLanguageCode) {
     }
 }
@@ -2,14 +2,11 @@ package langcontrol.app.generator.deepl.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
-import java.net.URI;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Component
@@ -22,21 +19,15 @@ public class DeeplClient {
         this.webClient = webClient;
     }
 
-    public DeeplTranslationResponseBody performTranslateRequest(String textToTranslate, String targetLanguageCode) {
-        var requestBody = new DeeplTranslationRequestBody(List.of(textToTranslate), targetLanguageCode);
+    public Mono<DeeplTranslationResponseBody> translate(List<String> textsToTranslate, String targetLanguageCode) {
+        var requestBody = new DeeplTranslationRequestBody(textsToTranslate, targetLanguageCode);
 
-        DeeplTranslationResponseBody response = webClient
+        return webClient
                 .post()
                 .uri("/translate")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(requestBody)
                 .retrieve()
-                .bodyToMono(DeeplTranslationResponseBody.class)
-                .block();
-        return response;
-    }
-
-    private String urlEncode(String toBeEncoded) {
-        return URLEncoder.encode(toBeEncoded, StandardCharsets.UTF_8);
+                .bodyToMono(DeeplTranslationResponseBody.class);
     }
 }
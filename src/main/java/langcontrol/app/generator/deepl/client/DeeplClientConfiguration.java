@@ -1,21 +1,64 @@
 package langcontrol.app.generator.deepl.client;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import langcontrol.app.generator.ProviderGuard;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 public class DeeplClientConfiguration {
 
+    private static final int CONNECT_TIMEOUT_MILLIS = 2_000;
+
     @Value("${deepl.api.key}")
     private String deeplApiKey;
 
+    @Value("${langcontrol.provider.deepl.timeout:PT5S}")
+    private Duration timeout;
+
+    @Value("${langcontrol.provider.deepl.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${langcontrol.provider.deepl.open-duration:PT30S}")
+    private Duration openDuration;
+
     @Bean(name = "deeplWebClient")
     public WebClient deeplWebClient() {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MILLIS)
+                .responseTimeout(timeout);
         return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .baseUrl("https://api-free.deepl.com/v2")
                 .defaultHeader("Authorization", "DeepL-Auth-Key " + deeplApiKey)
                 .build();
     }
+
+    @Bean(name = "deeplGuard")
+    public ProviderGuard deeplGuard(MeterRegistry meterRegistry, Clock clock) {
+        return new ProviderGuard("deepl", timeout, maxConcurrency, openDuration,
+                DeeplClientConfiguration::isProviderFailure, meterRegistry, clock);
+    }
+
+    /*
+     * DeepL answers with 429 when too many requests are sent and with 5xx (including its own 529) when it
+     * is overloaded. A request that never got an answer fails with WebClientRequestException. Other 4xx
+     * answers, like a bad language code or a used up quota, are passed on to the caller.
+     */
+    private static boolean isProviderFailure(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            return e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == 429;
+        }
+        return error instanceof WebClientRequestException;
+    }
 }
@@ -5,24 +5,42 @@ import com.theokanning.openai.completion.chat.ChatCompletionResult;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
 import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.MeterRegistry;
 import langcontrol.app.deck.LanguageCode;
 import langcontrol.app.flashcard.PartOfSpeech;
 import langcontrol.app.generator.Dictionary;
+import langcontrol.app.generator.ProviderCallExecutor;
+import langcontrol.app.generator.ProviderGuard;
+import langcontrol.app.generator.SingleFlight;
+import langcontrol.app.util.TextKeys;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/*
+ * Concurrent lookups of the same word share one request. The words are compared the same way as by the
+ * dictionary cache, so a request shared here gives the result the cache would have given anyway.
+ */
 @Service
 public class OpenAiDictionary implements Dictionary {
 
     private final OpenAiService service;
+    private final ProviderCallExecutor providerCallExecutor;
+    private final ProviderGuard openAiGuard;
+    private final SingleFlight<LookupKey, List<String>> lookups;
 
     @Autowired
-    public OpenAiDictionary(OpenAiService service) {
+    public OpenAiDictionary(OpenAiService service, ProviderCallExecutor providerCallExecutor,
+                            @Qualifier("openAiGuard") ProviderGuard openAiGuard, MeterRegistry meterRegistry) {
         this.service = service;
+        this.providerCallExecutor = providerCallExecutor;
+        this.openAiGuard = openAiGuard;
+        this.lookups = new SingleFlight<>("openai_dictionary", meterRegistry);
     }
 
     @Override
@@ -31,6 +49,26 @@ public class OpenAiDictionary implements Dictionary {
         if (translateFrom == translateTo) {
             throw new IllegalArgumentException("Languages to translate from and to cannot be the same.");
         }
+        return lookups.call(LookupKey.of(wordOrPhraseToTranslate, translateFrom, translateTo, partOfSpeech),
+                () -> requestTranslations(wordOrPhraseToTranslate, translateFrom, translateTo, partOfSpeech));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getTranslationsListAsync(String wordOrPhraseToTranslate,
+                                                                    LanguageCode translateFrom,
+                                                                    LanguageCode translateTo,
+                                                                    PartOfSpeech partOfSpeech) {
+        if (translateFrom == translateTo) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Languages to translate from and to cannot be the same."));
+        }
+        return lookups.callAsync(LookupKey.of(wordOrPhraseToTranslate, translateFrom, translateTo, partOfSpeech),
+                () -> providerCallExecutor.supply(() -> requestTranslations(wordOrPhraseToTranslate,
+                        translateFrom, translateTo, partOfSpeech)));
+    }
+
+    private List<String> requestTranslations(String wordOrPhraseToTranslate, LanguageCode translateFrom,
+                                             LanguageCode translateTo, PartOfSpeech partOfSpeech) {
         final double temperature = 0.25;
         final int maxTokens = 40;
 
@@ -51,11 +89,19 @@ public class OpenAiDictionary implements Dictionary {
                 .temperature(temperature)
                 .maxTokens(maxTokens)
                 .build();
-        ChatCompletionResult result = service.createChatCompletion(request);
+        ChatCompletionResult result = openAiGuard.call(() -> service.createChatCompletion(request));
         String commaSeparatedTranslations = result.getChoices().get(0).getMessage().getContent();
         List<String> translations = Arrays.stream(commaSeparatedTranslations.split("\\s*,\\s*"))
                 .distinct()
                 .toList();
         return translations;
     }
+
+    private record LookupKey(String wordOrPhrase, LanguageCode from, LanguageCode to, PartOfSpeech partOfSpeech) {
+
+        private static LookupKey of(String wordOrPhrase, LanguageCode from, LanguageCode to,
+                                    PartOfSpeech partOfSpeech) {
+            return new LookupKey(TextKeys.normalizeIgnoringCase(wordOrPhrase), from, to, partOfSpeech);
+        }
+    }
 }
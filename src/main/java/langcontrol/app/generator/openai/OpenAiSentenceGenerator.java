@@ -2,28 +2,61 @@ package langcontrol.app.generator.openai;
 
 import com.theokanning.openai.completion.chat.*;
 import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.MeterRegistry;
 import langcontrol.app.deck.LanguageCode;
 import langcontrol.app.flashcard.PartOfSpeech;
+import langcontrol.app.generator.ProviderCallExecutor;
+import langcontrol.app.generator.ProviderGuard;
 import langcontrol.app.generator.SentenceGenerator;
+import langcontrol.app.generator.SingleFlight;
+import langcontrol.app.util.TextKeys;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/*
+ * Concurrent requests for the same keyword share one request, the keywords are compared with normalized
+ * whitespace but case sensitive.
+ */
 @Service
 public class OpenAiSentenceGenerator implements SentenceGenerator {
 
     private final OpenAiService service;
+    private final ProviderCallExecutor providerCallExecutor;
+    private final ProviderGuard openAiGuard;
+    private final SingleFlight<GenerationKey, List<String>> generations;
 
     @Autowired
-    public OpenAiSentenceGenerator(OpenAiService openAiService) {
+    public OpenAiSentenceGenerator(OpenAiService openAiService, ProviderCallExecutor providerCallExecutor,
+                                   @Qualifier("openAiGuard") ProviderGuard openAiGuard,
+                                   MeterRegistry meterRegistry) {
         this.service = openAiService;
+        this.providerCallExecutor = providerCallExecutor;
+        this.openAiGuard = openAiGuard;
+        this.generations = new SingleFlight<>("openai_sentence_generator", meterRegistry);
     }
 
     @Override
     public List<String> generate(String keyword, LanguageCode keywordLanguage, PartOfSpeech keywordPos,
                                  int numberOfSentences) {
+        return generations.call(GenerationKey.of(keyword, keywordLanguage, keywordPos, numberOfSentences),
+                () -> requestSentences(keyword, keywordLanguage, keywordPos, numberOfSentences));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> generateAsync(String keyword, LanguageCode keywordLanguage,
+                                                         PartOfSpeech keywordPos, int numberOfSentences) {
+        return generations.callAsync(GenerationKey.of(keyword, keywordLanguage, keywordPos, numberOfSentences),
+                () -> providerCallExecutor.supply(() -> requestSentences(keyword, keywordLanguage, keywordPos,
+                        numberOfSentences)));
+    }
+
+    private List<String> requestSentences(String keyword, LanguageCode keywordLanguage, PartOfSpeech keywordPos,
+                                          int numberOfSentences) {
         final double temperature = 1.3; // set no higher than 1.3
         final int maxTokens = 40;
 
@@ -46,10 +79,19 @@ public class OpenAiSentenceGenerator implements SentenceGenerator {
                 .temperature(temperature)
                 .maxTokens(maxTokens)
                 .build();
-        ChatCompletionResult result = service.createChatCompletion(request);
+        ChatCompletionResult result = openAiGuard.call(() -> service.createChatCompletion(request));
         List<String> answerList = result.getChoices().stream()
                 .map(c -> c.getMessage().getContent())
                 .toList();
         return answerList;
     }
+
+    private record GenerationKey(String keyword, LanguageCode keywordLanguage, PartOfSpeech keywordPos,
+                                 int numberOfSentences) {
+
+        private static GenerationKey of(String keyword, LanguageCode keywordLanguage, PartOfSpeech keywordPos,
+                                        int numberOfSentences) {
+            return new GenerationKey(TextKeys.normalize(keyword), keywordLanguage, keywordPos, numberOfSentences);
+        }
+    }
 }
@@ -1,9 +1,16 @@
 package langcontrol.app.generator.openai;
 
+import com.theokanning.openai.OpenAiHttpException;
 import com.theokanning.openai.service.OpenAiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import langcontrol.app.generator.ProviderGuard;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import retrofit2.HttpException;
+
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 public class OpenAiServiceConfig {
@@ -11,8 +18,39 @@ public class OpenAiServiceConfig {
     @Value("${openai.api.key}")
     private String openAiApiKey;
 
+    @Value("${langcontrol.provider.openai.timeout:PT20S}")
+    private Duration timeout;
+
+    @Value("${langcontrol.provider.openai.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${langcontrol.provider.openai.open-duration:PT30S}")
+    private Duration openDuration;
+
     @Bean
     public OpenAiService openAiService() {
-        return new OpenAiService(openAiApiKey);
+        return new OpenAiService(openAiApiKey, timeout);
+    }
+
+    @Bean(name = "openAiGuard")
+    public ProviderGuard openAiGuard(MeterRegistry meterRegistry, Clock clock) {
+        return new ProviderGuard("openai", timeout, maxConcurrency, openDuration,
+                OpenAiServiceConfig::isProviderFailure, meterRegistry, clock);
+    }
+
+    /*
+     * OpenAI answers with 429 when the rate limit is hit and with 5xx when it is overloaded or down. The
+     * other statuses come from the request, so they don't tell anything about the provider. The raw
+     * HttpException is thrown when the error body couldn't be read.
+     */
+    private static boolean isProviderFailure(Throwable error) {
+        if (error instanceof OpenAiHttpException e) {
+            return isProviderFailureStatus(e.statusCode);
+        }
+        return error instanceof HttpException e && isProviderFailureStatus(e.code());
+    }
+
+    private static boolean isProviderFailureStatus(int statusCode) {
+        return statusCode >= 500 || statusCode == 429;
     }
 }
@@ -7,24 +7,33 @@ import com.theokanning.openai.completion.chat.ChatMessageRole;
 import com.theokanning.openai.service.OpenAiService;
 import langcontrol.app.deck.LanguageCode;
 import langcontrol.app.exception.OpenAiTranslationErrorException;
+import langcontrol.app.generator.ProviderCallExecutor;
+import langcontrol.app.generator.ProviderGuard;
 import langcontrol.app.generator.Translator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class OpenAiTranslator implements Translator {
 
     private final Logger logger = LoggerFactory.getLogger(OpenAiTranslator.class);
     private final OpenAiService service;
+    private final ProviderCallExecutor providerCallExecutor;
+    private final ProviderGuard openAiGuard;
 
     @Autowired
-    public OpenAiTranslator(OpenAiService service) {
+    public OpenAiTranslator(OpenAiService service, ProviderCallExecutor providerCallExecutor,
+                            @Qualifier("openAiGuard") ProviderGuard openAiGuard) {
         this.service = service;
+        this.providerCallExecutor = providerCallExecutor;
+        this.openAiGuard = openAiGuard;
     }
 
     @Override
@@ -47,7 +56,7 @@ public class OpenAiTranslator implements Translator {
                 .messages(messageList)
                 .temperature(temperature)
                 .build();
-        ChatCompletionResult result = service.createChatCompletion(request);
+        ChatCompletionResult result = openAiGuard.call(() -> service.createChatCompletion(request));
 
         String receivedTranslation = result.getChoices().get(0).getMessage().getContent();
 
@@ -58,4 +67,9 @@ public class OpenAiTranslator implements Translator {
         }
         return result.getChoices().get(0).getMessage().getContent();
     }
+
+    @Override
+    public CompletableFuture<String> translateAsync(String textToTranslate, LanguageCode translateTo) {
+        return providerCallExecutor.supply(() -> translate(textToTranslate, translateTo));
+    }
 }
@@ -11,6 +11,7 @@ import langcontrol.app.flashcard.PartOfSpeech;
 import langcontrol.app.deck.LanguageCode;
 import langcontrol.app.generator.Dictionary;
 import langcontrol.app.generator.SentenceGenerator;
+import langcontrol.app.generator.SentenceWithTranslationGenerator;
 import langcontrol.app.generator.Translator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RequestMapping("/api")
 @RestController
@@ -32,18 +36,21 @@ public class GeneratorRestController {
     private final Dictionary dictionary;
     private final SentenceGenerator sentenceGenerator;
     private final Translator translator;
+    private final SentenceWithTranslationGenerator sentenceWithTranslationGenerator;
 
     @Autowired
-    public GeneratorRestController(@Qualifier("openAiDictionary") Dictionary dictionary,
+    public GeneratorRestController(@Qualifier("cachingDictionary") Dictionary dictionary,
                                    SentenceGenerator sentenceGenerator,
-                                   @Qualifier("deeplTranslator") Translator translator) {
+                                   @Qualifier("deeplTranslator") Translator translator,
+                                   SentenceWithTranslationGenerator sentenceWithTranslationGenerator) {
         this.dictionary = dictionary;
         this.sentenceGenerator = sentenceGenerator;
         this.translator = translator;
+        this.sentenceWithTranslationGenerator = sentenceWithTranslationGenerator;
     }
 
     @GetMapping(value = "/dictionary", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<String> getWordTranslations(
+    public CompletableFuture<List<String>> getWordTranslations(
             @NotBlank @RequestParam("word") String wordToTranslate,
             @NotNull @RequestParam("from") LanguageCode translateFrom,
             @NotNull @RequestParam("to") LanguageCode translateTo,
@@ -53,24 +60,36 @@ public class GeneratorRestController {
                 "wordToTranslate={} translateFrom={} translateTo={} partOfSpeech={}",
                 wordToTranslate, translateFrom, translateTo, partOfSpeech);
 
-        return dictionary.getTranslationsList(wordToTranslate, translateFrom,
+        return dictionary.getTranslationsListAsync(wordToTranslate, translateFrom,
                     translateTo, partOfSpeech);
     }
 
     @GetMapping(value = "/sentences", produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<String> getGeneratedSentences(@NotBlank @Size(max = 80) @RequestParam("word") String keyword,
-                                              @NotNull @RequestParam("lang") LanguageCode keywordLang,
-                                              @NotNull @RequestParam(value = "pos") PartOfSpeech keywordPos,
-                                              @Max(3) @RequestParam("n") int numOfSentences) {
-        List<String> sentences = sentenceGenerator.generate(keyword, keywordLang, keywordPos, numOfSentences);
-        return sentences;
+    public CompletableFuture<List<String>> getGeneratedSentences(
+            @NotBlank @Size(max = 80) @RequestParam("word") String keyword,
+            @NotNull @RequestParam("lang") LanguageCode keywordLang,
+            @NotNull @RequestParam(value = "pos") PartOfSpeech keywordPos,
+            @Max(3) @RequestParam("n") int numOfSentences) {
+        return sentenceGenerator.generateAsync(keyword, keywordLang, keywordPos, numOfSentences);
+    }
+
+    @GetMapping(value = "/examples", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<Map<String, String>> getGeneratedExamples(
+            @NotBlank @Size(max = 80) @RequestParam("word") String keyword,
+            @NotNull @RequestParam("lang") LanguageCode keywordLang,
+            @NotNull @RequestParam(value = "pos") PartOfSpeech keywordPos,
+            @NotNull @RequestParam("translationLang") LanguageCode translationLang,
+            @Max(3) @RequestParam("n") int numOfSentences) {
+        return sentenceWithTranslationGenerator.generateAsync(keyword, keywordLang, keywordPos, translationLang,
+                numOfSentences);
     }
 
     @GetMapping(value = "/translations", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> getTextTranslation(@NotBlank @Size(max = 50) @RequestParam("text") String text,
-                                                     @NotNull @RequestParam("lang") LanguageCode translateTo) {
-        String translatedText = translator.translate(text, translateTo);
-        return ResponseEntity.ok(translatedText);
+    public CompletableFuture<ResponseEntity<String>> getTextTranslation(
+            @NotBlank @Size(max = 50) @RequestParam("text") String text,
+            @NotNull @RequestParam("lang") LanguageCode translateTo) {
+        return translator.translateAsync(text, translateTo)
+                .thenApply(ResponseEntity::ok);
     }
 
 
@@ -81,6 +100,13 @@ public class GeneratorRestController {
         return new ErrorResponseBody(HttpStatus.BAD_REQUEST, req.getRequestURI(), e);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ResponseBody
+    public ErrorResponseBody handleRejectedExecutionException(RejectedExecutionException e, HttpServletRequest req) {
+        return new ErrorResponseBody(HttpStatus.SERVICE_UNAVAILABLE, req.getRequestURI(), e);
+    }
+
     @ExceptionHandler(OpenAiTranslationErrorException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     @ResponseBody
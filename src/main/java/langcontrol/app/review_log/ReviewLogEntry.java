@@ -0,0 +1,75 @@
+package langcontrol.app.review_log;
+
+import jakarta.persistence.*;
+import langcontrol.app.spaced_repetition.RatingType;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/*
+ * One applied rating. The log is append-only and refers to the card, deck and user by id only, so that
+ * the history stays when a card or deck is deleted. The ids come from a sequence, which lets Hibernate
+ * insert the entries in JDBC batches.
+ */
+@Getter @Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "review_log", indexes = {
+        @Index(name = "idx_review_log_flashcard", columnList = "flashcard_id, reviewed_at_in_utc"),
+        @Index(name = "idx_review_log_deck", columnList = "deck_id, reviewed_at_in_utc"),
+        @Index(name = "idx_review_log_user_profile", columnList = "user_profile_id, reviewed_at_in_utc")})
+public class ReviewLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_log_seq")
+    @SequenceGenerator(name = "review_log_seq", sequenceName = "review_log_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "flashcard_id", nullable = false)
+    private Long flashcardId;
+
+    @Column(name = "deck_id", nullable = false)
+    private Long deckId;
+
+    @Column(name = "user_profile_id")
+    private Long userProfileId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rating_type", nullable = false)
+    private RatingType ratingType;
+
+    @Column(name = "in_learn_mode_before", nullable = false)
+    private boolean inLearnModeBefore;
+
+    @Column(name = "in_learn_mode_after", nullable = false)
+    private boolean inLearnModeAfter;
+
+    @Column(name = "previous_interval_days")
+    private Double previousIntervalDays;
+
+    @Column(name = "new_interval_days")
+    private Double newIntervalDays;
+
+    @Column(name = "reviewed_at_in_utc", nullable = false)
+    private LocalDateTime reviewedAtInUTC;
+
+    @Column(name = "response_time_millis")
+    private Integer responseTimeMillis;
+
+    public ReviewLogEntry(Long flashcardId, Long deckId, Long userProfileId, RatingType ratingType,
+                          boolean inLearnModeBefore, boolean inLearnModeAfter, Double previousIntervalDays,
+                          Double newIntervalDays, LocalDateTime reviewedAtInUTC, Integer responseTimeMillis) {
+        this.flashcardId = flashcardId;
+        this.deckId = deckId;
+        this.userProfileId = userProfileId;
+        this.ratingType = ratingType;
+        this.inLearnModeBefore = inLearnModeBefore;
+        this.inLearnModeAfter = inLearnModeAfter;
+        this.previousIntervalDays = previousIntervalDays;
+        this.newIntervalDays = newIntervalDays;
+        this.reviewedAtInUTC = reviewedAtInUTC;
+        this.responseTimeMillis = responseTimeMillis;
+    }
+}
@@ -0,0 +1,36 @@
+package langcontrol.app.review_log;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface ReviewLogRepository extends ListCrudRepository<ReviewLogEntry, Long> {
+
+    List<ReviewLogEntry> findByFlashcardIdOrderByReviewedAtInUTC(Long flashcardId);
+
+    @Query("SELECT e.deckId FROM ReviewLogEntry e " +
+            "WHERE e.reviewedAtInUTC >= :since " +
+            "AND e.inLearnModeBefore = false " +
+            "GROUP BY e.deckId " +
+            "HAVING COUNT(e) >= :minEntries")
+    List<Long> findDeckIdsWithReviewModeEntriesSince(@Param("since") LocalDateTime since,
+                                                     @Param("minEntries") long minEntries);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.flashcardId, e.ratingType, e.previousIntervalDays, e.reviewedAtInUTC, e.inLearnModeBefore " +
+            "FROM ReviewLogEntry e " +
+            "WHERE e.deckId = :deckId " +
+            "AND e.reviewedAtInUTC >= :since " +
+            "ORDER BY e.flashcardId, e.reviewedAtInUTC")
+    Stream<Object[]> streamHistoryRowsByDeckIdSince(@Param("deckId") long deckId,
+                                                    @Param("since") LocalDateTime since);
+}
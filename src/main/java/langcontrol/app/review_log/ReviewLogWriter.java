@@ -0,0 +1,170 @@
+package langcontrol.app.review_log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Persists the review log off the request thread. Recording an entry only offers it to a bounded queue
+ * once the rating transaction has committed, and a single writer thread drains the queue and inserts the
+ * entries in batches. When the queue is full the entry is dropped instead of slowing down the rating, and
+ * the drops are counted, so the capacity can be raised if the writer falls behind. The queue is flushed
+ * when the application shuts down.
+ */
+@Component
+public class ReviewLogWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewLogWriter.class);
+
+    static final long POLL_TIMEOUT_MILLIS = 500L;
+    static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000L;
+
+    private final ReviewLogRepository reviewLogRepository;
+    private final BlockingQueue<ReviewLogEntry> queue;
+    private final int batchSize;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Timer batchWriteTimer;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    @Autowired
+    public ReviewLogWriter(ReviewLogRepository reviewLogRepository, MeterRegistry meterRegistry,
+                           @Value("${langcontrol.review-log.queue-capacity:10000}") int queueCapacity,
+                           @Value("${langcontrol.review-log.batch-size:50}") int batchSize) {
+        this(reviewLogRepository, meterRegistry, queueCapacity, batchSize, true);
+    }
+
+    ReviewLogWriter(ReviewLogRepository reviewLogRepository, MeterRegistry meterRegistry,
+                    int queueCapacity, int batchSize, boolean startWriterThread) {
+        if (queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("The queue capacity and the batch size must be positive.");
+        }
+        this.reviewLogRepository = reviewLogRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writtenCounter = Counter.builder("langcontrol.review_log.entries")
+                .tag("outcome", "written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("langcontrol.review_log.entries")
+                .tag("outcome", "dropped").register(meterRegistry);
+        this.failedCounter = Counter.builder("langcontrol.review_log.entries")
+                .tag("outcome", "failed").register(meterRegistry);
+        this.batchWriteTimer = Timer.builder("langcontrol.review_log.batch.write").register(meterRegistry);
+        Gauge.builder("langcontrol.review_log.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("langcontrol.review_log.queue.remaining_capacity", queue, BlockingQueue::remainingCapacity)
+                .register(meterRegistry);
+        this.running = true;
+        this.writerThread = new Thread(this::drainUntilStopped, "review-log-writer");
+        this.writerThread.setDaemon(true);
+        if (startWriterThread) {
+            this.writerThread.start();
+        }
+    }
+
+    /*
+     * Queues the entry after the surrounding transaction commits, or right away without a transaction.
+     */
+    public void record(ReviewLogEntry entry) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writerThread.isAlive()) {
+            // The writer may not have been started, or was interrupted before the queue was empty.
+            int writtenEntries;
+            do {
+                writtenEntries = writeNextBatch();
+            } while (writtenEntries > 0);
+        } else {
+            LOGGER.warn("The review log writer didn't finish in time, {} entries are lost.", queue.size());
+        }
+    }
+
+    int pendingEntries() {
+        return queue.size();
+    }
+
+    /*
+     * Writes at most one batch of the queued entries and returns the number of entries taken from the queue.
+     */
+    int writeNextBatch() {
+        List<ReviewLogEntry> batch = new ArrayList<>(batchSize);
+        queue.drainTo(batch, batchSize);
+        write(batch);
+        return batch.size();
+    }
+
+    private void enqueue(ReviewLogEntry entry) {
+        if (!running || !queue.offer(entry)) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void drainUntilStopped() {
+        List<ReviewLogEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ReviewLogEntry first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<ReviewLogEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            reviewLogRepository.saveAll(batch);
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            failedCounter.increment(batch.size());
+            LOGGER.warn("{} review log entries couldn't be written.", batch.size(), e);
+        } finally {
+            batchWriteTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -27,6 +27,7 @@ public class SecurityConfig {
                 .requestMatchers("/signin", "/signup", "/").permitAll()
                 .requestMatchers("/css/**", "/js/**").permitAll()
                 .requestMatchers("/admintools/**").hasAuthority("ROLE_ADMIN")
+                .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
                 .anyRequest().authenticated());
 
         http.formLogin(login -> login
@@ -0,0 +1,165 @@
+package langcontrol.app.simulation;
+
+import langcontrol.app.flashcard.LearnModeStep;
+import langcontrol.app.spaced_repetition.SpacedRepetitionItem;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/*
+ * Scheduling state of all cards of a deck in parallel primitive arrays, one index per card. Times are kept
+ * as epoch minutes in UTC and missing values as NaN, -1 or NO_TIME, so that a snapshot of a large deck is a
+ * handful of arrays instead of a graph of entities.
+ */
+public final class DeckSnapshot {
+
+    static final long NO_TIME = Long.MIN_VALUE;
+    static final long MINUTES_PER_DAY = 24 * 60;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int size;
+    private boolean[] inLearnMode;
+    private byte[] learnModeStep;
+    private long[] nextDueEpochMinute;
+    private long[] lastReviewEpochMinute;
+    private double[] currentIntervalDays;
+    private double[] increaseFactor;
+    private double[] reduceFactor;
+    private double[] easinessFactor;
+    private int[] repetitions;
+    private double[] stability;
+    private double[] difficulty;
+
+    public DeckSnapshot() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public DeckSnapshot(int expectedCards) {
+        int capacity = Math.max(expectedCards, 1);
+        this.inLearnMode = new boolean[capacity];
+        this.learnModeStep = new byte[capacity];
+        this.nextDueEpochMinute = new long[capacity];
+        this.lastReviewEpochMinute = new long[capacity];
+        this.currentIntervalDays = new double[capacity];
+        this.increaseFactor = new double[capacity];
+        this.reduceFactor = new double[capacity];
+        this.easinessFactor = new double[capacity];
+        this.repetitions = new int[capacity];
+        this.stability = new double[capacity];
+        this.difficulty = new double[capacity];
+    }
+
+    /*
+     * Deck of new cards in learn mode that are introduced newCardsPerDay at a time, starting at the given
+     * minute, the way a user working through a freshly imported deck would see them.
+     */
+    public static DeckSnapshot ofNewCards(int cardCount, int newCardsPerDay, long startEpochMinute) {
+        if (cardCount < 0 || newCardsPerDay < 1) {
+            throw new IllegalArgumentException("The number of cards cannot be negative and at least one new card "
+                    + "must be introduced per day.");
+        }
+        DeckSnapshot snapshot = new DeckSnapshot(cardCount);
+        for (int i = 0; i < cardCount; i++) {
+            long introducedAt = startEpochMinute + (long) (i / newCardsPerDay) * MINUTES_PER_DAY;
+            snapshot.addCard(true, LearnModeStep.ONE, introducedAt, NO_TIME, Double.NaN,
+                    SimulatedItem.DEFAULT_INCREASE_FACTOR, SimulatedItem.DEFAULT_REDUCE_FACTOR,
+                    Double.NaN, -1, Double.NaN, Double.NaN);
+        }
+        return snapshot;
+    }
+
+    /*
+     * Adds a card from the columns selected by FlashcardRepository#streamScheduleRowsByDeckId.
+     */
+    void addRow(Object[] row) {
+        boolean learnMode = (Boolean) row[0];
+        LocalDateTime nextDue = learnMode ? (LocalDateTime) row[2] : (LocalDateTime) row[3];
+        addCard(learnMode,
+                (LearnModeStep) row[1],
+                nextDue == null ? NO_TIME : toEpochMinute(nextDue),
+                row[4] == null ? NO_TIME : toEpochMinute((LocalDateTime) row[4]),
+                row[5] == null ? Double.NaN : (Double) row[5],
+                row[6] == null ? SimulatedItem.DEFAULT_INCREASE_FACTOR : (Double) row[6],
+                row[7] == null ? SimulatedItem.DEFAULT_REDUCE_FACTOR : (Double) row[7],
+                row[8] == null ? Double.NaN : (Double) row[8],
+                row[9] == null ? -1 : (Integer) row[9],
+                row[10] == null ? Double.NaN : (Double) row[10],
+                row[11] == null ? Double.NaN : (Double) row[11]);
+    }
+
+    public void addCard(boolean inLearnMode, LearnModeStep learnModeStep, long nextDueEpochMinute,
+                        long lastReviewEpochMinute, double currentIntervalDays, double increaseFactor,
+                        double reduceFactor, double easinessFactor, int repetitions, double stability,
+                        double difficulty) {
+        ensureCapacity(size + 1);
+        this.inLearnMode[size] = inLearnMode;
+        this.learnModeStep[size] = learnModeStep == null ? 0 : (byte) learnModeStep.getNumeral();
+        this.nextDueEpochMinute[size] = nextDueEpochMinute;
+        this.lastReviewEpochMinute[size] = lastReviewEpochMinute;
+        this.currentIntervalDays[size] = currentIntervalDays;
+        this.increaseFactor[size] = increaseFactor;
+        this.reduceFactor[size] = reduceFactor;
+        this.easinessFactor[size] = easinessFactor;
+        this.repetitions[size] = repetitions;
+        this.stability[size] = stability;
+        this.difficulty[size] = difficulty;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    long nextDueEpochMinute(int index) {
+        return nextDueEpochMinute[index];
+    }
+
+    /*
+     * Overwrites every scheduling field of the item, so that one item can be reused for all cards.
+     */
+    void loadInto(int index, SpacedRepetitionItem item) {
+        item.setInLearnMode(inLearnMode[index]);
+        item.setLearnModeStep(learnModeStep[index] == 0 ? null : LearnModeStep.getByNumeral(learnModeStep[index]));
+        LocalDateTime nextDue = nextDueEpochMinute[index] == NO_TIME ? null : toDateTime(nextDueEpochMinute[index]);
+        item.setNextLearnViewInUTC(inLearnMode[index] ? nextDue : null);
+        item.setNextReviewInUTC(inLearnMode[index] ? null : nextDue);
+        item.setNextReviewWithoutTimeInUTC(inLearnMode[index] || nextDue == null ? null : nextDue.toLocalDate());
+        item.setLastReviewInUTC(lastReviewEpochMinute[index] == NO_TIME
+                ? null : toDateTime(lastReviewEpochMinute[index]));
+        item.setCurrentIntervalDays(Double.isNaN(currentIntervalDays[index]) ? null : currentIntervalDays[index]);
+        item.setIncreaseFactor(increaseFactor[index]);
+        item.setReduceFactor(reduceFactor[index]);
+        item.setEasinessFactor(Double.isNaN(easinessFactor[index]) ? null : easinessFactor[index]);
+        item.setRepetitions(repetitions[index] < 0 ? null : repetitions[index]);
+        item.setStability(Double.isNaN(stability[index]) ? null : stability[index]);
+        item.setDifficulty(Double.isNaN(difficulty[index]) ? null : difficulty[index]);
+    }
+
+    static long toEpochMinute(LocalDateTime dateTimeInUTC) {
+        return Math.floorDiv(dateTimeInUTC.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= inLearnMode.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, inLearnMode.length * 2);
+        inLearnMode = Arrays.copyOf(inLearnMode, newCapacity);
+        learnModeStep = Arrays.copyOf(learnModeStep, newCapacity);
+        nextDueEpochMinute = Arrays.copyOf(nextDueEpochMinute, newCapacity);
+        lastReviewEpochMinute = Arrays.copyOf(lastReviewEpochMinute, newCapacity);
+        currentIntervalDays = Arrays.copyOf(currentIntervalDays, newCapacity);
+        increaseFactor = Arrays.copyOf(increaseFactor, newCapacity);
+        reduceFactor = Arrays.copyOf(reduceFactor, newCapacity);
+        easinessFactor = Arrays.copyOf(easinessFactor, newCapacity);
+        repetitions = Arrays.copyOf(repetitions, newCapacity);
+        stability = Arrays.copyOf(stability, newCapacity);
+        difficulty = Arrays.copyOf(difficulty, newCapacity);
+    }
+}
@@ -0,0 +1,98 @@
+package langcontrol.app.simulation;
+
+import langcontrol.app.spaced_repetition.RatingType;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*
+ * Probabilities with which a simulated user picks each rating. The learn probabilities are given in the
+ * order LEARN_PREVIOUS, LEARN_NORMAL, LEARN_NEXT, LEARN_TO_REVIEW_MODE and the review probabilities in the
+ * order REVIEW_CANNOT_SOLVE, REVIEW_DIFFICULT, REVIEW_NORMAL, REVIEW_EASY. The probabilities are kept as
+ * cumulative sums, so that drawing a rating is a single random number and a few comparisons.
+ */
+public final class RatingModel {
+
+    public static final RatingModel DEFAULT = new RatingModel(
+            new double[]{0.05, 0.15, 0.70, 0.10},
+            new double[]{0.08, 0.20, 0.60, 0.12});
+
+    private static final RatingType[] LEARN_RATINGS = {
+            RatingType.LEARN_PREVIOUS, RatingType.LEARN_NORMAL,
+            RatingType.LEARN_NEXT, RatingType.LEARN_TO_REVIEW_MODE};
+    private static final RatingType[] REVIEW_RATINGS = {
+            RatingType.REVIEW_CANNOT_SOLVE, RatingType.REVIEW_DIFFICULT,
+            RatingType.REVIEW_NORMAL, RatingType.REVIEW_EASY};
+    private static final double SUM_TOLERANCE = 1e-6;
+
+    private final double[] learnProbabilities;
+    private final double[] reviewProbabilities;
+    private final double[] learnCumulative;
+    private final double[] reviewCumulative;
+
+    public RatingModel(double[] learnProbabilities, double[] reviewProbabilities) {
+        this.learnProbabilities = validated(learnProbabilities, "learn");
+        this.reviewProbabilities = validated(reviewProbabilities, "review");
+        this.learnCumulative = cumulative(this.learnProbabilities);
+        this.reviewCumulative = cumulative(this.reviewProbabilities);
+    }
+
+    public double[] getLearnProbabilities() {
+        return learnProbabilities.clone();
+    }
+
+    public double[] getReviewProbabilities() {
+        return reviewProbabilities.clone();
+    }
+
+    RatingType drawLearnRating(SplittableRandom random) {
+        return draw(learnCumulative, LEARN_RATINGS, random);
+    }
+
+    RatingType drawReviewRating(SplittableRandom random) {
+        return draw(reviewCumulative, REVIEW_RATINGS, random);
+    }
+
+    private static RatingType draw(double[] cumulative, RatingType[] ratings, SplittableRandom random) {
+        double value = random.nextDouble();
+        for (int i = 0; i < cumulative.length - 1; i++) {
+            if (value < cumulative[i]) {
+                return ratings[i];
+            }
+        }
+        return ratings[ratings.length - 1];
+    }
+
+    private static double[] validated(double[] probabilities, String kind) {
+        if (probabilities == null || probabilities.length != 4) {
+            throw new IllegalArgumentException("Exactly 4 " + kind + " rating probabilities are required.");
+        }
+        double sum = 0;
+        for (double probability : probabilities) {
+            if (!(probability >= 0 && probability <= 1)) {
+                throw new IllegalArgumentException("The " + kind + " rating probabilities must be between 0 and 1.");
+            }
+            sum += probability;
+        }
+        if (Math.abs(sum - 1) > SUM_TOLERANCE) {
+            throw new IllegalArgumentException("The " + kind + " rating probabilities must sum up to 1.");
+        }
+        return probabilities.clone();
+    }
+
+    private static double[] cumulative(double[] probabilities) {
+        double[] cumulative = new double[probabilities.length];
+        double sum = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            sum += probabilities[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    @Override
+    public String toString() {
+        return "RatingModel{learn=" + Arrays.toString(learnProbabilities)
+                + ", review=" + Arrays.toString(reviewProbabilities) + '}';
+    }
+}
@@ -0,0 +1,8 @@
+package langcontrol.app.simulation;
+
+public interface ReviewLoadSimulationService {
+
+    SimulationResult simulateDeck(long deckId, SimulationSettings settings);
+
+    SimulationResult simulateNewCards(int cardCount, int newCardsPerDay, SimulationSettings settings);
+}
@@ -0,0 +1,104 @@
+package langcontrol.app.simulation;
+
+import jakarta.annotation.PreDestroy;
+import langcontrol.app.deck.Deck;
+import langcontrol.app.deck.DeckRepository;
+import langcontrol.app.exception.GeneralNotFoundException;
+import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
+import langcontrol.app.spaced_repetition.SpacedRepetitionRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/*
+ * Runs the review load simulator for the admin tools. The snapshot of a deck is streamed from the database,
+ * so the flashcard entities are never loaded, and the transaction ends before the simulation starts. At most
+ * MAX_CONCURRENT_SIMULATIONS runs share the fork-join pool, so that the simulations cannot take over the server.
+ */
+@Service
+public class ReviewLoadSimulationServiceImpl implements ReviewLoadSimulationService {
+
+    static final int MAX_CONCURRENT_SIMULATIONS = 2;
+    static final int MAX_SYNTHETIC_CARDS = 1_000_000;
+
+    private final DeckRepository deckRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final SpacedRepetitionRegistry registry;
+    private final Clock clock;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReviewLoadSimulator simulator;
+    private final Semaphore runningSimulations;
+
+    @Autowired
+    public ReviewLoadSimulationServiceImpl(DeckRepository deckRepository,
+                                           FlashcardRepository flashcardRepository,
+                                           SpacedRepetitionRegistry registry,
+                                           Clock clock,
+                                           PlatformTransactionManager transactionManager) {
+        this.deckRepository = deckRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.registry = registry;
+        this.clock = clock;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.simulator = new ReviewLoadSimulator(Runtime.getRuntime().availableProcessors());
+        this.runningSimulations = new Semaphore(MAX_CONCURRENT_SIMULATIONS);
+    }
+
+    @Override
+    public SimulationResult simulateDeck(long deckId, SimulationSettings settings) {
+        SnapshotRun snapshotRun = readOnlyTransaction.execute(status -> {
+            Deck deck = deckRepository.findById(deckId).orElseThrow(() -> new GeneralNotFoundException(
+                    "Deck with the id " + deckId + " not found."));
+            SpacedRepetitionAlgorithmType algorithmType = settings.algorithmType() != null
+                    ? settings.algorithmType() : registry.resolveType(deck);
+            DeckSnapshot snapshot = new DeckSnapshot();
+            try (Stream<Object[]> rows = flashcardRepository.streamScheduleRowsByDeckId(deckId)) {
+                rows.forEach(snapshot::addRow);
+            }
+            return new SnapshotRun(snapshot, settings.withAlgorithmType(algorithmType));
+        });
+        return run(snapshotRun.snapshot(), snapshotRun.settings(), startEpochMinute());
+    }
+
+    @Override
+    public SimulationResult simulateNewCards(int cardCount, int newCardsPerDay, SimulationSettings settings) {
+        if (cardCount < 1 || cardCount > MAX_SYNTHETIC_CARDS) {
+            throw new IllegalArgumentException("The number of cards must be between 1 and " + MAX_SYNTHETIC_CARDS + ".");
+        }
+        SimulationSettings resolvedSettings = settings.algorithmType() != null
+                ? settings : settings.withAlgorithmType(SpacedRepetitionAlgorithmType.BASIC);
+        long startEpochMinute = startEpochMinute();
+        return run(DeckSnapshot.ofNewCards(cardCount, newCardsPerDay, startEpochMinute), resolvedSettings,
+                startEpochMinute);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        simulator.close();
+    }
+
+    private SimulationResult run(DeckSnapshot snapshot, SimulationSettings settings, long startEpochMinute) {
+        if (!runningSimulations.tryAcquire()) {
+            throw new IllegalStateException("Too many simulations are running, try again later.");
+        }
+        try {
+            return simulator.simulate(snapshot, registry.get(settings.algorithmType()), settings, startEpochMinute);
+        } finally {
+            runningSimulations.release();
+        }
+    }
+
+    private long startEpochMinute() {
+        return Math.floorDiv(clock.millis(), 60_000L);
+    }
+
+    private record SnapshotRun(DeckSnapshot snapshot, SimulationSettings settings) {
+    }
+}
@@ -0,0 +1,147 @@
+package langcontrol.app.simulation;
+
+import langcontrol.app.spaced_repetition.RatingType;
+import langcontrol.app.spaced_repetition.SpacedRepetition;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Replays the algorithm over a deck snapshot day by day and counts the views on every day. The cards don't
+ * influence each other, so each card is replayed on its own until it falls out of the simulated period, and
+ * the snapshot is split into ranges of cards that are simulated in parallel on a fork-join pool. Every card
+ * draws its ratings from a random generator seeded with the seed of the run and its index, which keeps the
+ * result of a run independent of how the cards were split between the threads.
+ */
+public class ReviewLoadSimulator implements AutoCloseable {
+
+    static final int CARDS_PER_TASK = 1024;
+    static final int MAX_VIEWS_PER_CARD = 10_000;
+
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final ForkJoinPool pool;
+
+    public ReviewLoadSimulator(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public SimulationResult simulate(DeckSnapshot snapshot, SpacedRepetition algorithm,
+                                     SimulationSettings settings, long startEpochMinute) {
+        if (snapshot == null || algorithm == null || settings == null) {
+            throw new IllegalArgumentException("The snapshot, algorithm and settings cannot be null.");
+        }
+        long startedAt = System.nanoTime();
+        SimulationTask task = new SimulationTask(snapshot, algorithm, settings, startEpochMinute,
+                0, snapshot.size());
+        int[] viewsPerDay = pool.invoke(task);
+        int days = settings.days();
+        int[] learnViewsPerDay = new int[days];
+        int[] reviewsPerDay = new int[days];
+        System.arraycopy(viewsPerDay, 0, learnViewsPerDay, 0, days);
+        System.arraycopy(viewsPerDay, days, reviewsPerDay, 0, days);
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        return SimulationResult.of(snapshot.size(), learnViewsPerDay, reviewsPerDay, elapsedMillis);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /*
+     * Returns the learn views per day followed by the reviews per day of its range of cards.
+     */
+    private static final class SimulationTask extends RecursiveTask<int[]> {
+
+        private final DeckSnapshot snapshot;
+        private final SpacedRepetition algorithm;
+        private final SimulationSettings settings;
+        private final long startEpochMinute;
+        private final int from;
+        private final int to;
+
+        private SimulationTask(DeckSnapshot snapshot, SpacedRepetition algorithm, SimulationSettings settings,
+                               long startEpochMinute, int from, int to) {
+            this.snapshot = snapshot;
+            this.algorithm = algorithm;
+            this.settings = settings;
+            this.startEpochMinute = startEpochMinute;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= CARDS_PER_TASK) {
+                return simulateRange();
+            }
+            int middle = (from + to) >>> 1;
+            SimulationTask left = new SimulationTask(snapshot, algorithm, settings, startEpochMinute, from, middle);
+            SimulationTask right = new SimulationTask(snapshot, algorithm, settings, startEpochMinute, middle, to);
+            left.fork();
+            int[] rightViews = right.compute();
+            int[] leftViews = left.join();
+            for (int i = 0; i < leftViews.length; i++) {
+                leftViews[i] += rightViews[i];
+            }
+            return leftViews;
+        }
+
+        private int[] simulateRange() {
+            int days = settings.days();
+            int[] viewsPerDay = new int[2 * days];
+            SimulatedItem item = new SimulatedItem(settings.factorUpdateUnit());
+            for (int index = from; index < to; index++) {
+                simulateCard(index, item, viewsPerDay, days);
+            }
+            return viewsPerDay;
+        }
+
+        private void simulateCard(int index, SimulatedItem item, int[] viewsPerDay, int days) {
+            long due = snapshot.nextDueEpochMinute(index);
+            if (due == DeckSnapshot.NO_TIME) {
+                return;
+            }
+            snapshot.loadInto(index, item);
+            if (!item.isInLearnMode() && item.getCurrentIntervalDays() == null) {
+                return;
+            }
+            if (item.getLastReviewInUTC() == null) {
+                if (settings.initialIncreaseFactor() != null) {
+                    item.setIncreaseFactor(settings.initialIncreaseFactor());
+                }
+                if (settings.initialReduceFactor() != null) {
+                    item.setReduceFactor(settings.initialReduceFactor());
+                }
+            }
+            RatingModel ratingModel = settings.ratingModel();
+            SplittableRandom random = new SplittableRandom(settings.seed() + index * SEED_INCREMENT);
+            long endEpochMinute = startEpochMinute + days * DeckSnapshot.MINUTES_PER_DAY;
+            for (int views = 0; views < MAX_VIEWS_PER_CARD; views++) {
+                // Overdue cards are seen on the first simulated day.
+                long now = Math.max(due, startEpochMinute);
+                if (now >= endEpochMinute) {
+                    return;
+                }
+                int day = (int) ((now - startEpochMinute) / DeckSnapshot.MINUTES_PER_DAY);
+                LocalDateTime nowInUTC = DeckSnapshot.toDateTime(now);
+                RatingType rating;
+                if (item.isInLearnMode()) {
+                    viewsPerDay[day]++;
+                    rating = ratingModel.drawLearnRating(random);
+                } else {
+                    viewsPerDay[days + day]++;
+                    rating = ratingModel.drawReviewRating(random);
+                }
+                algorithm.apply(item, rating, nowInUTC);
+                LocalDateTime nextDue = item.isInLearnMode() ? item.getNextLearnViewInUTC() : item.getNextReviewInUTC();
+                // A card sent back to the first learn step is due immediately, but the user sees it again
+                // only after the other cards of the session.
+                due = Math.max(DeckSnapshot.toEpochMinute(nextDue), now + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package langcontrol.app.simulation;
+
+import langcontrol.app.spaced_repetition.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+ * Runs the review load simulator on a deck of new cards without starting the application, e.g.
+ *
+ *   java -cp app.jar -Dloader.main=langcontrol.app.simulation.ReviewLoadSimulatorCli \
+ *       org.springframework.boot.loader.PropertiesLauncher --cards=100000 --days=365 --factor-update-unit=0.05
+ *
+ * and prints the number of views in every simulated week.
+ */
+public final class ReviewLoadSimulatorCli {
+
+    private ReviewLoadSimulatorCli() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int cards = Integer.parseInt(options.getOrDefault("cards", "100000"));
+        int newCardsPerDay = Integer.parseInt(options.getOrDefault("per-day", "20"));
+        SimulationSettings settings = new SimulationSettings(
+                Integer.parseInt(options.getOrDefault("days", "365")),
+                Long.parseLong(options.getOrDefault("seed", "1")),
+                SpacedRepetitionAlgorithmType.valueOf(options.getOrDefault("algorithm", "BASIC").toUpperCase(Locale.ROOT)),
+                RatingModel.DEFAULT,
+                parseDouble(options.get("initial-increase-factor")),
+                parseDouble(options.get("initial-reduce-factor")),
+                parseDouble(options.get("factor-update-unit")));
+        SpacedRepetitionRegistry registry = new SpacedRepetitionRegistry(List.of(
+                new BasicSpacedRepetitionAlgorithm(),
+                new Sm2SpacedRepetitionAlgorithm(),
+                new FsrsSpacedRepetitionAlgorithm()));
+        int parallelism = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        long startEpochMinute = Math.floorDiv(System.currentTimeMillis(), 60_000L);
+        DeckSnapshot snapshot = DeckSnapshot.ofNewCards(cards, newCardsPerDay, startEpochMinute);
+        SimulationResult result;
+        try (ReviewLoadSimulator simulator = new ReviewLoadSimulator(parallelism)) {
+            result = simulator.simulate(snapshot, registry.get(settings.algorithmType()), settings, startEpochMinute);
+        }
+
+        System.out.printf("%d cards, %d days, %s: %d views, peak of %d views on day %d, simulated in %d ms%n",
+                result.cardCount(), result.days(), settings.algorithmType(), result.totalViews(),
+                result.peakDayViews(), result.peakDay(), result.elapsedMillis());
+        System.out.println("week\tlearn views\treviews");
+        for (int weekStart = 0; weekStart < result.days(); weekStart += 7) {
+            long learnViews = 0;
+            long reviews = 0;
+            for (int day = weekStart; day < Math.min(weekStart + 7, result.days()); day++) {
+                learnViews += result.learnViewsPerDay()[day];
+                reviews += result.reviewsPerDay()[day];
+            }
+            System.out.printf("%d\t%d\t%d%n", weekStart / 7 + 1, learnViews, reviews);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options must be given as --name=value, got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static Double parseDouble(String value) {
+        return value == null ? null : Double.valueOf(value);
+    }
+}
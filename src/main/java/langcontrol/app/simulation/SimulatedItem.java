@@ -0,0 +1,27 @@
+package langcontrol.app.simulation;
+
+import langcontrol.app.spaced_repetition.SpacedRepetitionItem;
+
+import java.time.LocalDateTime;
+
+/*
+ * Mutable stand-in for a flashcard that is never persisted. The simulator reuses one instance per fork-join
+ * task and loads the state of each card from the snapshot arrays into it before the card is replayed.
+ */
+class SimulatedItem extends SpacedRepetitionItem {
+
+    static final double DEFAULT_INCREASE_FACTOR = DEFAULT_I_FACTOR;
+    static final double DEFAULT_REDUCE_FACTOR = DEFAULT_R_FACTOR;
+
+    private final double factorUpdateUnit;
+
+    SimulatedItem(Double factorUpdateUnit) {
+        super(false, LocalDateTime.MIN);
+        this.factorUpdateUnit = factorUpdateUnit != null ? factorUpdateUnit : FACTOR_UPDATE_UNIT;
+    }
+
+    @Override
+    protected double factorUpdateUnit() {
+        return factorUpdateUnit;
+    }
+}
@@ -0,0 +1,31 @@
+package langcontrol.app.simulation;
+
+/*
+ * Number of learn mode views and review mode reviews on every simulated day, day 0 being the day the
+ * simulation started on.
+ */
+public record SimulationResult(int cardCount,
+                               int days,
+                               int[] learnViewsPerDay,
+                               int[] reviewsPerDay,
+                               long totalViews,
+                               int peakDay,
+                               int peakDayViews,
+                               long elapsedMillis) {
+
+    static SimulationResult of(int cardCount, int[] learnViewsPerDay, int[] reviewsPerDay, long elapsedMillis) {
+        long totalViews = 0;
+        int peakDay = 0;
+        int peakDayViews = 0;
+        for (int day = 0; day < reviewsPerDay.length; day++) {
+            int views = learnViewsPerDay[day] + reviewsPerDay[day];
+            totalViews += views;
+            if (views > peakDayViews) {
+                peakDay = day;
+                peakDayViews = views;
+            }
+        }
+        return new SimulationResult(cardCount, reviewsPerDay.length, learnViewsPerDay, reviewsPerDay,
+                totalViews, peakDay, peakDayViews, elapsedMillis);
+    }
+}
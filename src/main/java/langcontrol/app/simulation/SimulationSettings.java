@@ -0,0 +1,43 @@
+package langcontrol.app.simulation;
+
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
+
+/*
+ * Parameters of a single simulation run. A null algorithm type means the algorithm the deck would use.
+ * The initial factors replace the increase and reduce factor of cards that haven't been reviewed yet,
+ * and the factor update unit replaces the step by which ratings move the factors, so that new values of
+ * these constants can be evaluated before they're changed.
+ */
+public record SimulationSettings(int days,
+                                 long seed,
+                                 SpacedRepetitionAlgorithmType algorithmType,
+                                 RatingModel ratingModel,
+                                 Double initialIncreaseFactor,
+                                 Double initialReduceFactor,
+                                 Double factorUpdateUnit) {
+
+    public static final int MAX_DAYS = 3650;
+
+    public SimulationSettings {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("The number of simulated days must be between 1 and " + MAX_DAYS + ".");
+        }
+        if (ratingModel == null) {
+            ratingModel = RatingModel.DEFAULT;
+        }
+        if (initialIncreaseFactor != null && !(initialIncreaseFactor > 1)) {
+            throw new IllegalArgumentException("The initial increase factor must be greater than 1.");
+        }
+        if (initialReduceFactor != null && !(initialReduceFactor > 0 && initialReduceFactor < 1)) {
+            throw new IllegalArgumentException("The initial reduce factor must be between 0 and 1.");
+        }
+        if (factorUpdateUnit != null && !(factorUpdateUnit >= 0 && factorUpdateUnit < 1)) {
+            throw new IllegalArgumentException("The factor update unit must be between 0 and 1.");
+        }
+    }
+
+    public SimulationSettings withAlgorithmType(SpacedRepetitionAlgorithmType algorithmType) {
+        return new SimulationSettings(days, seed, algorithmType, ratingModel,
+                initialIncreaseFactor, initialReduceFactor, factorUpdateUnit);
+    }
+}
@@ -0,0 +1,50 @@
+package langcontrol.app.simulation.rest;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import langcontrol.app.simulation.RatingModel;
+import langcontrol.app.simulation.SimulationSettings;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimulationRequestDTO {
+
+    @Min(1) @Max(SimulationSettings.MAX_DAYS)
+    private int days = 365;
+
+    private long seed = 1;
+
+    private SpacedRepetitionAlgorithmType algorithmType;
+
+    @Size(min = 4, max = 4)
+    private double[] learnRatingProbabilities;
+
+    @Size(min = 4, max = 4)
+    private double[] reviewRatingProbabilities;
+
+    private Double initialIncreaseFactor;
+
+    private Double initialReduceFactor;
+
+    private Double factorUpdateUnit;
+
+    SimulationSettings toSettings() {
+        RatingModel ratingModel = RatingModel.DEFAULT;
+        if (learnRatingProbabilities != null || reviewRatingProbabilities != null) {
+            ratingModel = new RatingModel(
+                    learnRatingProbabilities != null
+                            ? learnRatingProbabilities : RatingModel.DEFAULT.getLearnProbabilities(),
+                    reviewRatingProbabilities != null
+                            ? reviewRatingProbabilities : RatingModel.DEFAULT.getReviewProbabilities());
+        }
+        return new SimulationSettings(days, seed, algorithmType, ratingModel,
+                initialIncreaseFactor, initialReduceFactor, factorUpdateUnit);
+    }
+}
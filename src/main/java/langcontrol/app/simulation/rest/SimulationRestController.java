@@ -0,0 +1,41 @@
+package langcontrol.app.simulation.rest;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import langcontrol.app.simulation.ReviewLoadSimulationService;
+import langcontrol.app.simulation.SimulationResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@Validated
+@RequestMapping("/admintools/api/simulations")
+@RestController
+public class SimulationRestController {
+
+    private final ReviewLoadSimulationService simulationService;
+
+    @Autowired
+    public SimulationRestController(ReviewLoadSimulationService simulationService) {
+        this.simulationService = simulationService;
+    }
+
+    @PostMapping("/decks/{id}")
+    ResponseEntity<SimulationResult> simulateDeck(@Min(1) @PathVariable("id") long deckId,
+                                                  @Valid @RequestBody SimulationRequestDTO request) {
+        SimulationResult result = simulationService.simulateDeck(deckId, request.toSettings());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/new-cards")
+    ResponseEntity<SimulationResult> simulateNewCards(@Min(1) @Max(1_000_000)
+                                                      @RequestParam(value = "cards", defaultValue = "1000") int cards,
+                                                      @Min(1) @RequestParam(value = "perDay", defaultValue = "20")
+                                                      int newCardsPerDay,
+                                                      @Valid @RequestBody SimulationRequestDTO request) {
+        SimulationResult result = simulationService.simulateNewCards(cards, newCardsPerDay, request.toSettings());
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,120 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.flashcard.LearnModeStep;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/*
+ * Learn mode works the same way for every algorithm, so that the due queries, the deck counters and the
+ * review session stay independent of the algorithm chosen for a deck. The algorithms differ only in how
+ * a review mode rating changes the interval and their per-card state.
+ */
+public abstract class AbstractSpacedRepetitionAlgorithm implements SpacedRepetition {
+
+    protected static final double MIN_INTERVAL_DAYS = 2.0;
+
+    private final Clock clock;
+
+    protected AbstractSpacedRepetitionAlgorithm(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void apply(SpacedRepetitionItem item, RatingType rating) {
+        apply(item, rating, LocalDateTime.now(clock));
+    }
+
+    @Override
+    public void apply(SpacedRepetitionItem item, RatingType rating, LocalDateTime ratedAtInUTC) {
+        if (item == null || rating == null || ratedAtInUTC == null) {
+            throw new IllegalArgumentException("The arguments cannot be null when the algorithm is applied.");
+        }
+        if (rating.name().startsWith("LEARN")) {
+            applyLearnRating(item, rating, ratedAtInUTC);
+        } else if (rating.name().startsWith("REVIEW")) {
+            if (item.inLearnMode || item.currentIntervalDays == null) {
+                throw new IllegalStateException("Rating couldn't be applied to the flashcard.");
+            }
+            applyReviewRating(item, rating, ratedAtInUTC);
+        }
+    }
+
+    @Override
+    public SpacedRepetitionItem forecast(SpacedRepetitionItem item, RatingType rating, LocalDateTime ratedAtInUTC) {
+        SpacedRepetitionItem copy = ScratchSpacedRepetitionItem.copyOf(item);
+        apply(copy, rating, ratedAtInUTC);
+        return copy;
+    }
+
+    protected abstract void applyReviewRating(SpacedRepetitionItem item, RatingType rating, LocalDateTime nowInUTC);
+
+    private void applyLearnRating(SpacedRepetitionItem item, RatingType rating, LocalDateTime nowInUTC) {
+        if (!item.isInLearnMode() || item.getLearnModeStep() == null) {
+            throw new IllegalStateException("Rating couldn't be applied to the flashcard.");
+        }
+        switch (rating) {
+            case LEARN_PREVIOUS -> stepDownInLearnMode(item, nowInUTC);
+            case LEARN_NORMAL -> maintainLearnModeStep(item, nowInUTC);
+            case LEARN_NEXT -> stepUpInLearnMode(item, nowInUTC);
+            case LEARN_TO_REVIEW_MODE -> switchToReviewMode(item, nowInUTC);
+        }
+    }
+
+    private void stepUpInLearnMode(SpacedRepetitionItem item, LocalDateTime nowInUTC) {
+        if (item.getLearnModeStep() == LearnModeStep.THREE) {
+            switchToReviewMode(item, nowInUTC);
+            return;
+        }
+        item.setLearnModeStep(LearnModeStep.getByNumeral(item.getLearnModeStep().getNumeral() + 1));
+        LocalDateTime newNextLearnViewInUTC = nowInUTC
+                .plus(item.getLearnModeStep().getAmountToAdd(),
+                        item.getLearnModeStep().getTemporalUnit());
+        item.setNextLearnViewInUTC(newNextLearnViewInUTC);
+    }
+
+    private void stepDownInLearnMode(SpacedRepetitionItem item, LocalDateTime nowInUTC) {
+        if (item.getLearnModeStep() == LearnModeStep.ONE) {
+            item.setNextLearnViewInUTC(nowInUTC);
+            return;
+        }
+        item.setLearnModeStep(LearnModeStep.getByNumeral(item.getLearnModeStep().getNumeral() - 1));
+        LocalDateTime newNextLearnViewInUTC = nowInUTC
+                .plus(item.getLearnModeStep().getAmountToAdd(),
+                        item.getLearnModeStep().getTemporalUnit());
+        item.setNextLearnViewInUTC(newNextLearnViewInUTC);
+    }
+
+    private void maintainLearnModeStep(SpacedRepetitionItem item, LocalDateTime nowInUTC) {
+        item.setNextLearnViewInUTC(nowInUTC
+                .plus(item.getLearnModeStep().getAmountToAdd(),
+                        item.getLearnModeStep().getTemporalUnit()));
+    }
+
+    protected void switchToLearnMode(SpacedRepetitionItem item, LocalDateTime nowInUTC) {
+        if (item.isInLearnMode() || item.getLearnModeStep() != null || item.getNextLearnViewInUTC() != null) {
+            return;
+        }
+        item.setInLearnMode(true);
+        item.setLearnModeStep(LearnModeStep.ONE);
+        item.setNextLearnViewInUTC(nowInUTC
+                .plus(item.getLearnModeStep().getAmountToAdd(),
+                item.getLearnModeStep().getTemporalUnit()));
+    }
+
+    protected void switchToReviewMode(SpacedRepetitionItem item, LocalDateTime nowInUTC) {
+        if (!item.isInLearnMode()) {
+            return;
+        }
+        item.setInLearnMode(false);
+        item.setLearnModeStep(null);
+        item.setNextLearnViewInUTC(null);
+        if (item.getCurrentIntervalDays() == null || item.getNextReviewInUTC() == null) {
+            item.setCurrentIntervalDays(MIN_INTERVAL_DAYS);
+            item.setNextReviewInUTC(nowInUTC.plusDays(2)/*.with(LocalTime.MIDNIGHT)*/);
+            item.setNextReviewWithoutTimeInUTC(item.getNextReviewInUTC().toLocalDate());
+        } else {
+            item.calculateNextReviewDate(nowInUTC);
+        }
+    }
+}
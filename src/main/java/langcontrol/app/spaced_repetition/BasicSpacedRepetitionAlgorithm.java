@@ -1,48 +1,34 @@
 package langcontrol.app.spaced_repetition;
 
-import langcontrol.app.flashcard.LearnModeStep;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
 
 @Component
-public class BasicSpacedRepetitionAlgorithm implements SpacedRepetition {
+public class BasicSpacedRepetitionAlgorithm extends AbstractSpacedRepetitionAlgorithm {
 
-    private static final double MIN_INTERVAL_DAYS = 2.0;
+    public BasicSpacedRepetitionAlgorithm() {
+        this(Clock.systemUTC());
+    }
 
-    @Override
-    public void apply(SpacedRepetitionItem item, RatingType rating) {
-        if (item == null || rating == null) {
-            throw new IllegalArgumentException("The arguments cannot be null when the algorithm is applied.");
-        }
-        if (rating.name().startsWith("LEARN")) {
-            applyLearnRating(item, rating);
-        } else if (rating.name().startsWith("REVIEW")) {
-            applyReviewRating(item, rating);
-        }
+    @Autowired
+    public BasicSpacedRepetitionAlgorithm(Clock clock) {
+        super(clock);
     }
 
-    private void applyLearnRating(SpacedRepetitionItem item, RatingType rating) {
-        if (!item.isInLearnMode() || item.getLearnModeStep() == null) {
-            throw new IllegalStateException("Rating couldn't be applied to the flashcard.");
-        }
-        switch (rating) {
-            case LEARN_PREVIOUS -> stepDownInLearnMode(item);
-            case LEARN_NORMAL -> maintainLearnModeStep(item);
-            case LEARN_NEXT -> stepUpInLearnMode(item);
-            case LEARN_TO_REVIEW_MODE -> switchToReviewMode(item);
-        }
+    @Override
+    public SpacedRepetitionAlgorithmType getType() {
+        return SpacedRepetitionAlgorithmType.BASIC;
     }
 
-    private void applyReviewRating(SpacedRepetitionItem item, RatingType rating) {
-        if (item.inLearnMode || item.currentIntervalDays == null) {
-            throw new IllegalStateException("Rating couldn't be applied to the flashcard.");
-        }
+    @Override
+    protected void applyReviewRating(SpacedRepetitionItem item, RatingType rating, LocalDateTime nowInUTC) {
         if (item.currentIntervalDays <= MIN_INTERVAL_DAYS && rating == RatingType.REVIEW_CANNOT_SOLVE) {
-            switchToLearnMode(item);
+            switchToLearnMode(item, nowInUTC);
         } else {
-            item.lastReviewInUTC = LocalDateTime.now(Clock.systemUTC());
+            item.lastReviewInUTC = nowInUTC;
             switch (rating) {
                 case REVIEW_CANNOT_SOLVE -> item.currentIntervalDays = MIN_INTERVAL_DAYS;
                 case REVIEW_DIFFICULT -> {
@@ -57,64 +43,7 @@ public class BasicSpacedRepetitionAlgorithm implements SpacedRepetition {
                     item.increaseRFactorByOneUnit();
                 }
             }
-            item.calculateNextReviewDate();
-        }
-    }
-
-    private void stepUpInLearnMode(SpacedRepetitionItem item) {
-        if (item.getLearnModeStep() == LearnModeStep.THREE) {
-            switchToReviewMode(item);
-            return;
-        }
-        item.setLearnModeStep(LearnModeStep.getByNumeral(item.getLearnModeStep().getNumeral() + 1));
-        LocalDateTime newNextLearnViewInUTC = LocalDateTime.now(Clock.systemUTC())
-                .plus(item.getLearnModeStep().getAmountToAdd(),
-                        item.getLearnModeStep().getTemporalUnit());
-        item.setNextLearnViewInUTC(newNextLearnViewInUTC);
-    }
-
-    private void stepDownInLearnMode(SpacedRepetitionItem item) {
-        if (item.getLearnModeStep() == LearnModeStep.ONE) {
-            item.setNextLearnViewInUTC(LocalDateTime.now(Clock.systemUTC()));
-            return;
-        }
-        item.setLearnModeStep(LearnModeStep.getByNumeral(item.getLearnModeStep().getNumeral() - 1));
-        LocalDateTime newNextLearnViewInUTC = LocalDateTime.now(Clock.systemUTC())
-                .plus(item.getLearnModeStep().getAmountToAdd(),
-                        item.getLearnModeStep().getTemporalUnit());
-        item.setNextLearnViewInUTC(newNextLearnViewInUTC);
-    }
-
-    private void maintainLearnModeStep(SpacedRepetitionItem item) {
-        item.setNextLearnViewInUTC(LocalDateTime.now(Clock.systemUTC())
-                .plus(item.getLearnModeStep().getAmountToAdd(),
-                        item.getLearnModeStep().getTemporalUnit()));
-    }
-
-    private void switchToLearnMode(SpacedRepetitionItem item) {
-        if (item.isInLearnMode() || item.getLearnModeStep() != null || item.getNextLearnViewInUTC() != null) {
-            return;
-        }
-        item.setInLearnMode(true);
-        item.setLearnModeStep(LearnModeStep.ONE);
-        item.setNextLearnViewInUTC(LocalDateTime.now(Clock.systemUTC())
-                .plus(item.getLearnModeStep().getAmountToAdd(),
-                item.getLearnModeStep().getTemporalUnit()));
-    }
-
-    private void switchToReviewMode(SpacedRepetitionItem item) {
-        if (!item.isInLearnMode()) {
-            return;
-        }
-        item.setInLearnMode(false);
-        item.setLearnModeStep(null);
-        item.setNextLearnViewInUTC(null);
-        if (item.getCurrentIntervalDays() == null || item.getNextReviewInUTC() == null) {
-            item.setCurrentIntervalDays(MIN_INTERVAL_DAYS);
-            item.setNextReviewInUTC(LocalDateTime.now(Clock.systemUTC()).plusDays(2)/*.with(LocalTime.MIDNIGHT)*/);
-            item.setNextReviewWithoutTimeInUTC(item.getNextReviewInUTC().toLocalDate());
-        } else {
-            item.calculateNextReviewDate();
+            item.calculateNextReviewDate(nowInUTC);
         }
     }
 }
@@ -0,0 +1,29 @@
+package langcontrol.app.spaced_repetition;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PastOrPresent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchedFlashcardRatingDTO {
+
+    @NotNull @Min(1)
+    private Long flashcardId;
+
+    @NotNull
+    private RatingType ratingType;
+
+    @NotNull @PastOrPresent
+    private Instant ratedAt;
+
+    @Min(0)
+    private Integer responseTimeMillis;
+}
@@ -0,0 +1,129 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.flashcard.DeckCardCounterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * When enabled, moves the next review of a rated card to the least loaded day within a fuzz window around the
+ * interval computed by the algorithm, so that cards created or reviewed together don't all become due on the
+ * same day. The window grows with the interval and short intervals aren't moved at all. The interval itself is
+ * kept, only the due date is shifted, so the fuzz doesn't add up over the reviews.
+ *
+ * The due histogram of a deck is taken from the counter forecast once and then kept up to date locally with
+ * every card placed by the balancer, so a rating doesn't cost an extra query. The histogram is reloaded after
+ * a few minutes or when the UTC day rolls over, which brings in the changes made by other instances.
+ */
+@Component
+public class DueLoadBalancer {
+
+    static final int MIN_BALANCED_INTERVAL_DAYS = 3;
+    static final int MAX_FUZZ_DAYS = 7;
+    static final double FUZZ_RATIO = 0.05;
+    static final Duration HISTOGRAM_TTL = Duration.ofMinutes(10);
+
+    private static final int MAX_CACHED_DECKS = 10_000;
+
+    private final DeckCardCounterService deckCardCounterService;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Map<Long, DueHistogram> histograms;
+
+    @Autowired
+    public DueLoadBalancer(DeckCardCounterService deckCardCounterService, Clock clock,
+                           @Value("${langcontrol.scheduling.load-smoothing:false}") boolean enabled) {
+        this.deckCardCounterService = deckCardCounterService;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.histograms = new ConcurrentHashMap<>();
+    }
+
+    /*
+     * Must be called right after a rating was applied to the item at the given time.
+     */
+    public void balance(long deckId, SpacedRepetitionItem item, LocalDateTime ratedAtInUTC) {
+        if (!enabled || item.inLearnMode || item.nextReviewInUTC == null) {
+            return;
+        }
+        long targetDays = ChronoUnit.DAYS.between(ratedAtInUTC.toLocalDate(), item.nextReviewWithoutTimeInUTC);
+        int fuzzDays = fuzzDays(targetDays);
+        if (fuzzDays == 0) {
+            return;
+        }
+        DueHistogram histogram = histogramOf(deckId);
+        long targetIndex = ChronoUnit.DAYS.between(histogram.fromDayInUTC, item.nextReviewWithoutTimeInUTC);
+        if (targetIndex - fuzzDays < 1 || targetIndex + fuzzDays >= histogram.dueCards.length) {
+            return;
+        }
+        int shiftDays = histogram.placeCard((int) targetIndex, fuzzDays);
+        if (shiftDays != 0) {
+            item.nextReviewInUTC = item.nextReviewInUTC.plusDays(shiftDays);
+            item.nextReviewWithoutTimeInUTC = item.nextReviewInUTC.toLocalDate();
+        }
+    }
+
+    static int fuzzDays(long intervalDays) {
+        if (intervalDays < MIN_BALANCED_INTERVAL_DAYS) {
+            return 0;
+        }
+        return (int) Math.min(MAX_FUZZ_DAYS, Math.max(1, Math.round(intervalDays * FUZZ_RATIO)));
+    }
+
+    private DueHistogram histogramOf(long deckId) {
+        LocalDate todayInUTC = LocalDate.now(clock);
+        Instant now = clock.instant();
+        DueHistogram histogram = histograms.get(deckId);
+        if (histogram == null || !histogram.fromDayInUTC.equals(todayInUTC)
+                || histogram.loadedAt.plus(HISTOGRAM_TTL).isBefore(now)) {
+            int[] dueCards = deckCardCounterService.forecastDueCards(deckId, todayInUTC,
+                    DeckCardCounterService.MAX_FORECAST_DAYS);
+            histogram = new DueHistogram(todayInUTC, now, dueCards);
+            if (histograms.size() >= MAX_CACHED_DECKS) {
+                histograms.clear();
+            }
+            histograms.put(deckId, histogram);
+        }
+        return histogram;
+    }
+
+    private static final class DueHistogram {
+
+        private final LocalDate fromDayInUTC;
+        private final Instant loadedAt;
+        private final int[] dueCards;
+
+        private DueHistogram(LocalDate fromDayInUTC, Instant loadedAt, int[] dueCards) {
+            this.fromDayInUTC = fromDayInUTC;
+            this.loadedAt = loadedAt;
+            this.dueCards = dueCards;
+        }
+
+        /*
+         * Returns the shift from the target day to the least loaded day of the window and counts the card on
+         * that day. Among equally loaded days the one closest to the target wins, the earlier one on a tie.
+         */
+        private synchronized int placeCard(int targetIndex, int fuzzDays) {
+            int bestShift = 0;
+            for (int distance = 1; distance <= fuzzDays; distance++) {
+                if (dueCards[targetIndex - distance] < dueCards[targetIndex + bestShift]) {
+                    bestShift = -distance;
+                }
+                if (dueCards[targetIndex + distance] < dueCards[targetIndex + bestShift]) {
+                    bestShift = distance;
+                }
+            }
+            dueCards[targetIndex + bestShift]++;
+            return bestShift;
+        }
+    }
+}
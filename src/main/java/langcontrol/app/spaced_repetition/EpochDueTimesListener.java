@@ -0,0 +1,39 @@
+package langcontrol.app.spaced_repetition;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.ZoneOffset;
+
+/*
+ * When enabled, stores the due times of the items also as primitive epoch values (milliseconds of the next
+ * learn view and day of the next review), which can be compared and bucketed without date-time conversions.
+ * The listener is instantiated through the Spring bean container of Hibernate, so the option is read from the
+ * application properties. Rows written before the option was enabled are filled on their next update.
+ */
+public class EpochDueTimesListener {
+
+    @Value("${langcontrol.scheduling.epoch-due-times:false}")
+    private boolean enabled;
+
+    public EpochDueTimesListener() {
+        this.enabled = false;
+    }
+
+    EpochDueTimesListener(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void storeEpochDueTimes(SpacedRepetitionItem item) {
+        if (!enabled) {
+            return;
+        }
+        item.nextLearnViewEpochMilli = item.nextLearnViewInUTC == null ?
+                null : item.nextLearnViewInUTC.toInstant(ZoneOffset.UTC).toEpochMilli();
+        item.nextReviewEpochDay = item.nextReviewWithoutTimeInUTC == null ?
+                null : item.nextReviewWithoutTimeInUTC.toEpochDay();
+    }
+}
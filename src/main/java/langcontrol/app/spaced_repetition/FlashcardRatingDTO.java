@@ -17,4 +17,7 @@ public class FlashcardRatingDTO {
 
     @NotNull @Min(1)
     private Long flashcardId;
+
+    @Min(0)
+    private Integer responseTimeMillis;
 }
@@ -0,0 +1,23 @@
+package langcontrol.app.spaced_repetition;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FlashcardRatingsBatchDTO {
+
+    public static final int MAX_BATCH_SIZE = 200;
+
+    @NotEmpty @Size(max = MAX_BATCH_SIZE)
+    private List<@Valid @NotNull BatchedFlashcardRatingDTO> ratings;
+}
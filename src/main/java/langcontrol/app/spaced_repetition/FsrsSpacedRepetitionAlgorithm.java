@@ -0,0 +1,84 @@
+package langcontrol.app.spaced_repetition;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/*
+ * A stability/difficulty model following FSRS v4 with its default weights. The stability is the interval in
+ * days after which the probability of recall drops to 90%, which is also the requested retention, so the
+ * next interval equals the new stability. Cards reviewed for the first time under this algorithm start with
+ * their current interval as stability and an average difficulty. A lapse sends the card back to learn mode.
+ */
+@Component
+public class FsrsSpacedRepetitionAlgorithm extends AbstractSpacedRepetitionAlgorithm {
+
+    private static final double[] W = {0.4, 0.6, 2.4, 5.8, 4.93, 0.94, 0.86, 0.01, 1.49, 0.14, 0.94, 2.18,
+            0.05, 0.34, 1.26, 0.29, 2.61};
+    private static final double MIN_DIFFICULTY = 1.0;
+    private static final double MAX_DIFFICULTY = 10.0;
+    private static final double MIN_STABILITY = 0.1;
+    private static final double MAX_INTERVAL_DAYS = 36_500.0;
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+
+    public FsrsSpacedRepetitionAlgorithm() {
+        this(Clock.systemUTC());
+    }
+
+    @Autowired
+    public FsrsSpacedRepetitionAlgorithm(Clock clock) {
+        super(clock);
+    }
+
+    @Override
+    public SpacedRepetitionAlgorithmType getType() {
+        return SpacedRepetitionAlgorithmType.FSRS;
+    }
+
+    @Override
+    protected void applyReviewRating(SpacedRepetitionItem item, RatingType rating, LocalDateTime nowInUTC) {
+        int grade = switch (rating) {
+            case REVIEW_CANNOT_SOLVE -> 1;
+            case REVIEW_DIFFICULT -> 2;
+            case REVIEW_NORMAL -> 3;
+            default -> 4;
+        };
+        double stability = item.stability == null ?
+                Math.max(MIN_STABILITY, item.currentIntervalDays) : item.stability;
+        double difficulty = item.difficulty == null ? initialDifficulty(3) : item.difficulty;
+        double elapsedDays = item.lastReviewInUTC == null ? item.currentIntervalDays :
+                Math.max(0, Duration.between(item.lastReviewInUTC, nowInUTC).toMillis() / MILLIS_PER_DAY);
+        double retrievability = Math.pow(1 + elapsedDays / (9 * stability), -1);
+
+        double nextDifficulty = difficulty - W[6] * (grade - 3);
+        nextDifficulty = W[7] * initialDifficulty(3) + (1 - W[7]) * nextDifficulty;
+        item.difficulty = clamp(nextDifficulty, MIN_DIFFICULTY, MAX_DIFFICULTY);
+        item.lastReviewInUTC = nowInUTC;
+
+        if (grade == 1) {
+            item.stability = Math.max(MIN_STABILITY, W[11] * Math.pow(difficulty, -W[12])
+                    * (Math.pow(stability + 1, W[13]) - 1) * Math.exp(W[14] * (1 - retrievability)));
+            item.currentIntervalDays = Math.max(MIN_INTERVAL_DAYS, item.stability);
+            item.calculateNextReviewDate(nowInUTC);
+            switchToLearnMode(item, nowInUTC);
+            return;
+        }
+        double hardPenalty = grade == 2 ? W[15] : 1.0;
+        double easyBonus = grade == 4 ? W[16] : 1.0;
+        item.stability = stability * (1 + Math.exp(W[8]) * (11 - difficulty) * Math.pow(stability, -W[9])
+                * (Math.exp(W[10] * (1 - retrievability)) - 1) * hardPenalty * easyBonus);
+        item.currentIntervalDays = clamp(item.stability, 1.0, MAX_INTERVAL_DAYS);
+        item.calculateNextReviewDate(nowInUTC);
+    }
+
+    private static double initialDifficulty(int grade) {
+        return clamp(W[4] - (grade - 3) * W[5], MIN_DIFFICULTY, MAX_DIFFICULTY);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,84 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.flashcard.ReviewCardView;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class ReviewSession {
+
+    private final long deckId;
+    private final String zoneId;
+    private final int capacity;
+    private final Deque<ReviewCardView> cards;
+    private final AtomicBoolean refillInProgress;
+    private volatile long lastAccessMillis;
+
+    ReviewSession(long deckId, String zoneId, int capacity, Collection<ReviewCardView> initialCards,
+                  long nowMillis) {
+        this.deckId = deckId;
+        this.zoneId = zoneId;
+        this.capacity = capacity;
+        this.cards = new ArrayDeque<>(capacity);
+        this.refillInProgress = new AtomicBoolean(false);
+        this.lastAccessMillis = nowMillis;
+        addAbsent(initialCards);
+    }
+
+    long getDeckId() {
+        return deckId;
+    }
+
+    String getZoneId() {
+        return zoneId;
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch(long nowMillis) {
+        this.lastAccessMillis = nowMillis;
+    }
+
+    boolean tryStartRefill() {
+        return refillInProgress.compareAndSet(false, true);
+    }
+
+    void finishRefill() {
+        refillInProgress.set(false);
+    }
+
+    synchronized Optional<ReviewCardView> currentCard() {
+        return Optional.ofNullable(cards.peekFirst());
+    }
+
+    synchronized int removeCard(long flashcardId) {
+        cards.removeIf(card -> Objects.equals(card.id(), flashcardId));
+        return cards.size();
+    }
+
+    synchronized int freeSlots() {
+        return capacity - cards.size();
+    }
+
+    synchronized Set<Long> queuedCardIds() {
+        Set<Long> ids = new HashSet<>();
+        for (ReviewCardView card : cards) {
+            ids.add(card.id());
+        }
+        return ids;
+    }
+
+    synchronized void addAbsent(Collection<ReviewCardView> cardsToAdd) {
+        Set<Long> queuedIds = queuedCardIds();
+        for (ReviewCardView card : cardsToAdd) {
+            if (cards.size() >= capacity) {
+                return;
+            }
+            if (queuedIds.add(card.id())) {
+                cards.addLast(card);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package langcontrol.app.spaced_repetition;
+
+import jakarta.annotation.PreDestroy;
+import langcontrol.app.deck.Deck;
+import langcontrol.app.deck.DeckRepository;
+import langcontrol.app.example_pool.ExamplePrefetcher;
+import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.flashcard.ReviewCardView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Keeps the review queues of the users outside the HTTP session. Only the data needed to display a card
+ * is stored, the number of sessions is bounded and idle sessions are evicted periodically. When a queue
+ * runs low it is refilled in the background from the due query. The deck ownership is verified when the
+ * session is opened, so the refill doesn't have to do it again. The examples of the dynamic examples cards
+ * are prefetched as soon as the cards are queued. The refill resolves the algorithm of the deck again, so
+ * the forecasts of the new cards follow a change of the algorithm.
+ */
+@Component
+public class ReviewSessionStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReviewSessionStore.class);
+
+    public static final int SESSION_CAPACITY = 10;
+    static final int REFILL_THRESHOLD = 3;
+    static final int MAX_SESSIONS = 10_000;
+    static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final Map<String, ReviewSession> sessions;
+    private final FlashcardRepository flashcardRepository;
+    private final DeckRepository deckRepository;
+    private final SpacedRepetitionRegistry spacedRepetitionRegistry;
+    private final ExamplePrefetcher examplePrefetcher;
+    private final Executor refillExecutor;
+    private final Clock clock;
+    private final Random random;
+
+    @Autowired
+    public ReviewSessionStore(FlashcardRepository flashcardRepository, DeckRepository deckRepository,
+                              SpacedRepetitionRegistry spacedRepetitionRegistry,
+                              ExamplePrefetcher examplePrefetcher, Clock clock) {
+        this(flashcardRepository, deckRepository, spacedRepetitionRegistry, examplePrefetcher,
+                new ThreadPoolExecutor(1, 2, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(200)), clock);
+    }
+
+    ReviewSessionStore(FlashcardRepository flashcardRepository, DeckRepository deckRepository,
+                       SpacedRepetitionRegistry spacedRepetitionRegistry, ExamplePrefetcher examplePrefetcher,
+                       Executor refillExecutor, Clock clock) {
+        this.sessions = new ConcurrentHashMap<>();
+        this.flashcardRepository = flashcardRepository;
+        this.deckRepository = deckRepository;
+        this.spacedRepetitionRegistry = spacedRepetitionRegistry;
+        this.examplePrefetcher = examplePrefetcher;
+        this.refillExecutor = refillExecutor;
+        this.clock = clock;
+        this.random = new Random();
+    }
+
+    public void open(String sessionKey, long deckId, String zoneId, Collection<ReviewCardView> cards) {
+        if (!sessions.containsKey(sessionKey) && sessions.size() >= MAX_SESSIONS) {
+            evictLeastRecentlyUsedSession();
+        }
+        sessions.put(sessionKey, new ReviewSession(deckId, zoneId, SESSION_CAPACITY, cards,
+                clock.millis()));
+        examplePrefetcher.prefetch(cards);
+    }
+
+    public Optional<ReviewCardView> currentCard(String sessionKey) {
+        ReviewSession session = sessions.get(sessionKey);
+        if (session == null) {
+            return Optional.empty();
+        }
+        session.touch(clock.millis());
+        return session.currentCard();
+    }
+
+    public void completeCard(String sessionKey, long flashcardId) {
+        ReviewSession session = sessions.get(sessionKey);
+        if (session == null) {
+            return;
+        }
+        session.touch(clock.millis());
+        int remainingCards = session.removeCard(flashcardId);
+        if (remainingCards <= REFILL_THRESHOLD) {
+            scheduleRefill(session);
+        }
+    }
+
+    public void close(String sessionKey) {
+        sessions.remove(sessionKey);
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    @Scheduled(fixedDelay = 60_000L)
+    public void evictIdleSessions() {
+        long idleSince = clock.millis() - IDLE_TIMEOUT.toMillis();
+        sessions.values().removeIf(session -> session.getLastAccessMillis() < idleSince);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refillExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void scheduleRefill(ReviewSession session) {
+        if (!session.tryStartRefill()) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    refill(session);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Review session of the deck with id={} couldn't be refilled.", session.getDeckId(), e);
+                } finally {
+                    session.finishRefill();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            session.finishRefill();
+        }
+    }
+
+    private void refill(ReviewSession session) {
+        int freeSlots = session.freeSlots();
+        if (freeSlots < 1) {
+            return;
+        }
+        Optional<Deck> deck = deckRepository.findById(session.getDeckId());
+        if (deck.isEmpty()) {
+            return;
+        }
+        Set<Long> queuedCardIds = session.queuedCardIds();
+        List<ReviewCardView> dueCards = flashcardRepository.sampleReadyForReviewCardViewsByDeck(
+                session.getDeckId(),
+                LocalDateTime.now(clock),
+                LocalDate.now(clock.withZone(ZoneId.of(session.getZoneId()))),
+                freeSlots + queuedCardIds.size(),
+                random,
+                spacedRepetitionRegistry.forDeck(deck.get()));
+        List<ReviewCardView> newCards = new ArrayList<>(dueCards.size());
+        for (ReviewCardView card : dueCards) {
+            if (!queuedCardIds.contains(card.id())) {
+                newCards.add(card);
+            }
+        }
+        session.addAbsent(newCards);
+        examplePrefetcher.prefetch(newCards);
+    }
+
+    private void evictLeastRecentlyUsedSession() {
+        sessions.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().getLastAccessMillis()))
+                .ifPresent(entry -> sessions.remove(entry.getKey(), entry.getValue()));
+    }
+}
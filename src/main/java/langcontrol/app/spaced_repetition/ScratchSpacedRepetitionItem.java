@@ -0,0 +1,30 @@
+package langcontrol.app.spaced_repetition;
+
+/*
+ * Scheduling state which isn't persisted. It's used to forecast a rating without changing the card, and to
+ * build the state of a card from a projection row.
+ */
+public final class ScratchSpacedRepetitionItem extends SpacedRepetitionItem {
+
+    public ScratchSpacedRepetitionItem() {
+        super(true);
+    }
+
+    public static ScratchSpacedRepetitionItem copyOf(SpacedRepetitionItem item) {
+        ScratchSpacedRepetitionItem copy = new ScratchSpacedRepetitionItem();
+        copy.inLearnMode = item.inLearnMode;
+        copy.learnModeStep = item.learnModeStep;
+        copy.nextLearnViewInUTC = item.nextLearnViewInUTC;
+        copy.lastReviewInUTC = item.lastReviewInUTC;
+        copy.currentIntervalDays = item.currentIntervalDays;
+        copy.nextReviewInUTC = item.nextReviewInUTC;
+        copy.nextReviewWithoutTimeInUTC = item.nextReviewWithoutTimeInUTC;
+        copy.increaseFactor = item.increaseFactor;
+        copy.reduceFactor = item.reduceFactor;
+        copy.easinessFactor = item.easinessFactor;
+        copy.repetitions = item.repetitions;
+        copy.stability = item.stability;
+        copy.difficulty = item.difficulty;
+        return copy;
+    }
+}
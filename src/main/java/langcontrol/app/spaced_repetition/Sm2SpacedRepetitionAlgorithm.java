@@ -0,0 +1,65 @@
+package langcontrol.app.spaced_repetition;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+/*
+ * A variant of SuperMemo 2. The review ratings are mapped to the qualities 1, 3, 4 and 5. A failed review
+ * resets the repetitions and sends the card back to learn mode, the first successful repetition after
+ * learn mode schedules the card in 6 days and every next one multiplies the interval by the easiness factor.
+ * A card switched from another algorithm with an interval past the graduation interval continues from that
+ * interval as if it had already been repeated twice.
+ */
+@Component
+public class Sm2SpacedRepetitionAlgorithm extends AbstractSpacedRepetitionAlgorithm {
+
+    static final double DEFAULT_EASINESS_FACTOR = 2.5;
+    static final double MIN_EASINESS_FACTOR = 1.3;
+    static final double FIRST_REPETITION_INTERVAL_DAYS = 6.0;
+    static final int MIGRATED_REPETITIONS = 2;
+
+    public Sm2SpacedRepetitionAlgorithm() {
+        this(Clock.systemUTC());
+    }
+
+    @Autowired
+    public Sm2SpacedRepetitionAlgorithm(Clock clock) {
+        super(clock);
+    }
+
+    @Override
+    public SpacedRepetitionAlgorithmType getType() {
+        return SpacedRepetitionAlgorithmType.SM2;
+    }
+
+    @Override
+    protected void applyReviewRating(SpacedRepetitionItem item, RatingType rating, LocalDateTime nowInUTC) {
+        int quality = switch (rating) {
+            case REVIEW_CANNOT_SOLVE -> 1;
+            case REVIEW_DIFFICULT -> 3;
+            case REVIEW_NORMAL -> 4;
+            default -> 5;
+        };
+        double easinessFactor = item.easinessFactor == null ? DEFAULT_EASINESS_FACTOR : item.easinessFactor;
+        int repetitions = item.repetitions != null ? item.repetitions :
+                item.currentIntervalDays > MIN_INTERVAL_DAYS ? MIGRATED_REPETITIONS : 0;
+
+        easinessFactor += 0.1 - (5 - quality) * (0.08 + (5 - quality) * 0.02);
+        item.easinessFactor = Math.max(MIN_EASINESS_FACTOR, easinessFactor);
+        item.lastReviewInUTC = nowInUTC;
+        if (quality < 3) {
+            item.repetitions = 0;
+            item.currentIntervalDays = MIN_INTERVAL_DAYS;
+            item.calculateNextReviewDate(nowInUTC);
+            switchToLearnMode(item, nowInUTC);
+            return;
+        }
+        item.repetitions = repetitions + 1;
+        item.currentIntervalDays = repetitions == 0 ?
+                FIRST_REPETITION_INTERVAL_DAYS : item.currentIntervalDays * item.easinessFactor;
+        item.calculateNextReviewDate(nowInUTC);
+    }
+}
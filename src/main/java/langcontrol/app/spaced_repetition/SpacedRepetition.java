@@ -1,6 +1,17 @@
 package langcontrol.app.spaced_repetition;
 
+import java.time.LocalDateTime;
+
 public interface SpacedRepetition {
 
+    SpacedRepetitionAlgorithmType getType();
+
     void apply(SpacedRepetitionItem item, RatingType rating);
+
+    void apply(SpacedRepetitionItem item, RatingType rating, LocalDateTime ratedAtInUTC);
+
+    /*
+     * Applies the rating to a copy of the item and returns the copy, the item itself stays unchanged.
+     */
+    SpacedRepetitionItem forecast(SpacedRepetitionItem item, RatingType rating, LocalDateTime ratedAtInUTC);
 }
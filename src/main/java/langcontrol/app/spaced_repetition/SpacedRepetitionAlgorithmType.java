@@ -0,0 +1,5 @@
+package langcontrol.app.spaced_repetition;
+
+public enum SpacedRepetitionAlgorithmType {
+    BASIC, SM2, FSRS
+}
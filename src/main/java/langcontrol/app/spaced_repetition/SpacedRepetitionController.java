@@ -1,80 +1,63 @@
 package langcontrol.app.spaced_repetition;
 
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
-import langcontrol.app.flashcard.Flashcard;
 import langcontrol.app.flashcard.FlashcardService;
+import langcontrol.app.flashcard.ReviewCardView;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.bind.support.SessionStatus;
-import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Objects;
+import java.util.List;
+import java.util.Optional;
 
 @Validated
-@SessionAttributes("reviewCards")
-//@Scope("session")
 @Controller
 public class SpacedRepetitionController {
 
     private final FlashcardService flashcardService;
+    private final ReviewSessionStore reviewSessionStore;
 
     @Autowired
-    public SpacedRepetitionController(FlashcardService flashcardService) {
+    public SpacedRepetitionController(FlashcardService flashcardService, ReviewSessionStore reviewSessionStore) {
         this.flashcardService = flashcardService;
+        this.reviewSessionStore = reviewSessionStore;
     }
 
     @GetMapping("/review")
     public String openDeck(@Min(1) @RequestParam("deckId") long deckId,
                            @NotBlank @RequestParam("timezone") String timezoneId,
-                           Model model, SessionStatus status) {
-//        status.setComplete();
-        Deque<Flashcard> readyForReview = flashcardService.fetchReadyForReviewShuffledWithLimit(deckId, timezoneId, 10);
-        if (readyForReview.isEmpty()) {
+                           Model model, HttpSession session) {
+        List<ReviewCardView> reviewCards = flashcardService.fetchReadyForReviewCardViewsShuffledWithLimit(deckId,
+                timezoneId, ReviewSessionStore.SESSION_CAPACITY);
+        if (reviewCards.isEmpty()) {
+            reviewSessionStore.close(session.getId());
             return "redirect:/decks";
         }
-        model.addAttribute("reviewCards", readyForReview);
-        model.addAttribute("currentCard", readyForReview.element());
-//        model.addAttribute("rating", new FlashcardRatingDTO());
-        if (readyForReview.getFirst().isInLearnMode()) {
-            return "learn";
-        } else {
-            return "review";
-        }
+        reviewSessionStore.open(session.getId(), deckId, timezoneId, reviewCards);
+        return showCard(reviewCards.get(0), model);
     }
 
-//    @PostMapping(value = "/rating", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE,
-//            produces = MediaType.APPLICATION_JSON_VALUE)
-//    @ResponseBody
-//    public ResponseEntity<Object> handleFlashcardRating(@Valid @ModelAttribute("rating") FlashcardRatingDTO rating,
-//                                                @ModelAttribute("reviewCards") ArrayDeque<Flashcard> readyForReview) {
-//        Flashcard cardAfterRating = spacedRepetitionService.applyRating(rating.getFlashcardId(), rating.getRatingType());
-//        readyForReview.poll();
-//        FlashcardOverviewDTO overviewDto = FlashcardOverviewDTO.fromEntity(cardAfterRating);
-//        return ResponseEntity.ok(overviewDto);
-//    }
-
     @GetMapping("/review/next")
-    public String reviewNextCard(@ModelAttribute("reviewCards") Deque<Flashcard> readyForReview,
-                                 Model model) {
-        if (Objects.isNull(readyForReview) || readyForReview.isEmpty()) {
+    public String reviewNextCard(Model model, HttpSession session) {
+        Optional<ReviewCardView> currentCard = reviewSessionStore.currentCard(session.getId());
+        if (currentCard.isEmpty()) {
+            reviewSessionStore.close(session.getId());
             return "redirect:/decks";
         }
-        model.addAttribute("currentCard", readyForReview.element());
         model.addAttribute("rating", new FlashcardRatingDTO());
-        if (readyForReview.element().isInLearnMode()) {
+        return showCard(currentCard.get(), model);
+    }
+
+    private String showCard(ReviewCardView currentCard, Model model) {
+        model.addAttribute("currentCard", currentCard);
+        if (currentCard.inLearnMode()) {
             return "learn";
         } else {
             return "review";
         }
     }
-
 }
@@ -2,11 +2,10 @@ package langcontrol.app.spaced_repetition;
 
 import jakarta.persistence.*;
 import langcontrol.app.flashcard.LearnModeStep;
+import langcontrol.app.util.HalfDownRounding;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -14,32 +13,30 @@ import java.time.LocalDateTime;
 @Getter @Setter
 @DiscriminatorColumn(name = "DATA_TYPE")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@EntityListeners(EpochDueTimesListener.class)
 @MappedSuperclass
 public abstract class SpacedRepetitionItem {
 
     @Transient
-    protected static final double DEFAULT_I_FACTOR = 1.3;
+    public static final double DEFAULT_I_FACTOR = 1.3;
 
     @Transient
-    protected static final double DEFAULT_R_FACTOR = 0.7;
+    public static final double DEFAULT_R_FACTOR = 0.7;
 
     @Transient
     protected static final double FACTOR_UPDATE_UNIT = 0.04;
 
     @Transient
-    protected static final double I_FACTOR_UPPER_LIMIT = 1.4;
+    public static final double I_FACTOR_UPPER_LIMIT = 1.4;
 
     @Transient
-    protected static final double I_FACTOR_BOTTOM_LIMIT = 1.1;
+    public static final double I_FACTOR_BOTTOM_LIMIT = 1.1;
 
     @Transient
-    protected static final double R_FACTOR_UPPER_LIMIT = 0.9;
+    public static final double R_FACTOR_UPPER_LIMIT = 0.9;
 
     @Transient
-    protected static final double R_FACTOR_BOTTOM_LIMIT = 0.6;
-
-    @Transient
-    protected static final RoundingMode INTERVAL_ROUNDING_MODE = RoundingMode.HALF_DOWN;
+    public static final double R_FACTOR_BOTTOM_LIMIT = 0.6;
 
 
     @Column(name = "in_learn_mode", nullable = false)
@@ -70,11 +67,33 @@ public abstract class SpacedRepetitionItem {
     @Column(name = "reduce_factor", nullable = false)
     protected Double reduceFactor;
 
+    @Column(name = "sm2_easiness_factor")
+    protected Double easinessFactor;
+
+    @Column(name = "sm2_repetitions")
+    protected Integer repetitions;
+
+    @Column(name = "fsrs_stability")
+    protected Double stability;
+
+    @Column(name = "fsrs_difficulty")
+    protected Double difficulty;
+
+    @Column(name = "next_learn_view_epoch_milli")
+    protected Long nextLearnViewEpochMilli;
+
+    @Column(name = "next_review_epoch_day")
+    protected Long nextReviewEpochDay;
+
     public SpacedRepetitionItem(boolean initialReviewMode) {
+        this(initialReviewMode, LocalDateTime.now(Clock.systemUTC()));
+    }
+
+    public SpacedRepetitionItem(boolean initialReviewMode, LocalDateTime nowInUTC) {
         if (!initialReviewMode) {
             this.inLearnMode = true;
             this.learnModeStep = LearnModeStep.ONE;
-            this.nextLearnViewInUTC = LocalDateTime.now(Clock.systemUTC());
+            this.nextLearnViewInUTC = nowInUTC;
             this.lastReviewInUTC = null;
             this.currentIntervalDays = null;
             this.nextReviewInUTC = null;
@@ -85,47 +104,54 @@ public abstract class SpacedRepetitionItem {
             this.nextLearnViewInUTC = null;
             this.lastReviewInUTC = null;
             this.currentIntervalDays = 2.0;
-            this.nextReviewInUTC = LocalDateTime.now(Clock.systemUTC()).plusDays(2);
+            this.nextReviewInUTC = nowInUTC.plusDays(2);
             this.nextReviewWithoutTimeInUTC = nextReviewInUTC.toLocalDate();
         }
         this.increaseFactor = DEFAULT_I_FACTOR;
         this.reduceFactor = DEFAULT_R_FACTOR;
     }
 
-    void calculateNextReviewDate() {
+    void calculateNextReviewDate(LocalDateTime nowInUTC) {
         if (lastReviewInUTC == null || currentIntervalDays == null) {
             return;
         }
-        int intervalRounded = BigDecimal.valueOf(currentIntervalDays)
-                .setScale(0, INTERVAL_ROUNDING_MODE).intValue();
-        LocalDateTime newNextReviewDateInUTC = LocalDateTime.now(Clock.systemUTC()).plusDays(intervalRounded);
+        int intervalRounded = HalfDownRounding.roundToInt(currentIntervalDays);
+        LocalDateTime newNextReviewDateInUTC = nowInUTC.plusDays(intervalRounded);
         this.nextReviewInUTC = newNextReviewDateInUTC/*.with(LocalTime.MIDNIGHT)*/;
         this.nextReviewWithoutTimeInUTC = nextReviewInUTC.toLocalDate();
     }
 
+    /*
+     * Step by which a rating moves the increase and reduce factor. Only overridden by the review load
+     * simulator to evaluate other values before the constant is changed.
+     */
+    protected double factorUpdateUnit() {
+        return FACTOR_UPDATE_UNIT;
+    }
+
     void increaseIFactorByOneUnit() {
-        increaseFactor += FACTOR_UPDATE_UNIT;
+        increaseFactor += factorUpdateUnit();
         if (increaseFactor > I_FACTOR_UPPER_LIMIT) {
             increaseFactor = I_FACTOR_UPPER_LIMIT;
         }
     }
 
     void decreaseIFactorByOneUnit() {
-        increaseFactor -= FACTOR_UPDATE_UNIT;
+        increaseFactor -= factorUpdateUnit();
         if (increaseFactor < I_FACTOR_BOTTOM_LIMIT) {
             increaseFactor = I_FACTOR_BOTTOM_LIMIT;
         }
     }
 
     void increaseRFactorByOneUnit() {
-        reduceFactor += FACTOR_UPDATE_UNIT;
+        reduceFactor += factorUpdateUnit();
         if (reduceFactor > R_FACTOR_UPPER_LIMIT) {
             reduceFactor = R_FACTOR_UPPER_LIMIT;
         }
     }
 
     void decreaseRFactorByOneUnit() {
-        reduceFactor -= FACTOR_UPDATE_UNIT;
+        reduceFactor -= factorUpdateUnit();
         if (reduceFactor < R_FACTOR_BOTTOM_LIMIT) {
             reduceFactor = R_FACTOR_BOTTOM_LIMIT;
         }
@@ -0,0 +1,55 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.Deck;
+import langcontrol.app.user_settings.UserSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Resolves the algorithm of a deck. The algorithm chosen for the deck wins over the default algorithm
+ * of the user, and the basic algorithm is used when neither was chosen.
+ */
+@Component
+public class SpacedRepetitionRegistry {
+
+    static final SpacedRepetitionAlgorithmType DEFAULT_ALGORITHM_TYPE = SpacedRepetitionAlgorithmType.BASIC;
+
+    private final Map<SpacedRepetitionAlgorithmType, SpacedRepetition> algorithms;
+
+    @Autowired
+    public SpacedRepetitionRegistry(List<SpacedRepetition> algorithms) {
+        this.algorithms = new EnumMap<>(SpacedRepetitionAlgorithmType.class);
+        for (SpacedRepetition algorithm : algorithms) {
+            if (this.algorithms.putIfAbsent(algorithm.getType(), algorithm) != null) {
+                throw new IllegalStateException("More than one algorithm of type " + algorithm.getType() + ".");
+            }
+        }
+    }
+
+    public SpacedRepetition get(SpacedRepetitionAlgorithmType type) {
+        SpacedRepetition algorithm = algorithms.get(type);
+        if (algorithm == null) {
+            throw new IllegalStateException("No algorithm of type " + type + " is registered.");
+        }
+        return algorithm;
+    }
+
+    public SpacedRepetition forDeck(Deck deck) {
+        return get(resolveType(deck));
+    }
+
+    public SpacedRepetitionAlgorithmType resolveType(Deck deck) {
+        if (deck.getSchedulingAlgorithm() != null) {
+            return deck.getSchedulingAlgorithm();
+        }
+        UserSettings userSettings = deck.getUserProfile() == null ? null : deck.getUserProfile().getUserSettings();
+        if (userSettings != null && userSettings.getDefaultSchedulingAlgorithm() != null) {
+            return userSettings.getDefaultSchedulingAlgorithm();
+        }
+        return DEFAULT_ALGORITHM_TYPE;
+    }
+}
@@ -2,8 +2,14 @@ package langcontrol.app.spaced_repetition;
 
 import langcontrol.app.flashcard.Flashcard;
 
+import java.util.List;
+
 public interface SpacedRepetitionService {
 
     FlashcardRatedOverviewDTO applyRating(Long flashcardId, RatingType ratingType);
 
+    FlashcardRatedOverviewDTO applyRating(Long flashcardId, RatingType ratingType, Integer responseTimeMillis);
+
+    List<FlashcardRatedOverviewDTO> applyRatings(List<BatchedFlashcardRatingDTO> ratings);
+
 }
@@ -1,40 +1,87 @@
 package langcontrol.app.spaced_repetition;
 
+import langcontrol.app.deck.DeckRepository;
 import langcontrol.app.exception.GeneralNotFoundException;
+import langcontrol.app.flashcard.CardSchedule;
+import langcontrol.app.flashcard.DeckCardCounterService;
+import langcontrol.app.flashcard.DeckCardCountersDelta;
 import langcontrol.app.flashcard.Flashcard;
 import langcontrol.app.flashcard.FlashcardRepository;
 import langcontrol.app.flashcard.FlashcardService;
+import langcontrol.app.flashcard.OwnedFlashcard;
+import langcontrol.app.review_log.ReviewLogEntry;
+import langcontrol.app.review_log.ReviewLogWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class SpacedRepetitionServiceImpl implements SpacedRepetitionService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SpacedRepetitionServiceImpl.class);
 
     private final FlashcardService flashcardService;
-    private final SpacedRepetition spacedRepetitionAlgorithm;
+    private final SpacedRepetitionRegistry spacedRepetitionRegistry;
+    private final DeckRepository deckRepository;
+    private final DeckCardCounterService deckCardCounterService;
+    private final ReviewLogWriter reviewLogWriter;
+    private final DueLoadBalancer dueLoadBalancer;
+    private final Clock clock;
 
     @Autowired
     public SpacedRepetitionServiceImpl(FlashcardService flashcardService,
-                                       SpacedRepetition spacedRepetitionAlgorithm) {
+                                       SpacedRepetitionRegistry spacedRepetitionRegistry,
+                                       DeckRepository deckRepository,
+                                       DeckCardCounterService deckCardCounterService,
+                                       ReviewLogWriter reviewLogWriter,
+                                       DueLoadBalancer dueLoadBalancer,
+                                       Clock clock) {
         this.flashcardService = flashcardService;
-        this.spacedRepetitionAlgorithm = spacedRepetitionAlgorithm;
+        this.spacedRepetitionRegistry = spacedRepetitionRegistry;
+        this.deckRepository = deckRepository;
+        this.deckCardCounterService = deckCardCounterService;
+        this.reviewLogWriter = reviewLogWriter;
+        this.dueLoadBalancer = dueLoadBalancer;
+        this.clock = clock;
     }
 
     @Transactional
     @Override
     public FlashcardRatedOverviewDTO applyRating(Long flashcardId, RatingType ratingType) {
+        return applyRating(flashcardId, ratingType, null);
+    }
+
+    @Transactional
+    @Override
+    public FlashcardRatedOverviewDTO applyRating(Long flashcardId, RatingType ratingType, Integer responseTimeMillis) {
         if (flashcardId == null || ratingType == null) {
             throw new IllegalArgumentException("Arguments cannot be null.");
         }
-        Flashcard flashcard = flashcardService.getCardById(flashcardId);
+        OwnedFlashcard ownedFlashcard = flashcardService.getOwnedCardById(flashcardId);
+        Flashcard flashcard = ownedFlashcard.flashcard();
         boolean inLearnModeBefore = flashcard.isInLearnMode();
+        Double intervalBefore = flashcard.getCurrentIntervalDays();
+        CardSchedule scheduleBefore = CardSchedule.of(flashcard);
 
-        spacedRepetitionAlgorithm.apply(flashcard, ratingType);
+        LocalDateTime ratedAtInUTC = LocalDateTime.now(clock);
+        algorithmForDeck(flashcard.getDeck().getId()).apply(flashcard, ratingType, ratedAtInUTC);
+        dueLoadBalancer.balance(flashcard.getDeck().getId(), flashcard, ratedAtInUTC);
+        DeckCardCountersDelta countersDelta = new DeckCardCountersDelta();
+        countersDelta.cardRescheduled(flashcard.getDeck().getId(), scheduleBefore, CardSchedule.of(flashcard));
+        deckCardCounterService.applyDelta(countersDelta);
+        reviewLogWriter.record(logEntry(ownedFlashcard, ratingType, inLearnModeBefore, intervalBefore,
+                ratedAtInUTC, responseTimeMillis));
         LOGGER.info("Learn rating applied. Next learn view datetime in UTC is: {}. Next review datetime in UTC is: {}",
                 flashcard.getNextLearnViewInUTC(), flashcard.getNextReviewInUTC());
 
@@ -45,4 +92,77 @@ public class SpacedRepetitionServiceImpl implements SpacedRepetitionService {
         return new FlashcardRatedOverviewDTO(flashcard.getId(),
                 switchedToReviewMode, switchedToLearnMode);
     }
+
+    /*
+     * All referenced cards are loaded and checked for ownership with a single query. The ratings are then
+     * applied in the order they were given and the changes are flushed once, when the transaction commits,
+     * so the updates can be sent to the database as a JDBC batch.
+     */
+    @Transactional
+    @Override
+    public List<FlashcardRatedOverviewDTO> applyRatings(List<BatchedFlashcardRatingDTO> ratings) {
+        if (ratings == null || ratings.isEmpty()) {
+            throw new IllegalArgumentException("At least one rating must be specified.");
+        }
+        List<Long> flashcardIds = new ArrayList<>(ratings.size());
+        Instant previousRatedAt = Instant.MIN;
+        for (BatchedFlashcardRatingDTO rating : ratings) {
+            if (rating == null || rating.getFlashcardId() == null || rating.getRatingType() == null
+                    || rating.getRatedAt() == null) {
+                throw new IllegalArgumentException("Arguments cannot be null.");
+            }
+            if (rating.getRatedAt().isBefore(previousRatedAt)) {
+                throw new IllegalArgumentException("Ratings must be ordered by the time they were made.");
+            }
+            previousRatedAt = rating.getRatedAt();
+            flashcardIds.add(rating.getFlashcardId());
+        }
+        Map<Long, OwnedFlashcard> flashcardsById = flashcardService.getOwnedCardsByIds(flashcardIds);
+
+        List<FlashcardRatedOverviewDTO> overviews = new ArrayList<>(ratings.size());
+        DeckCardCountersDelta countersDelta = new DeckCardCountersDelta();
+        Map<Long, SpacedRepetition> algorithmsByDeckId = new HashMap<>();
+        for (BatchedFlashcardRatingDTO rating : ratings) {
+            OwnedFlashcard ownedFlashcard = flashcardsById.get(rating.getFlashcardId());
+            Flashcard flashcard = ownedFlashcard.flashcard();
+            boolean inLearnModeBefore = flashcard.isInLearnMode();
+            Double intervalBefore = flashcard.getCurrentIntervalDays();
+            CardSchedule scheduleBefore = CardSchedule.of(flashcard);
+
+            SpacedRepetition algorithm = algorithmsByDeckId.computeIfAbsent(flashcard.getDeck().getId(),
+                    this::algorithmForDeck);
+            LocalDateTime ratedAtInUTC = LocalDateTime.ofInstant(rating.getRatedAt(), ZoneOffset.UTC);
+            algorithm.apply(flashcard, rating.getRatingType(), ratedAtInUTC);
+            dueLoadBalancer.balance(flashcard.getDeck().getId(), flashcard, ratedAtInUTC);
+            countersDelta.cardRescheduled(flashcard.getDeck().getId(), scheduleBefore, CardSchedule.of(flashcard));
+            reviewLogWriter.record(logEntry(ownedFlashcard, rating.getRatingType(), inLearnModeBefore, intervalBefore,
+                    ratedAtInUTC, rating.getResponseTimeMillis()));
+
+            boolean inLearnModeAfter = flashcard.isInLearnMode();
+            overviews.add(new FlashcardRatedOverviewDTO(flashcard.getId(),
+                    inLearnModeBefore && !inLearnModeAfter, !inLearnModeBefore && inLearnModeAfter));
+        }
+        deckCardCounterService.applyDelta(countersDelta);
+        LOGGER.info("{} ratings applied to {} flashcards in one batch.", ratings.size(), flashcardsById.size());
+        return overviews;
+    }
+
+    /*
+     * Only the deck id of the lazy deck reference is read, so rating a card doesn't load the deck, its owner
+     * and the owner's settings just to find out which algorithm to use.
+     */
+    private SpacedRepetition algorithmForDeck(long deckId) {
+        return spacedRepetitionRegistry.get(deckRepository.findSchedulingAlgorithmTypeById(deckId)
+                .orElse(SpacedRepetitionRegistry.DEFAULT_ALGORITHM_TYPE));
+    }
+
+    private static ReviewLogEntry logEntry(OwnedFlashcard ownedFlashcard, RatingType ratingType,
+                                           boolean inLearnModeBefore, Double intervalBefore,
+                                           LocalDateTime ratedAtInUTC, Integer responseTimeMillis) {
+        Flashcard flashcard = ownedFlashcard.flashcard();
+        return new ReviewLogEntry(flashcard.getId(), flashcard.getDeck().getId(),
+                ownedFlashcard.ownerUserProfileId(), ratingType,
+                inLearnModeBefore, flashcard.isInLearnMode(), intervalBefore, flashcard.getCurrentIntervalDays(),
+                ratedAtInUTC, responseTimeMillis);
+    }
 }
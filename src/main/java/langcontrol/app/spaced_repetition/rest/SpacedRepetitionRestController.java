@@ -1,37 +1,51 @@
 package langcontrol.app.spaced_repetition.rest;
 
+import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
-import langcontrol.app.flashcard.Flashcard;
 import langcontrol.app.spaced_repetition.FlashcardRatedOverviewDTO;
 import langcontrol.app.spaced_repetition.FlashcardRatingDTO;
+import langcontrol.app.spaced_repetition.FlashcardRatingsBatchDTO;
+import langcontrol.app.spaced_repetition.ReviewSessionStore;
 import langcontrol.app.spaced_repetition.SpacedRepetitionService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayDeque;
+import java.util.List;
 
 @Validated
-@SessionAttributes("reviewCards")
 @RequestMapping("/api")
 @RestController
 public class SpacedRepetitionRestController {
 
     private final SpacedRepetitionService spacedRepetitionService;
+    private final ReviewSessionStore reviewSessionStore;
 
     @Autowired
-    public SpacedRepetitionRestController(SpacedRepetitionService spacedRepetitionService) {
+    public SpacedRepetitionRestController(SpacedRepetitionService spacedRepetitionService,
+                                          ReviewSessionStore reviewSessionStore) {
         this.spacedRepetitionService = spacedRepetitionService;
+        this.reviewSessionStore = reviewSessionStore;
     }
 
     @PostMapping(value = "/rating")
     public ResponseEntity<Object> handleFlashcardRating(@Valid @ModelAttribute("rating") FlashcardRatingDTO rating,
-                                                        @ModelAttribute("reviewCards") ArrayDeque<Flashcard> readyForReview) {
+                                                        HttpSession session) {
         FlashcardRatedOverviewDTO flashcardRatedOverview = spacedRepetitionService
-                .applyRating(rating.getFlashcardId(), rating.getRatingType());
-        readyForReview.poll();
+                .applyRating(rating.getFlashcardId(), rating.getRatingType(), rating.getResponseTimeMillis());
+        reviewSessionStore.completeCard(session.getId(), rating.getFlashcardId());
         return ResponseEntity.ok(flashcardRatedOverview);
     }
+
+    @PostMapping(value = "/ratings")
+    public ResponseEntity<List<FlashcardRatedOverviewDTO>> handleFlashcardRatings(
+            @Valid @RequestBody FlashcardRatingsBatchDTO ratingsBatch, HttpSession session) {
+        List<FlashcardRatedOverviewDTO> flashcardRatedOverviews = spacedRepetitionService
+                .applyRatings(ratingsBatch.getRatings());
+        for (FlashcardRatedOverviewDTO overview : flashcardRatedOverviews) {
+            reviewSessionStore.completeCard(session.getId(), overview.getId());
+        }
+        return ResponseEntity.ok(flashcardRatedOverviews);
+    }
 }
@@ -1,6 +1,7 @@
 package langcontrol.app.user_settings;
 
 import jakarta.persistence.*;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
 import langcontrol.app.user_profile.UserProfile;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,6 +23,10 @@ public class UserSettings {
     @Column(name = "zen_mode")
     private boolean zenModeEnabled;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "default_scheduling_algorithm")
+    private SpacedRepetitionAlgorithmType defaultSchedulingAlgorithm;
+
     public UserSettings(Long id, boolean dynamicSentencesOnByDefault, boolean zenModeEnabled) {
         this.id = id;
         this.dynamicSentencesOnByDefault = dynamicSentencesOnByDefault;
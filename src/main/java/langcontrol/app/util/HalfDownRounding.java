@@ -0,0 +1,30 @@
+package langcontrol.app.util;
+
+/*
+ * Rounds to the nearest integer with ties going towards zero, the same way as
+ * BigDecimal.valueOf(value).setScale(0, RoundingMode.HALF_DOWN).intValue(), but without allocating.
+ *
+ * BigDecimal.valueOf uses the shortest decimal representation of the double, and that representation ends
+ * in exactly .5 only if the double itself is exactly halfway between two integers, so comparing the binary
+ * fraction with 0.5 gives the same result. Below 2^52 the fraction is computed exactly, above it all doubles
+ * are integers. The results are equal for all finite values whose magnitude is below 2^63.
+ */
+public final class HalfDownRounding {
+
+    private HalfDownRounding() {
+    }
+
+    public static int roundToInt(double value) {
+        return (int) roundToLong(value);
+    }
+
+    public static long roundToLong(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new NumberFormatException("Infinite or NaN");
+        }
+        double magnitude = Math.abs(value);
+        double floor = Math.floor(magnitude);
+        double rounded = magnitude - floor > 0.5 ? floor + 1 : floor;
+        return (long) (value < 0 ? -rounded : rounded);
+    }
+}
@@ -0,0 +1,26 @@
+package langcontrol.app.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/*
+ * Normalizes user entered texts before they are used as keys of caches or in-flight requests, so that texts
+ * differing only in the Unicode form or the whitespace map to the same key.
+ */
+public final class TextKeys {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextKeys() {
+    }
+
+    public static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(normalized.strip()).replaceAll(" ");
+    }
+
+    public static String normalizeIgnoringCase(String text) {
+        return normalize(text).toLowerCase(Locale.ROOT);
+    }
+}
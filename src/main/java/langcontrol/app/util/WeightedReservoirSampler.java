@@ -0,0 +1,68 @@
+package langcontrol.app.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/*
+ * Weighted reservoir sampling (Efraimidis-Spirakis A-Res). Every offered element gets the key ln(u) / weight
+ * and only the elements with the largest keys are kept, so the memory stays bounded by the sample size
+ * no matter how many elements are streamed through. With equal weights the sample is uniform.
+ */
+public class WeightedReservoirSampler<T> {
+
+    private final int sampleSize;
+    private final Random random;
+    private final PriorityQueue<Entry<T>> reservoir;
+    private long offeredCount;
+
+    public WeightedReservoirSampler(int sampleSize, Random random) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("Sample size cannot be negative.");
+        }
+        this.sampleSize = sampleSize;
+        this.random = random;
+        this.reservoir = new PriorityQueue<>(Math.max(1, sampleSize));
+        this.offeredCount = 0L;
+    }
+
+    public void offer(T element, double weight) {
+        if (weight <= 0D) {
+            throw new IllegalArgumentException("Weight must be positive.");
+        }
+        offeredCount++;
+        if (sampleSize == 0) {
+            return;
+        }
+        double key = Math.log(1D - random.nextDouble()) / weight;
+        if (reservoir.size() < sampleSize) {
+            reservoir.add(new Entry<>(element, key));
+        } else if (key > reservoir.peek().key()) {
+            reservoir.poll();
+            reservoir.add(new Entry<>(element, key));
+        }
+    }
+
+    public long getOfferedCount() {
+        return offeredCount;
+    }
+
+    public List<T> sample() {
+        List<T> sample = new ArrayList<>(reservoir.size());
+        for (Entry<T> entry : reservoir) {
+            sample.add(entry.element());
+        }
+        Collections.shuffle(sample, random);
+        return sample;
+    }
+
+    private record Entry<T>(T element, double key) implements Comparable<Entry<T>> {
+
+        @Override
+        public int compareTo(Entry<T> other) {
+            return Double.compare(key, other.key);
+        }
+    }
+}
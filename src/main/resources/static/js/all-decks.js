@@ -22,23 +22,27 @@ function openDeck(deckId) {
 }
 
 
-function fillAllDeckDetails() {
+async function fillAllDeckDetails() {
   let timezoneId = Intl.DateTimeFormat().resolvedOptions().timeZone;
-  let deckContainerElems = document.querySelectorAll('.deck-container');
-  for (let deckContainerElem of deckContainerElems) {
-    fillSingleDeckDetails(deckContainerElem, timezoneId);
-  }
-}
-
-
-async function fillSingleDeckDetails(deckContainerElem, timezoneId) {
-  let deckId = deckContainerElem.dataset.deckId;
-  let baseUrl = `/api/decks/${deckId}/details`;
+  let baseUrl = '/api/decks/details';
   let urlParams = new URLSearchParams();
   urlParams.append('timezone', timezoneId);
   let url = baseUrl + '?' + urlParams.toString();
-  let deckDetails = await performGetRequestBodyAsObject(url);
+  let allDecksDetails = await performGetRequestBodyAsObject(url);
+  if (!allDecksDetails) {
+    return;
+  }
+
+  for (let deckDetails of allDecksDetails) {
+    let deckContainerElem = document.querySelector(`.deck-container[data-deck-id="${deckDetails.id}"]`);
+    if (deckContainerElem) {
+      fillSingleDeckDetails(deckContainerElem, deckDetails);
+    }
+  }
+}
+
 
+function fillSingleDeckDetails(deckContainerElem, deckDetails) {
   let forReviewNumElem = deckContainerElem.querySelector('.for-review-num');
   forReviewNumElem.textContent = deckDetails.cardsForReviewNumber;
   let allCardsNumElem = deckContainerElem.querySelector('.all-cards-num');
@@ -1,6 +1,8 @@
+let cardShownAt = performance.now();
+
 document.addEventListener('DOMContentLoaded', () => {
+  cardShownAt = performance.now();
   showGeneratedSentences();
-  fillTimeForecastIndicators();
 });
 
 let ratingFormElems = document.querySelectorAll('.rating-form');
@@ -26,7 +28,8 @@ function showDeckAnswer() {
 
 function postRating(ratingFormElem) {
   let url = '/api/rating';
-  let requestBody = convertFormToUrlEncodedString(ratingFormElem);
+  let responseTimeMillis = Math.round(performance.now() - cardShownAt);
+  let requestBody = convertFormToUrlEncodedString(ratingFormElem) + '&responseTimeMillis=' + responseTimeMillis;
 
   let requestOptions = {
     method: "POST",
@@ -109,27 +112,6 @@ function handleRatingResponse(body) {
 }
 
 
-async function fillTimeForecastIndicators() {
-  let cardId = document.getElementById('rating-container').dataset.cardId;
-  let cardInLearnMode = document.getElementById('rating-container').dataset.cardInLearnMode;
-  let url = `/api/cards/${cardId}/forecasts`;
-  let responseBody = await performGetRequestBodyAsObject(url);
-  if (cardInLearnMode) {
-    let forecasts = responseBody.learnModeForecasts;
-    document.querySelector('#learn-previous-time').textContent = forecasts.forPrevious;
-    document.querySelector('#learn-normal-time').textContent = forecasts.forNormal;
-    document.querySelector('#learn-next-time').textContent = forecasts.forNext;
-    document.querySelector('#learn-to-review-mode-time').textContent = forecasts.forToReviewMode;
-  } else {
-    let forecasts = responseBody.reviewModeForecasts;
-    document.querySelector('#review-cannot-solve-time').textContent = forecasts.forCannotSolve;
-    document.querySelector('#review-difficult-time').textContent = forecasts.forDifficult;
-    document.querySelector('#review-normal-time').textContent = forecasts.forNormal;
-    document.querySelector('#review-easy-time').textContent = forecasts.forEasy;
-  }
-}
-
-
 async function showGeneratedSentences() {
   let examplesContainer = document.getElementById('examples-container');
   let dynamicExamplesOn = examplesContainer.dataset.dynamicExamples === 'true';
@@ -137,9 +119,19 @@ async function showGeneratedSentences() {
     return;
   }
 
-  let sentencesArray = await getGeneratedSentencesArray();
-  let sentence = sentencesArray[0];
-  let translation = await getSentenceTranslation(sentence);
+  let sentence;
+  let translation;
+  let pooledExample = await getPooledExample();
+  if (pooledExample) {
+    sentence = pooledExample.sentence;
+    translation = pooledExample.translation;
+  } else {
+    let examples = await getGeneratedExamples();
+    if (!examples || Object.keys(examples).length === 0) {
+      return;
+    }
+    [sentence, translation] = Object.entries(examples)[0];
+  }
 
   let sentenceDiv = document.createElement('div');
   sentenceDiv.textContent = sentence;
@@ -153,38 +145,31 @@ async function showGeneratedSentences() {
 }
 
 
-async function getGeneratedSentencesArray() {
-  let examplesContainer = document.getElementById('examples-container');
-  let keyword = examplesContainer.dataset.keyword;
-  let targetLangCode = examplesContainer.dataset.targetLang;
-  let partOfSpeech = examplesContainer.dataset.pos;
-  let urlParams = new URLSearchParams();
-  
-  let sentencesUrl = '/api/sentences';
-  urlParams.append('word', keyword);
-  urlParams.append('lang', targetLangCode.toLowerCase());
-  urlParams.append('pos', partOfSpeech.toLowerCase());
-  urlParams.append('n', 1);
-
-  let url = sentencesUrl + '?' + urlParams.toString();
-  console.log('Sentence url: ' + url);
-  let sentencesArray = await performGetRequestBodyAsObject(url);
-  return sentencesArray;
+async function getPooledExample() {
+  let cardId = document.getElementById('rating-container').dataset.cardId;
+  let url = '/api/cards/' + encodeURIComponent(cardId) + '/examples/next';
+  return fetch(url)
+    .then(response => response.status === 200 ? response.json() : null)
+    .catch(error => {
+      console.log(`An error has occured while trying to perform the request: ${error}`);
+      return null;
+    });
 }
 
 
-async function getSentenceTranslation(sentence) {
-  let langCode = document.getElementById('examples-container').dataset.nativeLang;
-
-  let translationsUrl = '/api/translations';
+async function getGeneratedExamples() {
+  let examplesContainer = document.getElementById('examples-container');
   let urlParams = new URLSearchParams();
-  urlParams.append('text', sentence);
-  urlParams.append('lang', langCode.toLowerCase());
+  urlParams.append('word', examplesContainer.dataset.keyword);
+  urlParams.append('lang', examplesContainer.dataset.targetLang.toLowerCase());
+  urlParams.append('pos', examplesContainer.dataset.pos.toLowerCase());
+  urlParams.append('translationLang', examplesContainer.dataset.nativeLang.toLowerCase());
+  urlParams.append('n', 1);
 
-  let url = translationsUrl + '?' + urlParams.toString();
-  console.log('Translation url: ' + url);
-  let translatedSentence = await performGetRequestBodyAsText(url);
-  return translatedSentence;
+  let url = '/api/examples?' + urlParams.toString();
+  console.log('Examples url: ' + url);
+  let examples = await performGetRequestBodyAsObject(url);
+  return examples;
 }
 
 
@@ -201,18 +186,3 @@ function performGetRequestBodyAsObject(url) {
       console.log(`An error has occured while trying to perform the request: ${error}`);
     });
 }
-
-
-function performGetRequestBodyAsText(url) {
-  return fetch(url)
-    .then(response => {
-      if (response.status >= 200 && response.status <= 299) {
-        return response.text();
-      } else {
-        throw new Error('Couldn\'t fetch translations!');
-      }
-    })
-    .catch(error => {
-      console.log(`An error has occured while trying to perform the request: ${error}`);
-    });
-}
\ No newline at end of file
@@ -0,0 +1,167 @@
+package langcontrol.app.example_pool;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.Flashcard;
+import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.flashcard.PartOfSpeech;
+import langcontrol.app.generator.SentenceWithTranslationGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+class ExamplePoolFillerTest {
+
+    private static final int POOL_SIZE = 5;
+    private static final Duration RETRY_DELAY = Duration.ofHours(24);
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 3, 17, 12, 0);
+
+    private FlashcardRepository mockedFlashcardRepository;
+    private PooledExampleRepository mockedPooledExampleRepository;
+    private SentenceWithTranslationGenerator mockedExampleGenerator;
+    private List<Runnable> queuedTasks;
+    private ExamplePoolFiller underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedFlashcardRepository = Mockito.mock(FlashcardRepository.class);
+        mockedPooledExampleRepository = Mockito.mock(PooledExampleRepository.class);
+        mockedExampleGenerator = Mockito.mock(SentenceWithTranslationGenerator.class);
+        queuedTasks = new ArrayList<>();
+        underTest = new ExamplePoolFiller(mockedFlashcardRepository, mockedPooledExampleRepository,
+                mockedExampleGenerator, Mockito.mock(PlatformTransactionManager.class),
+                queuedTasks::add, Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC), POOL_SIZE,
+                RETRY_DELAY);
+    }
+
+    private static Flashcard card(boolean dynamicExamples) {
+        Flashcard flashcard = Flashcard.inInitialLearnModeState()
+                .front("house")
+                .back("Haus")
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.GERMAN)
+                .partOfSpeech(PartOfSpeech.NOUN)
+                .dynamicExamples(dynamicExamples)
+                .build();
+        flashcard.setId(1L);
+        return flashcard;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fill_ShouldGenerateAndTranslateMissingExamples() {
+        // given
+        Flashcard flashcard = card(true);
+        given(mockedFlashcardRepository.findById(1L)).willReturn(Optional.of(flashcard));
+        given(mockedPooledExampleRepository.countByFlashcardId(1L)).willReturn(3L);
+        Map<String, String> examples = new LinkedHashMap<>();
+        examples.put("Das Haus ist alt.", "The house is old.");
+        examples.put("Wir kaufen ein Haus.", " We buy a house. ");
+        examples.put("Das Haus brennt.", "");
+        given(mockedExampleGenerator.generate("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN, LanguageCode.ENGLISH, 2))
+                .willReturn(examples);
+
+        // when
+        underTest.fill(1L);
+
+        // then
+        ArgumentCaptor<List<PooledExample>> captor = ArgumentCaptor.forClass(List.class);
+        then(mockedPooledExampleRepository).should().saveAll(captor.capture());
+        List<PooledExample> saved = captor.getValue();
+        assertEquals(2, saved.size());
+        assertEquals("Das Haus ist alt.", saved.get(0).getSentence());
+        assertEquals("The house is old.", saved.get(0).getTranslation());
+        assertEquals("We buy a house.", saved.get(1).getTranslation());
+        assertSame(flashcard, saved.get(0).getFlashcard());
+    }
+
+    @Test
+    void fill_ShouldRecordTheAttempt_WhenTheProviderFails() {
+        // given
+        given(mockedFlashcardRepository.findById(1L)).willReturn(Optional.of(card(true)));
+        given(mockedPooledExampleRepository.countByFlashcardId(1L)).willReturn(0L);
+        given(mockedExampleGenerator.generate(any(), any(), any(), any(), anyInt()))
+                .willThrow(new IllegalStateException("provider unavailable"));
+
+        // when
+        assertThrows(IllegalStateException.class, () -> underTest.fill(1L));
+
+        // then
+        then(mockedFlashcardRepository).should().updateExamplePoolFillAttempt(1L, NOW);
+    }
+
+    @Test
+    void topUpPools_ShouldSkipCardsAttemptedWithinTheRetryDelay() {
+        // given
+        given(mockedPooledExampleRepository.findFlashcardIdsWithIncompletePool(Mockito.eq((long) POOL_SIZE),
+                Mockito.eq(NOW.minus(RETRY_DELAY)), any(Pageable.class))).willReturn(List.of(7L, 3L));
+
+        // when
+        underTest.topUpPools();
+
+        // then
+        assertEquals(2, queuedTasks.size());
+    }
+
+    @Test
+    void fill_ShouldNotCallProviders_WhenPoolIsComplete() {
+        // given
+        given(mockedFlashcardRepository.findById(1L)).willReturn(Optional.of(card(true)));
+        given(mockedPooledExampleRepository.countByFlashcardId(1L)).willReturn((long) POOL_SIZE);
+
+        // when
+        underTest.fill(1L);
+
+        // then
+        then(mockedExampleGenerator).shouldHaveNoInteractions();
+        then(mockedPooledExampleRepository).should(Mockito.never()).saveAll(any());
+    }
+
+    @Test
+    void fill_ShouldSkipCards_WithoutDynamicExamples() {
+        // given
+        given(mockedFlashcardRepository.findById(1L)).willReturn(Optional.of(card(false)));
+
+        // when
+        underTest.fill(1L);
+
+        // then
+        then(mockedExampleGenerator).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void scheduleFill_ShouldScheduleOneFillPerCard_WhileItIsPending() {
+        // given
+        given(mockedFlashcardRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when
+        underTest.scheduleFill(1L);
+        underTest.scheduleFill(1L);
+        underTest.scheduleFill(2L);
+
+        // then
+        assertEquals(2, queuedTasks.size());
+        queuedTasks.get(0).run();
+        underTest.scheduleFill(1L);
+        assertEquals(3, queuedTasks.size());
+        then(mockedExampleGenerator).should(Mockito.never()).generate(any(), any(), any(), any(), anyInt());
+    }
+}
@@ -0,0 +1,122 @@
+package langcontrol.app.example_pool;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.example_pool.rest.PooledExampleDTO;
+import langcontrol.app.flashcard.PartOfSpeech;
+import langcontrol.app.flashcard.ReviewCardView;
+import langcontrol.app.generator.SentenceWithTranslationGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+class ExamplePrefetcherTest {
+
+    private PooledExampleRepository mockedPooledExampleRepository;
+    private SentenceWithTranslationGenerator mockedExampleGenerator;
+    private Clock mockedClock;
+    private List<Runnable> queuedTasks;
+    private ExamplePrefetcher underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedPooledExampleRepository = Mockito.mock(PooledExampleRepository.class);
+        mockedExampleGenerator = Mockito.mock(SentenceWithTranslationGenerator.class);
+        mockedClock = Mockito.mock(Clock.class);
+        given(mockedClock.millis()).willReturn(0L);
+        queuedTasks = new ArrayList<>();
+        underTest = new ExamplePrefetcher(mockedPooledExampleRepository, mockedExampleGenerator,
+                queuedTasks::add, mockedClock);
+    }
+
+    private static ReviewCardView card(long id, boolean dynamicExamples) {
+        return new ReviewCardView(id, "house", "Haus", PartOfSpeech.NOUN, LanguageCode.ENGLISH,
+                LanguageCode.GERMAN, dynamicExamples, null, null, false, null, null);
+    }
+
+    @Test
+    void prefetch_ShouldGenerateExampleOfDynamicExamplesCardsOnly() {
+        // given
+        given(mockedExampleGenerator.generate("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN,
+                LanguageCode.ENGLISH, 1)).willReturn(Map.of("Das Haus ist alt.", "The house is old."));
+
+        // when
+        underTest.prefetch(List.of(card(1L, true), card(2L, false)));
+        queuedTasks.forEach(Runnable::run);
+
+        // then
+        assertEquals(1, queuedTasks.size());
+        PooledExampleDTO example = underTest.take(1L).orElseThrow();
+        assertEquals("Das Haus ist alt.", example.getSentence());
+        assertEquals("The house is old.", example.getTranslation());
+        assertTrue(underTest.take(1L).isEmpty());
+        assertTrue(underTest.take(2L).isEmpty());
+    }
+
+    @Test
+    void prefetch_ShouldNotQueueCardTwiceWhileItsPrefetchIsPending() {
+        // when
+        underTest.prefetch(List.of(card(1L, true)));
+        underTest.prefetch(List.of(card(1L, true)));
+
+        // then
+        assertEquals(1, queuedTasks.size());
+    }
+
+    @Test
+    void prefetch_ShouldSkipCardsWithPooledExamples() {
+        // given
+        given(mockedPooledExampleRepository.countByFlashcardId(1L)).willReturn(2L);
+
+        // when
+        underTest.prefetch(List.of(card(1L, true)));
+        queuedTasks.forEach(Runnable::run);
+
+        // then
+        then(mockedExampleGenerator).should(Mockito.never()).generate(any(), any(), any(), any(), anyInt());
+        assertTrue(underTest.take(1L).isEmpty());
+    }
+
+    @Test
+    void take_ShouldNotReturnExpiredExample() {
+        // given
+        given(mockedExampleGenerator.generate("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN,
+                LanguageCode.ENGLISH, 1)).willReturn(Map.of("Das Haus ist alt.", "The house is old."));
+        underTest.prefetch(List.of(card(1L, true)));
+        queuedTasks.forEach(Runnable::run);
+        given(mockedClock.millis()).willReturn(ExamplePrefetcher.TIME_TO_LIVE.toMillis());
+
+        // when
+        Optional<PooledExampleDTO> result = underTest.take(1L);
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void prefetch_ShouldReleaseCardWhenGenerationFails() {
+        // given
+        given(mockedExampleGenerator.generate(any(), any(), any(), any(), anyInt()))
+                .willThrow(new IllegalStateException("Provider unavailable."));
+        underTest.prefetch(List.of(card(1L, true)));
+
+        // when
+        queuedTasks.forEach(Runnable::run);
+        underTest.prefetch(List.of(card(1L, true)));
+
+        // then
+        assertEquals(2, queuedTasks.size());
+        assertTrue(underTest.take(1L).isEmpty());
+    }
+}
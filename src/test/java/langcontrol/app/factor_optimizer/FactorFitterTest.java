@@ -0,0 +1,122 @@
+package langcontrol.app.factor_optimizer;
+
+import langcontrol.app.spaced_repetition.RatingType;
+import langcontrol.app.spaced_repetition.SpacedRepetitionItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FactorFitterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 3, 17, 12, 0);
+
+    private static ReviewHistorySamples syntheticSamples(int count, double increaseFactor, double reduceFactor,
+                                                         double scale, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ReviewHistorySamples samples = new ReviewHistorySamples(count);
+        for (int i = 0; i < count; i++) {
+            double baseIntervalDays = 1 + random.nextDouble() * 29;
+            byte rating = (byte) random.nextInt(3);
+            double factor = switch (rating) {
+                case ReviewHistorySamples.DIFFICULT -> reduceFactor;
+                case ReviewHistorySamples.EASY -> increaseFactor;
+                default -> FactorFitter.NORMAL_FACTOR;
+            };
+            double elapsedDays = baseIntervalDays * (0.3 + random.nextDouble() * 2.7);
+            double recallProbability = Math.pow(2, -elapsedDays / (scale * baseIntervalDays * factor));
+            samples.add(baseIntervalDays, rating, elapsedDays, random.nextDouble() < recallProbability);
+        }
+        return samples;
+    }
+
+    @Test
+    void fit_ShouldRecoverFactors_WhenSamplesFollowTheModel() {
+        // given
+        ReviewHistorySamples samples = syntheticSamples(50_000, 1.2, 0.65, 1.5, 42);
+
+        // when
+        FactorFit fit = FactorFitter.fit(samples);
+
+        // then
+        assertEquals(1.2, fit.increaseFactor(), 0.05);
+        assertEquals(0.65, fit.reduceFactor(), 0.05);
+        assertEquals(1.5, fit.halfLifeScale(), 0.15);
+        assertEquals(50_000, fit.sampleCount());
+        assertTrue(fit.improvement() > 0);
+    }
+
+    @Test
+    void fit_ShouldNotImprove_WhenSamplesFollowDefaultFactors() {
+        // given
+        ReviewHistorySamples samples = syntheticSamples(20_000, SpacedRepetitionItem.DEFAULT_I_FACTOR,
+                SpacedRepetitionItem.DEFAULT_R_FACTOR, 1.0, 7);
+
+        // when
+        FactorFit fit = FactorFitter.fit(samples);
+
+        // then
+        assertTrue(fit.improvement() >= 0);
+        assertTrue(fit.improvement() < FactorFitServiceImpl.MIN_IMPROVEMENT);
+    }
+
+    @Test
+    void fit_ShouldKeepFactorsWithinLimits() {
+        // given
+        ReviewHistorySamples samples = syntheticSamples(10_000, 3.0, 0.1, 1.0, 3);
+
+        // when
+        FactorFit fit = FactorFitter.fit(samples);
+
+        // then
+        assertTrue(fit.increaseFactor() >= SpacedRepetitionItem.I_FACTOR_BOTTOM_LIMIT);
+        assertTrue(fit.increaseFactor() <= SpacedRepetitionItem.I_FACTOR_UPPER_LIMIT);
+        assertTrue(fit.reduceFactor() >= SpacedRepetitionItem.R_FACTOR_BOTTOM_LIMIT);
+        assertTrue(fit.reduceFactor() <= SpacedRepetitionItem.R_FACTOR_UPPER_LIMIT);
+    }
+
+    @Test
+    void fit_ShouldThrowException_WhenThereAreNoSamples() {
+        // given
+        ReviewHistorySamples samples = new ReviewHistorySamples(10);
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> FactorFitter.fit(samples));
+    }
+
+    @Test
+    void offer_ShouldPairConsecutiveReviewModeRatingsOfSameCard() {
+        // given
+        ReviewHistorySamples samples = new ReviewHistorySamples(100);
+
+        // when
+        samples.offer(1L, RatingType.LEARN_NORMAL, null, START, true);
+        samples.offer(1L, RatingType.REVIEW_EASY, 2.0, START.plusDays(2), false);
+        samples.offer(1L, RatingType.REVIEW_CANNOT_SOLVE, 2.6, START.plusDays(5), false);
+        samples.offer(1L, RatingType.REVIEW_NORMAL, 1.0, START.plusDays(6), false);
+        samples.offer(2L, RatingType.REVIEW_DIFFICULT, 4.0, START.plusDays(7), false);
+
+        // then
+        assertEquals(1, samples.size());
+        assertEquals(2.0, samples.baseIntervalDays(0));
+        assertEquals(ReviewHistorySamples.EASY, samples.rating(0));
+        assertEquals(3.0, samples.elapsedDays(0), 1e-9);
+        assertFalse(samples.recalled(0));
+    }
+
+    @Test
+    void offer_ShouldReturnFalse_WhenMaxSamplesCollected() {
+        // given
+        ReviewHistorySamples samples = new ReviewHistorySamples(1);
+        samples.offer(1L, RatingType.REVIEW_NORMAL, 2.0, START, false);
+
+        // when
+        boolean accepting = samples.offer(1L, RatingType.REVIEW_NORMAL, 2.2, START.plusDays(2), false);
+
+        // then
+        assertFalse(accepting);
+        assertEquals(1, samples.size());
+    }
+}
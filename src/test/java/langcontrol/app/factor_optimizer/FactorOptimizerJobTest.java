@@ -0,0 +1,77 @@
+package langcontrol.app.factor_optimizer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+class FactorOptimizerJobTest {
+
+    private FactorFitService mockedFactorFitService;
+    private SimpleMeterRegistry meterRegistry;
+    private FactorOptimizerJob underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedFactorFitService = Mockito.mock(FactorFitService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new FactorOptimizerJob(mockedFactorFitService, meterRegistry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    private static DeckFactorFit appliedFit(long deckId) {
+        return new DeckFactorFit(deckId, 1.2, 0.7, 1.0, 500, 0.4, 0.5, 10L, true,
+                LocalDateTime.of(2023, 3, 17, 4, 0));
+    }
+
+    private long completedRuns() {
+        return meterRegistry.get("langcontrol.factor_fit.run").timer().count();
+    }
+
+    @Test
+    void optimizeFactors_ShouldSkipDecksWhoseFitFails_AndFinishTheRun() {
+        // given
+        given(mockedFactorFitService.findDeckIdsToFit()).willReturn(List.of(1L, 2L, 3L));
+        given(mockedFactorFitService.fitDeck(1L)).willReturn(Optional.of(appliedFit(1L)));
+        given(mockedFactorFitService.fitDeck(2L)).willThrow(new IllegalStateException("No samples."));
+        given(mockedFactorFitService.fitDeck(3L)).willThrow(new StackOverflowError());
+
+        // when
+        underTest.optimizeFactors();
+
+        // then
+        then(mockedFactorFitService).should().fitDeck(1L);
+        then(mockedFactorFitService).should().fitDeck(2L);
+        then(mockedFactorFitService).should().fitDeck(3L);
+        assertEquals(1, meterRegistry.get("langcontrol.factor_fit.applied").counter().count());
+        assertEquals(1, completedRuns());
+    }
+
+    @Test
+    void optimizeFactors_ShouldStopAndKeepTheInterruptFlag_WhenInterrupted() {
+        // given
+        given(mockedFactorFitService.findDeckIdsToFit()).willReturn(List.of(1L));
+        given(mockedFactorFitService.fitDeck(1L)).willReturn(Optional.of(appliedFit(1L)));
+        Thread.currentThread().interrupt();
+
+        // when
+        underTest.optimizeFactors();
+
+        // then
+        assertTrue(Thread.interrupted());
+        assertEquals(0, completedRuns());
+    }
+}
@@ -0,0 +1,235 @@
+package langcontrol.app.flashcard;
+
+import jakarta.persistence.EntityManager;
+import langcontrol.app.deck.Deck;
+import langcontrol.app.deck.DeckRepository;
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.user_profile.UserProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The counter upserts use INSERT ... ON CONFLICT, which H2 only accepts in the PostgreSQL mode.
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:deck_counters;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DeckCardCounterServiceImpl.class)
+class DeckCardCounterServiceImplTest {
+
+    @Autowired
+    private DeckCardCounterServiceImpl underTest;
+
+    @Autowired
+    private FlashcardRepository flashcardRepository;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private DeckCardCounterRepository counterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private UserProfile userProfile;
+    private Deck deck;
+    private Flashcard learnCard;
+    private Flashcard reviewCard;
+
+    @BeforeEach
+    void setUp() {
+        userProfile = new UserProfile(null, "John Doe");
+        entityManager.persist(userProfile);
+
+        deck = new Deck();
+        deck.setUserProfile(userProfile);
+        deck.setName("test deck");
+        deck.setSourceLanguage(LanguageCode.ENGLISH);
+        deck.setTargetLanguage(LanguageCode.GERMAN);
+
+        learnCard = new Flashcard();
+        learnCard.setDeck(deck);
+        learnCard.setSourceLanguage(LanguageCode.ENGLISH);
+        learnCard.setTargetLanguage(LanguageCode.GERMAN);
+        learnCard.setFront("learn card's front");
+        learnCard.setBack("learn card's back");
+        learnCard.setCreationDateTimeInUTC(LocalDateTime.of(2017, 5, 21, 16, 37));
+        learnCard.setInLearnMode(true);
+        learnCard.setLearnModeStep(LearnModeStep.TWO);
+        learnCard.setNextLearnViewInUTC(LocalDateTime.of(2023, 3, 17, 10, 24, 56));
+        learnCard.setIncreaseFactor(1.3);
+        learnCard.setReduceFactor(0.7);
+
+        reviewCard = new Flashcard();
+        reviewCard.setDeck(deck);
+        reviewCard.setSourceLanguage(LanguageCode.ENGLISH);
+        reviewCard.setTargetLanguage(LanguageCode.GERMAN);
+        reviewCard.setFront("review card's front");
+        reviewCard.setBack("review card's back");
+        reviewCard.setCreationDateTimeInUTC(LocalDateTime.of(2017, 5, 21, 16, 37));
+        reviewCard.setInLearnMode(false);
+        reviewCard.setLearnModeStep(null);
+        reviewCard.setNextLearnViewInUTC(null);
+        reviewCard.setCurrentIntervalDays(2.0);
+        reviewCard.setNextReviewInUTC(LocalDateTime.of(2023, 3, 16, 0, 0, 0, 0));
+        reviewCard.setNextReviewWithoutTimeInUTC(reviewCard.getNextReviewInUTC().toLocalDate());
+        reviewCard.setIncreaseFactor(1.3);
+        reviewCard.setReduceFactor(0.7);
+
+        deck.setFlashcards(new ArrayList<>(List.of(learnCard, reviewCard)));
+        deckRepository.save(deck);
+        entityManager.flush();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2023-03-15T08:00:00", "2023-03-17T10:00:00", "2023-03-17T10:30:00",
+            "2023-03-18T00:00:00"})
+    void countCardsOfAllDecks_ShouldMatchTheCountsComputedFromTheFlashcardTable(String now) {
+        // given
+        LocalDateTime nextLearnViewInUTCBefore = LocalDateTime.parse(now);
+        LocalDate nextReviewDateLocalBefore = nextLearnViewInUTCBefore.toLocalDate();
+
+        // when
+        List<DeckCardCounts> counts = underTest.countCardsOfAllDecks(userProfile.getId(),
+                nextLearnViewInUTCBefore, nextReviewDateLocalBefore);
+
+        // then
+        assertEquals(flashcardRepository.countCardsGroupedByDeck(userProfile.getId(),
+                nextLearnViewInUTCBefore, nextReviewDateLocalBefore), counts);
+    }
+
+    @Test
+    void countCardsOfAllDecks_ShouldCountDeckFromTheFlashcards_WithoutBuildingMissingCounters() {
+        // given
+        assertTrue(counterRepository.findById(deck.getId()).isEmpty());
+
+        // when
+        List<DeckCardCounts> counts = underTest.countCardsOfAllDecks(userProfile.getId(),
+                LocalDateTime.of(2023, 3, 17, 12, 0), LocalDate.of(2023, 3, 17));
+
+        // then
+        assertEquals(List.of(new DeckCardCounts(deck.getId(), 2, 1, 1)), counts);
+        assertTrue(counterRepository.findById(deck.getId()).isEmpty());
+    }
+
+    @Test
+    void buildMissingCounters_ShouldBuildCountersOnlyOnce() {
+        // when
+        boolean builtFirst = underTest.buildMissingCounters(deck.getId());
+        boolean builtSecond = underTest.buildMissingCounters(deck.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertTrue(builtFirst);
+        assertFalse(builtSecond);
+        DeckCardCounter counter = counterRepository.findById(deck.getId()).orElseThrow();
+        assertEquals(2, counter.getTotalCards());
+        assertEquals(1, counter.getLearnModeCards());
+        assertTrue(underTest.findDeckIdsWithoutCounter().isEmpty());
+        assertArrayEquals(new int[]{1, 1, 0},
+                underTest.forecastDueCards(deck.getId(), LocalDate.of(2023, 3, 16), 3));
+    }
+
+    @Test
+    void applyDelta_ShouldAddToTheSameNewBucket_WhenItIsCreatedTwice() {
+        // given
+        underTest.rebuildCounters(deck.getId());
+        entityManager.flush();
+        CardSchedule reviewCardBefore = CardSchedule.of(reviewCard);
+        reviewCard.setNextReviewInUTC(LocalDateTime.of(2023, 3, 18, 9, 0));
+        reviewCard.setNextReviewWithoutTimeInUTC(LocalDate.of(2023, 3, 18));
+        DeckCardCountersDelta delta = new DeckCardCountersDelta();
+        delta.cardRescheduled(deck.getId(), reviewCardBefore, CardSchedule.of(reviewCard));
+
+        // when
+        underTest.applyDelta(delta);
+        underTest.applyDelta(delta);
+        entityManager.flush();
+
+        // then
+        assertArrayEquals(new int[]{0, 1, 2},
+                underTest.forecastDueCards(deck.getId(), LocalDate.of(2023, 3, 16), 3));
+    }
+
+    @Test
+    void applyDelta_ShouldKeepCountersInSyncWithTheFlashcards_WhenCardsAreRescheduledAndRemoved() {
+        // given
+        LocalDateTime nextLearnViewInUTCBefore = LocalDateTime.of(2023, 3, 17, 12, 0);
+        LocalDate nextReviewDateLocalBefore = nextLearnViewInUTCBefore.toLocalDate();
+        underTest.rebuildCounters(deck.getId());
+
+        // when
+        DeckCardCountersDelta delta = new DeckCardCountersDelta();
+        CardSchedule learnCardBefore = CardSchedule.of(learnCard);
+        learnCard.setInLearnMode(false);
+        learnCard.setLearnModeStep(null);
+        learnCard.setNextLearnViewInUTC(null);
+        learnCard.setCurrentIntervalDays(2.0);
+        learnCard.setNextReviewInUTC(LocalDateTime.of(2023, 3, 19, 12, 0));
+        learnCard.setNextReviewWithoutTimeInUTC(LocalDate.of(2023, 3, 19));
+        delta.cardRescheduled(deck.getId(), learnCardBefore, CardSchedule.of(learnCard));
+        delta.cardRemoved(deck.getId(), CardSchedule.of(reviewCard));
+        deck.getFlashcards().remove(reviewCard);
+        entityManager.flush();
+        underTest.applyDelta(delta);
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        List<DeckCardCounts> counts = underTest.countCardsOfAllDecks(userProfile.getId(),
+                nextLearnViewInUTCBefore, nextReviewDateLocalBefore);
+        assertEquals(List.of(new DeckCardCounts(deck.getId(), 1, 0, 0)), counts);
+        assertEquals(flashcardRepository.countCardsGroupedByDeck(userProfile.getId(),
+                nextLearnViewInUTCBefore, nextReviewDateLocalBefore), counts);
+        DeckCardCounter counter = counterRepository.findById(deck.getId()).orElseThrow();
+        assertEquals(0, counter.getLearnModeCards());
+    }
+
+    @Test
+    void forecastDueCards_ShouldBucketDueCardsPerDayAndFoldOverdueCardsIntoTheFirstDay() {
+        // when
+        int[] fromMarch16 = underTest.forecastDueCards(deck.getId(), LocalDate.of(2023, 3, 16), 3);
+        int[] fromMarch17 = underTest.forecastDueCards(deck.getId(), LocalDate.of(2023, 3, 17), 3);
+
+        // then
+        assertArrayEquals(new int[]{1, 1, 0}, fromMarch16);
+        assertArrayEquals(new int[]{2, 0, 0}, fromMarch17);
+    }
+
+    @Test
+    void forecastDueCards_ShouldNotReturnCachedForecast_WhenCountersOfTheDeckChanged() {
+        // given
+        LocalDate fromDay = LocalDate.of(2023, 3, 16);
+        assertArrayEquals(new int[]{1, 1, 0}, underTest.forecastDueCards(deck.getId(), fromDay, 3));
+
+        // when
+        DeckCardCountersDelta delta = new DeckCardCountersDelta();
+        CardSchedule reviewCardBefore = CardSchedule.of(reviewCard);
+        reviewCard.setNextReviewInUTC(LocalDateTime.of(2023, 3, 18, 9, 0));
+        reviewCard.setNextReviewWithoutTimeInUTC(LocalDate.of(2023, 3, 18));
+        delta.cardRescheduled(deck.getId(), reviewCardBefore, CardSchedule.of(reviewCard));
+        underTest.applyDelta(delta);
+
+        // then
+        assertArrayEquals(new int[]{0, 1, 1}, underTest.forecastDueCards(deck.getId(), fromDay, 3));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, DeckCardCounterService.MAX_FORECAST_DAYS + 1})
+    void forecastDueCards_ShouldThrowException_WhenNumberOfDaysIsOutOfRange(int days) {
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.forecastDueCards(deck.getId(), LocalDate.of(2023, 3, 16), days));
+    }
+}
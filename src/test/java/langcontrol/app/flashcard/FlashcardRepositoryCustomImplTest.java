@@ -3,6 +3,14 @@ package langcontrol.app.flashcard;
 import langcontrol.app.deck.Deck;
 import langcontrol.app.deck.DeckRepository;
 import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.spaced_repetition.BasicSpacedRepetitionAlgorithm;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
+import langcontrol.app.user_profile.UserProfile;
+import langcontrol.app.user_settings.UserSettings;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,11 +23,15 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class FlashcardRepositoryCustomImplTest {
 
     @Autowired
@@ -31,6 +43,12 @@ class FlashcardRepositoryCustomImplTest {
     @Autowired
     private FlashcardRepository flashcardRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @BeforeEach
     void setUp() {
         Deck deck = new Deck();
@@ -80,70 +98,226 @@ class FlashcardRepositoryCustomImplTest {
         flashcardRepository.deleteAll();
     }
 
-    @Test
-    public void findReadyForReviewFlashcardsByDeck_ShouldReturnNoFlashcards_WhenDateTimesAreTooEarly() {
+    @ParameterizedTest
+    @MethodSource("dateTimesInTheMiddle")
+    public void countCardsByDeck_ShouldCountAllAndOnlyDueCards(LocalDateTime nextLearnViewInUTCBefore) {
         // given
         Deck deck = deckRepository.findByName("test deck").orElseThrow(IllegalStateException::new);
-        LocalDateTime nextLearnViewInUTCBefore = LocalDateTime.of(2023, 2, 7, 8, 13);
         LocalDate nextReviewDateLocalBefore = nextLearnViewInUTCBefore.toLocalDate();
-        int limit = 10;
 
         // when
-        List<Flashcard> readyForReviewFlashcards = underTest.findReadyForReviewFlashcardsByDeck(deck,
-                nextLearnViewInUTCBefore, nextReviewDateLocalBefore, limit);
+        DeckCardCounts counts = underTest.countCardsByDeck(deck.getId(),
+                nextLearnViewInUTCBefore, nextReviewDateLocalBefore);
 
         // then
-        assertEquals(0, readyForReviewFlashcards.size());
+        assertEquals(2, counts.totalCards());
+        assertEquals(1, counts.learnDueCards());
+        assertEquals(0, counts.reviewDueCards());
     }
 
-    @ParameterizedTest
-    @MethodSource("dateTimesInTheMiddle")
-    public void findReadyForReviewFlashcardsByDeck_ShouldReturnOnlyFlashcardsScheduledForEarlierOrEqualToParam(
-            LocalDateTime nextLearnViewInUTCBefore) {
+    @Test
+    public void countCardsByDeck_ShouldExecuteSingleQuery() {
         // given
         Deck deck = deckRepository.findByName("test deck").orElseThrow(IllegalStateException::new);
-        LocalDate nextReviewDateLocalBefore = nextLearnViewInUTCBefore.toLocalDate();
-        int limit = 10;
+        LocalDateTime nextLearnViewInUTCBefore = LocalDateTime.of(2023, 3, 17, 14, 18, 43, 0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        DeckCardCounts counts = underTest.countCardsByDeck(deck.getId(),
+                nextLearnViewInUTCBefore, nextLearnViewInUTCBefore.toLocalDate());
+
+        // then
+        assertEquals(2, counts.dueCards());
+        assertEquals(1, statistics.getQueryExecutionCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void countCardsGroupedByDeck_ShouldReturnCountsOfEveryDeckOfUserProfileInSingleQuery() {
+        // given
+        UserProfile userProfile = new UserProfile(null, "John Doe");
+        entityManager.persist(userProfile);
+        Deck deck = deckRepository.findByName("test deck").orElseThrow(IllegalStateException::new);
+        deck.setUserProfile(userProfile);
+        entityManager.flush();
+        LocalDateTime nextLearnViewInUTCBefore = LocalDateTime.of(2023, 3, 17, 14, 18, 43, 0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
 
         // when
-        List<Flashcard> readyForReviewFlashcards = underTest.findReadyForReviewFlashcardsByDeck(deck,
-                nextLearnViewInUTCBefore, nextReviewDateLocalBefore, limit);
+        List<DeckCardCounts> counts = underTest.countCardsGroupedByDeck(userProfile.getId(),
+                nextLearnViewInUTCBefore, nextLearnViewInUTCBefore.toLocalDate());
 
         // then
-        assertEquals(1, readyForReviewFlashcards.size());
+        assertEquals(1, counts.size());
+        assertEquals(deck.getId(), counts.get(0).deckId());
+        assertEquals(2, counts.get(0).totalCards());
+        assertEquals(2, counts.get(0).dueCards());
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    private List<ReviewCardView> sampleDueCardViews(LocalDateTime nextLearnViewInUTCBefore, int limit) {
+        Deck deck = deckRepository.findByName("test deck").orElseThrow(IllegalStateException::new);
+        return underTest.sampleReadyForReviewCardViewsByDeck(deck.getId(), nextLearnViewInUTCBefore,
+                nextLearnViewInUTCBefore.toLocalDate(), limit, new Random(11L), new BasicSpacedRepetitionAlgorithm());
+    }
+
+    @Test
+    public void sampleReadyForReviewCardViewsByDeck_ShouldReturnNoCards_WhenDateTimesAreTooEarly() {
+        // when
+        List<ReviewCardView> sample = sampleDueCardViews(LocalDateTime.of(2023, 2, 7, 8, 13), 10);
+
+        // then
+        assertEquals(0, sample.size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("dateTimesInTheMiddle")
+    public void sampleReadyForReviewCardViewsByDeck_ShouldReturnOnlyCardsScheduledForEarlierOrEqualToParam(
+            LocalDateTime nextLearnViewInUTCBefore) {
+        // when
+        List<ReviewCardView> sample = sampleDueCardViews(nextLearnViewInUTCBefore, 10);
+
+        // then
+        assertEquals(1, sample.size());
+        assertTrue(sample.get(0).inLearnMode());
     }
 
     @ParameterizedTest
     @MethodSource("dateTimesAfterAll")
-    public void findReadyForReviewFlashcardsByDeck_ShouldReturnAllFlashcards_WhenParamIsTheLatestOrEqualDateTime(
+    public void sampleReadyForReviewCardViewsByDeck_ShouldReturnAllCards_WhenParamIsTheLatestOrEqualDateTime(
             LocalDateTime nextLearnViewInUTCBefore) {
+        // when
+        List<ReviewCardView> sample = sampleDueCardViews(nextLearnViewInUTCBefore, 10);
+
+        // then
+        assertEquals(2, sample.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2})
+    public void sampleReadyForReviewCardViewsByDeck_ShouldReturnExactlyLimitCards_WhenEnoughCardsAreDue(int limit) {
+        // when
+        List<ReviewCardView> sample = sampleDueCardViews(LocalDateTime.of(2023, 3, 17, 14, 18, 43, 0), limit);
+
+        // then
+        assertEquals(limit, sample.size());
+    }
+
+    @Test
+    public void sampleReadyForReviewCardViewsByDeck_ShouldPreferLearnModeCards() {
+        // when
+        List<ReviewCardView> sample = sampleDueCardViews(LocalDateTime.of(2023, 3, 17, 14, 18, 43, 0), 1);
+
+        // then
+        assertTrue(sample.get(0).inLearnMode());
+    }
+
+    @Test
+    public void sampleReadyForReviewCardViewsByDeck_ShouldReturnLearnModeCardsFirst() {
+        // when
+        List<ReviewCardView> sample = sampleDueCardViews(LocalDateTime.of(2023, 3, 17, 14, 18, 43, 0), 10);
+
+        // then
+        assertTrue(sample.get(0).inLearnMode());
+        assertFalse(sample.get(1).inLearnMode());
+    }
+
+    @Test
+    public void sampleReadyForReviewCardViewsByDeck_ShouldReturnViewsInThreeQueriesWithoutLoadingEntities() {
         // given
         Deck deck = deckRepository.findByName("test deck").orElseThrow(IllegalStateException::new);
-        LocalDate nextReviewDateLocalBefore = nextLearnViewInUTCBefore.toLocalDate();
-        int limit = 10;
+        entityManager.clear();
+        LocalDateTime nextLearnViewInUTCBefore = LocalDateTime.of(2023, 3, 17, 14, 18, 43, 0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
 
         // when
-        List<Flashcard> readyForReviewFlashcards = underTest.findReadyForReviewFlashcardsByDeck(deck,
-                nextLearnViewInUTCBefore, nextReviewDateLocalBefore, limit);
+        List<ReviewCardView> sample = underTest.sampleReadyForReviewCardViewsByDeck(deck.getId(),
+                nextLearnViewInUTCBefore, nextLearnViewInUTCBefore.toLocalDate(), 10, new Random(11L),
+                new BasicSpacedRepetitionAlgorithm());
 
         // then
-        assertEquals(2, readyForReviewFlashcards.size());
+        assertEquals("learn card's front", sample.get(0).front());
+        assertEquals(LearnModeStep.TWO, sample.get(0).learnModeStep());
+        assertEquals("review card's back", sample.get(1).back());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
     }
 
-    @ParameterizedTest
-    @ValueSource(ints = {0, 1})
-    public void findReadyForReviewFlashcardsByDeck_ShouldLimitResults(int limit) {
+    @Test
+    public void findWithOwnerUserProfileIdByIdIn_ShouldLoadAllCardsWithTheirOwnerInOneQuery() {
         // given
+        UserProfile userProfile = new UserProfile(null, "John Doe");
+        entityManager.persist(userProfile);
         Deck deck = deckRepository.findByName("test deck").orElseThrow(IllegalStateException::new);
-        LocalDateTime nextLearnViewInUTCBefore = LocalDateTime.of(2023, 3, 17, 14, 18, 43, 0);
-        LocalDate nextReviewDateLocalBefore = nextLearnViewInUTCBefore.toLocalDate();
+        deck.setUserProfile(userProfile);
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = flashcardRepository.findByDeck(deck).stream()
+                .map(Flashcard::getId)
+                .toList();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        List<Object[]> rows = flashcardRepository.findWithOwnerUserProfileIdByIdIn(ids);
+
+        // then
+        assertEquals(2, rows.size());
+        for (Object[] row : rows) {
+            assertTrue(ids.contains(((Flashcard) row[0]).getId()));
+            assertEquals(userProfile.getId(), row[1]);
+        }
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void findSchedulingAlgorithmTypeById_ShouldPreferDeckAlgorithmOverUserDefault_WithoutLoadingEntities() {
+        // given
+        UserSettings userSettings = new UserSettings(null, false, false);
+        userSettings.setDefaultSchedulingAlgorithm(SpacedRepetitionAlgorithmType.SM2);
+        UserProfile userProfile = new UserProfile(null, "John Doe");
+        userProfile.setUserSettings(userSettings);
+        entityManager.persist(userProfile);
+        Deck deck = deckRepository.findByName("test deck").orElseThrow(IllegalStateException::new);
+        long deckId = deck.getId();
+        assertTrue(deckRepository.findSchedulingAlgorithmTypeById(deckId).isEmpty());
+        deck.setUserProfile(userProfile);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        Optional<SpacedRepetitionAlgorithmType> userDefault = deckRepository.findSchedulingAlgorithmTypeById(deckId);
 
+        // then
+        assertEquals(Optional.of(SpacedRepetitionAlgorithmType.SM2), userDefault);
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        // when
+        deckRepository.findById(deckId).orElseThrow(IllegalStateException::new)
+                .setSchedulingAlgorithm(SpacedRepetitionAlgorithmType.FSRS);
+        entityManager.flush();
+
+        // then
+        assertEquals(Optional.of(SpacedRepetitionAlgorithmType.FSRS),
+                deckRepository.findSchedulingAlgorithmTypeById(deckId));
+    }
+
+    @Test
+    public void flashcardTable_ShouldHaveDueCardIndexes() {
         // when
-        List<Flashcard> readyForReviewFlashcards = underTest.findReadyForReviewFlashcardsByDeck(deck,
-                nextLearnViewInUTCBefore, nextReviewDateLocalBefore, limit);
+        List<?> indexNames = entityManager.createNativeQuery("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES " +
+                        "WHERE TABLE_NAME = 'FLASHCARD'")
+                .getResultList();
 
         // then
-        assertEquals(limit, readyForReviewFlashcards.size());
+        assertTrue(indexNames.contains("IDX_FLASHCARD_DECK_LEARN_DUE"));
+        assertTrue(indexNames.contains("IDX_FLASHCARD_DECK_REVIEW_DUE"));
     }
 
     static Stream<LocalDateTime> dateTimesInTheMiddle() {
@@ -1,22 +1,35 @@
 package langcontrol.app.flashcard;
 
-import langcontrol.app.user_profile.UserProfile;
+import langcontrol.app.account.Account;
 import langcontrol.app.deck.Deck;
 import langcontrol.app.deck.DeckRepository;
-import langcontrol.app.exception.GeneralNotFoundException;
 import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.example_pool.ExamplePoolService;
+import langcontrol.app.exception.AccessNotAllowedException;
+import langcontrol.app.exception.GeneralNotFoundException;
+import langcontrol.app.generator.Dictionary;
+import langcontrol.app.spaced_repetition.BasicSpacedRepetitionAlgorithm;
+import langcontrol.app.spaced_repetition.SpacedRepetition;
+import langcontrol.app.spaced_repetition.SpacedRepetitionRegistry;
+import langcontrol.app.user_profile.UserProfile;
+import langcontrol.app.util.PrincipalRetriever;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
+import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 
 import java.time.*;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -28,66 +41,101 @@ import static org.mockito.Mockito.when;
 
 class FlashcardServiceImplTest {
 
+    private static final long USER_PROFILE_ID = 7L;
+    private static final Instant NOW = LocalDateTime.of(2023, 3, 17, 6, 30).toInstant(ZoneOffset.UTC);
+    private static final SpacedRepetition BASIC_ALGORITHM = new BasicSpacedRepetitionAlgorithm();
+
     private FlashcardRepository mockedFlashcardRepository;
     private DeckRepository mockedDeckRepository;
+    private DeckCardCounterService mockedDeckCardCounterService;
+    private SpacedRepetitionRegistry mockedSpacedRepetitionRegistry;
+    private MockedStatic<PrincipalRetriever> mockedStaticPrincipalRetriever;
+    private UserProfile userProfile;
     private FlashcardServiceImpl underTest;
 
     @BeforeEach
     void setUp() {
         mockedFlashcardRepository = Mockito.mock(FlashcardRepository.class);
         mockedDeckRepository = Mockito.mock(DeckRepository.class);
-        underTest = new FlashcardServiceImpl(mockedFlashcardRepository, mockedDeckRepository, deckService, dictionary);
+        mockedDeckCardCounterService = Mockito.mock(DeckCardCounterService.class);
+        mockedSpacedRepetitionRegistry = Mockito.mock(SpacedRepetitionRegistry.class);
+        given(mockedSpacedRepetitionRegistry.forDeck(Mockito.any(Deck.class))).willReturn(BASIC_ALGORITHM);
+        underTest = new FlashcardServiceImpl(mockedFlashcardRepository, mockedDeckRepository,
+                Mockito.mock(Dictionary.class), mockedDeckCardCounterService, Mockito.mock(ExamplePoolService.class),
+                mockedSpacedRepetitionRegistry, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        userProfile = new UserProfile(USER_PROFILE_ID, "John Doe");
+        Account account = new Account(3L, "user@email.com", "78oytAb$HEby7o", List.of());
+        account.setUserProfile(userProfile);
+        mockedStaticPrincipalRetriever = Mockito.mockStatic(PrincipalRetriever.class);
+        mockedStaticPrincipalRetriever.when(PrincipalRetriever::retrieveAccount).thenReturn(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedStaticPrincipalRetriever.close();
+    }
+
+    private Deck testDeck(long deckId) {
+        return new Deck(deckId,
+                "test deck",
+                userProfile,
+                LanguageCode.SPANISH,
+                LanguageCode.ENGLISH,
+                new ArrayList<>());
     }
 
     @ParameterizedTest
-    @ValueSource(longs = {1, 2, 3, 0, -1})
+    @ValueSource(longs = {1, 2, 3})
     void deleteFlashcard_ShouldDeleteTheFlashcardWithSpecifiedId(long id) {
+        // given
+        Flashcard flashcard = Flashcard.inInitialLearnModeState()
+                .deck(testDeck(2L))
+                .front("test front")
+                .back("test back")
+                .build();
+        flashcard.setId(id);
+        given(mockedFlashcardRepository.findOwnerUserProfileIdById(id)).willReturn(Optional.of(USER_PROFILE_ID));
+        given(mockedFlashcardRepository.findById(id)).willReturn(Optional.of(flashcard));
+
         // when
         underTest.deleteFlashcard(id);
 
         // then
-        ArgumentCaptor<Long> argumentCaptor = ArgumentCaptor.forClass(Long.class);
-        verify(mockedFlashcardRepository).deleteById(argumentCaptor.capture());
-        assertEquals(id, argumentCaptor.getValue());
+        ArgumentCaptor<Flashcard> argumentCaptor = ArgumentCaptor.forClass(Flashcard.class);
+        verify(mockedFlashcardRepository).delete(argumentCaptor.capture());
+        assertEquals(id, argumentCaptor.getValue().getId());
+        then(mockedDeckCardCounterService).should().applyDelta(Mockito.any(DeckCardCountersDelta.class));
     }
 
-//    @ParameterizedTest
-//    @ValueSource(longs = {-1, 0})
-//    void deleteFlashcard_ShouldThrowException_WhenIdIsLessThanZero(long id) {
-//        // then
-//        assertThrows(IllegalArgumentException.class,
-//                () -> underTest.deleteFlashcard(id));
-//    }
-
     @Test
     void createNewFlashcard_ShouldCreateFlashcard_WhenDeckIsFound() {
         // given
         long deckId = 2L;
-        FlashcardCreationDTO creationDTO = new FlashcardCreationDTO("test front", "test back");
-        Deck mockedDeck = Mockito.mock(Deck.class);
-        when(mockedDeckRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(mockedDeck));
+        FlashcardCreationDTO creationDTO = new FlashcardCreationDTO();
+        creationDTO.setFront("test front");
+        creationDTO.setBack("test back");
+        Deck testDeck = testDeck(deckId);
+        when(mockedDeckRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(testDeck));
 
         // when
         underTest.createNewFlashcard(deckId, creationDTO);
 
         // then
-        ArgumentCaptor<Long> longArgumentCaptor = ArgumentCaptor.forClass(Long.class);
-        ArgumentCaptor<Flashcard> flashcardArgumentCaptor = ArgumentCaptor.forClass(Flashcard.class);
-
-        InOrder inOrder = Mockito.inOrder(mockedDeckRepository, mockedDeck);
-        inOrder.verify(mockedDeckRepository).findById(longArgumentCaptor.capture());
-        inOrder.verify(mockedDeck).addFlashcard(flashcardArgumentCaptor.capture());
-
-        assertEquals(deckId, longArgumentCaptor.getValue());
-        assertEquals("test front", flashcardArgumentCaptor.getValue().getFront());
-        assertEquals("test back", flashcardArgumentCaptor.getValue().getBack());
+        verify(mockedDeckRepository).findById(deckId);
+        assertEquals(1, testDeck.getFlashcards().size());
+        assertEquals("test front", testDeck.getFlashcards().get(0).getFront());
+        assertEquals("test back", testDeck.getFlashcards().get(0).getBack());
+        assertSame(testDeck, testDeck.getFlashcards().get(0).getDeck());
     }
 
     @Test
     void createNewFlashcard_ShouldThrowException_WhenDeckIsNotFound() {
         // given
         long deckId = 2L;
-        FlashcardCreationDTO creationDTO = new FlashcardCreationDTO("test front", "test back");
+        FlashcardCreationDTO creationDTO = new FlashcardCreationDTO();
+        creationDTO.setFront("test front");
+        creationDTO.setBack("test back");
         when(mockedDeckRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         // then
@@ -96,58 +144,31 @@ class FlashcardServiceImplTest {
     }
 
     @Test
-    void fetchShuffledFlashcardsReadyForReviewWithLimit_ShouldReturnFlashcards() {
+    void fetchReadyForReviewCardViewsShuffledWithLimit_ShouldSampleCardViewsDueNowInTheZone() {
         // given
         String zoneId = "America/Los_Angeles";
         long deckId = 2;
         int limit = 15;
-        LocalDateTime locDateTimeInUtcExpected = LocalDateTime.now(Clock.systemUTC());
-        LocalDate locDateExpected = ZonedDateTime.now(ZoneId.of(zoneId)).toLocalDateTime().toLocalDate();
-
-        Deck testDeck = new Deck(deckId,
-                "test deck",
-                new UserProfile(),
-                LanguageCode.SPANISH,
-                LanguageCode.ENGLISH,
-                new ArrayList<>());
-
+        Deck testDeck = testDeck(deckId);
         given(mockedDeckRepository.findById(Mockito.anyLong())).willReturn(Optional.of(testDeck));
 
         // when
-        Deque<Flashcard> result = underTest.fetchReadyForReviewShuffledWithLimit(deckId, zoneId, limit);
+        underTest.fetchReadyForReviewCardViewsShuffledWithLimit(deckId, zoneId, limit);
 
         // then
         InOrder inOrder = Mockito.inOrder(mockedDeckRepository, mockedFlashcardRepository);
-        ArgumentCaptor<LocalDateTime> locDateTimeArgCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
-        ArgumentCaptor<LocalDate> locDateArgCaptor = ArgumentCaptor.forClass(LocalDate.class);
-
         then(mockedDeckRepository).should(inOrder).findById(deckId);
-        then(mockedFlashcardRepository).should(inOrder).findReadyForReviewFlashcardsByDeck(
-                eq(testDeck),
-                locDateTimeArgCaptor.capture(),
-                locDateArgCaptor.capture(),
-                eq(limit));
-
-        LocalDateTime locDateTimeInUtcArg = locDateTimeArgCaptor.getValue();
-        LocalDate locDateArg = locDateArgCaptor.getValue();
-
-        assertAll("LocalDateTime in UTC assertions",
-                () -> assertEquals(locDateTimeInUtcExpected.getYear(), locDateTimeInUtcArg.getYear()),
-                () -> assertEquals(locDateTimeInUtcExpected.getMonth(), locDateTimeInUtcArg.getMonth()),
-                () -> assertEquals(locDateTimeInUtcExpected.getDayOfMonth(), locDateTimeInUtcArg.getDayOfMonth()),
-                () -> assertEquals(locDateTimeInUtcExpected.getHour(), locDateTimeInUtcArg.getHour()),
-                () -> assertEquals(locDateTimeInUtcExpected.getMinute(), locDateTimeInUtcArg.getMinute()),
-                () -> assertEquals(locDateTimeInUtcExpected.getSecond(), locDateTimeInUtcArg.getSecond())
-        );
-        assertAll("LocalDate assertions",
-                () -> assertEquals(locDateExpected.getYear(), locDateArg.getYear()),
-                () -> assertEquals(locDateExpected.getMonth(), locDateArg.getMonth()),
-                () -> assertEquals(locDateExpected.getDayOfMonth(), locDateArg.getDayOfMonth())
-        );
+        then(mockedFlashcardRepository).should(inOrder).sampleReadyForReviewCardViewsByDeck(
+                eq(deckId),
+                eq(LocalDateTime.of(2023, 3, 17, 6, 30)),
+                eq(LocalDate.of(2023, 3, 16)),
+                eq(limit),
+                Mockito.any(Random.class),
+                eq(BASIC_ALGORITHM));
     }
 
     @Test
-    void fetchShuffledFlashcardsReadyForReviewWithLimit_ShouldThrowException_WhenDeckNotFound() {
+    void fetchReadyForReviewCardViewsShuffledWithLimit_ShouldThrowException_WhenDeckNotFound() {
         // given
         String zoneId = "America/Los_Angeles";
         long deckId = 2;
@@ -156,11 +177,11 @@ class FlashcardServiceImplTest {
 
         // then
         assertThrows(GeneralNotFoundException.class,
-                () -> underTest.fetchReadyForReviewShuffledWithLimit(deckId, zoneId, limit));
+                () -> underTest.fetchReadyForReviewCardViewsShuffledWithLimit(deckId, zoneId, limit));
     }
 
     @Test
-    void fetchShuffledFlashcardsReadyForReviewWithLimit_ShouldThrowException_WhenLimitIsLessThanZero() {
+    void fetchReadyForReviewCardViewsShuffledWithLimit_ShouldThrowException_WhenLimitIsLessThanZero() {
         // given
         String zoneId = "America/Los_Angeles";
         long deckId = 2;
@@ -168,11 +189,11 @@ class FlashcardServiceImplTest {
 
         // then
         assertThrows(IllegalArgumentException.class,
-                () -> underTest.fetchReadyForReviewShuffledWithLimit(deckId, zoneId, limit));
+                () -> underTest.fetchReadyForReviewCardViewsShuffledWithLimit(deckId, zoneId, limit));
     }
 
     @Test
-    void fetchShuffledFlashcardsReadyForReviewWithLimit_ShouldThrowException_WhenZoneIdIsNotCorrect() {
+    void fetchReadyForReviewCardViewsShuffledWithLimit_ShouldThrowException_WhenZoneIdIsNotCorrect() {
         // given
         String zoneId = "American/Los_Angeles";
         long deckId = 2;
@@ -180,18 +201,66 @@ class FlashcardServiceImplTest {
 
         // then
         assertThrows(IllegalArgumentException.class,
-                () -> underTest.fetchReadyForReviewShuffledWithLimit(deckId, zoneId, limit));
+                () -> underTest.fetchReadyForReviewCardViewsShuffledWithLimit(deckId, zoneId, limit));
+    }
+
+    private Flashcard testCard(long id) {
+        Flashcard flashcard = Flashcard.inInitialLearnModeState()
+                .deck(testDeck(2L))
+                .front("test front")
+                .back("test back")
+                .build();
+        flashcard.setId(id);
+        return flashcard;
+    }
+
+    @Test
+    void getOwnedCardsByIds_ShouldLoadEveryDistinctCardWithItsOwnerInOneQuery() {
+        // given
+        Flashcard firstCard = testCard(2L);
+        Flashcard secondCard = testCard(3L);
+        given(mockedFlashcardRepository.findWithOwnerUserProfileIdByIdIn(Set.of(2L, 3L))).willReturn(List.of(
+                new Object[]{firstCard, USER_PROFILE_ID},
+                new Object[]{secondCard, USER_PROFILE_ID}));
+
+        // when
+        Map<Long, OwnedFlashcard> cardsById = underTest.getOwnedCardsByIds(List.of(2L, 3L, 2L));
+
+        // then
+        then(mockedFlashcardRepository).should().findWithOwnerUserProfileIdByIdIn(Set.of(2L, 3L));
+        then(mockedFlashcardRepository).shouldHaveNoMoreInteractions();
+        assertEquals(2, cardsById.size());
+        assertSame(firstCard, cardsById.get(2L).flashcard());
+        assertSame(secondCard, cardsById.get(3L).flashcard());
+        assertEquals(USER_PROFILE_ID, cardsById.get(2L).ownerUserProfileId());
+    }
+
+    @Test
+    void getOwnedCardsByIds_ShouldThrowException_WhenAnyCardBelongsToAnotherUser() {
+        // given
+        given(mockedFlashcardRepository.findWithOwnerUserProfileIdByIdIn(Set.of(2L, 3L))).willReturn(List.of(
+                new Object[]{testCard(2L), USER_PROFILE_ID},
+                new Object[]{testCard(3L), USER_PROFILE_ID + 1}));
+
+        // then
+        assertThrows(AccessNotAllowedException.class, () -> underTest.getOwnedCardsByIds(List.of(2L, 3L)));
+    }
+
+    @Test
+    void getOwnedCardsByIds_ShouldThrowException_WhenAnyCardIsNotFound() {
+        // given
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{testCard(2L), USER_PROFILE_ID});
+        given(mockedFlashcardRepository.findWithOwnerUserProfileIdByIdIn(Set.of(2L, 3L))).willReturn(rows);
+
+        // then
+        assertThrows(GeneralNotFoundException.class, () -> underTest.getOwnedCardsByIds(List.of(2L, 3L)));
     }
 
     @Test
     void getAllFlashcardsByDeck_ShouldGetFlashcards() {
         // given
-        Deck testDeck = new Deck(2L,
-                "test deck",
-                new UserProfile(),
-                LanguageCode.SPANISH,
-                LanguageCode.ENGLISH,
-                new ArrayList<>());
+        Deck testDeck = testDeck(2L);
 
         // when
         underTest.getAllFlashcardsByDeck(testDeck);
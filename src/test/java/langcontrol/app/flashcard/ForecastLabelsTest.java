@@ -0,0 +1,112 @@
+package langcontrol.app.flashcard;
+
+import langcontrol.app.flashcard.rest.FlashcardForecastsDTO;
+import langcontrol.app.spaced_repetition.BasicSpacedRepetitionAlgorithm;
+import langcontrol.app.spaced_repetition.ScratchSpacedRepetitionItem;
+import langcontrol.app.spaced_repetition.Sm2SpacedRepetitionAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastLabelsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 3, 17, 12, 0);
+
+    static ScratchSpacedRepetitionItem reviewModeItem(double intervalDays, double increaseFactor,
+                                                      double reduceFactor) {
+        ScratchSpacedRepetitionItem item = new ScratchSpacedRepetitionItem();
+        item.setCurrentIntervalDays(intervalDays);
+        item.setIncreaseFactor(increaseFactor);
+        item.setReduceFactor(reduceFactor);
+        item.setLastReviewInUTC(NOW.minusDays((long) intervalDays));
+        return item;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 365, ForecastLabels.CACHED_DAYS, ForecastLabels.CACHED_DAYS + 1, 36_500, -1})
+    void inDays_ShouldReturnSameTextAsFormatting(int days) {
+        // when, then
+        assertEquals(String.format("in %d days", days), ForecastLabels.inDays(days));
+    }
+
+    @Test
+    void inDays_ShouldReturnCachedInstance_WhenDaysAreCached() {
+        // when, then
+        assertSame(ForecastLabels.inDays(10), ForecastLabels.inDays(10));
+    }
+
+    @Test
+    void inDays_ShouldReturnSameTextAsBigDecimalRounding_ForRandomIntervalsAndFactors() {
+        // given
+        SplittableRandom random = new SplittableRandom(5L);
+
+        for (int i = 0; i < 100_000; i++) {
+            double interval = random.nextDouble(2.0, 5_000.0);
+            double factor = random.nextDouble(0.6, 1.4);
+
+            // when
+            String label = ForecastLabels.inDays(interval, factor);
+
+            // then
+            int expectedDays = BigDecimal.valueOf(interval * factor).setScale(0, RoundingMode.HALF_DOWN).intValue();
+            assertEquals(String.format("in %d days", expectedDays), label);
+        }
+    }
+
+    @Test
+    void forecasts_ShouldProduceLearnModeForecasts_FromLearnModeStep() {
+        // when
+        ScratchSpacedRepetitionItem item = new ScratchSpacedRepetitionItem();
+        item.setInLearnMode(true);
+        item.setLearnModeStep(LearnModeStep.TWO);
+        item.setCurrentIntervalDays(null);
+        FlashcardForecastsDTO forecasts = ForecastLabels.forecasts(item, new BasicSpacedRepetitionAlgorithm(), NOW);
+
+        // then
+        assertEquals("in 1 min", forecasts.getLearnModeForecasts().getForPrevious());
+        assertEquals("in 10 min", forecasts.getLearnModeForecasts().getForNormal());
+        assertEquals("in 24 h", forecasts.getLearnModeForecasts().getForNext());
+        assertEquals("in 2 days", forecasts.getLearnModeForecasts().getForToReviewMode());
+        assertNull(forecasts.getReviewModeForecasts().getForEasy());
+    }
+
+    @Test
+    void forecasts_ShouldProduceReviewModeForecasts_FromIntervalAndFactors() {
+        // when
+        FlashcardForecastsDTO forecasts = ForecastLabels.forecasts(reviewModeItem(10.0, 1.3, 0.75),
+                new BasicSpacedRepetitionAlgorithm(), NOW);
+
+        // then
+        assertEquals("in 2 days", forecasts.getReviewModeForecasts().getForCannotSolve());
+        assertEquals("in 7 days", forecasts.getReviewModeForecasts().getForDifficult());
+        assertEquals("in 11 days", forecasts.getReviewModeForecasts().getForNormal());
+        assertEquals("in 13 days", forecasts.getReviewModeForecasts().getForEasy());
+        assertNull(forecasts.getLearnModeForecasts().getForNext());
+    }
+
+    @Test
+    void forecasts_ShouldFollowTheAlgorithm_WhenDeckUsesSm2() {
+        // given
+        ScratchSpacedRepetitionItem item = reviewModeItem(10.0, 1.3, 0.75);
+        item.setEasinessFactor(2.5);
+        item.setRepetitions(3);
+
+        // when
+        FlashcardForecastsDTO forecasts = ForecastLabels.forecasts(item, new Sm2SpacedRepetitionAlgorithm(), NOW);
+
+        // then
+        assertEquals("in 1 min", forecasts.getReviewModeForecasts().getForCannotSolve());
+        assertEquals("in 24 days", forecasts.getReviewModeForecasts().getForDifficult());
+        assertEquals("in 25 days", forecasts.getReviewModeForecasts().getForNormal());
+        assertEquals("in 26 days", forecasts.getReviewModeForecasts().getForEasy());
+        assertEquals(10.0, item.getCurrentIntervalDays());
+        assertEquals(3, item.getRepetitions());
+    }
+}
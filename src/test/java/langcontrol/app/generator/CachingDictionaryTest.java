@@ -0,0 +1,196 @@
+package langcontrol.app.generator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.exception.ProviderUnavailableException;
+import langcontrol.app.flashcard.PartOfSpeech;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+class CachingDictionaryTest {
+
+    private static final Instant NOW = Instant.parse("2023-03-17T12:00:00Z");
+
+    private Dictionary mockedDictionary;
+    private Clock mockedClock;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        mockedDictionary = Mockito.mock(Dictionary.class);
+        mockedClock = Mockito.mock(Clock.class);
+        meterRegistry = new SimpleMeterRegistry();
+        given(mockedClock.instant()).willReturn(NOW);
+        given(mockedDictionary.getTranslationsList(anyString(), any(), any(), any()))
+                .willAnswer(invocation -> List.of("translation of " + invocation.getArgument(0)));
+    }
+
+    private CachingDictionary cachingDictionary(long maxBytesPerLanguagePair) {
+        return new CachingDictionary(mockedDictionary, meterRegistry, mockedClock, Duration.ofHours(1),
+                maxBytesPerLanguagePair);
+    }
+
+    private double count(String name, String tagKey, String tagValue) {
+        return meterRegistry.get(name).tag(tagKey, tagValue).counter().count();
+    }
+
+    @Test
+    void getTranslationsList_ShouldCallDelegateOnce_ForNormalizedEqualWords() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+
+        // when
+        List<String> first = underTest.getTranslationsList("Casa  de\tcampo", LanguageCode.SPANISH,
+                LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+        List<String> second = underTest.getTranslationsList(" casa de campo ", LanguageCode.SPANISH,
+                LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+
+        // then
+        assertEquals(first, second);
+        then(mockedDictionary).should(times(1)).getTranslationsList(anyString(), any(), any(), any());
+        assertEquals(1, count("langcontrol.dictionary_cache.requests", "result", "hit"));
+        assertEquals(1, count("langcontrol.dictionary_cache.requests", "result", "miss"));
+    }
+
+    @Test
+    void getTranslationsList_ShouldTreatComposedAndDecomposedFormsAsEqual() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+
+        // when
+        underTest.getTranslationsList("caf\u00e9", LanguageCode.FRENCH, LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+        underTest.getTranslationsList("cafe\u0301", LanguageCode.FRENCH, LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+
+        // then
+        then(mockedDictionary).should(times(1)).getTranslationsList(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void getTranslationsList_ShouldCallDelegate_WhenPartOfSpeechOrLanguagesDiffer() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+
+        // when
+        underTest.getTranslationsList("run", LanguageCode.ENGLISH, LanguageCode.GERMAN, PartOfSpeech.NOUN);
+        underTest.getTranslationsList("run", LanguageCode.ENGLISH, LanguageCode.GERMAN, PartOfSpeech.VERB);
+        underTest.getTranslationsList("run", LanguageCode.ENGLISH, LanguageCode.SPANISH, PartOfSpeech.VERB);
+
+        // then
+        then(mockedDictionary).should(times(3)).getTranslationsList(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void getTranslationsList_ShouldCallDelegateAgain_WhenEntryExpired() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+        underTest.getTranslationsList("Haus", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+        given(mockedClock.instant()).willReturn(NOW.plus(Duration.ofHours(1)));
+
+        // when
+        underTest.getTranslationsList("Haus", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+
+        // then
+        then(mockedDictionary).should(times(2)).getTranslationsList(anyString(), any(), any(), any());
+        assertEquals(1, count("langcontrol.dictionary_cache.evictions", "cause", "expired"));
+    }
+
+    @Test
+    void getTranslationsList_ShouldEvictLeastRecentlyUsed_WhenLanguagePairExceedsMemoryCap() {
+        // given
+        CachingDictionary underTest = cachingDictionary(700);
+        underTest.getTranslationsList("eins", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        underTest.getTranslationsList("zwei", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        underTest.getTranslationsList("uno", LanguageCode.SPANISH, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        underTest.getTranslationsList("eins", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+
+        // when
+        underTest.getTranslationsList("drei", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        underTest.getTranslationsList("eins", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        underTest.getTranslationsList("uno", LanguageCode.SPANISH, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        underTest.getTranslationsList("zwei", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+
+        // then
+        then(mockedDictionary).should(times(2)).getTranslationsList("zwei", LanguageCode.GERMAN,
+                LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        then(mockedDictionary).should(times(1)).getTranslationsList("eins", LanguageCode.GERMAN,
+                LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        then(mockedDictionary).should(times(1)).getTranslationsList("uno", LanguageCode.SPANISH,
+                LanguageCode.ENGLISH, PartOfSpeech.OTHER);
+        assertTrue(count("langcontrol.dictionary_cache.evictions", "cause", "size") >= 1);
+    }
+
+    @Test
+    void getTranslationsList_ShouldNotCacheEmptyResults() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+        given(mockedDictionary.getTranslationsList(anyString(), any(), any(), any())).willReturn(List.of());
+
+        // when
+        underTest.getTranslationsList("xyz", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+        underTest.getTranslationsList("xyz", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+
+        // then
+        then(mockedDictionary).should(times(2)).getTranslationsList(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void getTranslationsList_ShouldFallBackToExpiredEntry_WhenProviderIsUnavailable() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+        underTest.getTranslationsList("Haus", LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.NOUN);
+        given(mockedClock.instant()).willReturn(NOW.plus(Duration.ofHours(1)));
+        given(mockedDictionary.getTranslationsList(anyString(), any(), any(), any()))
+                .willThrow(new ProviderUnavailableException("The circuit of openai is open."));
+
+        // when
+        List<String> stale = underTest.getTranslationsList("Haus", LanguageCode.GERMAN, LanguageCode.ENGLISH,
+                PartOfSpeech.NOUN);
+
+        // then
+        assertEquals(List.of("translation of Haus"), stale);
+        assertEquals(1, count("langcontrol.dictionary_cache.fallbacks", "result", "stale"));
+    }
+
+    @Test
+    void getTranslationsList_ShouldRethrow_WhenProviderIsUnavailableAndNoEntryExpired() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+        given(mockedDictionary.getTranslationsList(anyString(), any(), any(), any()))
+                .willThrow(new ProviderUnavailableException("The circuit of openai is open."));
+
+        // when, then
+        assertThrows(ProviderUnavailableException.class, () -> underTest.getTranslationsList("Baum",
+                LanguageCode.GERMAN, LanguageCode.ENGLISH, PartOfSpeech.NOUN));
+        assertEquals(0, count("langcontrol.dictionary_cache.fallbacks", "result", "empty"));
+    }
+
+    @Test
+    void getTranslationsListAsync_ShouldFallBackToEmptyList_WhenProviderIsUnavailable() {
+        // given
+        CachingDictionary underTest = cachingDictionary(1_000_000);
+        given(mockedDictionary.getTranslationsListAsync(anyString(), any(), any(), any()))
+                .willReturn(CompletableFuture.failedFuture(
+                        new ProviderUnavailableException("Too many concurrent calls to openai.")));
+
+        // when
+        List<String> result = underTest.getTranslationsListAsync("Haus", LanguageCode.GERMAN,
+                LanguageCode.ENGLISH, PartOfSpeech.NOUN).join();
+
+        // then
+        assertEquals(List.of(), result);
+    }
+}
@@ -0,0 +1,120 @@
+package langcontrol.app.generator;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.exception.ProviderUnavailableException;
+import langcontrol.app.flashcard.PartOfSpeech;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+class PipelinedSentenceWithTranslationGeneratorTest {
+
+    private SentenceGenerator mockedSentenceGenerator;
+    private Translator mockedTranslator;
+    private PipelinedSentenceWithTranslationGenerator underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedSentenceGenerator = Mockito.mock(SentenceGenerator.class);
+        mockedTranslator = Mockito.mock(Translator.class);
+        underTest = new PipelinedSentenceWithTranslationGenerator(mockedSentenceGenerator, mockedTranslator);
+    }
+
+    @Test
+    void generate_ShouldReturnSentencesWithTranslationsInGeneratedOrder() {
+        // given
+        given(mockedSentenceGenerator.generateAsync("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN, 3))
+                .willReturn(CompletableFuture.completedFuture(
+                        List.of(" Das Haus ist alt.", "", "Wir kaufen ein Haus.")));
+        given(mockedTranslator.translateAsync(anyString(), any()))
+                .willAnswer(invocation -> CompletableFuture.completedFuture("EN " + invocation.getArgument(0)));
+
+        // when
+        Map<String, String> examples = underTest.generate("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN,
+                LanguageCode.ENGLISH, 3);
+
+        // then
+        assertEquals(List.of("Das Haus ist alt.", "Wir kaufen ein Haus."), List.copyOf(examples.keySet()));
+        assertEquals("EN Das Haus ist alt.", examples.get("Das Haus ist alt."));
+        assertEquals("EN Wir kaufen ein Haus.", examples.get("Wir kaufen ein Haus."));
+    }
+
+    @Test
+    void generateAsync_ShouldRequestAllTranslationsBeforeAnyCompletes() {
+        // given
+        CompletableFuture<String> firstTranslation = new CompletableFuture<>();
+        CompletableFuture<String> secondTranslation = new CompletableFuture<>();
+        given(mockedSentenceGenerator.generateAsync("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN, 2))
+                .willReturn(CompletableFuture.completedFuture(List.of("Eins.", "Zwei.")));
+        given(mockedTranslator.translateAsync("Eins.", LanguageCode.ENGLISH)).willReturn(firstTranslation);
+        given(mockedTranslator.translateAsync("Zwei.", LanguageCode.ENGLISH)).willReturn(secondTranslation);
+
+        // when
+        CompletableFuture<Map<String, String>> examples = underTest.generateAsync("Haus", LanguageCode.GERMAN,
+                PartOfSpeech.NOUN, LanguageCode.ENGLISH, 2);
+
+        // then
+        then(mockedTranslator).should().translateAsync("Eins.", LanguageCode.ENGLISH);
+        then(mockedTranslator).should().translateAsync("Zwei.", LanguageCode.ENGLISH);
+        assertFalse(examples.isDone());
+        secondTranslation.complete("Two.");
+        firstTranslation.complete("One.");
+        assertEquals(Map.of("Eins.", "One.", "Zwei.", "Two."), examples.join());
+    }
+
+    @Test
+    void generateAsync_ShouldFail_WhenTranslationFails() {
+        // given
+        given(mockedSentenceGenerator.generateAsync("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN, 1))
+                .willReturn(CompletableFuture.completedFuture(List.of("Eins.")));
+        given(mockedTranslator.translateAsync("Eins.", LanguageCode.ENGLISH))
+                .willReturn(CompletableFuture.failedFuture(new IllegalStateException("DeepL is down")));
+
+        // when
+        CompletableFuture<Map<String, String>> examples = underTest.generateAsync("Haus", LanguageCode.GERMAN,
+                PartOfSpeech.NOUN, LanguageCode.ENGLISH, 1);
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class, examples::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void generateAsync_ShouldFail_WhenLanguagesAreTheSame() {
+        // when
+        CompletableFuture<Map<String, String>> examples = underTest.generateAsync("Haus", LanguageCode.GERMAN,
+                PartOfSpeech.NOUN, LanguageCode.GERMAN, 1);
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class, examples::get);
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        then(mockedSentenceGenerator).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void generate_ShouldReturnNoExamples_WhenTranslatorIsUnavailable() {
+        // given
+        given(mockedSentenceGenerator.generateAsync("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN, 1))
+                .willReturn(CompletableFuture.completedFuture(List.of("Das Haus ist alt.")));
+        given(mockedTranslator.translateAsync(anyString(), any())).willReturn(CompletableFuture.failedFuture(
+                new ProviderUnavailableException("The circuit of deepl is open.")));
+
+        // when
+        Map<String, String> examples = underTest.generate("Haus", LanguageCode.GERMAN, PartOfSpeech.NOUN,
+                LanguageCode.ENGLISH, 1);
+
+        // then
+        assertTrue(examples.isEmpty());
+    }
+}
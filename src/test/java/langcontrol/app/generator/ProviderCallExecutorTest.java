@@ -0,0 +1,54 @@
+package langcontrol.app.generator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderCallExecutorTest {
+
+    private final ProviderCallExecutor underTest = new ProviderCallExecutor(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void supply_ShouldRunCallOnProviderThread() throws Exception {
+        // when
+        CompletableFuture<String> result = underTest.supply(() -> Thread.currentThread().getName());
+
+        // then
+        assertTrue(result.get(5, TimeUnit.SECONDS).startsWith("provider-call-"));
+    }
+
+    @Test
+    void supply_ShouldReturnFailedFuture_WhenPoolAndQueueAreFull() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = underTest.supply(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = underTest.supply(() -> "queued");
+
+        // when
+        CompletableFuture<String> rejected = underTest.supply(() -> "rejected");
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, exception.getCause());
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+}
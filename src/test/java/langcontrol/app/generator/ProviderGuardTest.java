@@ -0,0 +1,231 @@
+package langcontrol.app.generator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import langcontrol.app.exception.ProviderUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+class ProviderGuardTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+    private static final Predicate<Throwable> PROVIDER_FAILURE = error -> error instanceof IllegalStateException;
+
+    private Clock mockedClock;
+    private SimpleMeterRegistry meterRegistry;
+    private ProviderGuard underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedClock = Mockito.mock(Clock.class);
+        given(mockedClock.millis()).willReturn(0L);
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new ProviderGuard("test", TIMEOUT, 4, OPEN_DURATION, PROVIDER_FAILURE, meterRegistry,
+                mockedClock);
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("langcontrol.provider.rejections").tag("reason", reason).counter().count();
+    }
+
+    private void failCalls(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThrows(IllegalStateException.class, () -> underTest.call(() -> {
+                throw new IllegalStateException("Provider error.");
+            }));
+        }
+    }
+
+    @Test
+    void callAsync_ShouldRejectCall_WhenConcurrencyLimitIsReached() {
+        // given
+        for (int i = 0; i < 4; i++) {
+            underTest.callAsync(CompletableFuture::new);
+        }
+
+        // when
+        CompletableFuture<String> result = underTest.callAsync(() -> CompletableFuture.completedFuture("late"));
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(ProviderUnavailableException.class, exception.getCause());
+        assertEquals(1, rejections("concurrency_limit"));
+    }
+
+    @Test
+    void call_ShouldDecreaseLimitOnFailureAndIncreaseItOnFastSuccess() {
+        // when
+        failCalls(1);
+        int decreasedLimit = underTest.concurrencyLimit();
+        for (int i = 0; i < 10; i++) {
+            underTest.call(() -> "ok");
+        }
+
+        // then
+        assertEquals(2, decreasedLimit);
+        assertEquals(4, underTest.concurrencyLimit());
+    }
+
+    private void failCallsWithCallerError(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThrows(IllegalArgumentException.class, () -> underTest.call(() -> {
+                throw new IllegalArgumentException("Bad request.");
+            }));
+        }
+    }
+
+    @Test
+    void call_ShouldPassCallerErrorsOn_WithoutChangingLimitOrCircuit() {
+        // when
+        failCallsWithCallerError(ProviderGuard.MIN_CALLS);
+
+        // then
+        assertEquals(4, underTest.concurrencyLimit());
+        assertEquals(ProviderGuard.State.CLOSED, underTest.state());
+        assertEquals(ProviderGuard.MIN_CALLS, meterRegistry.get("langcontrol.provider.calls")
+                .tag("outcome", "caller_error").counter().count());
+    }
+
+    @Test
+    void callAsync_ShouldDecreaseLimit_WhenCallFailsWithWrappedIoError() {
+        // when
+        CompletableFuture<String> result = underTest.callAsync(() -> CompletableFuture.failedFuture(
+                new RuntimeException(new UncheckedIOException(new IOException("Connection reset.")))));
+
+        // then
+        assertThrows(ExecutionException.class, result::get);
+        assertEquals(2, underTest.concurrencyLimit());
+    }
+
+    @Test
+    void call_ShouldDecreaseLimit_WhenCallIsSlow() {
+        // given
+        given(mockedClock.millis()).willReturn(0L, TIMEOUT.toMillis() - 1);
+
+        // when
+        underTest.call(() -> "slow");
+
+        // then
+        assertEquals(2, underTest.concurrencyLimit());
+    }
+
+    @Test
+    void call_ShouldReportUnavailableProvider_WhenCallFailedAfterTimeout() {
+        // given
+        given(mockedClock.millis()).willReturn(0L, TIMEOUT.toMillis());
+
+        // when
+        ProviderUnavailableException exception = assertThrows(ProviderUnavailableException.class,
+                () -> underTest.call(() -> {
+                    throw new IllegalStateException("Read timed out.");
+                }));
+
+        // then
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void callAsync_ShouldFailWithUnavailableProvider_WhenTimeoutRunsOut() {
+        // given
+        ProviderGuard guard = new ProviderGuard("test", Duration.ofMillis(50), 4, OPEN_DURATION,
+                PROVIDER_FAILURE, meterRegistry, Clock.systemUTC());
+
+        // when
+        CompletableFuture<String> result = guard.callAsync(CompletableFuture::new);
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ProviderUnavailableException.class, exception.getCause());
+    }
+
+    @Test
+    void call_ShouldOpenCircuit_WhenHalfOfRecentCallsFailed() {
+        // given
+        for (int i = 0; i < ProviderGuard.MIN_CALLS / 2; i++) {
+            underTest.call(() -> "ok");
+        }
+        failCalls(ProviderGuard.MIN_CALLS / 2);
+
+        // when
+        assertThrows(ProviderUnavailableException.class, () -> underTest.call(() -> "rejected"));
+
+        // then
+        assertEquals(ProviderGuard.State.OPEN, underTest.state());
+        assertEquals(1, rejections("circuit_open"));
+    }
+
+    @Test
+    void call_ShouldCloseCircuit_WhenProbeSucceedsAfterOpenDuration() {
+        // given
+        failCalls(ProviderGuard.MIN_CALLS);
+        given(mockedClock.millis()).willReturn(OPEN_DURATION.toMillis());
+
+        // when
+        String result = underTest.call(() -> "probe");
+
+        // then
+        assertEquals("probe", result);
+        assertEquals(ProviderGuard.State.CLOSED, underTest.state());
+    }
+
+    @Test
+    void call_ShouldReopenCircuit_WhenProbeFails() {
+        // given
+        failCalls(ProviderGuard.MIN_CALLS);
+        given(mockedClock.millis()).willReturn(OPEN_DURATION.toMillis());
+
+        // when
+        failCalls(1);
+
+        // then
+        assertEquals(ProviderGuard.State.OPEN, underTest.state());
+        assertThrows(ProviderUnavailableException.class, () -> underTest.call(() -> "rejected"));
+    }
+
+    @Test
+    void call_ShouldKeepCircuitHalfOpen_WhenProbeFailsWithCallerError() {
+        // given
+        failCalls(ProviderGuard.MIN_CALLS);
+        given(mockedClock.millis()).willReturn(OPEN_DURATION.toMillis());
+
+        // when
+        failCallsWithCallerError(1);
+
+        // then
+        assertEquals(ProviderGuard.State.HALF_OPEN, underTest.state());
+        assertEquals("probe", underTest.call(() -> "probe"));
+        assertEquals(ProviderGuard.State.CLOSED, underTest.state());
+    }
+
+    @Test
+    void callAsync_ShouldLetOnlyOneProbeThrough_WhenCircuitIsHalfOpen() {
+        // given
+        failCalls(ProviderGuard.MIN_CALLS);
+        given(mockedClock.millis()).willReturn(OPEN_DURATION.toMillis());
+        CompletableFuture<String> probe = new CompletableFuture<>();
+        underTest.callAsync(() -> probe);
+
+        // when
+        CompletableFuture<String> second = underTest.callAsync(() -> CompletableFuture.completedFuture("second"));
+
+        // then
+        assertEquals(ProviderGuard.State.HALF_OPEN, underTest.state());
+        assertThrows(ExecutionException.class, second::get);
+        probe.complete("probe");
+        assertEquals(ProviderGuard.State.CLOSED, underTest.state());
+    }
+}
@@ -0,0 +1,157 @@
+package langcontrol.app.generator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> underTest = new SingleFlight<>("test", meterRegistry);
+
+    private double calls(String result) {
+        return meterRegistry.get("langcontrol.single_flight.calls").tag("result", result).counter().count();
+    }
+
+    @Test
+    void callAsync_ShouldShareInFlightCall() {
+        // given
+        CompletableFuture<String> providerCall = new CompletableFuture<>();
+        AtomicInteger startedCalls = new AtomicInteger();
+
+        // when
+        CompletableFuture<String> first = underTest.callAsync("haus", () -> {
+            startedCalls.incrementAndGet();
+            return providerCall;
+        });
+        CompletableFuture<String> second = underTest.callAsync("haus", () -> {
+            startedCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        providerCall.complete("house");
+
+        // then
+        assertEquals(1, startedCalls.get());
+        assertEquals("house", first.join());
+        assertEquals("house", second.join());
+        assertEquals(1, calls("started"));
+        assertEquals(1, calls("shared"));
+        assertEquals(0, underTest.inFlightCount());
+    }
+
+    @Test
+    void callAsync_ShouldStartNewCall_AfterPreviousCompleted() {
+        // given
+        underTest.callAsync("haus", () -> CompletableFuture.completedFuture("house")).join();
+
+        // when
+        String result = underTest.callAsync("haus", () -> CompletableFuture.completedFuture("home")).join();
+
+        // then
+        assertEquals("home", result);
+        assertEquals(2, calls("started"));
+    }
+
+    @Test
+    void callAsync_ShouldNotShareCallsOfDifferentKeys() {
+        // given
+        CompletableFuture<String> providerCall = new CompletableFuture<>();
+        underTest.callAsync("haus", () -> providerCall);
+
+        // when
+        String result = underTest.callAsync("baum", () -> CompletableFuture.completedFuture("tree")).join();
+
+        // then
+        assertEquals("tree", result);
+        assertEquals(1, underTest.inFlightCount());
+    }
+
+    @Test
+    void callAsync_ShouldFailAllCallersAndReleaseKey_WhenCallFails() {
+        // given
+        CompletableFuture<String> providerCall = new CompletableFuture<>();
+        CompletableFuture<String> first = underTest.callAsync("haus", () -> providerCall);
+        CompletableFuture<String> second = underTest.callAsync("haus", () -> providerCall);
+
+        // when
+        providerCall.completeExceptionally(new IllegalStateException("Provider unavailable."));
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class, first::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        exception = assertThrows(ExecutionException.class, second::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(0, underTest.inFlightCount());
+    }
+
+    @Test
+    void callAsync_ShouldNotFailOtherCallers_WhenOneCallerCancels() {
+        // given
+        CompletableFuture<String> providerCall = new CompletableFuture<>();
+        CompletableFuture<String> first = underTest.callAsync("haus", () -> providerCall);
+        CompletableFuture<String> second = underTest.callAsync("haus", () -> providerCall);
+
+        // when
+        first.cancel(true);
+        providerCall.complete("house");
+
+        // then
+        assertEquals("house", second.join());
+    }
+
+    @Test
+    void call_ShouldLetConcurrentCallerWaitForRunningCall() throws Exception {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger startedCalls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> underTest.call("haus", () -> {
+                startedCalls.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "house";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // when
+            Future<String> second = executor.submit(() -> underTest.call("haus", () -> {
+                startedCalls.incrementAndGet();
+                return "other";
+            }));
+            while (calls("shared") == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // then
+            assertEquals("house", first.get(5, TimeUnit.SECONDS));
+            assertEquals("house", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, startedCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void call_ShouldRethrowFailureAndReleaseKey() {
+        // when
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> underTest.call("haus", () -> {
+                    throw new IllegalStateException("Provider unavailable.");
+                }));
+
+        // then
+        assertEquals("Provider unavailable.", exception.getMessage());
+        assertEquals(0, underTest.inFlightCount());
+    }
+}
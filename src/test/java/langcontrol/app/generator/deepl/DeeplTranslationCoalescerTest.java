@@ -0,0 +1,119 @@
+package langcontrol.app.generator.deepl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import langcontrol.app.generator.ProviderGuard;
+import langcontrol.app.generator.deepl.client.DeeplClient;
+import langcontrol.app.generator.deepl.client.DeeplTranslation;
+import langcontrol.app.generator.deepl.client.DeeplTranslationResponseBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+class DeeplTranslationCoalescerTest {
+
+    private DeeplClient mockedClient;
+    private DeeplTranslationCoalescer underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedClient = Mockito.mock(DeeplClient.class);
+        given(mockedClient.translate(anyList(), anyString())).willAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            String language = invocation.getArgument(1);
+            return Mono.just(response(texts.stream().map(text -> language + ":" + text).toList()));
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProviderGuard deeplGuard = new ProviderGuard("deepl", Duration.ofSeconds(5), 8, Duration.ofSeconds(30),
+                error -> true, meterRegistry, Clock.systemUTC());
+        underTest = new DeeplTranslationCoalescer(mockedClient, deeplGuard, meterRegistry, Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    private static DeeplTranslationResponseBody response(List<String> translatedTexts) {
+        DeeplTranslationResponseBody response = new DeeplTranslationResponseBody();
+        response.setTranslations(translatedTexts.stream().map(text -> {
+            DeeplTranslation translation = new DeeplTranslation();
+            translation.setTranslatedText(text);
+            return translation;
+        }).toList());
+        return response;
+    }
+
+    @Test
+    void translate_ShouldSendTextsForSameLanguageInOneRequest() throws Exception {
+        // when
+        CompletableFuture<String> first = underTest.translate("eins", "EN");
+        CompletableFuture<String> second = underTest.translate("zwei", "EN");
+        CompletableFuture<String> other = underTest.translate("drei", "ES");
+
+        // then
+        assertEquals("EN:eins", first.get(5, TimeUnit.SECONDS));
+        assertEquals("EN:zwei", second.get(5, TimeUnit.SECONDS));
+        assertEquals("ES:drei", other.get(5, TimeUnit.SECONDS));
+        then(mockedClient).should().translate(List.of("eins", "zwei"), "EN");
+        then(mockedClient).should().translate(List.of("drei"), "ES");
+    }
+
+    @Test
+    void translate_ShouldSendBatchRightAway_WhenItIsFull() {
+        // when
+        for (int i = 0; i < 50; i++) {
+            underTest.translate("text " + i, "DE");
+        }
+
+        // then
+        then(mockedClient).should(times(1)).translate(anyList(), eq("DE"));
+    }
+
+    @Test
+    void translate_ShouldFailAllTextsOfBatch_WhenRequestFails() {
+        // given
+        given(mockedClient.translate(anyList(), anyString()))
+                .willReturn(Mono.error(new IllegalStateException("DeepL is down")));
+
+        // when
+        CompletableFuture<String> first = underTest.translate("eins", "EN");
+        CompletableFuture<String> second = underTest.translate("zwei", "EN");
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void translate_ShouldFailAllTextsOfBatch_WhenTranslationCountDiffers() {
+        // given
+        given(mockedClient.translate(anyList(), anyString()))
+                .willReturn(Mono.just(response(List.of("only one"))));
+
+        // when
+        CompletableFuture<String> first = underTest.translate("eins", "EN");
+        CompletableFuture<String> second = underTest.translate("zwei", "EN");
+
+        // then
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+}
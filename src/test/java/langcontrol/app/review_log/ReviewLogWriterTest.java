@@ -0,0 +1,114 @@
+package langcontrol.app.review_log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import langcontrol.app.spaced_repetition.RatingType;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.then;
+
+class ReviewLogWriterTest {
+
+    private final ReviewLogRepository mockedReviewLogRepository = Mockito.mock(ReviewLogRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    static ReviewLogEntry entryForCard(long flashcardId) {
+        return new ReviewLogEntry(flashcardId, 1L, 1L, RatingType.REVIEW_NORMAL, false, false,
+                10.0, 11.0, LocalDateTime.of(2023, 3, 17, 12, 0), 2500);
+    }
+
+    private double entriesCount(String outcome) {
+        return meterRegistry.get("langcontrol.review_log.entries").tag("outcome", outcome).counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void writeNextBatch_ShouldInsertQueuedEntriesInBatchesOfConfiguredSize() {
+        // given
+        ReviewLogWriter underTest = new ReviewLogWriter(mockedReviewLogRepository, meterRegistry, 100, 2, false);
+        underTest.record(entryForCard(1L));
+        underTest.record(entryForCard(2L));
+        underTest.record(entryForCard(3L));
+
+        // when
+        int firstBatchSize = underTest.writeNextBatch();
+        int secondBatchSize = underTest.writeNextBatch();
+
+        // then
+        assertEquals(2, firstBatchSize);
+        assertEquals(1, secondBatchSize);
+        assertEquals(0, underTest.pendingEntries());
+        ArgumentCaptor<List<ReviewLogEntry>> batchCaptor = ArgumentCaptor.forClass(List.class);
+        then(mockedReviewLogRepository).should(Mockito.times(2)).saveAll(batchCaptor.capture());
+        assertEquals(List.of(1L, 2L), batchCaptor.getAllValues().get(0).stream()
+                .map(ReviewLogEntry::getFlashcardId).toList());
+        assertEquals(3.0, entriesCount("written"));
+    }
+
+    @Test
+    void record_ShouldDropEntryAndCountIt_WhenQueueIsFull() {
+        // given
+        ReviewLogWriter underTest = new ReviewLogWriter(mockedReviewLogRepository, meterRegistry, 2, 10, false);
+
+        // when
+        underTest.record(entryForCard(1L));
+        underTest.record(entryForCard(2L));
+        underTest.record(entryForCard(3L));
+
+        // then
+        assertEquals(2, underTest.pendingEntries());
+        assertEquals(1.0, entriesCount("dropped"));
+        assertEquals(0.0, meterRegistry.get("langcontrol.review_log.queue.remaining_capacity").gauge().value());
+    }
+
+    @Test
+    void shutdown_ShouldFlushPendingEntries() {
+        // given
+        ReviewLogWriter underTest = new ReviewLogWriter(mockedReviewLogRepository, meterRegistry, 100, 2, false);
+        for (long id = 1; id <= 5; id++) {
+            underTest.record(entryForCard(id));
+        }
+
+        // when
+        underTest.shutdown();
+
+        // then
+        assertEquals(0, underTest.pendingEntries());
+        then(mockedReviewLogRepository).should(Mockito.times(3)).saveAll(Mockito.anyList());
+        assertEquals(5.0, entriesCount("written"));
+    }
+
+    @Test
+    void record_ShouldDropEntry_WhenWriterIsShutDown() {
+        // given
+        ReviewLogWriter underTest = new ReviewLogWriter(mockedReviewLogRepository, meterRegistry, 100, 2, false);
+        underTest.shutdown();
+
+        // when
+        underTest.record(entryForCard(1L));
+
+        // then
+        assertEquals(0, underTest.pendingEntries());
+        assertEquals(1.0, entriesCount("dropped"));
+    }
+
+    @Test
+    void writerThread_ShouldPersistRecordedEntries_WithoutExplicitFlush() {
+        // given
+        ReviewLogWriter underTest = new ReviewLogWriter(mockedReviewLogRepository, meterRegistry, 100, 10, true);
+
+        // when
+        underTest.record(entryForCard(1L));
+
+        // then
+        then(mockedReviewLogRepository).should(Mockito.timeout(2_000L)).saveAll(Mockito.anyList());
+        underTest.shutdown();
+        assertEquals(1.0, entriesCount("written"));
+    }
+}
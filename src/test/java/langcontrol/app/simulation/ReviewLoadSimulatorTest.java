@@ -0,0 +1,139 @@
+package langcontrol.app.simulation;
+
+import langcontrol.app.flashcard.LearnModeStep;
+import langcontrol.app.spaced_repetition.BasicSpacedRepetitionAlgorithm;
+import langcontrol.app.spaced_repetition.SpacedRepetition;
+import langcontrol.app.spaced_repetition.SpacedRepetitionAlgorithmType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewLoadSimulatorTest {
+
+    private static final long START_EPOCH_MINUTE = DeckSnapshot.toEpochMinute(LocalDateTime.of(2023, 3, 17, 12, 0));
+
+    private final SpacedRepetition algorithm = new BasicSpacedRepetitionAlgorithm();
+
+    private static SimulationSettings settings(int days) {
+        return new SimulationSettings(days, 42, SpacedRepetitionAlgorithmType.BASIC, RatingModel.DEFAULT,
+                null, null, null);
+    }
+
+    @Test
+    void simulate_ShouldReturnSameResult_RegardlessOfParallelism() {
+        // given
+        DeckSnapshot snapshot = DeckSnapshot.ofNewCards(5_000, 50, START_EPOCH_MINUTE);
+
+        // when
+        SimulationResult sequential;
+        SimulationResult parallel;
+        try (ReviewLoadSimulator simulator = new ReviewLoadSimulator(1)) {
+            sequential = simulator.simulate(snapshot, algorithm, settings(365), START_EPOCH_MINUTE);
+        }
+        try (ReviewLoadSimulator simulator = new ReviewLoadSimulator(4)) {
+            parallel = simulator.simulate(snapshot, algorithm, settings(365), START_EPOCH_MINUTE);
+        }
+
+        // then
+        assertArrayEquals(sequential.learnViewsPerDay(), parallel.learnViewsPerDay());
+        assertArrayEquals(sequential.reviewsPerDay(), parallel.reviewsPerDay());
+        assertEquals(sequential.totalViews(), parallel.totalViews());
+    }
+
+    @Test
+    void simulate_ShouldViewEveryNewCardInLearnMode_OnTheDayItIsIntroduced() {
+        // given
+        DeckSnapshot snapshot = DeckSnapshot.ofNewCards(100, 10, START_EPOCH_MINUTE);
+
+        // when
+        SimulationResult result;
+        try (ReviewLoadSimulator simulator = new ReviewLoadSimulator(2)) {
+            result = simulator.simulate(snapshot, algorithm, settings(30), START_EPOCH_MINUTE);
+        }
+
+        // then
+        assertEquals(100, result.cardCount());
+        assertEquals(30, result.days());
+        for (int day = 0; day < 10; day++) {
+            assertTrue(result.learnViewsPerDay()[day] >= 10);
+        }
+        assertTrue(result.totalViews() > 100);
+    }
+
+    @Test
+    void simulate_ShouldCountOverdueCardOnFirstDay() {
+        // given
+        DeckSnapshot snapshot = new DeckSnapshot();
+        snapshot.addCard(false, null, START_EPOCH_MINUTE - 3 * DeckSnapshot.MINUTES_PER_DAY,
+                START_EPOCH_MINUTE - 10 * DeckSnapshot.MINUTES_PER_DAY, 7.0, 1.3, 0.7,
+                Double.NaN, -1, Double.NaN, Double.NaN);
+
+        // when
+        SimulationResult result;
+        try (ReviewLoadSimulator simulator = new ReviewLoadSimulator(1)) {
+            result = simulator.simulate(snapshot, algorithm, settings(30), START_EPOCH_MINUTE);
+        }
+
+        // then
+        assertEquals(1, result.reviewsPerDay()[0]);
+        assertEquals(0, result.learnViewsPerDay()[0]);
+    }
+
+    @Test
+    void simulate_ShouldIgnoreCard_WhenItIsDueAfterSimulatedPeriod() {
+        // given
+        DeckSnapshot snapshot = new DeckSnapshot();
+        snapshot.addCard(true, LearnModeStep.THREE, START_EPOCH_MINUTE + 40 * DeckSnapshot.MINUTES_PER_DAY,
+                DeckSnapshot.NO_TIME, Double.NaN, 1.3, 0.7, Double.NaN, -1, Double.NaN, Double.NaN);
+
+        // when
+        SimulationResult result;
+        try (ReviewLoadSimulator simulator = new ReviewLoadSimulator(1)) {
+            result = simulator.simulate(snapshot, algorithm, settings(30), START_EPOCH_MINUTE);
+        }
+
+        // then
+        assertEquals(1, result.cardCount());
+        assertEquals(0, result.totalViews());
+    }
+
+    @Test
+    void simulate_ShouldChangeLoad_WhenInitialFactorsAreOverridden() {
+        // given
+        DeckSnapshot snapshot = DeckSnapshot.ofNewCards(2_000, 40, START_EPOCH_MINUTE);
+        SimulationSettings overridden = new SimulationSettings(365, 42, SpacedRepetitionAlgorithmType.BASIC,
+                RatingModel.DEFAULT, 1.4, 0.9, 0.08);
+
+        // when
+        SimulationResult defaults;
+        SimulationResult changed;
+        try (ReviewLoadSimulator simulator = new ReviewLoadSimulator(2)) {
+            defaults = simulator.simulate(snapshot, algorithm, settings(365), START_EPOCH_MINUTE);
+            changed = simulator.simulate(snapshot, algorithm, overridden, START_EPOCH_MINUTE);
+        }
+
+        // then
+        assertFalse(Arrays.equals(defaults.reviewsPerDay(), changed.reviewsPerDay()));
+    }
+
+    @Test
+    void ratingModel_ShouldThrowException_WhenProbabilitiesDoNotSumUpToOne() {
+        // given
+        double[] learnProbabilities = {0.25, 0.25, 0.25, 0.25};
+        double[] reviewProbabilities = {0.5, 0.5, 0.5, 0.5};
+
+        // when, then
+        assertThrows(IllegalArgumentException.class,
+                () -> new RatingModel(learnProbabilities, reviewProbabilities));
+    }
+
+    @Test
+    void simulationSettings_ShouldThrowException_WhenDaysAreOutOfRange() {
+        // when, then
+        assertThrows(IllegalArgumentException.class, () -> settings(0));
+        assertThrows(IllegalArgumentException.class, () -> settings(SimulationSettings.MAX_DAYS + 1));
+    }
+}
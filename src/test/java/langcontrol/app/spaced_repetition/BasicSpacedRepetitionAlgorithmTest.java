@@ -14,8 +14,10 @@ import org.mockito.Mockito;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -202,10 +204,11 @@ class BasicSpacedRepetitionAlgorithmTest {
         // given
         Flashcard testFlashcard = cardInInitialState();
         RatingType ratingPrevious = RatingType.LEARN_PREVIOUS;
-        LocalDateTime learnViewBeforeOp = testFlashcard.getNextLearnViewInUTC();
+        LocalDateTime learnViewBeforeOp = LocalDateTime.of(2022, 5, 11, 9, 23, 47);
+        testFlashcard.setNextLearnViewInUTC(learnViewBeforeOp);
 
         // when
-        underTest.apply(testFlashcard, ratingPrevious);
+        underTest.apply(testFlashcard, ratingPrevious, learnViewBeforeOp);
         LocalDateTime learnViewAfterOp = testFlashcard.getNextLearnViewInUTC();
 
         // then
@@ -404,11 +407,12 @@ class BasicSpacedRepetitionAlgorithmTest {
     }
 
     @Test
-    void apply_ShouldSwitchToLearnModeAndNotResetIntervalDays_WhenCardIsInReviewModeAndRatingIsReviewToLearnMode() {
+    void apply_ShouldSwitchToLearnModeAndNotResetIntervalDays_WhenCardIsInReviewModeAndRatingIsReviewCannotSolve() {
         // given
         Flashcard testFlashcard = cardInReviewModeWithData();
+        testFlashcard.setCurrentIntervalDays(2.0);
         double intervalDaysExpected = testFlashcard.getCurrentIntervalDays();
-        RatingType ratingToLearnMode = RatingType.REVIEW_TO_LEARN_MODE;
+        RatingType ratingToLearnMode = RatingType.REVIEW_CANNOT_SOLVE;
 
         // when
         underTest.apply(testFlashcard, ratingToLearnMode);
@@ -591,4 +595,40 @@ class BasicSpacedRepetitionAlgorithmTest {
         assertEquals(nextReviewAfterOpExpected, testFlashcard.getNextReviewInUTC());
         assertEquals(nextReviewAfterOpExpected.toLocalDate(), testFlashcard.getNextReviewWithoutTimeInUTC());
     }
-}
\ No newline at end of file
+
+    @Test
+    void apply_ShouldScheduleRelativeToTheInjectedClock() {
+        // given
+        Instant fixedInstant = LocalDateTime.of(2022, 5, 11, 9, 23, 47).toInstant(ZoneOffset.UTC);
+        BasicSpacedRepetitionAlgorithm algorithmWithFixedClock = new BasicSpacedRepetitionAlgorithm(
+                Clock.fixed(fixedInstant, ZoneOffset.UTC));
+        Flashcard testFlashcard = cardInInitialState();
+
+        // when
+        algorithmWithFixedClock.apply(testFlashcard, RatingType.LEARN_NEXT);
+
+        // then
+        assertEquals(LocalDateTime.of(2022, 5, 11, 9, 33, 47), testFlashcard.getNextLearnViewInUTC());
+    }
+
+    @Test
+    void apply_ShouldScheduleRelativeToTheRatingTime_WhenRatingTimeIsSpecified() {
+        // given
+        Flashcard testFlashcard = cardInInitialState();
+        LocalDateTime ratedAtInUTC = LocalDateTime.of(2022, 5, 11, 9, 23, 47);
+
+        // when
+        underTest.apply(testFlashcard, RatingType.LEARN_TO_REVIEW_MODE, ratedAtInUTC);
+        underTest.apply(testFlashcard, RatingType.REVIEW_NORMAL, ratedAtInUTC.plusDays(2));
+
+        // then
+        assertEquals(ratedAtInUTC.plusDays(2), testFlashcard.getLastReviewInUTC());
+        assertEquals(LocalDate.of(2022, 5, 15), testFlashcard.getNextReviewWithoutTimeInUTC());
+    }
+
+    @Test
+    void apply_ShouldThrowException_WhenRatingTimeIsNull() {
+        assertThrows(IllegalArgumentException.class,
+                () -> underTest.apply(cardInInitialState(), RatingType.LEARN_NEXT, null));
+    }
+}
@@ -0,0 +1,145 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.DeckCardCounterService;
+import langcontrol.app.flashcard.Flashcard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+class DueLoadBalancerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 3, 17, 12, 0);
+    private static final LocalDate TODAY = NOW.toLocalDate();
+
+    private DeckCardCounterService mockedDeckCardCounterService;
+    private DueLoadBalancer underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedDeckCardCounterService = Mockito.mock(DeckCardCounterService.class);
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        underTest = new DueLoadBalancer(mockedDeckCardCounterService, clock, true);
+    }
+
+    private static Flashcard cardDueInDays(int days) {
+        Flashcard flashcard = Flashcard.inInitialReviewModeState()
+                .front("front")
+                .back("back")
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.GERMAN)
+                .build();
+        flashcard.setLastReviewInUTC(NOW);
+        flashcard.setCurrentIntervalDays((double) days);
+        flashcard.setNextReviewInUTC(NOW.plusDays(days));
+        flashcard.setNextReviewWithoutTimeInUTC(TODAY.plusDays(days));
+        return flashcard;
+    }
+
+    private void givenForecast(int... loadFromDayOne) {
+        int[] dueCards = new int[DeckCardCounterService.MAX_FORECAST_DAYS];
+        System.arraycopy(loadFromDayOne, 0, dueCards, 1, loadFromDayOne.length);
+        given(mockedDeckCardCounterService.forecastDueCards(1L, TODAY, DeckCardCounterService.MAX_FORECAST_DAYS))
+                .willReturn(dueCards);
+    }
+
+    @Test
+    void balance_ShouldMoveCardToLeastLoadedDayInWindow() {
+        // given
+        givenForecast(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 9, 5, 2, 7);
+        Flashcard flashcard = cardDueInDays(21);
+
+        // when
+        underTest.balance(1L, flashcard, NOW);
+
+        // then
+        assertEquals(NOW.plusDays(22), flashcard.getNextReviewInUTC());
+        assertEquals(TODAY.plusDays(22), flashcard.getNextReviewWithoutTimeInUTC());
+        assertEquals(21.0, flashcard.getCurrentIntervalDays());
+    }
+
+    @Test
+    void balance_ShouldKeepTargetDay_WhenItIsAmongLeastLoaded() {
+        // given
+        givenForecast(3, 3, 3, 3, 3, 3, 3, 3, 3, 3);
+        Flashcard flashcard = cardDueInDays(5);
+
+        // when
+        underTest.balance(1L, flashcard, NOW);
+
+        // then
+        assertEquals(NOW.plusDays(5), flashcard.getNextReviewInUTC());
+    }
+
+    @Test
+    void balance_ShouldSpreadCardsRatedTogether_WithoutQueryingAgain() {
+        // given
+        givenForecast(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        Flashcard first = cardDueInDays(20);
+        Flashcard second = cardDueInDays(20);
+        Flashcard third = cardDueInDays(20);
+
+        // when
+        underTest.balance(1L, first, NOW);
+        underTest.balance(1L, second, NOW);
+        underTest.balance(1L, third, NOW);
+
+        // then
+        assertEquals(TODAY.plusDays(20), first.getNextReviewWithoutTimeInUTC());
+        assertEquals(TODAY.plusDays(19), second.getNextReviewWithoutTimeInUTC());
+        assertEquals(TODAY.plusDays(21), third.getNextReviewWithoutTimeInUTC());
+        then(mockedDeckCardCounterService).should(times(1))
+                .forecastDueCards(anyLong(), any(LocalDate.class), anyInt());
+    }
+
+    @Test
+    void balance_ShouldNotMoveShortIntervals() {
+        // given
+        Flashcard flashcard = cardDueInDays(2);
+
+        // when
+        underTest.balance(1L, flashcard, NOW);
+
+        // then
+        assertEquals(NOW.plusDays(2), flashcard.getNextReviewInUTC());
+        then(mockedDeckCardCounterService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void balance_ShouldDoNothing_WhenDisabled() {
+        // given
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        DueLoadBalancer disabled = new DueLoadBalancer(mockedDeckCardCounterService, clock, false);
+        Flashcard flashcard = cardDueInDays(30);
+
+        // when
+        disabled.balance(1L, flashcard, NOW);
+
+        // then
+        assertEquals(NOW.plusDays(30), flashcard.getNextReviewInUTC());
+        then(mockedDeckCardCounterService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void fuzzDays_ShouldGrowWithIntervalUpToMaximum() {
+        assertEquals(0, DueLoadBalancer.fuzzDays(2));
+        assertEquals(1, DueLoadBalancer.fuzzDays(3));
+        assertEquals(1, DueLoadBalancer.fuzzDays(29));
+        assertEquals(2, DueLoadBalancer.fuzzDays(30));
+        assertEquals(5, DueLoadBalancer.fuzzDays(100));
+        assertEquals(DueLoadBalancer.MAX_FUZZ_DAYS, DueLoadBalancer.fuzzDays(1000));
+    }
+}
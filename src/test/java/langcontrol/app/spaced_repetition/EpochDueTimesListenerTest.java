@@ -0,0 +1,49 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.Flashcard;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpochDueTimesListenerTest {
+
+    @Test
+    void storeEpochDueTimes_ShouldStoreEpochValuesOfDueTimes_WhenEnabled() {
+        // given
+        Flashcard flashcard = Flashcard.inInitialLearnModeState()
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.GERMAN)
+                .build();
+        LocalDateTime nextLearnView = LocalDateTime.of(2023, 3, 17, 10, 24, 56);
+        flashcard.setNextLearnViewInUTC(nextLearnView);
+        flashcard.setNextReviewWithoutTimeInUTC(LocalDate.of(2023, 3, 20));
+
+        // when
+        new EpochDueTimesListener(true).storeEpochDueTimes(flashcard);
+
+        // then
+        assertEquals(nextLearnView.toInstant(ZoneOffset.UTC).toEpochMilli(), flashcard.getNextLearnViewEpochMilli());
+        assertEquals(LocalDate.of(2023, 3, 20).toEpochDay(), flashcard.getNextReviewEpochDay());
+    }
+
+    @Test
+    void storeEpochDueTimes_ShouldNotStoreEpochValues_WhenDisabled() {
+        // given
+        Flashcard flashcard = Flashcard.inInitialReviewModeState()
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.GERMAN)
+                .build();
+
+        // when
+        new EpochDueTimesListener().storeEpochDueTimes(flashcard);
+
+        // then
+        assertNull(flashcard.getNextLearnViewEpochMilli());
+        assertNull(flashcard.getNextReviewEpochDay());
+    }
+}
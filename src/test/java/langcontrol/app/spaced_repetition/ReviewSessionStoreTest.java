@@ -0,0 +1,126 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.Deck;
+import langcontrol.app.deck.DeckRepository;
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.example_pool.ExamplePrefetcher;
+import langcontrol.app.flashcard.Flashcard;
+import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.flashcard.ReviewCardView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+class ReviewSessionStoreTest {
+
+    private static final SpacedRepetition BASIC_ALGORITHM = new BasicSpacedRepetitionAlgorithm();
+
+    private ReviewSessionStore underTest;
+    private FlashcardRepository mockedFlashcardRepository;
+
+    @BeforeEach
+    void setUp() {
+        mockedFlashcardRepository = Mockito.mock(FlashcardRepository.class);
+        DeckRepository mockedDeckRepository = Mockito.mock(DeckRepository.class);
+        given(mockedDeckRepository.findById(Mockito.anyLong())).willReturn(Optional.of(new Deck()));
+        underTest = new ReviewSessionStore(mockedFlashcardRepository, mockedDeckRepository,
+                new SpacedRepetitionRegistry(List.of(BASIC_ALGORITHM)), Mockito.mock(ExamplePrefetcher.class),
+                Runnable::run, Clock.systemUTC());
+    }
+
+    static Flashcard cardWithId(long id) {
+        Flashcard flashcard = Flashcard.inInitialReviewModeState()
+                .front("front " + id)
+                .back("back " + id)
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.GERMAN)
+                .build();
+        flashcard.setId(id);
+        return flashcard;
+    }
+
+    static ReviewCardView cardViewWithId(long id) {
+        return ReviewCardView.fromFlashcard(cardWithId(id), BASIC_ALGORITHM, LocalDateTime.now(Clock.systemUTC()));
+    }
+
+    @Test
+    void currentCard_ShouldReturnEmpty_WhenSessionWasNotOpened() {
+        assertTrue(underTest.currentCard("unknown").isEmpty());
+    }
+
+    @Test
+    void completeCard_ShouldRemoveCardAndExposeTheNextOne() {
+        // given
+        underTest.open("session", 4L, "Europe/Warsaw",
+                List.of(cardViewWithId(1L), cardViewWithId(2L), cardViewWithId(3L),
+                        cardViewWithId(4L), cardViewWithId(5L)));
+
+        // when
+        underTest.completeCard("session", 1L);
+
+        // then
+        Optional<ReviewCardView> currentCard = underTest.currentCard("session");
+        assertTrue(currentCard.isPresent());
+        assertEquals(2L, currentCard.get().id());
+        then(mockedFlashcardRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void completeCard_ShouldRefillSessionWithoutDuplicates_WhenItRunsLow() {
+        // given
+        given(mockedFlashcardRepository.sampleReadyForReviewCardViewsByDeck(Mockito.eq(4L),
+                Mockito.any(LocalDateTime.class), Mockito.any(LocalDate.class), Mockito.anyInt(),
+                Mockito.any(Random.class), Mockito.eq(BASIC_ALGORITHM)))
+                .willReturn(List.of(cardViewWithId(2L), cardViewWithId(7L)));
+        underTest.open("session", 4L, "Europe/Warsaw", List.of(cardViewWithId(1L), cardViewWithId(2L)));
+
+        // when
+        underTest.completeCard("session", 1L);
+        underTest.completeCard("session", 2L);
+
+        // then
+        Optional<ReviewCardView> currentCard = underTest.currentCard("session");
+        assertTrue(currentCard.isPresent());
+        assertEquals(7L, currentCard.get().id());
+    }
+
+    @Test
+    void open_ShouldNotStoreMoreCardsThanSessionCapacity() {
+        // given
+        List<ReviewCardView> cards = java.util.stream.LongStream.rangeClosed(1, 25)
+                .mapToObj(ReviewSessionStoreTest::cardViewWithId)
+                .toList();
+
+        // when
+        underTest.open("session", 4L, "Europe/Warsaw", cards);
+        for (long id = 1; id <= ReviewSessionStore.SESSION_CAPACITY; id++) {
+            underTest.completeCard("session", id);
+        }
+
+        // then
+        assertTrue(underTest.currentCard("session").isEmpty());
+    }
+
+    @Test
+    void close_ShouldRemoveSession() {
+        // given
+        underTest.open("session", 4L, "Europe/Warsaw", List.of(cardViewWithId(1L)));
+
+        // when
+        underTest.close("session");
+
+        // then
+        assertEquals(0, underTest.size());
+    }
+}
@@ -0,0 +1,129 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.Flashcard;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulingAlgorithmsTest {
+
+    private static final LocalDateTime RATED_AT = LocalDateTime.of(2023, 3, 17, 12, 0);
+
+    static Flashcard cardInReviewModeWithInterval(double intervalDays) {
+        Flashcard flashcard = Flashcard.inInitialReviewModeState()
+                .front("test front")
+                .back("test back")
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.SPANISH)
+                .build();
+        flashcard.setCurrentIntervalDays(intervalDays);
+        flashcard.setLastReviewInUTC(RATED_AT.minusDays((long) intervalDays));
+        flashcard.setNextReviewInUTC(RATED_AT);
+        flashcard.setNextReviewWithoutTimeInUTC(RATED_AT.toLocalDate());
+        flashcard.setRepetitions(2);
+        return flashcard;
+    }
+
+    static SpacedRepetition algorithmOfType(SpacedRepetitionAlgorithmType type) {
+        return switch (type) {
+            case BASIC -> new BasicSpacedRepetitionAlgorithm();
+            case SM2 -> new Sm2SpacedRepetitionAlgorithm();
+            case FSRS -> new FsrsSpacedRepetitionAlgorithm();
+        };
+    }
+
+    @ParameterizedTest
+    @EnumSource(SpacedRepetitionAlgorithmType.class)
+    void apply_ShouldScheduleLongerIntervalForEasierRatings(SpacedRepetitionAlgorithmType type) {
+        // given
+        SpacedRepetition underTest = algorithmOfType(type);
+        Flashcard difficultCard = cardInReviewModeWithInterval(10.0);
+        Flashcard normalCard = cardInReviewModeWithInterval(10.0);
+        Flashcard easyCard = cardInReviewModeWithInterval(10.0);
+
+        // when
+        underTest.apply(difficultCard, RatingType.REVIEW_DIFFICULT, RATED_AT);
+        underTest.apply(normalCard, RatingType.REVIEW_NORMAL, RATED_AT);
+        underTest.apply(easyCard, RatingType.REVIEW_EASY, RATED_AT);
+
+        // then
+        assertTrue(difficultCard.getCurrentIntervalDays() < normalCard.getCurrentIntervalDays());
+        assertTrue(normalCard.getCurrentIntervalDays() < easyCard.getCurrentIntervalDays());
+        assertFalse(easyCard.isInLearnMode());
+        assertEquals(RATED_AT, easyCard.getLastReviewInUTC());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SpacedRepetitionAlgorithmType.class, names = {"SM2", "FSRS"})
+    void apply_ShouldSwitchToLearnMode_WhenRatingIsReviewCannotSolve(SpacedRepetitionAlgorithmType type) {
+        // given
+        SpacedRepetition underTest = algorithmOfType(type);
+        Flashcard testFlashcard = cardInReviewModeWithInterval(30.0);
+
+        // when
+        underTest.apply(testFlashcard, RatingType.REVIEW_CANNOT_SOLVE, RATED_AT);
+
+        // then
+        assertTrue(testFlashcard.isInLearnMode());
+        assertEquals(RATED_AT.plusMinutes(1), testFlashcard.getNextLearnViewInUTC());
+    }
+
+    @Test
+    void apply_ShouldFollowSm2Intervals_WhenCardIsRepeatedSuccessfully() {
+        // given
+        SpacedRepetition underTest = new Sm2SpacedRepetitionAlgorithm();
+        Flashcard testFlashcard = cardInReviewModeWithInterval(2.0);
+        testFlashcard.setRepetitions(null);
+
+        // when
+        underTest.apply(testFlashcard, RatingType.REVIEW_NORMAL, RATED_AT);
+        double firstInterval = testFlashcard.getCurrentIntervalDays();
+        underTest.apply(testFlashcard, RatingType.REVIEW_NORMAL, RATED_AT.plusDays(6));
+
+        // then
+        assertEquals(6.0, firstInterval);
+        assertEquals(6.0 * 2.5, testFlashcard.getCurrentIntervalDays(), 1e-9);
+        assertEquals(2, testFlashcard.getRepetitions());
+        assertEquals(2.5, testFlashcard.getEasinessFactor(), 1e-9);
+    }
+
+    @Test
+    void apply_ShouldContinueFromTheCurrentInterval_WhenMatureBasicCardSwitchesToSm2() {
+        // given
+        SpacedRepetition basic = new BasicSpacedRepetitionAlgorithm();
+        Flashcard testFlashcard = cardInReviewModeWithInterval(120.0);
+        testFlashcard.setRepetitions(null);
+        basic.apply(testFlashcard, RatingType.REVIEW_NORMAL, RATED_AT);
+        double basicInterval = testFlashcard.getCurrentIntervalDays();
+        SpacedRepetition underTest = new Sm2SpacedRepetitionAlgorithm();
+
+        // when
+        underTest.apply(testFlashcard, RatingType.REVIEW_NORMAL, RATED_AT.plusDays(132));
+
+        // then
+        assertEquals(basicInterval * 2.5, testFlashcard.getCurrentIntervalDays(), 1e-9);
+        assertEquals(3, testFlashcard.getRepetitions());
+        assertFalse(testFlashcard.isInLearnMode());
+    }
+
+    @Test
+    void apply_ShouldPersistStabilityAndDifficulty_WhenFsrsIsApplied() {
+        // given
+        SpacedRepetition underTest = new FsrsSpacedRepetitionAlgorithm();
+        Flashcard testFlashcard = cardInReviewModeWithInterval(10.0);
+
+        // when
+        underTest.apply(testFlashcard, RatingType.REVIEW_NORMAL, RATED_AT);
+
+        // then
+        assertNotNull(testFlashcard.getStability());
+        assertNotNull(testFlashcard.getDifficulty());
+        assertTrue(testFlashcard.getStability() > 10.0);
+        assertEquals(testFlashcard.getStability(), testFlashcard.getCurrentIntervalDays(), 1e-9);
+    }
+}
@@ -0,0 +1,76 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.Flashcard;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Measures a single review rating of every registered algorithm. The card is reset to the same review state
+ * before each call, so all algorithms do comparable work. Run with the main method from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpacedRepetitionApplyBenchmark {
+
+    @Param({"BASIC", "SM2", "FSRS"})
+    public SpacedRepetitionAlgorithmType algorithmType;
+
+    @Param({"REVIEW_DIFFICULT", "REVIEW_NORMAL", "REVIEW_EASY"})
+    public RatingType ratingType;
+
+    private SpacedRepetition algorithm;
+    private Flashcard card;
+    private LocalDateTime lastReviewInUTC;
+    private LocalDateTime ratedAtInUTC;
+
+    @Setup
+    public void setUp() {
+        Clock clock = Clock.fixed(LocalDateTime.of(2023, 3, 17, 12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        algorithm = switch (algorithmType) {
+            case BASIC -> new BasicSpacedRepetitionAlgorithm(clock);
+            case SM2 -> new Sm2SpacedRepetitionAlgorithm(clock);
+            case FSRS -> new FsrsSpacedRepetitionAlgorithm(clock);
+        };
+        card = Flashcard.inInitialReviewModeState()
+                .clock(clock)
+                .front("front")
+                .back("back")
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.GERMAN)
+                .build();
+        lastReviewInUTC = LocalDateTime.now(clock).minusDays(10);
+        ratedAtInUTC = LocalDateTime.now(clock);
+    }
+
+    @Benchmark
+    public Flashcard apply() {
+        card.setCurrentIntervalDays(10.0);
+        card.setLastReviewInUTC(lastReviewInUTC);
+        card.setIncreaseFactor(1.3);
+        card.setReduceFactor(0.7);
+        card.setEasinessFactor(2.5);
+        card.setRepetitions(3);
+        card.setStability(10.0);
+        card.setDifficulty(5.0);
+        algorithm.apply(card, ratingType, ratedAtInUTC);
+        return card;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SpacedRepetitionApplyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
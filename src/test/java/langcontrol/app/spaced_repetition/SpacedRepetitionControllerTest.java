@@ -3,9 +3,9 @@ package langcontrol.app.spaced_repetition;
 import langcontrol.app.deck.LanguageCode;
 import langcontrol.app.flashcard.Flashcard;
 import langcontrol.app.flashcard.FlashcardService;
+import langcontrol.app.flashcard.ReviewCardView;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mockito;
@@ -41,14 +41,10 @@ class SpacedRepetitionControllerTest {
     private FlashcardService mockedFlashcardService;
 
     @MockBean
-    private SpacedRepetitionService mockedSpacedRepetitionService;
+    private ReviewSessionStore mockedReviewSessionStore;
 
-    public static Stream<Arguments> invalidHandleFlashcardRatingMethodParams() {
-        return Stream.of(
-                Arguments.arguments(new FlashcardRatingDTO(null, 2L), new ArrayDeque<>()),
-                Arguments.arguments(new FlashcardRatingDTO(RatingType.LEARN_NEXT, null), new ArrayDeque<>()),
-                Arguments.arguments(new FlashcardRatingDTO(RatingType.LEARN_NEXT, 0L), new ArrayDeque<>())
-        );
+    private static ReviewCardView toCardView(Flashcard flashcard) {
+        return ReviewCardView.fromFlashcard(flashcard, new BasicSpacedRepetitionAlgorithm(), LocalDateTime.now());
     }
 
     public static ArrayDeque<Flashcard> threeElementFlashcardArrayDequeFirstInLearnMode() {
@@ -101,18 +97,6 @@ class SpacedRepetitionControllerTest {
         return new ArrayDeque<>(List.of(card1, card2, card3));
     }
 
-    public static ArrayDeque<Flashcard> oneElementFlashcardArrayDeque() {
-        Flashcard card3 = Flashcard.inInitialReviewModeState()
-                .front("front 1")
-                .back("back 1")
-                .sourceLanguage(LanguageCode.SPANISH)
-                .targetLanguage(LanguageCode.ENGLISH)
-                .deck(null)
-                .build();
-        return new ArrayDeque<>(List.of(card3));
-    }
-
-
     @WithAnonymousUser
     @Test
     void openDeck_ShouldReturnStatusCodeUnauthorized_WhenUserIsAnonymous() throws Exception {
@@ -127,9 +111,9 @@ class SpacedRepetitionControllerTest {
     @Test
     void openDeck_ShouldRedirectToDecksPage_WhenReadyForReviewResultIsEmpty() throws Exception {
         // given
-        given(mockedFlashcardService.fetchReadyForReviewShuffledWithLimit(
+        given(mockedFlashcardService.fetchReadyForReviewCardViewsShuffledWithLimit(
                 Mockito.anyLong(), Mockito.anyString(), Mockito.anyInt()))
-                .willReturn(new ArrayDeque<>());
+                .willReturn(new ArrayList<>());
 
         // when
         MvcResult mvcResult = mockMvc.perform(get("/review")
@@ -140,7 +124,7 @@ class SpacedRepetitionControllerTest {
 
         // then
         then(mockedFlashcardService).should(times(1))
-                .fetchReadyForReviewShuffledWithLimit(
+                .fetchReadyForReviewCardViewsShuffledWithLimit(
                         Mockito.anyLong(), Mockito.anyString(), Mockito.anyInt());
         assertEquals("redirect:/decks", Objects.requireNonNull(mvcResult.getModelAndView()).getViewName());
     }
@@ -193,30 +177,29 @@ class SpacedRepetitionControllerTest {
         cardReviewMode2.setNextReviewInUTC(lastReview.plusDays(12));
         cardReviewMode2.setNextReviewWithoutTimeInUTC(lastReview.plusDays(12).toLocalDate());
         cardReviewMode2.setId(76L);
-        Deque<Flashcard> learnCardFirstDeque = new ArrayDeque<>(List.of(cardLearnMode, cardReviewMode1, cardReviewMode2));
+        List<ReviewCardView> learnCardFirstList = Stream.of(cardLearnMode, cardReviewMode1, cardReviewMode2)
+                .map(SpacedRepetitionControllerTest::toCardView)
+                .toList();
 
-        given(mockedFlashcardService.fetchReadyForReviewShuffledWithLimit(deckId, timezoneId, limit))
-                .willReturn(learnCardFirstDeque);
+        given(mockedFlashcardService.fetchReadyForReviewCardViewsShuffledWithLimit(deckId, timezoneId, limit))
+                .willReturn(learnCardFirstList);
 
         // when
         mockMvc.perform(get("/review")
                         .param("deckId", String.valueOf(deckId))
                         .param("timezone", timezoneId))
                 .andExpect(status().isOk())
-                .andExpect(view().name("deck-learn-page"))
-                .andExpect(model().attribute("currentCard",
-                        hasProperty("id", equalTo(7L))))
-                .andExpect(model().attribute("reviewCards", hasSize(3)))
-                .andExpect(model().attribute("reviewCards", allOf(
-                        hasItem(equalTo(cardLearnMode)),
-                        hasItem(equalTo(cardReviewMode1)),
-                        hasItem(equalTo(cardReviewMode2))))
-                );
+                .andExpect(view().name("learn"))
+                .andExpect(model().attribute("currentCard", learnCardFirstList.get(0)))
+                .andExpect(model().attributeDoesNotExist("reviewCards"));
 
         // then
         then(mockedFlashcardService)
                 .should(times(1))
-                .fetchReadyForReviewShuffledWithLimit(deckId, timezoneId, limit);
+                .fetchReadyForReviewCardViewsShuffledWithLimit(deckId, timezoneId, limit);
+        then(mockedReviewSessionStore)
+                .should(times(1))
+                .open(Mockito.anyString(), Mockito.eq(deckId), Mockito.eq(timezoneId), Mockito.anyCollection());
     }
 
     @WithMockUser(username = "user@email.com")
@@ -250,117 +233,44 @@ class SpacedRepetitionControllerTest {
         cardReviewMode2.setNextReviewInUTC(lastReview.plusDays(12));
         cardReviewMode2.setNextReviewWithoutTimeInUTC(lastReview.plusDays(12).toLocalDate());
         cardReviewMode2.setId(86L);
-        Deque<Flashcard> reviewCardFirstDeque = new ArrayDeque<>(List.of(cardReviewMode2, cardLearnMode, cardReviewMode1));
+        List<ReviewCardView> reviewCardFirstList = Stream.of(cardReviewMode2, cardLearnMode, cardReviewMode1)
+                .map(SpacedRepetitionControllerTest::toCardView)
+                .toList();
 
-        given(mockedFlashcardService.fetchReadyForReviewShuffledWithLimit(deckId, timezoneId, limit))
-                .willReturn(reviewCardFirstDeque);
+        given(mockedFlashcardService.fetchReadyForReviewCardViewsShuffledWithLimit(deckId, timezoneId, limit))
+                .willReturn(reviewCardFirstList);
 
         // when
         mockMvc.perform(get("/review")
                         .param("deckId", String.valueOf(deckId))
                         .param("timezone", timezoneId))
                 .andExpect(status().isOk())
-                .andExpect(view().name("deck-review-page"))
-                .andExpect(model().attribute("currentCard",
-                        hasProperty("id", equalTo(86L))
-                ))
-                .andExpect(model().attribute("reviewCards", hasSize(3)))
-                .andExpect(model().attribute("reviewCards", allOf(
-                        hasItem(equalTo(cardLearnMode)),
-                        hasItem(equalTo(cardReviewMode1)),
-                        hasItem(equalTo(cardReviewMode2)))
-                ));
+                .andExpect(view().name("review"))
+                .andExpect(model().attribute("currentCard", reviewCardFirstList.get(0)))
+                .andExpect(model().attributeDoesNotExist("reviewCards"));
 
         // then
         then(mockedFlashcardService)
                 .should(times(1))
-                .fetchReadyForReviewShuffledWithLimit(deckId, timezoneId, limit);
-    }
-
-    @WithMockUser(username = "user@email.com")
-    @ParameterizedTest
-    @MethodSource("invalidHandleFlashcardRatingMethodParams")
-    void handleFlashcardRating_ShouldReturnBadRequestStatusCode_WhenParametersAreInvalid(
-            FlashcardRatingDTO invalidRatingDto, Deque<Flashcard> invalidCardDeque) throws Exception {
-        mockMvc.perform(post("/review")
-                        .with(csrf())
-                        .flashAttr("rating", invalidRatingDto)
-                        .flashAttr("reviewCards", invalidCardDeque))
-                .andExpect(status().isBadRequest());
-    }
-
-    @WithMockUser(username = "user@email.com")
-    @ParameterizedTest
-    @MethodSource("invalidHandleFlashcardRatingMethodParams")
-    void handleFlashcardRating_ShouldReturnBadRequestStatusCode_WhenParameterIsNull(
-            FlashcardRatingDTO invalidRatingDto, Deque<Flashcard> invalidCardDeque) throws Exception {
-        FlashcardRatingDTO ratingDTO = new FlashcardRatingDTO(RatingType.LEARN_NEXT, 2L);
-
-        mockMvc.perform(post("/review")
-                        .with(csrf())
-                        .flashAttr("rating", ratingDTO))
-                .andExpect(status().isBadRequest());
-    }
-
-    @WithMockUser(username = "user@email.com")
-    @Test
-    void handleFlashcardRating_ShouldHandleRatingAndRemoveTheTopCardFromDeque_WhenParametersAreValid() throws Exception {
-        // given
-        FlashcardRatingDTO ratingDto = new FlashcardRatingDTO(RatingType.LEARN_NEXT, 2L);
-        Deque<Flashcard> readyForReviewCardsDeque = threeElementFlashcardArrayDequeFirstInLearnMode();
-        Deque<Flashcard> expectedCardsForReviewDeque = new ArrayDeque<>(readyForReviewCardsDeque);
-        expectedCardsForReviewDeque.poll();
-
-        // when
-        mockMvc.perform(post("/review")
-                        .with(csrf())
-                        .flashAttr("rating", ratingDto)
-                        .flashAttr("reviewCards", readyForReviewCardsDeque))
-                .andExpect(status().isFound())
-                .andExpect(redirectedUrl("/review/next"))
-                .andExpect(flash().attribute("reviewCards", hasSize(expectedCardsForReviewDeque.size())));
-
-        // then
-        then(mockedSpacedRepetitionService).should(times(1))
-                .applyRating(ratingDto.getFlashcardId(), ratingDto.getRatingType());
-        assertEquals(expectedCardsForReviewDeque.element().getFront(), readyForReviewCardsDeque.element().getFront());
-        assertEquals(expectedCardsForReviewDeque.size(), readyForReviewCardsDeque.size());
-    }
-
-    @WithMockUser(username = "user@email.com")
-    @Test
-    void handleFlashcardRating_ShouldRedirectToMainDecksPage_WhenTheLastCardIsRated() throws Exception {
-        // given
-        FlashcardRatingDTO ratingDto = new FlashcardRatingDTO(RatingType.LEARN_NEXT, 2L);
-        Deque<Flashcard> readyForReviewCardsOneElemDeque = oneElementFlashcardArrayDeque();
-
-        // when
-        mockMvc.perform(post("/review")
-                        .with(csrf())
-                        .flashAttr("rating", ratingDto)
-                        .flashAttr("reviewCards", readyForReviewCardsOneElemDeque))
-                .andExpect(status().isFound())
-                .andExpect(redirectedUrl("/decks"));
-
-        // then
-        then(mockedSpacedRepetitionService).should(times(1))
-                .applyRating(ratingDto.getFlashcardId(), ratingDto.getRatingType());
-        assertTrue(readyForReviewCardsOneElemDeque.isEmpty());
+                .fetchReadyForReviewCardViewsShuffledWithLimit(deckId, timezoneId, limit);
+        then(mockedReviewSessionStore)
+                .should(times(1))
+                .open(Mockito.anyString(), Mockito.eq(deckId), Mockito.eq(timezoneId), Mockito.anyCollection());
     }
 
     @WithMockUser(username = "user@email.com")
     @Test
     void reviewNextCard_ShouldDisplayLearnPage_WhenTheTopReadyForReviewCardIsInLearnMode() throws Exception {
         // given
-        Deque<Flashcard> readyForReviewCardsDeque = threeElementFlashcardArrayDequeFirstInLearnMode();
+        ReviewCardView currentCard = toCardView(
+                threeElementFlashcardArrayDequeFirstInLearnMode().element());
+        given(mockedReviewSessionStore.currentCard(Mockito.anyString())).willReturn(Optional.of(currentCard));
 
         // when
-        mockMvc.perform(get("/review/next")
-                        .flashAttr("reviewCards", readyForReviewCardsDeque))
+        mockMvc.perform(get("/review/next"))
         // then
-                .andExpect(view().name("deck-learn-page"))
-                .andExpect(model().attribute("reviewCards", readyForReviewCardsDeque))
-                .andExpect(model().attribute("currentCard", readyForReviewCardsDeque.element()))
+                .andExpect(view().name("learn"))
+                .andExpect(model().attribute("currentCard", currentCard))
                 .andExpect(model().attribute("rating", instanceOf(FlashcardRatingDTO.class)));
     }
 
@@ -368,27 +278,26 @@ class SpacedRepetitionControllerTest {
     @Test
     void reviewNextCard_ShouldDisplayReviewPage_WhenTheTopReadyForReviewCardIsInReviewMode() throws Exception {
         // given
-        Deque<Flashcard> readyForReviewCardsDeque = threeElementFlashcardArrayDequeFirstInReviewMode();
+        ReviewCardView currentCard = toCardView(
+                threeElementFlashcardArrayDequeFirstInReviewMode().element());
+        given(mockedReviewSessionStore.currentCard(Mockito.anyString())).willReturn(Optional.of(currentCard));
 
         // when
-        mockMvc.perform(get("/review/next")
-                        .flashAttr("reviewCards", readyForReviewCardsDeque))
+        mockMvc.perform(get("/review/next"))
         // then
-                .andExpect(view().name("deck-review-page"))
-                .andExpect(model().attribute("reviewCards", readyForReviewCardsDeque))
-                .andExpect(model().attribute("currentCard", readyForReviewCardsDeque.element()))
+                .andExpect(view().name("review"))
+                .andExpect(model().attribute("currentCard", currentCard))
                 .andExpect(model().attribute("rating", instanceOf(FlashcardRatingDTO.class)));
     }
 
     @WithMockUser(username = "user@email.com")
     @Test
-    void reviewNextCard_ShouldRedirectToMainDecksPage_WhenReadyForReviewCardsDequeIsEmpty() throws Exception {
+    void reviewNextCard_ShouldRedirectToMainDecksPage_WhenReviewSessionIsEmpty() throws Exception {
         // given
-        Deque<Flashcard> readyForReviewCardsDeque = new ArrayDeque<>();
+        given(mockedReviewSessionStore.currentCard(Mockito.anyString())).willReturn(Optional.empty());
 
         // when
-        mockMvc.perform(get("/review/next")
-                        .flashAttr("reviewCards", readyForReviewCardsDeque))
+        mockMvc.perform(get("/review/next"))
                 .andExpect(redirectedUrl("/decks"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.flashcard.Flashcard;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpacedRepetitionItemTest {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Test
+    void calculateNextReviewDate_ShouldScheduleSameDateAsBigDecimalRounding_ForRandomIntervals() {
+        // given
+        SplittableRandom random = new SplittableRandom(21L);
+        SpacedRepetitionItem item = Flashcard.inInitialReviewModeState()
+                .front("test front")
+                .back("test back")
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.SPANISH)
+                .build();
+
+        for (int i = 0; i < 200_000; i++) {
+            double interval = i % 4 == 0
+                    ? random.nextInt(2, 36_500) + 0.5
+                    : random.nextDouble(2.0, 36_500.0);
+            LocalDateTime nowInUTC = EPOCH.plusMinutes(random.nextLong(0, 10L * 365 * 24 * 60));
+            item.setCurrentIntervalDays(interval);
+            item.setLastReviewInUTC(nowInUTC);
+
+            // when
+            item.calculateNextReviewDate(nowInUTC);
+
+            // then
+            long expectedDays = BigDecimal.valueOf(interval).setScale(0, RoundingMode.HALF_DOWN).intValue();
+            assertEquals(nowInUTC.plusDays(expectedDays), item.getNextReviewInUTC(), "interval " + interval);
+            assertEquals(nowInUTC.plusDays(expectedDays).toLocalDate(), item.getNextReviewWithoutTimeInUTC());
+        }
+    }
+}
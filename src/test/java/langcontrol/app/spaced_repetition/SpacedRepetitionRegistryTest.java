@@ -0,0 +1,70 @@
+package langcontrol.app.spaced_repetition;
+
+import langcontrol.app.deck.Deck;
+import langcontrol.app.user_profile.UserProfile;
+import langcontrol.app.user_settings.UserSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpacedRepetitionRegistryTest {
+
+    private final SpacedRepetitionRegistry underTest = new SpacedRepetitionRegistry(List.of(
+            new BasicSpacedRepetitionAlgorithm(), new Sm2SpacedRepetitionAlgorithm(),
+            new FsrsSpacedRepetitionAlgorithm()));
+
+    @Test
+    void forDeck_ShouldReturnAlgorithmOfTheDeck_WhenDeckHasAlgorithmChosen() {
+        // given
+        Deck deck = deckOfUserWithDefaultAlgorithm(SpacedRepetitionAlgorithmType.SM2);
+        deck.setSchedulingAlgorithm(SpacedRepetitionAlgorithmType.FSRS);
+
+        // when
+        SpacedRepetition algorithm = underTest.forDeck(deck);
+
+        // then
+        assertEquals(SpacedRepetitionAlgorithmType.FSRS, algorithm.getType());
+    }
+
+    @Test
+    void forDeck_ShouldReturnDefaultAlgorithmOfTheUser_WhenDeckHasNoAlgorithmChosen() {
+        // given
+        Deck deck = deckOfUserWithDefaultAlgorithm(SpacedRepetitionAlgorithmType.SM2);
+
+        // when
+        SpacedRepetition algorithm = underTest.forDeck(deck);
+
+        // then
+        assertEquals(SpacedRepetitionAlgorithmType.SM2, algorithm.getType());
+    }
+
+    @Test
+    void forDeck_ShouldReturnBasicAlgorithm_WhenNeitherDeckNorUserHasAlgorithmChosen() {
+        // given
+        Deck deck = deckOfUserWithDefaultAlgorithm(null);
+
+        // when
+        SpacedRepetition algorithm = underTest.forDeck(deck);
+
+        // then
+        assertEquals(SpacedRepetitionAlgorithmType.BASIC, algorithm.getType());
+    }
+
+    @Test
+    void constructor_ShouldThrowException_WhenTwoAlgorithmsHaveTheSameType() {
+        assertThrows(IllegalStateException.class, () -> new SpacedRepetitionRegistry(List.of(
+                new BasicSpacedRepetitionAlgorithm(), new BasicSpacedRepetitionAlgorithm())));
+    }
+
+    private static Deck deckOfUserWithDefaultAlgorithm(SpacedRepetitionAlgorithmType defaultAlgorithm) {
+        UserSettings userSettings = new UserSettings(1L, false, false);
+        userSettings.setDefaultSchedulingAlgorithm(defaultAlgorithm);
+        UserProfile userProfile = new UserProfile(1L, "John Doe");
+        userProfile.setUserSettings(userSettings);
+        Deck deck = new Deck();
+        deck.setUserProfile(userProfile);
+        return deck;
+    }
+}
@@ -1,8 +1,18 @@
 package langcontrol.app.spaced_repetition;
 
+import langcontrol.app.deck.Deck;
+import langcontrol.app.deck.DeckRepository;
 import langcontrol.app.deck.LanguageCode;
+import langcontrol.app.exception.AccessNotAllowedException;
+import langcontrol.app.exception.GeneralNotFoundException;
+import langcontrol.app.flashcard.DeckCardCounterService;
+import langcontrol.app.flashcard.DeckCardCountersDelta;
 import langcontrol.app.flashcard.Flashcard;
-import langcontrol.app.flashcard.FlashcardRepository;
+import langcontrol.app.flashcard.FlashcardService;
+import langcontrol.app.flashcard.OwnedFlashcard;
+import langcontrol.app.review_log.ReviewLogEntry;
+import langcontrol.app.review_log.ReviewLogWriter;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -10,25 +20,67 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
 class SpacedRepetitionServiceImplTest {
 
-    private final SpacedRepetitionServiceImpl underTest;
-    private final FlashcardRepository mockedFlashcardRepository;
-    private final SpacedRepetition mockedSpacedRepetitionAlgorithm;
+    private static final long DECK_ID = 4L;
+    private static final long OWNER_USER_PROFILE_ID = 7L;
+    private static final Instant NOW = LocalDateTime.of(2023, 3, 17, 6, 30).toInstant(ZoneOffset.UTC);
 
-    public SpacedRepetitionServiceImplTest() {
-        this.mockedFlashcardRepository = Mockito.mock(FlashcardRepository.class);
-        this.mockedSpacedRepetitionAlgorithm = Mockito.mock(SpacedRepetition.class);
-        this.underTest = new SpacedRepetitionServiceImpl(mockedFlashcardRepository,
-                flashcardService, mockedSpacedRepetitionAlgorithm);
+    private FlashcardService mockedFlashcardService;
+    private SpacedRepetitionRegistry mockedSpacedRepetitionRegistry;
+    private DeckRepository mockedDeckRepository;
+    private DeckCardCounterService mockedDeckCardCounterService;
+    private ReviewLogWriter mockedReviewLogWriter;
+    private SpacedRepetition mockedSpacedRepetitionAlgorithm;
+    private SpacedRepetitionServiceImpl underTest;
+
+    @BeforeEach
+    void setUp() {
+        mockedFlashcardService = Mockito.mock(FlashcardService.class);
+        mockedSpacedRepetitionRegistry = Mockito.mock(SpacedRepetitionRegistry.class);
+        mockedDeckRepository = Mockito.mock(DeckRepository.class);
+        mockedDeckCardCounterService = Mockito.mock(DeckCardCounterService.class);
+        mockedReviewLogWriter = Mockito.mock(ReviewLogWriter.class);
+        mockedSpacedRepetitionAlgorithm = Mockito.mock(SpacedRepetition.class);
+        given(mockedDeckRepository.findSchedulingAlgorithmTypeById(DECK_ID))
+                .willReturn(Optional.of(SpacedRepetitionAlgorithmType.SM2));
+        given(mockedSpacedRepetitionRegistry.get(SpacedRepetitionAlgorithmType.SM2))
+                .willReturn(mockedSpacedRepetitionAlgorithm);
+        underTest = new SpacedRepetitionServiceImpl(mockedFlashcardService, mockedSpacedRepetitionRegistry,
+                mockedDeckRepository, mockedDeckCardCounterService, mockedReviewLogWriter,
+                Mockito.mock(DueLoadBalancer.class), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static OwnedFlashcard testCard(long id) {
+        Deck deck = new Deck(DECK_ID, "test deck", null, LanguageCode.SPANISH, LanguageCode.ENGLISH,
+                new ArrayList<>());
+        Flashcard flashcard = Flashcard.inInitialLearnModeState()
+                .deck(deck)
+                .front("test front")
+                .back("test back")
+                .sourceLanguage(LanguageCode.ENGLISH)
+                .targetLanguage(LanguageCode.SPANISH)
+                .build();
+        flashcard.setId(id);
+        return new OwnedFlashcard(flashcard, OWNER_USER_PROFILE_ID);
     }
 
     public static Stream<Arguments> parametersWithNullValues() {
@@ -42,47 +94,127 @@ class SpacedRepetitionServiceImplTest {
     @ParameterizedTest
     @MethodSource("parametersWithNullValues")
     void applyRating_ShouldThrowException_WhenParametersAreNull(Long flashcardId, RatingType ratingType) {
+        // then
+        assertThrows(IllegalArgumentException.class, () -> underTest.applyRating(flashcardId, ratingType));
+    }
+
+    @Test
+    void applyRating_ShouldApplyAlgorithmOfDeck_AndLogTheOwnerFromTheOwnershipCheck() {
+        // given
+        OwnedFlashcard card = testCard(2L);
+        given(mockedFlashcardService.getOwnedCardById(2L)).willReturn(card);
+
         // when
-        Exception thrown = null;
-        try {
-            underTest.applyRating(flashcardId, ratingType);
-        } catch (Exception e) {
-            thrown = e;
-        }
+        underTest.applyRating(2L, RatingType.LEARN_NEXT);
 
         // then
-        assertNotNull(thrown);
-        assertTrue(thrown instanceof IllegalArgumentException);
+        then(mockedSpacedRepetitionAlgorithm).should().apply(card.flashcard(), RatingType.LEARN_NEXT,
+                LocalDateTime.ofInstant(NOW, ZoneOffset.UTC));
+        ArgumentCaptor<ReviewLogEntry> entryCaptor = ArgumentCaptor.forClass(ReviewLogEntry.class);
+        then(mockedReviewLogWriter).should().record(entryCaptor.capture());
+        assertEquals(2L, entryCaptor.getValue().getFlashcardId());
+        assertEquals(DECK_ID, entryCaptor.getValue().getDeckId());
+        assertEquals(OWNER_USER_PROFILE_ID, entryCaptor.getValue().getUserProfileId());
     }
 
     @Test
-    void applyRating_ShouldInvokeApplyMethodOfAlgorithmClassWithCorrectParameters_WhenParametersAreNotNull() {
+    void applyRatings_ShouldApplyRatingsInGivenOrder_WhenSameCardIsRatedTwice() {
         // given
-        Flashcard flashcardForMock = Flashcard.inInitialLearnModeState()
-                .front("test front")
-                .back("test back")
-                .sourceLanguage(LanguageCode.ENGLISH)
-                .targetLanguage(LanguageCode.SPANISH)
-                .build();
-        flashcardForMock.setId(2L);
-        Long flashcardIdParam = 2L;
-        RatingType ratingTypeParam = RatingType.REVIEW_NORMAL;
-        given(mockedFlashcardRepository.findById(2L)).willReturn(Optional.of(flashcardForMock));
+        OwnedFlashcard firstCard = testCard(2L);
+        OwnedFlashcard secondCard = testCard(3L);
+        Instant firstRatedAt = NOW.minusSeconds(30);
+        Instant secondRatedAt = NOW.minusSeconds(20);
+        Instant thirdRatedAt = NOW.minusSeconds(10);
+        List<BatchedFlashcardRatingDTO> ratings = List.of(
+                new BatchedFlashcardRatingDTO(2L, RatingType.LEARN_NEXT, firstRatedAt, 900),
+                new BatchedFlashcardRatingDTO(3L, RatingType.LEARN_PREVIOUS, secondRatedAt, null),
+                new BatchedFlashcardRatingDTO(2L, RatingType.LEARN_NEXT, thirdRatedAt, 1200));
+        given(mockedFlashcardService.getOwnedCardsByIds(List.of(2L, 3L, 2L)))
+                .willReturn(Map.of(2L, firstCard, 3L, secondCard));
+
+        // when
+        List<FlashcardRatedOverviewDTO> overviews = underTest.applyRatings(ratings);
+
+        // then
+        InOrder inOrder = Mockito.inOrder(mockedSpacedRepetitionAlgorithm, mockedDeckCardCounterService);
+        then(mockedSpacedRepetitionAlgorithm).should(inOrder).apply(firstCard.flashcard(), RatingType.LEARN_NEXT,
+                LocalDateTime.ofInstant(firstRatedAt, ZoneOffset.UTC));
+        then(mockedSpacedRepetitionAlgorithm).should(inOrder).apply(secondCard.flashcard(),
+                RatingType.LEARN_PREVIOUS, LocalDateTime.ofInstant(secondRatedAt, ZoneOffset.UTC));
+        then(mockedSpacedRepetitionAlgorithm).should(inOrder).apply(firstCard.flashcard(), RatingType.LEARN_NEXT,
+                LocalDateTime.ofInstant(thirdRatedAt, ZoneOffset.UTC));
+        then(mockedDeckCardCounterService).should(inOrder).applyDelta(any(DeckCardCountersDelta.class));
+        then(mockedDeckCardCounterService).shouldHaveNoMoreInteractions();
+        then(mockedFlashcardService).should(times(1)).getOwnedCardsByIds(anyCollection());
+        then(mockedDeckRepository).should(times(1)).findSchedulingAlgorithmTypeById(DECK_ID);
+        then(mockedReviewLogWriter).should(times(3)).record(Mockito.argThat(entry ->
+                entry.getUserProfileId() == OWNER_USER_PROFILE_ID));
+        assertEquals(List.of(2L, 3L, 2L), overviews.stream().map(FlashcardRatedOverviewDTO::getId).toList());
+    }
+
+    @Test
+    void applyRatings_ShouldThrowException_WhenRatingsAreNotOrderedByTime() {
+        // given
+        List<BatchedFlashcardRatingDTO> ratings = List.of(
+                new BatchedFlashcardRatingDTO(2L, RatingType.LEARN_NEXT, NOW, null),
+                new BatchedFlashcardRatingDTO(3L, RatingType.LEARN_NEXT, NOW.minusSeconds(1), null));
+
+        // then
+        assertThrows(IllegalArgumentException.class, () -> underTest.applyRatings(ratings));
+        then(mockedFlashcardService).shouldHaveNoInteractions();
+        then(mockedDeckCardCounterService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void applyRatings_ShouldApplyNothing_WhenAnyCardBelongsToAnotherUser() {
+        // given
+        List<BatchedFlashcardRatingDTO> ratings = List.of(
+                new BatchedFlashcardRatingDTO(2L, RatingType.LEARN_NEXT, NOW, null));
+        given(mockedFlashcardService.getOwnedCardsByIds(anyCollection()))
+                .willThrow(new AccessNotAllowedException("You don't have permission to perform this action."));
+
+        // then
+        assertThrows(AccessNotAllowedException.class, () -> underTest.applyRatings(ratings));
+        then(mockedSpacedRepetitionAlgorithm).shouldHaveNoInteractions();
+        then(mockedDeckCardCounterService).shouldHaveNoInteractions();
+        then(mockedReviewLogWriter).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void applyRatings_ShouldApplyNothing_WhenAnyCardIsNotFound() {
+        // given
+        List<BatchedFlashcardRatingDTO> ratings = List.of(
+                new BatchedFlashcardRatingDTO(2L, RatingType.LEARN_NEXT, NOW, null));
+        given(mockedFlashcardService.getOwnedCardsByIds(anyCollection())).willThrow(new GeneralNotFoundException());
+
+        // then
+        assertThrows(GeneralNotFoundException.class, () -> underTest.applyRatings(ratings));
+        then(mockedSpacedRepetitionAlgorithm).should(never()).apply(any(), any(), any());
+        then(mockedDeckCardCounterService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void applyRatings_ShouldRunInOneTransaction_SoChangesAreFlushedOnceAtCommit() throws NoSuchMethodException {
+        // when
+        Transactional transactional = SpacedRepetitionServiceImpl.class
+                .getMethod("applyRatings", List.class)
+                .getAnnotation(Transactional.class);
+
+        // then
+        assertNotNull(transactional);
+        assertFalse(transactional.readOnly());
+    }
+
+    @Test
+    void applyRating_ShouldNotResolveAlgorithmThroughTheDeck() {
+        // given
+        given(mockedFlashcardService.getOwnedCardById(2L)).willReturn(testCard(2L));
 
         // when
-        underTest.applyRating(flashcardIdParam, ratingTypeParam);
+        underTest.applyRating(2L, RatingType.LEARN_NEXT, 900);
 
         // then
-        ArgumentCaptor<Long> argCaptorForLong = ArgumentCaptor.forClass(Long.class);
-        ArgumentCaptor<Flashcard> argCaptorForFlashcard = ArgumentCaptor.forClass(Flashcard.class);
-        ArgumentCaptor<RatingType> argCaptorForRatingType = ArgumentCaptor.forClass(RatingType.class);
-        InOrder inOrder = Mockito.inOrder(mockedFlashcardRepository, mockedSpacedRepetitionAlgorithm);
-
-        then(mockedFlashcardRepository).should(inOrder).findById(argCaptorForLong.capture());
-        then(mockedSpacedRepetitionAlgorithm).should(inOrder).apply(argCaptorForFlashcard.capture(),
-                argCaptorForRatingType.capture());
-        assertEquals(flashcardIdParam, argCaptorForLong.getValue());
-        assertEquals(flashcardIdParam, argCaptorForFlashcard.getValue().getId());
-        assertEquals(ratingTypeParam, argCaptorForRatingType.getValue());
+        then(mockedSpacedRepetitionRegistry).should().get(eq(SpacedRepetitionAlgorithmType.SM2));
+        then(mockedSpacedRepetitionRegistry).shouldHaveNoMoreInteractions();
     }
-}
\ No newline at end of file
+}
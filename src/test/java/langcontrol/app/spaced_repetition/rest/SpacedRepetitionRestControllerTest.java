@@ -0,0 +1,156 @@
+package langcontrol.app.spaced_repetition.rest;
+
+import langcontrol.app.exception.AccessNotAllowedException;
+import langcontrol.app.exception.GeneralNotFoundException;
+import langcontrol.app.spaced_repetition.BatchedFlashcardRatingDTO;
+import langcontrol.app.spaced_repetition.FlashcardRatedOverviewDTO;
+import langcontrol.app.spaced_repetition.FlashcardRatingsBatchDTO;
+import langcontrol.app.spaced_repetition.RatingType;
+import langcontrol.app.spaced_repetition.ReviewSessionStore;
+import langcontrol.app.spaced_repetition.SpacedRepetitionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SpacedRepetitionRestController.class)
+class SpacedRepetitionRestControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SpacedRepetitionService mockedSpacedRepetitionService;
+
+    @MockBean
+    private ReviewSessionStore mockedReviewSessionStore;
+
+    private static String ratingJson(long flashcardId, String ratedAt) {
+        return "{\"flashcardId\":" + flashcardId + ",\"ratingType\":\"LEARN_NEXT\",\"ratedAt\":\"" + ratedAt + "\"}";
+    }
+
+    private static String batchJson(String... ratings) {
+        StringJoiner joiner = new StringJoiner(",", "{\"ratings\":[", "]}");
+        for (String rating : ratings) {
+            joiner.add(rating);
+        }
+        return joiner.toString();
+    }
+
+    @WithMockUser(username = "test@example.com")
+    @Test
+    void handleFlashcardRatings_ShouldApplyTheBatchInOrder_WhenSameCardIsRatedTwice() throws Exception {
+        // given
+        given(mockedSpacedRepetitionService.applyRatings(Mockito.anyList())).willReturn(List.of(
+                new FlashcardRatedOverviewDTO(2L, false, false),
+                new FlashcardRatedOverviewDTO(3L, false, false),
+                new FlashcardRatedOverviewDTO(2L, true, false)));
+
+        // when
+        mockMvc.perform(post("/api/ratings")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(
+                                ratingJson(2L, "2023-03-17T06:30:00Z"),
+                                ratingJson(3L, "2023-03-17T06:30:05Z"),
+                                ratingJson(2L, "2023-03-17T06:30:10Z"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains(2, 3, 2)));
+
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BatchedFlashcardRatingDTO>> ratingsCaptor = ArgumentCaptor.forClass(List.class);
+        then(mockedSpacedRepetitionService).should().applyRatings(ratingsCaptor.capture());
+        assertEquals(List.of(2L, 3L, 2L), ratingsCaptor.getValue().stream()
+                .map(BatchedFlashcardRatingDTO::getFlashcardId)
+                .toList());
+        assertEquals(RatingType.LEARN_NEXT, ratingsCaptor.getValue().get(0).getRatingType());
+        then(mockedReviewSessionStore).should(Mockito.times(2)).completeCard(Mockito.anyString(), Mockito.eq(2L));
+        then(mockedReviewSessionStore).should().completeCard(Mockito.anyString(), Mockito.eq(3L));
+    }
+
+    @WithMockUser(username = "test@example.com")
+    @Test
+    void handleFlashcardRatings_ShouldReturnBadRequestStatusCode_WhenRatingsAreNotOrderedByTime() throws Exception {
+        // given
+        given(mockedSpacedRepetitionService.applyRatings(Mockito.anyList()))
+                .willThrow(new IllegalArgumentException("Ratings must be ordered by the time they were made."));
+
+        // then
+        mockMvc.perform(post("/api/ratings")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(
+                                ratingJson(2L, "2023-03-17T06:30:10Z"),
+                                ratingJson(3L, "2023-03-17T06:30:00Z"))))
+                .andExpect(status().isBadRequest());
+        then(mockedReviewSessionStore).shouldHaveNoInteractions();
+    }
+
+    @WithMockUser(username = "test@example.com")
+    @Test
+    void handleFlashcardRatings_ShouldReturnBadRequestStatusCode_WhenBatchIsTooLarge() throws Exception {
+        // given
+        String[] ratings = new String[FlashcardRatingsBatchDTO.MAX_BATCH_SIZE + 1];
+        for (int i = 0; i < ratings.length; i++) {
+            ratings[i] = ratingJson(i + 1, "2023-03-17T06:30:00Z");
+        }
+
+        // then
+        mockMvc.perform(post("/api/ratings")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(ratings)))
+                .andExpect(status().isBadRequest());
+        then(mockedSpacedRepetitionService).shouldHaveNoInteractions();
+    }
+
+    @WithMockUser(username = "test@example.com")
+    @Test
+    void handleFlashcardRatings_ShouldReturnForbiddenStatusCode_WhenAnyCardBelongsToAnotherUser() throws Exception {
+        // given
+        given(mockedSpacedRepetitionService.applyRatings(Mockito.anyList()))
+                .willThrow(new AccessNotAllowedException("You don't have permission to perform this action."));
+
+        // then
+        mockMvc.perform(post("/api/ratings")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(ratingJson(2L, "2023-03-17T06:30:00Z"))))
+                .andExpect(status().isForbidden());
+        then(mockedReviewSessionStore).shouldHaveNoInteractions();
+    }
+
+    @WithMockUser(username = "test@example.com")
+    @Test
+    void handleFlashcardRatings_ShouldReturnNotFoundStatusCode_WhenAnyCardIsMissing() throws Exception {
+        // given
+        given(mockedSpacedRepetitionService.applyRatings(Mockito.anyList()))
+                .willThrow(new GeneralNotFoundException());
+
+        // then
+        mockMvc.perform(post("/api/ratings")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batchJson(ratingJson(2L, "2023-03-17T06:30:00Z"))))
+                .andExpect(status().isNotFound());
+        then(mockedReviewSessionStore).shouldHaveNoInteractions();
+    }
+}
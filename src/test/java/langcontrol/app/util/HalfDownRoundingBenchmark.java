@@ -0,0 +1,97 @@
+package langcontrol.app.util;
+
+import langcontrol.app.flashcard.ForecastLabels;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Compares the BigDecimal rounding and String.format labels of the review forecasts with HalfDownRounding
+ * and ForecastLabels. Every benchmark processes the same intervals and the rounded values are checked to be
+ * equal in the setup. Run with the main method from the test classpath, -prof gc shows the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HalfDownRoundingBenchmark {
+
+    private static final int INTERVALS = 1024;
+    private static final double[] FACTORS = {0.7, 1.1, 1.3};
+
+    private double[] intervals;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(3L);
+        intervals = new double[INTERVALS];
+        for (int i = 0; i < INTERVALS; i++) {
+            intervals[i] = i % 8 == 0 ? random.nextInt(2, 400) + 0.5 : random.nextDouble(2.0, 400.0);
+            for (double factor : FACTORS) {
+                double value = intervals[i] * factor;
+                if (bigDecimalRounding(value) != HalfDownRounding.roundToInt(value)) {
+                    throw new IllegalStateException("The rounding differs for " + value);
+                }
+            }
+        }
+    }
+
+    private static int bigDecimalRounding(double value) {
+        return BigDecimal.valueOf(value).setScale(0, RoundingMode.HALF_DOWN).intValue();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERVALS)
+    public long roundWithBigDecimal() {
+        long sum = 0;
+        for (double interval : intervals) {
+            sum += bigDecimalRounding(interval);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERVALS)
+    public long roundWithPrimitives() {
+        long sum = 0;
+        for (double interval : intervals) {
+            sum += HalfDownRounding.roundToInt(interval);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERVALS)
+    public void forecastLabelsWithBigDecimalAndFormat(Blackhole blackhole) {
+        for (double interval : intervals) {
+            for (double factor : FACTORS) {
+                blackhole.consume(String.format("in %d days", bigDecimalRounding(interval * factor)));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INTERVALS)
+    public void forecastLabelsCached(Blackhole blackhole) {
+        for (double interval : intervals) {
+            for (double factor : FACTORS) {
+                blackhole.consume(ForecastLabels.inDays(interval, factor));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HalfDownRoundingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package langcontrol.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Property tests comparing the rounding with the BigDecimal rounding it replaced.
+ */
+class HalfDownRoundingTest {
+
+    private static final int SAMPLES = 1_000_000;
+
+    private static int bigDecimalRounding(double value) {
+        return BigDecimal.valueOf(value).setScale(0, RoundingMode.HALF_DOWN).intValue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.0, -0.0, 0.5, 1.5, 2.5, -2.5, 2.4999999999999996, 2.5000000000000004,
+            3.5, 4.5, 0.49999999999999994, 1e-300, 36500.5, 2147483646.5, 4503599627370495.5, 9007199254740993.0})
+    void roundToInt_ShouldMatchBigDecimalRounding_ForEdgeCases(double value) {
+        // when, then
+        assertEquals(bigDecimalRounding(value), HalfDownRounding.roundToInt(value));
+    }
+
+    @Test
+    void roundToInt_ShouldMatchBigDecimalRounding_ForTiesAndTheirNeighbours() {
+        for (int i = -50_000; i <= 50_000; i++) {
+            double tie = i + 0.5;
+            for (double value : new double[]{tie, Math.nextUp(tie), Math.nextDown(tie), i, Math.nextUp(i)}) {
+                assertEquals(bigDecimalRounding(value), HalfDownRounding.roundToInt(value), "value " + value);
+            }
+        }
+    }
+
+    @Test
+    void roundToInt_ShouldMatchBigDecimalRounding_ForRandomIntervalsTimesFactors() {
+        // given
+        SplittableRandom random = new SplittableRandom(13L);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            // when
+            double interval = random.nextDouble(0.0, 40_000.0);
+            double factor = random.nextDouble(0.5, 3.0);
+            double value = interval * factor;
+
+            // then
+            assertEquals(bigDecimalRounding(value), HalfDownRounding.roundToInt(value), "value " + value);
+        }
+    }
+
+    @Test
+    void roundToInt_ShouldMatchBigDecimalRounding_ForIntervalsReachedByFactorSteps() {
+        // given
+        double[] factors = {0.6, 0.64, 0.7, 0.74, 0.9, 1.1, 1.14, 1.3, 1.34, 1.4};
+
+        for (double factor : factors) {
+            for (int start = 2; start <= 1_000; start++) {
+                double interval = start;
+                for (int step = 0; step < 20 && interval >= 2.0 && interval < 40_000.0; step++) {
+                    // when
+                    interval *= factor;
+
+                    // then
+                    assertEquals(bigDecimalRounding(interval), HalfDownRounding.roundToInt(interval),
+                            "value " + interval);
+                }
+            }
+        }
+    }
+
+    @Test
+    void roundToInt_ShouldThrowException_WhenValueIsNotFinite() {
+        // when, then
+        assertThrows(NumberFormatException.class, () -> HalfDownRounding.roundToInt(Double.NaN));
+        assertThrows(NumberFormatException.class, () -> HalfDownRounding.roundToInt(Double.POSITIVE_INFINITY));
+    }
+}
@@ -0,0 +1,87 @@
+package langcontrol.app.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedReservoirSamplerTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 10, 100})
+    void sample_ShouldReturnExactlySampleSizeDistinctElements_WhenEnoughElementsWereOffered(int sampleSize) {
+        // given
+        WeightedReservoirSampler<Integer> underTest = new WeightedReservoirSampler<>(sampleSize, new Random(7L));
+
+        // when
+        for (int i = 0; i < 1_000; i++) {
+            underTest.offer(i, 1D);
+        }
+        List<Integer> sample = underTest.sample();
+
+        // then
+        assertEquals(sampleSize, sample.size());
+        assertEquals(sampleSize, new HashSet<>(sample).size());
+        assertEquals(1_000, underTest.getOfferedCount());
+    }
+
+    @Test
+    void sample_ShouldReturnAllElements_WhenFewerElementsThanSampleSizeWereOffered() {
+        // given
+        WeightedReservoirSampler<Integer> underTest = new WeightedReservoirSampler<>(10, new Random(7L));
+
+        // when
+        underTest.offer(1, 1D);
+        underTest.offer(2, 3D);
+
+        // then
+        assertEquals(new HashSet<>(List.of(1, 2)), new HashSet<>(underTest.sample()));
+    }
+
+    @Test
+    void sample_ShouldBeDeterministic_WhenRandomIsSeeded() {
+        // given
+        WeightedReservoirSampler<Integer> first = new WeightedReservoirSampler<>(5, new Random(42L));
+        WeightedReservoirSampler<Integer> second = new WeightedReservoirSampler<>(5, new Random(42L));
+
+        // when
+        for (int i = 0; i < 500; i++) {
+            first.offer(i, 1D + i % 3);
+            second.offer(i, 1D + i % 3);
+        }
+
+        // then
+        assertEquals(first.sample(), second.sample());
+    }
+
+    @Test
+    void sample_ShouldPreferHeavierElements() {
+        // given
+        Random random = new Random(3L);
+        int heavyElementHits = 0;
+
+        // when
+        for (int run = 0; run < 1_000; run++) {
+            WeightedReservoirSampler<Integer> underTest = new WeightedReservoirSampler<>(1, random);
+            underTest.offer(0, 9D);
+            underTest.offer(1, 1D);
+            if (underTest.sample().get(0) == 0) {
+                heavyElementHits++;
+            }
+        }
+
+        // then
+        assertTrue(heavyElementHits > 800);
+    }
+
+    @Test
+    void offer_ShouldThrowException_WhenWeightIsNotPositive() {
+        WeightedReservoirSampler<Integer> underTest = new WeightedReservoirSampler<>(1, new Random(7L));
+        assertThrows(IllegalArgumentException.class, () -> underTest.offer(1, 0D));
+    }
+}